@@ -13,6 +13,8 @@ SET foreign_key_checks = 0;
 -- Remove as tabelas caso já existam para garantir uma criação limpa
 DROP TABLE IF EXISTS giria_regiao;
 DROP TABLE IF EXISTS giria_categoria;
+DROP TABLE IF EXISTS voto_dia;
+DROP TABLE IF EXISTS voto_hora;
 DROP TABLE IF EXISTS voto;
 DROP TABLE IF EXISTS explicacao;
 DROP TABLE IF EXISTS giria;
@@ -37,6 +39,11 @@ CREATE TABLE giria (
     data_cadastro TIMESTAMP NOT NULL, -- Alterado para TIMESTAMP para compatibilidade com LocalDateTime
     aprovada BOOLEAN DEFAULT FALSE,
     usuario_propositor_id INT NOT NULL,
+    positivos INT NOT NULL DEFAULT 0, -- Contadores de votos mantidos pelo VotoDAO
+    negativos INT NOT NULL DEFAULT 0,
+    pontuacao INT AS (positivos - negativos) STORED,
+    -- Explicação aprovada de maior pontuação, mantida pelos DAOs (sem FK: ver migracoes/06_melhor_explicacao.sql)
+    melhor_explicacao_id INT NULL,
     data_criacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP, -- Herdado de EntidadeBase
     FOREIGN KEY (usuario_propositor_id) REFERENCES usuario(id) ON DELETE CASCADE
 );
@@ -45,14 +52,20 @@ CREATE TABLE giria (
 CREATE TABLE explicacao (
     id INT PRIMARY KEY AUTO_INCREMENT,
     definicao TEXT NOT NULL,
+    -- SHA-256 da definição normalizada (minúsculas, espaços reduzidos), ver ExplicacaoDAO.SQL_HASH_DEFINICAO
+    definicao_hash BINARY(32) NOT NULL,
     exemplo_uso TEXT,
     aprovada BOOLEAN DEFAULT FALSE,
     data_proposta DATE NOT NULL, -- Mantido como DATE para compatibilidade com LocalDate
     usuario_propositor_id INT NOT NULL,
     giria_associada_id INT NOT NULL,
+    positivos INT NOT NULL DEFAULT 0, -- Contadores de votos mantidos pelo VotoDAO
+    negativos INT NOT NULL DEFAULT 0,
+    pontuacao INT AS (positivos - negativos) STORED,
     data_criacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP, -- Herdado de EntidadeBase
     FOREIGN KEY (usuario_propositor_id) REFERENCES usuario(id) ON DELETE CASCADE,
-    FOREIGN KEY (giria_associada_id) REFERENCES giria(id) ON DELETE CASCADE
+    FOREIGN KEY (giria_associada_id) REFERENCES giria(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_explicacao_definicao (giria_associada_id, definicao_hash) -- Sem definições repetidas na mesma gíria
 );
 
 -- Criação da tabela Voto
@@ -62,15 +75,39 @@ CREATE TABLE voto (
     data_voto TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     usuario_votante_id INT NOT NULL,
     objeto_avaliado_id INT NOT NULL,
-    tipo_objeto_avaliado VARCHAR(50) NOT NULL, -- 'GIRIA' ou 'EXPLICACAO'
+    tipo_objeto_avaliado TINYINT UNSIGNED NOT NULL, -- 1 = GIRIA, 2 = EXPLICACAO (modelo.TipoObjetoAvaliado)
     data_criacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP, -- Herdado de EntidadeBase
     FOREIGN KEY (usuario_votante_id) REFERENCES usuario(id) ON DELETE CASCADE,
-    INDEX idx_voto_objeto (objeto_avaliado_id, tipo_objeto_avaliado)
+    UNIQUE KEY uk_voto_usuario_objeto (usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado), -- Um voto por usuário e objeto
+    INDEX idx_voto_objeto (objeto_avaliado_id, tipo_objeto_avaliado),
+    INDEX idx_voto_data (data_voto) -- Reconstrução das séries por período
     -- Não há FK direta para giria_associada_id ou explicacao_associada_id aqui,
     -- pois 'objeto_avaliado_id' pode referenciar IDs de tabelas diferentes.
     -- A integridade referencial para 'objeto_avaliado_id' deve ser tratada na aplicação.
 );
 
+-- Séries de votos por hora e por dia (mantidas pelo VotoDAO, consultadas pelo TendenciaDAO)
+-- Cada período guarda a variação dos contadores positivos/negativos do objeto nele
+CREATE TABLE voto_hora (
+    tipo_objeto_avaliado TINYINT UNSIGNED NOT NULL,
+    objeto_avaliado_id INT NOT NULL,
+    periodo DATETIME NOT NULL, -- Início da hora
+    positivos INT NOT NULL DEFAULT 0,
+    negativos INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (tipo_objeto_avaliado, objeto_avaliado_id, periodo),
+    INDEX idx_voto_hora_periodo (tipo_objeto_avaliado, periodo)
+);
+
+CREATE TABLE voto_dia (
+    tipo_objeto_avaliado TINYINT UNSIGNED NOT NULL,
+    objeto_avaliado_id INT NOT NULL,
+    periodo DATETIME NOT NULL, -- Início do dia
+    positivos INT NOT NULL DEFAULT 0,
+    negativos INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (tipo_objeto_avaliado, objeto_avaliado_id, periodo),
+    INDEX idx_voto_dia_periodo (tipo_objeto_avaliado, periodo)
+);
+
 -- Tabela para Categorias (ex: "Tecnologia", "Jovem")
 CREATE TABLE categoria (
     id INT PRIMARY KEY AUTO_INCREMENT,
@@ -108,6 +145,9 @@ CREATE INDEX idx_giria_termo ON giria(termo);
 CREATE INDEX idx_giria_aprovada ON giria(aprovada);
 CREATE INDEX idx_explicacao_giria ON explicacao(giria_associada_id);
 CREATE INDEX idx_explicacao_aprovada ON explicacao(aprovada);
+CREATE INDEX idx_giria_pontuacao ON giria(aprovada, pontuacao);
+CREATE INDEX idx_explicacao_pontuacao ON explicacao(giria_associada_id, pontuacao);
+CREATE INDEX idx_giria_melhor_explicacao ON giria(melhor_explicacao_id);
 
 -- Reativa o modo de segurança
 SET foreign_key_checks = 1;
@@ -170,22 +210,42 @@ INSERT INTO giria_regiao (giria_id, regiao_id) VALUES
 (5, 7); -- Dar um rolê - Nacional
 
 -- Inserir algumas explicações para as gírias
-INSERT INTO explicacao (definicao, exemplo_uso, aprovada, data_proposta, usuario_propositor_id, giria_associada_id) VALUES
-('Expressão de espanto ou surpresa', 'Mano do céu, você viu aquilo?', TRUE, CURDATE(), 1, 1),
-('Pergunta se a pessoa entendeu o que foi dito', 'Vai ter prova amanhã, tá ligado?', TRUE, CURDATE(), 2, 2),
-('Significa um problema, confusão ou situação complicada', 'Foi mó treta o que aconteceu na festa ontem', TRUE, CURDATE(), 3, 3),
-('Indica que vai sair para algum lugar ou fazer algo', 'Partiu cinema hoje à noite!', TRUE, CURDATE(), 1, 4),
-('Sair para passear, se divertir', 'Vamos dar um rolê na praia esse fim de semana?', FALSE, CURDATE(), 2, 5);
+-- definicao_hash é calculado a partir da definicao da própria linha
+INSERT INTO explicacao (definicao, definicao_hash, exemplo_uso, aprovada, data_proposta, usuario_propositor_id, giria_associada_id) VALUES
+('Expressão de espanto ou surpresa', UNHEX(SHA2(LOWER(TRIM(REGEXP_REPLACE(definicao, '[[:space:]]+', ' '))), 256)), 'Mano do céu, você viu aquilo?', TRUE, CURDATE(), 1, 1),
+('Pergunta se a pessoa entendeu o que foi dito', UNHEX(SHA2(LOWER(TRIM(REGEXP_REPLACE(definicao, '[[:space:]]+', ' '))), 256)), 'Vai ter prova amanhã, tá ligado?', TRUE, CURDATE(), 2, 2),
+('Significa um problema, confusão ou situação complicada', UNHEX(SHA2(LOWER(TRIM(REGEXP_REPLACE(definicao, '[[:space:]]+', ' '))), 256)), 'Foi mó treta o que aconteceu na festa ontem', TRUE, CURDATE(), 3, 3),
+('Indica que vai sair para algum lugar ou fazer algo', UNHEX(SHA2(LOWER(TRIM(REGEXP_REPLACE(definicao, '[[:space:]]+', ' '))), 256)), 'Partiu cinema hoje à noite!', TRUE, CURDATE(), 1, 4),
+('Sair para passear, se divertir', UNHEX(SHA2(LOWER(TRIM(REGEXP_REPLACE(definicao, '[[:space:]]+', ' '))), 256)), 'Vamos dar um rolê na praia esse fim de semana?', FALSE, CURDATE(), 2, 5);
 
 -- Inserir alguns votos
 INSERT INTO voto (tipo, usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado) VALUES
-('POSITIVO', 2, 1, 'GIRIA'),
-('POSITIVO', 3, 1, 'GIRIA'),
-('POSITIVO', 1, 2, 'GIRIA'),
-('NEGATIVO', 3, 2, 'GIRIA'),
-('POSITIVO', 2, 1, 'EXPLICACAO'),
-('POSITIVO', 3, 2, 'EXPLICACAO'),
-('NEGATIVO', 1, 3, 'EXPLICACAO');
+('POSITIVO', 2, 1, 1),
+('POSITIVO', 3, 1, 1),
+('POSITIVO', 1, 2, 1),
+('NEGATIVO', 3, 2, 1),
+('POSITIVO', 2, 1, 2),
+('POSITIVO', 3, 2, 2),
+('NEGATIVO', 1, 3, 2);
+
+-- Votos inseridos diretamente: recalcula os contadores, as séries de votos e a melhor explicação de cada gíria
+UPDATE giria g SET
+    positivos = (SELECT COUNT(*) FROM voto v WHERE v.tipo_objeto_avaliado = 1 AND v.objeto_avaliado_id = g.id AND v.tipo = 'POSITIVO'),
+    negativos = (SELECT COUNT(*) FROM voto v WHERE v.tipo_objeto_avaliado = 1 AND v.objeto_avaliado_id = g.id AND v.tipo = 'NEGATIVO');
+UPDATE explicacao e SET
+    positivos = (SELECT COUNT(*) FROM voto v WHERE v.tipo_objeto_avaliado = 2 AND v.objeto_avaliado_id = e.id AND v.tipo = 'POSITIVO'),
+    negativos = (SELECT COUNT(*) FROM voto v WHERE v.tipo_objeto_avaliado = 2 AND v.objeto_avaliado_id = e.id AND v.tipo = 'NEGATIVO');
+UPDATE giria g SET
+    melhor_explicacao_id = (SELECT e.id FROM explicacao e WHERE e.giria_associada_id = g.id AND e.aprovada = true
+                            ORDER BY e.pontuacao DESC, e.id LIMIT 1);
+INSERT INTO voto_hora (tipo_objeto_avaliado, objeto_avaliado_id, periodo, positivos, negativos)
+SELECT tipo_objeto_avaliado, objeto_avaliado_id, DATE_FORMAT(data_voto, '%Y-%m-%d %H:00:00') AS inicio,
+       SUM(tipo = 'POSITIVO'), SUM(tipo = 'NEGATIVO')
+FROM voto GROUP BY tipo_objeto_avaliado, objeto_avaliado_id, inicio;
+INSERT INTO voto_dia (tipo_objeto_avaliado, objeto_avaliado_id, periodo, positivos, negativos)
+SELECT tipo_objeto_avaliado, objeto_avaliado_id, DATE(data_voto) AS inicio,
+       SUM(tipo = 'POSITIVO'), SUM(tipo = 'NEGATIVO')
+FROM voto GROUP BY tipo_objeto_avaliado, objeto_avaliado_id, inicio;
 
 -- Confirmar que as tabelas foram criadas e populadas
 SELECT 'Banco de dados sistema_girias criado com sucesso!' as mensagem;
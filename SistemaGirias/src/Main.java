@@ -1,7 +1,11 @@
 import modelo.*;
 import dao.*;
 import bd.ConnectionFactory;
+import busca.AutocompletarGirias;
+import busca.IndiceExplicacoes;
+import busca.IndiceTrigramas;
 
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.util.ArrayList;
 
@@ -17,6 +21,16 @@ public class Main {
             connection = ConnectionFactory.getConnection();
             System.out.println("Conexão com o banco de dados estabelecida com sucesso!");
 
+            // Carrega os índices usados pela busca por trecho e pelo autocompletar,
+            // os dicionários de categorias e regiões, o filtro de votos existentes e o índice
+            // de busca por significado das explicações (segmentos gravados em indice-explicacoes/)
+            IndiceTrigramas.getInstancia().carregar(connection);
+            AutocompletarGirias.getInstancia().carregar(connection);
+            DicionarioNomes.CATEGORIAS.carregar(connection);
+            DicionarioNomes.REGIOES.carregar(connection);
+            FiltroVotos.getInstancia().carregar(connection);
+            IndiceExplicacoes.getInstancia().carregar(connection, Path.of("indice-explicacoes"));
+
             // Criando os DAOs
             UsuarioDAO usuarioDAO = new UsuarioDAO(connection);
             GiriaDAO giriaDAO = new GiriaDAO(connection);
@@ -162,27 +176,27 @@ public class Main {
 
             System.out.println("\n===== ADICIONANDO VOTOS =====");
             // Criando votos
-            Voto voto1 = new Voto(0, EnumVoto.POSITIVO, usuario1, giria2.getId(), "GIRIA");
+            Voto voto1 = new Voto(0, EnumVoto.POSITIVO, usuario1, giria2.getId(), TipoObjetoAvaliado.GIRIA);
             giria2.adicionarVoto(voto1);
             votoDAO.salvar(voto1);
             System.out.println("Voto positivo para 'Arreda' registrado com sucesso! ID: " + voto1.getId());
 
-            Voto voto2 = new Voto(0, EnumVoto.POSITIVO, usuario2, giria1.getId(), "GIRIA");
+            Voto voto2 = new Voto(0, EnumVoto.POSITIVO, usuario2, giria1.getId(), TipoObjetoAvaliado.GIRIA);
             giria1.adicionarVoto(voto2);
             votoDAO.salvar(voto2);
             System.out.println("Voto positivo para 'Bora' registrado com sucesso! ID: " + voto2.getId());
 
-            Voto voto3 = new Voto(0, EnumVoto.POSITIVO, admin, explicacao1.getId(), "EXPLICACAO");
+            Voto voto3 = new Voto(0, EnumVoto.POSITIVO, admin, explicacao1.getId(), TipoObjetoAvaliado.EXPLICACAO);
             explicacao1.adicionarVoto(voto3);
             votoDAO.salvar(voto3);
             System.out.println("Voto positivo para explicação de 'Bora' registrado com sucesso! ID: " + voto3.getId());
 
-            Voto votoAinda = new Voto(0, EnumVoto.POSITIVO, usuario2, ainda.getId(), "GIRIA");
+            Voto votoAinda = new Voto(0, EnumVoto.POSITIVO, usuario2, ainda.getId(), TipoObjetoAvaliado.GIRIA);
             ainda.adicionarVoto(votoAinda);
             votoDAO.salvar(votoAinda);
             System.out.println("Voto positivo para 'Ainda' registrado com sucesso! ID: " + votoAinda.getId());
 
-            Voto votoExplicacaoAinda = new Voto(0, EnumVoto.POSITIVO, usuario2, explicacaoAinda.getId(), "EXPLICACAO");
+            Voto votoExplicacaoAinda = new Voto(0, EnumVoto.POSITIVO, usuario2, explicacaoAinda.getId(), TipoObjetoAvaliado.EXPLICACAO);
             explicacaoAinda.adicionarVoto(votoExplicacaoAinda);
             votoDAO.salvar(votoExplicacaoAinda);
             System.out.println("Voto positivo para explicação de 'Ainda' registrado com sucesso! ID: " + votoExplicacaoAinda.getId());
@@ -260,6 +274,9 @@ public class Main {
             connection.commit();
             System.out.println("\nTodas as operações foram confirmadas com sucesso!");
 
+            // Grava as explicações indexadas desde a carga, para a próxima inicialização não reindexá-las
+            IndiceExplicacoes.getInstancia().gravar();
+
         } catch (Exception e) {
             if (connection != null) {
                 try {
@@ -0,0 +1,254 @@
+package bd;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache LRU de PreparedStatements de uma conexão física do pool, indexado pelo texto SQL.
+ * Os DAOs continuam chamando {@code prepareStatement(sql)} e fechando o statement;
+ * o fechamento devolve o statement ao cache como foi preparado: fecha os ResultSets que o
+ * chamador deixou abertos, limpa parâmetros e lote e desfaz ajustes como fetch size e max rows.
+ *
+ * Uma conexão física só é usada por um chamador por vez, então o cache não precisa de
+ * sincronização própria; apenas os contadores são compartilhados com o pool.
+ */
+class CacheStatements {
+
+    private final Connection fisica;
+    private final int capacidade;
+    private final LongAdder acertos;
+    private final LongAdder falhas;
+    private final LinkedHashMap<Chave, Entrada> entradas;
+
+    CacheStatements(Connection fisica, int capacidade, LongAdder acertos, LongAdder falhas) {
+        this.fisica = fisica;
+        this.capacidade = capacidade;
+        this.acertos = acertos;
+        this.falhas = falhas;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, Entrada> maisAntiga) {
+                if (size() <= CacheStatements.this.capacidade) {
+                    return false;
+                }
+                maisAntiga.getValue().descartar();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Recupera do cache (ou prepara) o statement para o SQL informado.
+     * Se o mesmo SQL já estiver em uso nesta conexão (consultas aninhadas),
+     * devolve um statement avulso que é fechado normalmente.
+     * @param connection A conexão devolvida por {@code getConnection()} do statement
+     */
+    PreparedStatement preparar(Connection connection, String sql, int autoGeneratedKeys) throws SQLException {
+        Chave chave = new Chave(sql, autoGeneratedKeys);
+        Entrada entrada = entradas.get(chave);
+
+        if (entrada != null && !entrada.emUso && !entrada.fisico.isClosed()) {
+            acertos.increment();
+            entrada.emUso = true;
+            return entrada.criarProxy(connection);
+        }
+
+        falhas.increment();
+        if (entrada != null && entrada.emUso) {
+            return (PreparedStatement) StatementVinculado.vincular(fisica.prepareStatement(sql, autoGeneratedKeys), connection);
+        }
+
+        PreparedStatement fisico = fisica.prepareStatement(sql, autoGeneratedKeys);
+        try {
+            entrada = new Entrada(fisico);
+        } catch (SQLException e) {
+            fisico.close();
+            throw e;
+        }
+        entrada.emUso = true;
+        entradas.put(chave, entrada);
+        return entrada.criarProxy(connection);
+    }
+
+    /**
+     * Fecha todos os statements mantidos pelo cache.
+     */
+    void limpar() {
+        for (Entrada entrada : entradas.values()) {
+            entrada.descartar();
+        }
+        entradas.clear();
+    }
+
+    private static final class Chave {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        private Chave(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave outra = (Chave) o;
+            return autoGeneratedKeys == outra.autoGeneratedKeys && sql.equals(outra.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+
+    private static final class Entrada {
+        private final PreparedStatement fisico;
+        // Configuração do statement recém-preparado, restaurada na devolução
+        private final int fetchSizePadrao;
+        private final int maxRowsPadrao;
+        private final int queryTimeoutPadrao;
+        private final int maxFieldSizePadrao;
+        private final int fetchDirectionPadrao;
+        private boolean emUso;
+        // Removida do cache enquanto emprestada: fecha de verdade quando o chamador fechar
+        private boolean removida;
+        private boolean configuracaoAlterada;
+        private boolean emLote;
+        // ResultSets entregues no empréstimo atual
+        private final List<ResultSet> resultados = new ArrayList<>();
+
+        private Entrada(PreparedStatement fisico) throws SQLException {
+            this.fisico = fisico;
+            this.fetchSizePadrao = fisico.getFetchSize();
+            this.maxRowsPadrao = fisico.getMaxRows();
+            this.queryTimeoutPadrao = fisico.getQueryTimeout();
+            this.maxFieldSizePadrao = fisico.getMaxFieldSize();
+            this.fetchDirectionPadrao = fisico.getFetchDirection();
+        }
+
+        private void descartar() {
+            removida = true;
+            if (!emUso) {
+                fecharFisico();
+            }
+        }
+
+        private void fecharFisico() {
+            try {
+                fisico.close();
+            } catch (SQLException e) {
+                System.err.println("Erro ao fechar statement removido do cache: " + e.getMessage());
+            }
+        }
+
+        private void devolver() throws SQLException {
+            emUso = false;
+            if (removida) {
+                resultados.clear();
+                fecharFisico();
+                return;
+            }
+            if (fisico.isClosed()) {
+                resultados.clear();
+                return;
+            }
+            try {
+                for (ResultSet resultado : resultados) {
+                    resultado.close();
+                }
+                fisico.clearParameters();
+                if (emLote) {
+                    fisico.clearBatch();
+                }
+                if (configuracaoAlterada) {
+                    fisico.setFetchSize(fetchSizePadrao);
+                    fisico.setMaxRows(maxRowsPadrao);
+                    fisico.setQueryTimeout(queryTimeoutPadrao);
+                    fisico.setMaxFieldSize(maxFieldSizePadrao);
+                    fisico.setFetchDirection(fetchDirectionPadrao);
+                }
+            } catch (SQLException e) {
+                // Sem como garantir o estado: sai do cache
+                removida = true;
+                fecharFisico();
+                throw e;
+            } finally {
+                resultados.clear();
+                configuracaoAlterada = false;
+                emLote = false;
+            }
+        }
+
+        // Acompanha o que precisa ser desfeito na devolução
+        private void registrarChamada(String metodo, Object resultado) {
+            switch (metodo) {
+                case "setFetchSize":
+                case "setMaxRows":
+                case "setLargeMaxRows":
+                case "setQueryTimeout":
+                case "setMaxFieldSize":
+                case "setFetchDirection":
+                    configuracaoAlterada = true;
+                    break;
+                case "addBatch":
+                    emLote = true;
+                    break;
+                default:
+                    if (resultado instanceof ResultSet) {
+                        resultados.add((ResultSet) resultado);
+                    }
+                    break;
+            }
+        }
+
+        private PreparedStatement criarProxy(Connection connection) {
+            boolean[] fechado = {false};
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                if (!fechado[0]) {
+                                    fechado[0] = true;
+                                    devolver();
+                                }
+                                return null;
+                            case "isClosed":
+                                return fechado[0] || fisico.isClosed();
+                            case "getConnection":
+                                return connection;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                break;
+                        }
+                        if (fechado[0]) {
+                            throw new SQLException("Statement já foi fechado.");
+                        }
+                        try {
+                            Object resultado = method.invoke(fisico, args);
+                            registrarChamada(method.getName(), resultado);
+                            return resultado;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
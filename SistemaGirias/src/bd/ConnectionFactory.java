@@ -1,68 +1,124 @@
 package bd;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Classe responsável por criar conexões com o banco de dados.
- * Implementa o padrão Singleton para garantir uma única instância da conexão.
+ * Classe responsável por fornecer conexões com o banco de dados.
+ * As conexões vêm de um pool limitado ({@link PoolConexoes}); cada chamador recebe a sua
+ * e deve fechá-la para devolvê-la ao pool.
  */
 public class ConnectionFactory {
 
-    private static Connection connection;
+    private static final String SGBD = "mysql";
+    private static final String ENDERECO = "localhost";
+    private static final String BD = "sistema_girias";
+    private static final String USUARIO = "root";
+    private static final String SENHA = "admin"; // Altere conforme necessário
+    // useServerPrepStmts: o statement em cache evita o parse a cada execução
+    // useCursorFetch: consultas com fetch size usam cursor no servidor (streaming)
+    // rewriteBatchedStatements: executeBatch de INSERT vira um único INSERT com várias linhas em VALUES
+    // (e lotes de UPDATE com mais de 3 linhas, um multi-statement); sem ele cada linha do lote é uma ida ao banco
+    static final String PROPRIEDADES_URL = "useServerPrepStmts=true&useCursorFetch=true&rewriteBatchedStatements=true";
+
+    // Configuração do pool
+    private static final int TAMANHO_MINIMO = 2;
+    private static final int TAMANHO_MAXIMO = 10;
+    private static final long TIMEOUT_AQUISICAO_MS = 5_000;
+    private static final long TEMPO_OCIOSO_MAXIMO_MS = 5 * 60_000;
+    // Empréstimo mais longo que isso é denunciado como vazamento, com a pilha de onde a conexão
+    // foi obtida. Bem acima do TIMEOUT_AQUISICAO_MS: quem segura a conexão por tanto tempo já está
+    // fazendo outras threads esperarem. A captura da pilha custa microssegundos por empréstimo,
+    // pouco perto de uma ida ao banco; 0 desliga a detecção
+    private static final long LIMITE_VAZAMENTO_MS = 30_000;
+    // Statements preparados mantidos por conexão (0 desliga o cache)
+    private static final int TAMANHO_CACHE_STATEMENTS = 64;
+
+    private static volatile PoolConexoes pool;
+    private static final ReentrantLock lockPool = new ReentrantLock();
 
     private ConnectionFactory() {
         // Construtor privado para evitar instanciação
     }
 
     /**
-     * Recupera uma conexão com o banco de dados.
-     * Se a conexão já existe e está válida, retorna a mesma.
-     * Caso contrário, cria uma nova conexão.
-     * @return Uma conexão com o banco de dados
+     * Recupera o pool de conexões, criando-o na primeira chamada.
+     * @return O pool compartilhado pela aplicação
      */
-    public static Connection getConnection() {
-        if (connection == null) {
+    public static PoolConexoes getPool() {
+        PoolConexoes atual = pool;
+        if (atual == null) {
+            lockPool.lock();
             try {
-                String sgbd = "mysql";
-                String endereco = "localhost";
-                String bd = "sistema_girias";
-                String usuario = "root";
-                String senha = "admin"; // Altere conforme necessário
-
-                connection = DriverManager.getConnection(
-                        "jdbc:" + sgbd + "://" + endereco + "/" + bd, usuario, senha);
-
-                // Configura a conexão para não fazer autocommit
-                connection.setAutoCommit(false);
+                if (pool == null) {
+                    pool = new PoolConexoes(
+                            "jdbc:" + SGBD + "://" + ENDERECO + "/" + BD + "?" + PROPRIEDADES_URL,
+                            USUARIO, SENHA,
+                            TAMANHO_MINIMO, TAMANHO_MAXIMO,
+                            TIMEOUT_AQUISICAO_MS, TEMPO_OCIOSO_MAXIMO_MS, LIMITE_VAZAMENTO_MS,
+                            TAMANHO_CACHE_STATEMENTS);
+                }
+                atual = pool;
+            } finally {
+                lockPool.unlock();
+            }
+        }
+        return atual;
+    }
 
-                return connection;
-            } catch (SQLException e) {
-                throw new RuntimeException("Erro ao conectar ao banco de dados: " + e.getMessage(), e);
+    /**
+     * Troca o pool da aplicação (fechando o atual), para testes com outro banco.
+     */
+    static void usarPool(PoolConexoes novo) {
+        lockPool.lock();
+        try {
+            if (pool != null) {
+                pool.fechar();
             }
+            pool = novo;
+        } finally {
+            lockPool.unlock();
         }
-        return connection;
     }
 
     /**
-     * Fecha a conexão com o banco de dados, se estiver aberta.
+     * Empresta uma conexão do pool.
+     * A conexão é entregue com autocommit desligado e deve ser fechada pelo chamador,
+     * o que a devolve ao pool (trabalho não confirmado é desfeito na devolução).
+     * Dentro de {@link TransactionManager#inTransaction} devolve a conexão da transação corrente.
+     * @return Uma conexão com o banco de dados
+     */
+    public static Connection getConnection() {
+        if (TransactionManager.emTransacao()) {
+            return TransactionManager.getConexaoAtual();
+        }
+        try {
+            return getPool().obterConexao();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao conectar ao banco de dados: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fecha o pool e todas as conexões com o banco de dados.
      */
     public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-            } catch (SQLException e) {
-                throw new RuntimeException("Erro ao fechar conexão com o banco de dados: " + e.getMessage(), e);
+        lockPool.lock();
+        try {
+            if (pool != null) {
+                pool.fechar();
+                pool = null;
             }
+        } finally {
+            lockPool.unlock();
         }
     }
 
     /**
      * Confirma as transações realizadas na conexão.
      */
-    public static void commit() {
+    public static void commit(Connection connection) {
         if (connection != null) {
             try {
                 connection.commit();
@@ -75,7 +131,7 @@ public class ConnectionFactory {
     /**
      * Reverte as transações realizadas na conexão.
      */
-    public static void rollback() {
+    public static void rollback(Connection connection) {
         if (connection != null) {
             try {
                 connection.rollback();
@@ -85,4 +141,3 @@ public class ConnectionFactory {
         }
     }
 }
-
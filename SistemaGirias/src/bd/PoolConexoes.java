@@ -0,0 +1,501 @@
+package bd;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool limitado de conexões com o banco de dados.
+ * Mantém entre {@code tamanhoMinimo} e {@code tamanhoMaximo} conexões físicas abertas,
+ * fecha as que ficam ociosas por muito tempo e avisa quando uma conexão fica emprestada
+ * além do limite configurado (provável vazamento).
+ *
+ * Conexões ociosas há mais de {@link #OCIOSIDADE_PARA_VALIDAR_MS} são validadas com
+ * {@code isValid} antes de serem emprestadas, e o zelador valida periodicamente as que
+ * compõem o mínimo, para que o {@code wait_timeout} do MySQL não as derrube sem aviso.
+ *
+ * As conexões entregues são proxies: chamar {@code close()} devolve a conexão ao pool
+ * em vez de fechar o socket. Cada conexão física mantém um {@link CacheStatements}, então
+ * {@code prepareStatement(sql)} reaproveita o statement já preparado para o mesmo SQL.
+ * O proxy também oferece {@link SincronizacaoTransacao} por {@code unwrap}: as ações agendadas
+ * rodam depois do {@code commit} e são descartadas no {@code rollback} ou na devolução.
+ */
+public class PoolConexoes {
+
+    // Conexão ociosa há menos que isso é emprestada sem ida ao banco para validação
+    private static final long OCIOSIDADE_PARA_VALIDAR_MS = 30_000;
+    private static final int TIMEOUT_VALIDACAO_S = 5;
+
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final int tamanhoMinimo;
+    private final int tamanhoMaximo;
+    private final long timeoutAquisicaoMs;
+    private final long tempoOciosoMaximoMs;
+    private final long limiteVazamentoMs;
+    private final int tamanhoCacheStatements;
+
+    // Cada permissão corresponde a uma conexão que pode estar emprestada
+    private final Semaphore permissoes;
+    // LIFO: a conexão devolvida por último é a primeira a ser reutilizada
+    private final ConcurrentLinkedDeque<ConexaoFisica> ociosas = new ConcurrentLinkedDeque<>();
+    private final Set<ConexaoFisica> emprestadas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalAbertas = new AtomicInteger();
+    private final LongAdder acertosCacheStatements = new LongAdder();
+    private final LongAdder falhasCacheStatements = new LongAdder();
+    private final ScheduledExecutorService zelador;
+    private volatile boolean fechado;
+
+    public PoolConexoes(String url, String usuario, String senha,
+                        int tamanhoMinimo, int tamanhoMaximo,
+                        long timeoutAquisicaoMs, long tempoOciosoMaximoMs, long limiteVazamentoMs,
+                        int tamanhoCacheStatements) {
+        // limiteVazamentoMs <= 0 desliga a detecção de vazamentos (e a captura da pilha de cada empréstimo)
+        if (tamanhoMinimo < 0 || tamanhoMaximo <= 0 || tamanhoMinimo > tamanhoMaximo) {
+            throw new IllegalArgumentException("Tamanhos do pool inválidos: mínimo " + tamanhoMinimo +
+                    ", máximo " + tamanhoMaximo + ".");
+        }
+        this.url = url;
+        this.usuario = usuario;
+        this.senha = senha;
+        this.tamanhoMinimo = tamanhoMinimo;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.timeoutAquisicaoMs = timeoutAquisicaoMs;
+        this.tempoOciosoMaximoMs = tempoOciosoMaximoMs;
+        this.limiteVazamentoMs = limiteVazamentoMs;
+        this.tamanhoCacheStatements = tamanhoCacheStatements;
+        this.permissoes = new Semaphore(tamanhoMaximo, true);
+
+        this.zelador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pool-conexoes-zelador");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalo = Math.max(1000, (limiteVazamentoMs > 0 ? Math.min(tempoOciosoMaximoMs, limiteVazamentoMs) : tempoOciosoMaximoMs) / 2);
+        zelador.scheduleWithFixedDelay(this::manutencao, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Empresta uma conexão do pool, aguardando no máximo o timeout de aquisição.
+     * A conexão deve ser fechada pelo chamador para voltar ao pool.
+     * @return Um proxy da conexão física
+     * @throws SQLException Se o pool estiver fechado, esgotado após o timeout
+     *         ({@link SQLTransientConnectionException}, pode ser repetido) ou o banco recusar a conexão
+     */
+    public Connection obterConexao() throws SQLException {
+        if (fechado) {
+            throw new SQLNonTransientConnectionException("Pool de conexões está fechado.");
+        }
+
+        try {
+            if (!permissoes.tryAcquire(timeoutAquisicaoMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Tempo esgotado aguardando conexão livre no pool (" +
+                        timeoutAquisicaoMs + " ms, máximo de " + tamanhoMaximo + " conexões).");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando conexão do pool.", e);
+        }
+
+        try {
+            ConexaoFisica conexao = ociosas.pollFirst();
+            while (conexao != null && !conexao.estaUtilizavel()) {
+                descartar(conexao);
+                conexao = ociosas.pollFirst();
+            }
+            if (conexao == null) {
+                conexao = abrirConexao();
+            }
+
+            conexao.marcarEmprestimo();
+            emprestadas.add(conexao);
+            return conexao.criarProxy();
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    private ConexaoFisica abrirConexao() throws SQLException {
+        Connection fisica = DriverManager.getConnection(url, usuario, senha);
+        // Mantém o comportamento anterior: nada é confirmado sem commit explícito
+        fisica.setAutoCommit(false);
+        totalAbertas.incrementAndGet();
+        return new ConexaoFisica(fisica);
+    }
+
+    private void devolver(ConexaoFisica conexao) {
+        if (!emprestadas.remove(conexao)) {
+            // O pool foi fechado enquanto a conexão estava emprestada e ela já foi descartada
+            permissoes.release();
+            return;
+        }
+        try {
+            if (fechado || !conexao.estaAberta()) {
+                descartar(conexao);
+                return;
+            }
+
+            // Trabalho não confirmado não pode vazar para o próximo usuário da conexão
+            conexao.aposCommit.clear();
+            conexao.fisica.rollback();
+            if (conexao.fisica.isReadOnly()) {
+                conexao.fisica.setReadOnly(false);
+            }
+            if (conexao.fisica.getAutoCommit()) {
+                conexao.fisica.setAutoCommit(false);
+            }
+            conexao.marcarDevolucao();
+            ociosas.offerFirst(conexao);
+        } catch (SQLException e) {
+            descartar(conexao);
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    private void descartar(ConexaoFisica conexao) {
+        totalAbertas.decrementAndGet();
+        if (conexao.cache != null) {
+            conexao.cache.limpar();
+        }
+        try {
+            conexao.fisica.close();
+        } catch (SQLException e) {
+            System.err.println("Erro ao fechar conexão descartada do pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Executada periodicamente: fecha conexões ociosas além do mínimo, valida as que ficaram
+     * ociosas por muito tempo dentro do mínimo, completa o mínimo de conexões abertas e
+     * denuncia possíveis vazamentos.
+     */
+    private void manutencao() {
+        if (fechado) {
+            return;
+        }
+
+        long agora = System.currentTimeMillis();
+
+        Iterator<ConexaoFisica> iterator = ociosas.descendingIterator();
+        while (iterator.hasNext() && totalAbertas.get() > tamanhoMinimo) {
+            ConexaoFisica conexao = iterator.next();
+            if (agora - conexao.instanteDevolucao > tempoOciosoMaximoMs && ociosas.removeFirstOccurrence(conexao)) {
+                descartar(conexao);
+            }
+        }
+
+        // As que sobraram são o mínimo: o isValid (ping) descobre as derrubadas pelo servidor e
+        // reinicia o wait_timeout das demais. Enquanto é validada a conexão fica fora da fila,
+        // então nenhum chamador a recebe ao mesmo tempo.
+        for (ConexaoFisica conexao : ociosas.toArray(new ConexaoFisica[0])) {
+            if (agora - conexao.instanteDevolucao <= tempoOciosoMaximoMs || !ociosas.removeFirstOccurrence(conexao)) {
+                continue;
+            }
+            if (conexao.validar()) {
+                conexao.marcarDevolucao();
+                ociosas.offerLast(conexao);
+            } else {
+                descartar(conexao);
+            }
+        }
+
+        while (totalAbertas.get() < tamanhoMinimo && !fechado) {
+            try {
+                ConexaoFisica conexao = abrirConexao();
+                conexao.marcarDevolucao();
+                ociosas.offerLast(conexao);
+            } catch (SQLException e) {
+                System.err.println("Erro ao completar o mínimo de conexões do pool: " + e.getMessage());
+                break;
+            }
+        }
+
+        if (limiteVazamentoMs <= 0) {
+            return;
+        }
+        for (ConexaoFisica conexao : emprestadas) {
+            if (!conexao.vazamentoAvisado && agora - conexao.instanteEmprestimo > limiteVazamentoMs) {
+                conexao.vazamentoAvisado = true;
+                System.err.println("Possível vazamento de conexão: emprestada há " +
+                        (agora - conexao.instanteEmprestimo) + " ms sem ser devolvida. Obtida em:");
+                conexao.pilhaEmprestimo.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Fecha o pool e todas as conexões físicas, inclusive as que ainda estão emprestadas.
+     */
+    public void fechar() {
+        fechado = true;
+        zelador.shutdownNow();
+
+        ConexaoFisica conexao;
+        while ((conexao = ociosas.pollFirst()) != null) {
+            descartar(conexao);
+        }
+        for (ConexaoFisica emprestada : emprestadas) {
+            if (emprestadas.remove(emprestada)) {
+                descartar(emprestada);
+            }
+        }
+    }
+
+    public int getTotalAbertas() {
+        return totalAbertas.get();
+    }
+
+    public int getTotalOciosas() {
+        return ociosas.size();
+    }
+
+    public int getTotalEmprestadas() {
+        return emprestadas.size();
+    }
+
+    public int getTamanhoMaximo() {
+        return tamanhoMaximo;
+    }
+
+    /**
+     * Quantas vezes um {@code prepareStatement} foi atendido pelo cache de statements.
+     */
+    public long getAcertosCacheStatements() {
+        return acertosCacheStatements.sum();
+    }
+
+    /**
+     * Quantas vezes um {@code prepareStatement} precisou preparar um statement novo.
+     */
+    public long getFalhasCacheStatements() {
+        return falhasCacheStatements.sum();
+    }
+
+    /**
+     * Conexão física mantida pelo pool e os metadados do empréstimo atual.
+     */
+    private class ConexaoFisica implements SincronizacaoTransacao {
+        private final Connection fisica;
+        // Ações agendadas para o commit da transação em andamento
+        private final List<Runnable> aposCommit = new ArrayList<>();
+        // null quando o cache de statements está desligado (tamanho 0)
+        private final CacheStatements cache;
+        private volatile long instanteEmprestimo;
+        private volatile long instanteDevolucao;
+        private volatile Exception pilhaEmprestimo;
+        private volatile boolean vazamentoAvisado;
+
+        private ConexaoFisica(Connection fisica) {
+            this.fisica = fisica;
+            this.cache = tamanhoCacheStatements > 0
+                    ? new CacheStatements(fisica, tamanhoCacheStatements, acertosCacheStatements, falhasCacheStatements)
+                    : null;
+            this.instanteDevolucao = System.currentTimeMillis();
+        }
+
+        /**
+         * Se a conexão pode ser emprestada: só consulta o banco quando ela está ociosa há mais
+         * de {@link #OCIOSIDADE_PARA_VALIDAR_MS}.
+         */
+        private boolean estaUtilizavel() {
+            if (System.currentTimeMillis() - instanteDevolucao > OCIOSIDADE_PARA_VALIDAR_MS) {
+                return validar();
+            }
+            return estaAberta();
+        }
+
+        private boolean estaAberta() {
+            try {
+                return !fisica.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private boolean validar() {
+            try {
+                return fisica.isValid(TIMEOUT_VALIDACAO_S);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void marcarEmprestimo() {
+            instanteEmprestimo = System.currentTimeMillis();
+            // A pilha custa caro: só é capturada com a detecção de vazamentos ligada
+            pilhaEmprestimo = limiteVazamentoMs > 0 ? new Exception("Conexão obtida do pool") : null;
+            vazamentoAvisado = false;
+        }
+
+        private void marcarDevolucao() {
+            instanteDevolucao = System.currentTimeMillis();
+            pilhaEmprestimo = null;
+        }
+
+        @Override
+        public void aposCommit(Runnable acao) {
+            boolean autoCommit;
+            try {
+                autoCommit = fisica.getAutoCommit();
+            } catch (SQLException e) {
+                autoCommit = false;
+            }
+            if (autoCommit) {
+                acao.run();
+            } else {
+                aposCommit.add(acao);
+            }
+        }
+
+        private void commit() throws SQLException {
+            fisica.commit();
+            executarAposCommit();
+        }
+
+        // setAutoCommit(true) no meio de uma transação também a confirma
+        private void ligarAutoCommit() throws SQLException {
+            boolean emTransacao = !fisica.getAutoCommit();
+            fisica.setAutoCommit(true);
+            if (emTransacao) {
+                executarAposCommit();
+            }
+        }
+
+        private void executarAposCommit() {
+            List<Runnable> acoes = new ArrayList<>(aposCommit);
+            aposCommit.clear();
+            RuntimeException primeiroErro = null;
+            for (Runnable acao : acoes) {
+                try {
+                    acao.run();
+                } catch (RuntimeException e) {
+                    // O commit já aconteceu: as demais ações precisam rodar mesmo assim
+                    if (primeiroErro == null) {
+                        primeiroErro = e;
+                    } else {
+                        primeiroErro.addSuppressed(e);
+                    }
+                }
+            }
+            if (primeiroErro != null) {
+                throw primeiroErro;
+            }
+        }
+
+        private Connection criarProxy() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ManipuladorConexao(this));
+        }
+    }
+
+    /**
+     * Intercepta as chamadas feitas na conexão emprestada.
+     * Cada empréstimo tem seu próprio manipulador, então um proxy já devolvido não consegue
+     * mais usar a conexão física que agora pertence a outro chamador.
+     */
+    private class ManipuladorConexao implements InvocationHandler {
+        private final ConexaoFisica conexao;
+        private volatile boolean devolvida;
+
+        private ManipuladorConexao(ConexaoFisica conexao) {
+            this.conexao = conexao;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!devolvida) {
+                        devolvida = true;
+                        devolver(conexao);
+                    }
+                    return null;
+                case "isClosed":
+                    return devolvida || conexao.fisica.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexaoPool[" + conexao.fisica + "]";
+                default:
+                    break;
+            }
+
+            if (devolvida) {
+                throw new SQLException("Conexão já foi devolvida ao pool.");
+            }
+
+            switch (method.getName()) {
+                case "commit":
+                    conexao.commit();
+                    return null;
+                case "setAutoCommit":
+                    if ((Boolean) args[0]) {
+                        conexao.ligarAutoCommit();
+                        return null;
+                    }
+                    break;
+                case "rollback":
+                    if (args == null) {
+                        conexao.aposCommit.clear();
+                    }
+                    break;
+                case "unwrap":
+                    if (args[0] == SincronizacaoTransacao.class) {
+                        return conexao;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (args[0] == SincronizacaoTransacao.class) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            if (conexao.cache != null && method.getName().equals("prepareStatement")) {
+                if (args.length == 1) {
+                    return conexao.cache.preparar((Connection) proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+                }
+                if (args.length == 2 && args[1] instanceof Integer) {
+                    return conexao.cache.preparar((Connection) proxy, (String) args[0], (Integer) args[1]);
+                }
+            }
+
+            Object resultado;
+            try {
+                resultado = method.invoke(conexao.fisica, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // Statement fora do cache não pode expor a conexão física por getConnection()
+            return StatementVinculado.vincular(resultado, (Connection) proxy);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package bd;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Ações que só valem se a transação da conexão for confirmada, como atualizar estruturas em
+ * memória (índices, dicionários) a partir do que foi gravado: executadas depois do commit e
+ * descartadas no rollback.
+ *
+ * As conexões do {@link PoolConexoes} oferecem esta interface por {@code unwrap}, inclusive
+ * dentro do {@link TransactionManager}.
+ */
+public interface SincronizacaoTransacao {
+
+    /**
+     * Agenda a ação para depois do commit da transação atual (ou executa na hora, em autocommit).
+     */
+    void aposCommit(Runnable acao);
+
+    /**
+     * Agenda a ação para depois do commit da transação da conexão. Conexões sem suporte
+     * (fora do pool) executam a ação na hora.
+     */
+    static void aposCommit(Connection connection, Runnable acao) {
+        SincronizacaoTransacao sincronizacao = null;
+        try {
+            if (connection.isWrapperFor(SincronizacaoTransacao.class)) {
+                sincronizacao = connection.unwrap(SincronizacaoTransacao.class);
+            }
+        } catch (SQLException e) {
+            // Driver sem suporte a unwrap: trata como conexão fora do pool
+        }
+        if (sincronizacao != null) {
+            sincronizacao.aposCommit(acao);
+        } else {
+            acao.run();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package bd;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Envolve um statement para que {@code getConnection()} devolva a conexão pela qual ele foi
+ * obtido, e não a que está por baixo. Sem isso, {@code pstm.getConnection().close()} ou
+ * {@code .commit()} escapariam do proxy do pool ou da conexão participante do
+ * {@link TransactionManager}.
+ */
+final class StatementVinculado {
+
+    private StatementVinculado() {
+        // Construtor privado para evitar instanciação
+    }
+
+    /**
+     * @return O statement envolvido, ou o próprio valor se não for um statement
+     */
+    static Object vincular(Object resultado, Connection connection) {
+        if (!(resultado instanceof Statement)) {
+            return resultado;
+        }
+        Class<?> tipo = resultado instanceof CallableStatement ? CallableStatement.class
+                : resultado instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        Statement statement = (Statement) resultado;
+        return Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{tipo},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getConnection":
+                            return connection;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,157 @@
+package bd;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Delimita unidades de trabalho transacionais.
+ * Cada unidade recebe uma conexão própria do pool, vinculada à thread atual enquanto o
+ * trabalho executa; DAOs criados sem conexão explícita dentro da unidade usam essa conexão.
+ *
+ * O vínculo usa {@link ThreadLocal} e nenhuma seção {@code synchronized}, então funciona
+ * em virtual threads sem prender a carrier thread: cada virtual thread tem sua própria
+ * transação curta.
+ */
+public class TransactionManager {
+
+    /**
+     * Trabalho executado dentro de uma transação.
+     */
+    @FunctionalInterface
+    public interface Trabalho<T> {
+        T executar(Connection connection) throws Exception;
+    }
+
+    private static final ThreadLocal<Connection> conexaoAtual = new ThreadLocal<>();
+
+    private TransactionManager() {
+        // Construtor privado para evitar instanciação
+    }
+
+    /**
+     * Executa o trabalho em uma transação de leitura e escrita.
+     * Confirma ao final ou desfaz tudo se o trabalho lançar exceção.
+     * Chamadas aninhadas participam da transação já aberta na thread.
+     * @return O valor devolvido pelo trabalho
+     */
+    public static <T> T inTransaction(Trabalho<T> trabalho) {
+        return executar(trabalho, false);
+    }
+
+    /**
+     * Executa o trabalho em uma transação somente leitura.
+     * @return O valor devolvido pelo trabalho
+     */
+    public static <T> T inReadOnlyTransaction(Trabalho<T> trabalho) {
+        return executar(trabalho, true);
+    }
+
+    /**
+     * Indica se a thread atual está dentro de uma unidade de trabalho.
+     */
+    public static boolean emTransacao() {
+        return conexaoAtual.get() != null;
+    }
+
+    /**
+     * Recupera a conexão da unidade de trabalho da thread atual.
+     * @return A conexão vinculada à transação corrente
+     * @throws IllegalStateException Se não houver transação aberta na thread
+     */
+    public static Connection getConexaoAtual() {
+        Connection connection = conexaoAtual.get();
+        if (connection == null) {
+            throw new IllegalStateException("Nenhuma transação ativa: use TransactionManager.inTransaction.");
+        }
+        return connection;
+    }
+
+    private static <T> T executar(Trabalho<T> trabalho, boolean somenteLeitura) {
+        Connection existente = conexaoAtual.get();
+        if (existente != null) {
+            try {
+                if (!somenteLeitura && existente.isReadOnly()) {
+                    throw new IllegalStateException("Não é possível escrever dentro de uma transação somente leitura.");
+                }
+                return trabalho.executar(existente);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Erro na transação: " + e.getMessage(), e);
+            }
+        }
+
+        Connection connection;
+        try {
+            connection = ConnectionFactory.getPool().obterConexao();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao conectar ao banco de dados: " + e.getMessage(), e);
+        }
+
+        try {
+            if (somenteLeitura) {
+                connection.setReadOnly(true);
+            }
+            conexaoAtual.set(participante(connection));
+
+            T resultado = trabalho.executar(conexaoAtual.get());
+            connection.commit();
+            return resultado;
+        } catch (Exception e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackEx) {
+                e.addSuppressed(rollbackEx);
+            }
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new RuntimeException("Erro na transação: " + e.getMessage(), e);
+        } finally {
+            conexaoAtual.remove();
+            try {
+                // Devolve ao pool, que também restaura o modo leitura e escrita
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Erro ao devolver conexão ao pool: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Envolve a conexão da transação para que o código de dentro da unidade não consiga
+     * fechá-la nem confirmar ou desfazer o trabalho pela metade, nem diretamente nem pelo
+     * {@code getConnection()} de um statement.
+     */
+    private static Connection participante(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "commit":
+                        case "rollback":
+                        case "setAutoCommit":
+                            throw new SQLException("A transação é controlada pelo TransactionManager.");
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object resultado;
+                    try {
+                        resultado = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    // Statements criados aqui também devem levar de volta a esta conexão
+                    return StatementVinculado.vincular(resultado, (Connection) proxy);
+                });
+    }
+}
@@ -0,0 +1,275 @@
+package busca;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Autocompletar de gírias aprovadas, ordenado pela pontuação de votos.
+ *
+ * As consultas são respondidas por um {@link IndicePrefixos} imutável mais um pequeno
+ * conjunto de alterações recentes (gírias aprovadas, renomeadas, reprovadas ou excluídas
+ * depois da última reconstrução), ordenado pelo termo normalizado para que o prefixo seja
+ * achado sem varrer o conjunto. Quando as alterações acumulam, um novo índice imutável
+ * é montado em segundo plano e trocado atomicamente; o banco nunca é consultado por tecla
+ * digitada e quem registrou a alteração não espera a reconstrução.
+ *
+ * As pontuações acompanham os votos: o VotoDAO informa a variação de cada gíria votada
+ * ({@link #ajustarPontuacao}), que entra como uma alteração recente. Votos confirmados
+ * enquanto o {@link #carregar} lê a tabela podem ficar de fora até o próximo carregamento.
+ */
+public class AutocompletarGirias {
+
+    private static final AutocompletarGirias INSTANCIA = new AutocompletarGirias();
+
+    // Acima disso as alterações pendentes são incorporadas em um novo índice
+    private static final int LIMITE_ALTERACOES = 10_000;
+
+    private static final ExecutorService RECONSTRUCAO = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "autocompletar-reconstrucao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile IndicePrefixos base = IndicePrefixos.VAZIO;
+    // Gírias aprovadas incluídas ou alteradas desde a última reconstrução, por id...
+    private final Map<Integer, IndicePrefixos.Entrada> recentes = new ConcurrentHashMap<>();
+    // ...e pela chave (termo normalizado, id, versão), para achar os termos de um prefixo
+    private final ConcurrentSkipListMap<String, IndicePrefixos.Entrada> recentesPorTermo = new ConcurrentSkipListMap<>();
+    // Chave de cada id em recentesPorTermo; só usado com lockAlteracoes
+    private final Map<Integer, String> chavesRecentes = new HashMap<>();
+    private long versao;
+    // Ids que não devem mais ser devolvidos a partir da base (alterados ou removidos)
+    private final Set<Integer> sobrescritos = ConcurrentHashMap.newKeySet();
+    // Serializa as alterações entre si e com a troca do índice; as consultas não travam
+    private final ReentrantLock lockAlteracoes = new ReentrantLock();
+    // Impede uma reconstrução de trocar a base enquanto outra (ou um carregamento) roda
+    private final ReentrantLock lockReconstrucao = new ReentrantLock();
+    private final AtomicBoolean reconstrucaoAgendada = new AtomicBoolean();
+
+    public static AutocompletarGirias getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Monta o índice com todas as gírias aprovadas e suas pontuações.
+     */
+    public void carregar(Connection connection) {
+        List<IndicePrefixos.Entrada> entradas = new ArrayList<>();
+        String sql = "SELECT id, termo, pontuacao FROM giria WHERE aprovada = true";
+
+        try (PreparedStatement pstm = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstm.setFetchSize(10_000);
+            try (ResultSet rst = pstm.executeQuery()) {
+                while (rst.next()) {
+                    entradas.add(new IndicePrefixos.Entrada(rst.getInt("id"), rst.getString("termo"), rst.getInt("pontuacao")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao carregar índice de autocompletar: " + e.getMessage(), e);
+        }
+
+        IndicePrefixos novaBase = new IndicePrefixos(entradas);
+        lockReconstrucao.lock();
+        lockAlteracoes.lock();
+        try {
+            base = novaBase;
+            recentes.clear();
+            recentesPorTermo.clear();
+            chavesRecentes.clear();
+            sobrescritos.clear();
+        } finally {
+            lockAlteracoes.unlock();
+            lockReconstrucao.unlock();
+        }
+    }
+
+    /**
+     * Sugere até {@code k} gírias aprovadas que começam com o prefixo, da maior para a menor pontuação.
+     */
+    public List<String> sugerir(String prefixo, int k) {
+        String normalizado = Normalizador.normalizar(prefixo);
+        // Um id em recentes esconde a entrada da base mesmo antes de entrar em sobrescritos
+        List<IndicePrefixos.Entrada> candidatos = new ArrayList<>(base.melhores(normalizado, k,
+                id -> sobrescritos.contains(id) || recentes.containsKey(id)));
+
+        for (Map.Entry<String, IndicePrefixos.Entrada> entrada : recentesPorTermo.tailMap(normalizado).entrySet()) {
+            if (!entrada.getKey().startsWith(normalizado)) {
+                break;
+            }
+            // A chave só localiza o id; vale a entrada atual dele (a troca em recentes é o ponto
+            // em que uma alteração passa a valer), que pode já ser mais nova que a desta chave
+            IndicePrefixos.Entrada atual = recentes.get(entrada.getValue().id);
+            if (atual != null && atual.normalizado.startsWith(normalizado)) {
+                candidatos.add(atual);
+            }
+        }
+
+        candidatos.sort((a, b) -> a.pontuacao != b.pontuacao
+                ? Integer.compare(b.pontuacao, a.pontuacao)
+                : a.normalizado.compareTo(b.normalizado));
+
+        // Um id alterado no meio da consulta pode ter vindo da base e de recentes
+        Set<Integer> vistos = new HashSet<>();
+        List<String> sugestoes = new ArrayList<>();
+        for (int i = 0; i < candidatos.size() && sugestoes.size() < k; i++) {
+            if (vistos.add(candidatos.get(i).id)) {
+                sugestoes.add(candidatos.get(i).termo);
+            }
+        }
+        return sugestoes;
+    }
+
+    /**
+     * Registra o estado atual de uma gíria: aprovadas entram (ou são atualizadas) no índice,
+     * as demais saem.
+     */
+    public void atualizarGiria(int id, String termo, boolean aprovada, int pontuacao) {
+        lockAlteracoes.lock();
+        try {
+            if (aprovada) {
+                // A entrada nova aparece antes de a antiga ser escondida da base (ver sugerir)
+                colocarRecente(new IndicePrefixos.Entrada(id, termo, pontuacao));
+                sobrescritos.add(id);
+            } else {
+                sobrescritos.add(id);
+                retirarRecente(id);
+            }
+        } finally {
+            lockAlteracoes.unlock();
+        }
+        reconstruirSeNecessario();
+    }
+
+    /**
+     * Soma uma variação de votos (positivos - negativos) à pontuação de uma gíria sugerida;
+     * chamado pelo VotoDAO depois do commit. Gírias fora das sugestões são ignoradas.
+     */
+    public void ajustarPontuacao(int id, int variacao) {
+        if (variacao == 0) {
+            return;
+        }
+        lockAlteracoes.lock();
+        try {
+            IndicePrefixos.Entrada atual = recentes.get(id);
+            if (atual == null && !sobrescritos.contains(id)) {
+                atual = base.entradaDoId(id);
+            }
+            if (atual == null) {
+                return;
+            }
+            colocarRecente(atual.comPontuacao(atual.pontuacao + variacao));
+            sobrescritos.add(id);
+        } finally {
+            lockAlteracoes.unlock();
+        }
+        reconstruirSeNecessario();
+    }
+
+    /**
+     * Retira uma gíria das sugestões.
+     */
+    public void remover(int id) {
+        atualizarGiria(id, null, false, 0);
+    }
+
+    // A entrada nova entra em recentesPorTermo com chave própria antes da troca em recentes,
+    // e a antiga só sai depois. Com o mesmo termo a chave nova fica depois da antiga (versão
+    // com largura fixa), então quem percorre o prefixo sempre encontra uma das duas
+    private void colocarRecente(IndicePrefixos.Entrada entrada) {
+        String versaoHex = Long.toHexString(versao++);
+        String chave = entrada.normalizado + '\u0000' + entrada.id + '\u0000'
+                + "0000000000000000".substring(versaoHex.length()) + versaoHex;
+        recentesPorTermo.put(chave, entrada);
+        recentes.put(entrada.id, entrada);
+        String anterior = chavesRecentes.put(entrada.id, chave);
+        if (anterior != null) {
+            recentesPorTermo.remove(anterior);
+        }
+    }
+
+    private void retirarRecente(int id) {
+        recentes.remove(id);
+        String anterior = chavesRecentes.remove(id);
+        if (anterior != null) {
+            recentesPorTermo.remove(anterior);
+        }
+    }
+
+    private void reconstruirSeNecessario() {
+        if (sobrescritos.size() >= LIMITE_ALTERACOES && reconstrucaoAgendada.compareAndSet(false, true)) {
+            RECONSTRUCAO.execute(this::reconstruir);
+        }
+    }
+
+    private void reconstruir() {
+        lockReconstrucao.lock();
+        try {
+            reconstrucaoAgendada.set(false);
+            Set<Integer> incorporados;
+            Map<Integer, IndicePrefixos.Entrada> novas;
+            IndicePrefixos anterior;
+            lockAlteracoes.lock();
+            try {
+                incorporados = new HashSet<>(sobrescritos);
+                novas = new HashMap<>(recentes);
+                anterior = base;
+            } finally {
+                lockAlteracoes.unlock();
+            }
+
+            // Só as alterações viram objetos; o resto da base é copiado já empacotado
+            List<IndicePrefixos.Entrada> entradas = new ArrayList<>(novas.size());
+            for (IndicePrefixos.Entrada entrada : novas.values()) {
+                if (incorporados.contains(entrada.id)) {
+                    entradas.add(entrada);
+                }
+            }
+            IndicePrefixos novaBase = new IndicePrefixos(anterior, incorporados::contains, entradas);
+
+            lockAlteracoes.lock();
+            try {
+                base = novaBase;
+                // Alterações feitas durante a reconstrução continuam pendentes
+                for (Integer id : incorporados) {
+                    IndicePrefixos.Entrada entrada = novas.get(id);
+                    if (recentes.get(id) == entrada) {
+                        // A base nova já tem o estado atual; sai de sobrescritos antes de sair
+                        // de recentes para o termo não sumir das sugestões no meio do caminho
+                        sobrescritos.remove(id);
+                        if (entrada != null) {
+                            retirarRecente(id);
+                        }
+                    }
+                }
+            } finally {
+                lockAlteracoes.unlock();
+            }
+        } finally {
+            lockReconstrucao.unlock();
+        }
+        reconstruirSeNecessario();
+    }
+
+    // Quantidade de gírias alteradas desde a última reconstrução
+    int getAlteracoesPendentes() {
+        return sobrescritos.size();
+    }
+
+    public int getTotalTermos() {
+        return base.getTamanho() + recentes.size();
+    }
+}
@@ -0,0 +1,315 @@
+package busca;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Parte imutável do {@link IndiceTrigramas}: termos e listas de ids em arrays primitivos.
+ *
+ * Os termos normalizados ficam concatenados em um único {@code char[]}, na ordem dos ids, e
+ * cada grama (1 a 3 caracteres, ver {@link #grama}) aponta para um {@code int[]} com os ids
+ * que o contêm, em ordem crescente. Não há objeto por termo nem por ocorrência: a maior parte
+ * da memória são os 4 bytes de cada par (grama, id).
+ */
+final class BaseTrigramas {
+
+    private static final int[] NENHUM = new int[0];
+
+    static final BaseTrigramas VAZIA = criar(new int[0], new String[0], 0);
+
+    // Em ordem crescente, sem repetição
+    private final int[] ids;
+    // Termo de ids[i] = termos[inicioTermo[i], inicioTermo[i + 1])
+    private final int[] inicioTermo;
+    private final char[] termos;
+    // Gramas em ordem crescente e, na mesma posição, os ids que contêm cada um
+    private final long[] gramas;
+    private final int[][] listas;
+
+    private BaseTrigramas(int[] ids, String[] termosPorId) {
+        this.ids = ids;
+        this.inicioTermo = new int[ids.length + 1];
+        int total = 0;
+        int maiorTermo = 0;
+        for (int i = 0; i < ids.length; i++) {
+            inicioTermo[i] = total;
+            total += termosPorId[i].length();
+            maiorTermo = Math.max(maiorTermo, termosPorId[i].length());
+        }
+        inicioTermo[ids.length] = total;
+        this.termos = new char[total];
+        for (int i = 0; i < ids.length; i++) {
+            termosPorId[i].getChars(0, termosPorId[i].length(), termos, inicioTermo[i]);
+        }
+
+        // Primeira passada conta os termos de cada grama; a segunda preenche as listas, que
+        // saem em ordem crescente porque os termos são percorridos em ordem de id
+        long[] distintos = new long[3 * maiorTermo];
+        MapaGramas contagem = new MapaGramas();
+        for (String termo : termosPorId) {
+            int quantidade = gramasDistintos(termo, distintos);
+            for (int j = 0; j < quantidade; j++) {
+                contagem.somar(distintos[j]);
+            }
+        }
+        this.gramas = contagem.chaves();
+        Arrays.sort(gramas);
+        this.listas = new int[gramas.length][];
+        for (int k = 0; k < gramas.length; k++) {
+            listas[k] = new int[contagem.valor(gramas[k])];
+            // Daqui em diante o mapa guarda a posição do grama
+            contagem.definir(gramas[k], k);
+        }
+        int[] preenchidos = new int[gramas.length];
+        for (int i = 0; i < ids.length; i++) {
+            int quantidade = gramasDistintos(termosPorId[i], distintos);
+            for (int j = 0; j < quantidade; j++) {
+                int k = contagem.valor(distintos[j]);
+                listas[k][preenchidos[k]++] = ids[i];
+            }
+        }
+    }
+
+    /**
+     * Monta a base com os {@code quantidade} primeiros pares (id, termo normalizado), em qualquer ordem.
+     */
+    static BaseTrigramas criar(int[] ids, String[] termos, int quantidade) {
+        // id nos 32 bits altos e posição nos baixos: a ordem dos longs é a ordem dos ids
+        long[] ordem = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ordem[i] = ((long) ids[i] << 32) | i;
+        }
+        Arrays.sort(ordem);
+        int[] idsOrdenados = new int[quantidade];
+        String[] termosOrdenados = new String[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            idsOrdenados[i] = (int) (ordem[i] >> 32);
+            termosOrdenados[i] = termos[(int) ordem[i]];
+        }
+        return new BaseTrigramas(idsOrdenados, termosOrdenados);
+    }
+
+    /**
+     * Uma base nova com as alterações aplicadas (id -> termo normalizado; null remove o id).
+     */
+    BaseTrigramas mesclar(Map<Integer, String> alteracoes) {
+        int[] novosIds = new int[ids.length + alteracoes.size()];
+        String[] novosTermos = new String[novosIds.length];
+        int quantidade = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (!alteracoes.containsKey(ids[i])) {
+                novosIds[quantidade] = ids[i];
+                novosTermos[quantidade++] = termo(i);
+            }
+        }
+        for (Map.Entry<Integer, String> alteracao : alteracoes.entrySet()) {
+            if (alteracao.getValue() != null) {
+                novosIds[quantidade] = alteracao.getKey();
+                novosTermos[quantidade++] = alteracao.getValue();
+            }
+        }
+        return criar(novosIds, novosTermos, quantidade);
+    }
+
+    int getTamanho() {
+        return ids.length;
+    }
+
+    int getId(int posicao) {
+        return ids[posicao];
+    }
+
+    boolean contemId(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * Termo normalizado do id, ou null se ele não está na base.
+     */
+    String termoDoId(int id) {
+        int posicao = Arrays.binarySearch(ids, id);
+        return posicao >= 0 ? termo(posicao) : null;
+    }
+
+    /**
+     * Ids (em ordem crescente) dos termos que podem conter o trecho não vazio: com até três
+     * caracteres, exatamente os que o contêm; com mais, a interseção das listas dos seus
+     * trigramas, que ainda precisa ser confirmada com {@link #termoContem}. O array devolvido
+     * pode ser o da própria base e não deve ser alterado.
+     */
+    int[] candidatos(String trecho) {
+        if (trecho.length() <= 3) {
+            return lista(grama(trecho, 0, trecho.length()));
+        }
+        int[][] listasTrecho = new int[trecho.length() - 2][];
+        for (int i = 0; i < listasTrecho.length; i++) {
+            listasTrecho[i] = lista(grama(trecho, i, 3));
+            if (listasTrecho[i].length == 0) {
+                return NENHUM;
+            }
+        }
+        // Da lista mais curta para a mais longa: o resultado só diminui
+        Arrays.sort(listasTrecho, Comparator.comparingInt(lista -> lista.length));
+        int[] resultado = listasTrecho[0];
+        for (int i = 1; i < listasTrecho.length && resultado.length > 0; i++) {
+            resultado = intersecao(resultado, listasTrecho[i]);
+        }
+        return resultado;
+    }
+
+    boolean termoContem(int id, String trecho) {
+        int posicao = Arrays.binarySearch(ids, id);
+        if (posicao < 0) {
+            return false;
+        }
+        int fim = inicioTermo[posicao + 1] - trecho.length();
+        for (int inicio = inicioTermo[posicao]; inicio <= fim; inicio++) {
+            int i = 0;
+            while (i < trecho.length() && termos[inicio + i] == trecho.charAt(i)) {
+                i++;
+            }
+            if (i == trecho.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String termo(int posicao) {
+        return new String(termos, inicioTermo[posicao], inicioTermo[posicao + 1] - inicioTermo[posicao]);
+    }
+
+    private int[] lista(long grama) {
+        int k = Arrays.binarySearch(gramas, grama);
+        return k >= 0 ? listas[k] : NENHUM;
+    }
+
+    // Listas de tamanhos parecidos são percorridas juntas; se a maior for muito maior, cada id
+    // da menor é procurado nela por busca binária a partir do último encontrado
+    private static int[] intersecao(int[] menor, int[] maior) {
+        int[] resultado = new int[menor.length];
+        int quantidade = 0;
+        if (maior.length / 16 > menor.length) {
+            int inicio = 0;
+            for (int i = 0; i < menor.length && inicio < maior.length; i++) {
+                int posicao = Arrays.binarySearch(maior, inicio, maior.length, menor[i]);
+                if (posicao >= 0) {
+                    resultado[quantidade++] = menor[i];
+                    inicio = posicao + 1;
+                } else {
+                    inicio = -posicao - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < menor.length && j < maior.length) {
+                if (menor[i] < maior[j]) {
+                    i++;
+                } else if (menor[i] > maior[j]) {
+                    j++;
+                } else {
+                    resultado[quantidade++] = menor[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(resultado, quantidade);
+    }
+
+    // Gramas de 1, 2 e 3 caracteres do termo, sem repetição, no início de destino
+    private static int gramasDistintos(String termo, long[] destino) {
+        int quantidade = 0;
+        for (int tamanho = 1; tamanho <= 3; tamanho++) {
+            for (int i = 0; i + tamanho <= termo.length(); i++) {
+                destino[quantidade++] = grama(termo, i, tamanho);
+            }
+        }
+        Arrays.sort(destino, 0, quantidade);
+        int distintos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (distintos == 0 || destino[distintos - 1] != destino[i]) {
+                destino[distintos++] = destino[i];
+            }
+        }
+        return distintos;
+    }
+
+    // Até 3 chars de 16 bits nos 48 bits baixos e o tamanho nos bits acima, para que gramas
+    // de tamanhos diferentes nunca tenham a mesma chave (e nenhuma chave seja 0)
+    static long grama(String texto, int inicio, int tamanho) {
+        long chave = tamanho;
+        for (int i = 0; i < tamanho; i++) {
+            chave = (chave << 16) | texto.charAt(inicio + i);
+        }
+        return chave;
+    }
+
+    /**
+     * Contagem por grama com endereçamento aberto, sem objetos por chave (0 marca posição livre).
+     */
+    private static final class MapaGramas {
+        private long[] chaves = new long[1024];
+        private int[] valores = new int[1024];
+        private int tamanho;
+
+        void somar(long chave) {
+            int posicao = posicao(chaves, chave);
+            if (chaves[posicao] == 0) {
+                chaves[posicao] = chave;
+                if (++tamanho * 2 > chaves.length) {
+                    crescer();
+                    posicao = posicao(chaves, chave);
+                }
+            }
+            valores[posicao]++;
+        }
+
+        // Só para chaves já presentes
+        void definir(long chave, int valor) {
+            valores[posicao(chaves, chave)] = valor;
+        }
+
+        int valor(long chave) {
+            int posicao = posicao(chaves, chave);
+            return chaves[posicao] == chave ? valores[posicao] : 0;
+        }
+
+        long[] chaves() {
+            long[] resultado = new long[tamanho];
+            int quantidade = 0;
+            for (long chave : chaves) {
+                if (chave != 0) {
+                    resultado[quantidade++] = chave;
+                }
+            }
+            return resultado;
+        }
+
+        private void crescer() {
+            long[] antigasChaves = chaves;
+            int[] antigosValores = valores;
+            chaves = new long[antigasChaves.length * 2];
+            valores = new int[chaves.length];
+            for (int i = 0; i < antigasChaves.length; i++) {
+                if (antigasChaves[i] != 0) {
+                    int posicao = posicao(chaves, antigasChaves[i]);
+                    chaves[posicao] = antigasChaves[i];
+                    valores[posicao] = antigosValores[i];
+                }
+            }
+        }
+
+        private static int posicao(long[] chaves, long chave) {
+            int mascara = chaves.length - 1;
+            long misturado = chave * 0x9E3779B97F4A7C15L;
+            int posicao = (int) (misturado ^ (misturado >>> 32)) & mascara;
+            while (chaves[posicao] != 0 && chaves[posicao] != chave) {
+                posicao = (posicao + 1) & mascara;
+            }
+            return posicao;
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package busca;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Índice invertido das explicações aprovadas (definição e exemplo de uso), para buscar gírias
+ * pelo significado ("gíria para quem está sem dinheiro") com ranking BM25.
+ *
+ * Os textos passam pelo {@link Tokenizador} (sem acentos, minúsculas, sem palavras vazias).
+ * Explicações incluídas ou alteradas entram em um buffer em memória; quando o buffer enche,
+ * vira um {@link SegmentoBusca} imutável, gravado no diretório do índice. Versões antigas de
+ * uma explicação continuam nos segmentos anteriores mas deixam de contar; quando há segmentos
+ * demais eles são fundidos em um só, descartando essas versões.
+ *
+ * Na inicialização os segmentos gravados são lidos e conferidos com o banco por uma assinatura
+ * do texto de cada explicação: só as explicações novas, alteradas ou gravadas depois do último
+ * segmento são lidas e indexadas de novo. O índice é mantido pelo ExplicacaoDAO
+ * ({@code salvar}/{@code atualizar}/{@code excluir}).
+ */
+public class IndiceExplicacoes {
+
+    private static final IndiceExplicacoes INSTANCIA = new IndiceExplicacoes();
+
+    // Parâmetros usuais do BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Explicações no buffer antes de virar segmento e segmentos antes de serem fundidos
+    private static final int LIMITE_BUFFER = 1000;
+    private static final int LIMITE_SEGMENTOS = 8;
+    private static final int LIMITE_FILTRO_IN = 1000;
+
+    private static final String PREFIXO_ARQUIVO = "segmento-";
+    private static final String EXTENSAO_ARQUIVO = ".idx";
+    // Muda quando o texto indexado da explicação muda; calculada também por assinatura()
+    private static final String SQL_ASSINATURA = "CRC32(CONCAT_WS('|', definicao, exemplo_uso))";
+
+    /**
+     * Explicação encontrada e sua pontuação BM25.
+     */
+    public static class Resultado {
+        private final int explicacaoId;
+        private final double pontuacao;
+
+        Resultado(int explicacaoId, double pontuacao) {
+            this.explicacaoId = explicacaoId;
+            this.pontuacao = pontuacao;
+        }
+
+        public int getExplicacaoId() {
+            return explicacaoId;
+        }
+
+        public double getPontuacao() {
+            return pontuacao;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Estado abaixo protegido pelo lock
+    private Path diretorio;
+    private final List<SegmentoBusca> segmentos = new ArrayList<>();
+    // id da explicação -> número do segmento com a versão atual (explicações fora do buffer)
+    private final Map<Integer, Integer> donos = new HashMap<>();
+    private final Map<Integer, SegmentoBusca.Documento> bufferDocumentos = new HashMap<>();
+    private final Map<Integer, Map<String, Integer>> bufferTermos = new HashMap<>();
+    // Quantidade de termos de cada explicação indexada
+    private final Map<Integer, Integer> comprimentos = new HashMap<>();
+    private long comprimentoTotal;
+    private int proximoNumero = 1;
+    private volatile boolean carregado;
+
+    public static IndiceExplicacoes getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Carrega o índice: lê os segmentos gravados em {@code diretorio} e indexa as explicações
+     * aprovadas que faltam ou mudaram desde então, descartando as que deixaram de existir ou de
+     * estar aprovadas.
+     * @param diretorio Diretório dos segmentos (criado se não existir); null para um índice só em memória
+     */
+    public void carregar(Connection connection, Path diretorio) {
+        lock.writeLock().lock();
+        try {
+            this.diretorio = diretorio;
+            segmentos.clear();
+            donos.clear();
+            bufferDocumentos.clear();
+            bufferTermos.clear();
+            comprimentos.clear();
+            comprimentoTotal = 0;
+            proximoNumero = 1;
+
+            if (diretorio != null) {
+                lerSegmentos();
+            }
+            reconciliar(connection);
+
+            descarregarBuffer();
+            compactar();
+            carregado = true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao carregar índice de explicações: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao ler índice de explicações: " + e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    /**
+     * Registra o estado atual de uma explicação: aprovadas entram (ou são atualizadas) no índice,
+     * as demais saem. Ignorado enquanto o índice não foi carregado.
+     */
+    public void atualizar(int id, String definicao, String exemploUso, boolean aprovada) {
+        lock.writeLock().lock();
+        try {
+            if (!carregado) {
+                return;
+            }
+            if (!aprovada) {
+                removerDocumento(id);
+                return;
+            }
+            indexar(id, definicao, exemploUso, assinatura(definicao, exemploUso));
+            if (bufferDocumentos.size() >= LIMITE_BUFFER) {
+                descarregarBuffer();
+                compactar();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retira uma explicação do índice.
+     */
+    public void remover(int id) {
+        lock.writeLock().lock();
+        try {
+            if (carregado) {
+                removerDocumento(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Grava o buffer como segmento, para que a próxima inicialização não precise reindexar essas
+     * explicações (por exemplo, ao encerrar a aplicação).
+     */
+    public void gravar() {
+        lock.writeLock().lock();
+        try {
+            descarregarBuffer();
+            compactar();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * As {@code k} explicações aprovadas mais relevantes para a consulta, da maior para a menor
+     * pontuação BM25. Consultas só com palavras vazias não encontram nada.
+     */
+    public List<Resultado> buscar(String consulta, int k) {
+        Set<String> termosConsulta = new LinkedHashSet<>(Tokenizador.termos(consulta));
+        lock.readLock().lock();
+        try {
+            int totalDocumentos = comprimentos.size();
+            if (termosConsulta.isEmpty() || totalDocumentos == 0 || k <= 0) {
+                return new ArrayList<>();
+            }
+            double comprimentoMedio = Math.max(1.0, (double) comprimentoTotal / totalDocumentos);
+
+            Map<Integer, Double> pontuacoes = new HashMap<>();
+            for (String termo : termosConsulta) {
+                // Ocorrências do termo nas versões atuais: pares (id, frequência)
+                List<int[]> ocorrencias = new ArrayList<>();
+                for (SegmentoBusca segmento : segmentos) {
+                    int[] lista = segmento.postings.get(termo);
+                    if (lista == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < lista.length; i += 2) {
+                        Integer dono = donos.get(lista[i]);
+                        if (dono != null && dono == segmento.numero) {
+                            ocorrencias.add(new int[]{lista[i], lista[i + 1]});
+                        }
+                    }
+                }
+                for (Map.Entry<Integer, Map<String, Integer>> documento : bufferTermos.entrySet()) {
+                    Integer frequencia = documento.getValue().get(termo);
+                    if (frequencia != null) {
+                        ocorrencias.add(new int[]{documento.getKey(), frequencia});
+                    }
+                }
+                if (ocorrencias.isEmpty()) {
+                    continue;
+                }
+
+                int df = ocorrencias.size();
+                double idf = Math.log(1 + (totalDocumentos - df + 0.5) / (df + 0.5));
+                for (int[] ocorrencia : ocorrencias) {
+                    double tf = ocorrencia[1];
+                    double normalizacao = K1 * (1 - B + B * comprimentos.get(ocorrencia[0]) / comprimentoMedio);
+                    pontuacoes.merge(ocorrencia[0], idf * tf * (K1 + 1) / (tf + normalizacao), Double::sum);
+                }
+            }
+
+            // Menor pontuação no topo, para descartar quando passar de k
+            Comparator<Resultado> ordem = Comparator.comparingDouble(Resultado::getPontuacao)
+                    .thenComparing(Comparator.comparingInt(Resultado::getExplicacaoId).reversed());
+            PriorityQueue<Resultado> melhores = new PriorityQueue<>(ordem);
+            for (Map.Entry<Integer, Double> pontuacao : pontuacoes.entrySet()) {
+                melhores.add(new Resultado(pontuacao.getKey(), pontuacao.getValue()));
+                if (melhores.size() > k) {
+                    melhores.poll();
+                }
+            }
+            List<Resultado> resultados = new ArrayList<>(melhores);
+            resultados.sort(ordem.reversed());
+            return resultados;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTotalExplicacoes() {
+        lock.readLock().lock();
+        try {
+            return comprimentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void lerSegmentos() throws IOException {
+        Files.createDirectories(diretorio);
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO_ARQUIVO + "*" + EXTENSAO_ARQUIVO)) {
+            for (Path arquivo : arquivos) {
+                try {
+                    segmentos.add(SegmentoBusca.ler(arquivo));
+                } catch (IOException e) {
+                    // As explicações do segmento ilegível são reindexadas pela reconciliação
+                    System.err.println("Segmento do índice de explicações ignorado (" + arquivo + "): " + e.getMessage());
+                    Files.deleteIfExists(arquivo);
+                }
+            }
+        }
+        // Em segmentos repetidos (fusão interrompida antes de apagar os antigos) vale o mais novo
+        segmentos.sort(Comparator.comparingInt(segmento -> segmento.numero));
+        for (SegmentoBusca segmento : segmentos) {
+            for (Integer id : segmento.documentos.keySet()) {
+                donos.put(id, segmento.numero);
+            }
+            proximoNumero = Math.max(proximoNumero, segmento.numero + 1);
+        }
+    }
+
+    // Confere as explicações aprovadas do banco com as indexadas e indexa as que faltam ou mudaram
+    private void reconciliar(Connection connection) throws SQLException {
+        Set<Integer> aprovadas = new HashSet<>();
+        List<Integer> pendentes = new ArrayList<>();
+        String sql = "SELECT id, " + SQL_ASSINATURA + " AS assinatura FROM explicacao WHERE aprovada = true";
+        try (PreparedStatement pstm = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstm.setFetchSize(10_000);
+            try (ResultSet rst = pstm.executeQuery()) {
+                while (rst.next()) {
+                    int id = rst.getInt("id");
+                    aprovadas.add(id);
+                    SegmentoBusca.Documento documento = documentoIndexado(id);
+                    if (documento == null || documento.assinatura == 0 || documento.assinatura != rst.getLong("assinatura")) {
+                        pendentes.add(id);
+                    }
+                }
+            }
+        }
+
+        donos.keySet().retainAll(aprovadas);
+        donos.keySet().removeAll(pendentes);
+        for (Map.Entry<Integer, Integer> dono : donos.entrySet()) {
+            definirComprimento(dono.getKey(), segmento(dono.getValue()).documentos.get(dono.getKey()).comprimento);
+        }
+
+        for (int inicio = 0; inicio < pendentes.size(); inicio += LIMITE_FILTRO_IN) {
+            List<Integer> parte = pendentes.subList(inicio, Math.min(pendentes.size(), inicio + LIMITE_FILTRO_IN));
+            String sqlTextos = "SELECT id, definicao, exemplo_uso, " + SQL_ASSINATURA + " AS assinatura FROM explicacao " +
+                    "WHERE aprovada = true AND id IN (" + String.join(", ", Collections.nCopies(parte.size(), "?")) + ")";
+            try (PreparedStatement pstm = connection.prepareStatement(sqlTextos)) {
+                for (int i = 0; i < parte.size(); i++) {
+                    pstm.setInt(i + 1, parte.get(i));
+                }
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        indexar(rst.getInt("id"), rst.getString("definicao"), rst.getString("exemplo_uso"), rst.getLong("assinatura"));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A mesma assinatura de {@link #SQL_ASSINATURA}, calculada sobre o texto já em memória:
+     * CONCAT_WS ignora os textos nulos e o CRC32 do MySQL é feito sobre os bytes em UTF-8 (utf8mb4).
+     */
+    static long assinatura(String definicao, String exemploUso) {
+        StringJoiner texto = new StringJoiner("|");
+        if (definicao != null) {
+            texto.add(definicao);
+        }
+        if (exemploUso != null) {
+            texto.add(exemploUso);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(texto.toString().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private SegmentoBusca.Documento documentoIndexado(int id) {
+        Integer dono = donos.get(id);
+        return dono != null ? segmento(dono).documentos.get(id) : null;
+    }
+
+    private SegmentoBusca segmento(int numero) {
+        for (SegmentoBusca segmento : segmentos) {
+            if (segmento.numero == numero) {
+                return segmento;
+            }
+        }
+        throw new IllegalStateException("Segmento " + numero + " não encontrado.");
+    }
+
+    private void indexar(int id, String definicao, String exemploUso, long assinatura) {
+        removerDocumento(id);
+        List<String> termos = Tokenizador.termos(definicao);
+        termos.addAll(Tokenizador.termos(exemploUso));
+        Map<String, Integer> frequencias = new HashMap<>();
+        for (String termo : termos) {
+            frequencias.merge(termo, 1, Integer::sum);
+        }
+        bufferDocumentos.put(id, new SegmentoBusca.Documento(id, termos.size(), assinatura));
+        bufferTermos.put(id, frequencias);
+        definirComprimento(id, termos.size());
+    }
+
+    private void removerDocumento(int id) {
+        donos.remove(id);
+        bufferDocumentos.remove(id);
+        bufferTermos.remove(id);
+        Integer anterior = comprimentos.remove(id);
+        if (anterior != null) {
+            comprimentoTotal -= anterior;
+        }
+    }
+
+    private void definirComprimento(int id, int comprimento) {
+        Integer anterior = comprimentos.put(id, comprimento);
+        comprimentoTotal += comprimento - (anterior != null ? anterior : 0);
+    }
+
+    // Transforma o buffer em um segmento imutável e o grava
+    private void descarregarBuffer() {
+        if (bufferDocumentos.isEmpty()) {
+            return;
+        }
+        SegmentoBusca segmento = SegmentoBusca.criar(proximoNumero++, new HashMap<>(bufferDocumentos), new HashMap<>(bufferTermos));
+        segmentos.add(segmento);
+        for (Integer id : segmento.documentos.keySet()) {
+            donos.put(id, segmento.numero);
+        }
+        bufferDocumentos.clear();
+        bufferTermos.clear();
+        gravarSegmento(segmento);
+    }
+
+    // Descarta segmentos sem versões atuais e, se ainda houver segmentos demais, funde todos em um
+    private void compactar() {
+        Set<Integer> comDocumentos = new HashSet<>(donos.values());
+        List<SegmentoBusca> vazios = new ArrayList<>();
+        for (SegmentoBusca segmento : segmentos) {
+            if (!comDocumentos.contains(segmento.numero)) {
+                vazios.add(segmento);
+            }
+        }
+        segmentos.removeAll(vazios);
+        apagarSegmentos(vazios);
+
+        if (segmentos.size() <= LIMITE_SEGMENTOS) {
+            return;
+        }
+        Map<Integer, SegmentoBusca.Documento> documentos = new HashMap<>();
+        Map<Integer, Map<String, Integer>> termos = new HashMap<>();
+        for (SegmentoBusca segmento : segmentos) {
+            for (Map.Entry<String, int[]> termo : segmento.postings.entrySet()) {
+                int[] lista = termo.getValue();
+                for (int i = 0; i < lista.length; i += 2) {
+                    Integer dono = donos.get(lista[i]);
+                    if (dono != null && dono == segmento.numero) {
+                        termos.computeIfAbsent(lista[i], id -> new HashMap<>()).put(termo.getKey(), lista[i + 1]);
+                    }
+                }
+            }
+            for (SegmentoBusca.Documento documento : segmento.documentos.values()) {
+                Integer dono = donos.get(documento.id);
+                if (dono != null && dono == segmento.numero) {
+                    documentos.put(documento.id, documento);
+                    termos.computeIfAbsent(documento.id, id -> new HashMap<>());
+                }
+            }
+        }
+
+        List<SegmentoBusca> antigos = new ArrayList<>(segmentos);
+        SegmentoBusca fundido = SegmentoBusca.criar(proximoNumero++, documentos, termos);
+        segmentos.clear();
+        segmentos.add(fundido);
+        for (Integer id : documentos.keySet()) {
+            donos.put(id, fundido.numero);
+        }
+        // O fundido é gravado antes de apagar os antigos: uma interrupção no meio deixa segmentos
+        // repetidos, resolvidos na próxima carga pelo número
+        gravarSegmento(fundido);
+        apagarSegmentos(antigos);
+    }
+
+    // Falhas de disco não afetam a busca: o segmento continua em memória e, se não for gravado,
+    // suas explicações são reindexadas na próxima carga
+    private void gravarSegmento(SegmentoBusca segmento) {
+        if (diretorio == null) {
+            return;
+        }
+        try {
+            segmento.gravar(diretorio.resolve(PREFIXO_ARQUIVO + segmento.numero + EXTENSAO_ARQUIVO));
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar segmento do índice de explicações: " + e.getMessage());
+        }
+    }
+
+    private void apagarSegmentos(List<SegmentoBusca> antigos) {
+        if (diretorio == null) {
+            return;
+        }
+        for (SegmentoBusca segmento : antigos) {
+            try {
+                Files.deleteIfExists(diretorio.resolve(PREFIXO_ARQUIVO + segmento.numero + EXTENSAO_ARQUIVO));
+            } catch (IOException e) {
+                System.err.println("Erro ao apagar segmento do índice de explicações: " + e.getMessage());
+            }
+        }
+    }
+}
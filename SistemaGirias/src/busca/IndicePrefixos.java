@@ -0,0 +1,293 @@
+package busca;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Índice imutável e compacto de termos para autocompletar por prefixo.
+ *
+ * Os termos normalizados ficam ordenados e concatenados em um único {@code byte[]} (UTF-8),
+ * o que equivale às folhas de uma trie: todos os termos com o mesmo prefixo ocupam uma faixa
+ * contínua, achada por busca binária. Uma árvore de segmentos sobre as pontuações devolve
+ * os k maiores da faixa em O(k log n), sem percorrer a faixa inteira.
+ *
+ * Com 1 milhão de termos curtos, como os do benchmark do AutocompletarGiriasTest, o índice
+ * ocupa por volta de 46 MB (sem objetos por termo) e devolve os 10 melhores de um prefixo em
+ * dezenas de microssegundos.
+ */
+class IndicePrefixos {
+
+    /**
+     * Termo a ser indexado.
+     */
+    static final class Entrada {
+        final int id;
+        final String termo;
+        final String normalizado;
+        final int pontuacao;
+        // Chave em UTF-8: a ordem do índice é a ordem dos bytes, a mesma usada na busca binária
+        final byte[] chave;
+
+        Entrada(int id, String termo, int pontuacao) {
+            this.id = id;
+            this.termo = termo;
+            this.normalizado = Normalizador.normalizar(termo);
+            this.pontuacao = pontuacao;
+            this.chave = normalizado.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private Entrada(Entrada outra, int pontuacao) {
+            this.id = outra.id;
+            this.termo = outra.termo;
+            this.normalizado = outra.normalizado;
+            this.pontuacao = pontuacao;
+            this.chave = outra.chave;
+        }
+
+        /**
+         * A mesma entrada com outra pontuação (sem normalizar o termo de novo).
+         */
+        Entrada comPontuacao(int pontuacao) {
+            return new Entrada(this, pontuacao);
+        }
+    }
+
+    static final IndicePrefixos VAZIO = new IndicePrefixos(new ArrayList<>());
+
+    private final int tamanho;
+    private final byte[] chaves;
+    private final int[] inicioChave;
+    private final byte[] originais;
+    private final int[] inicioOriginal;
+    private final int[] ids;
+    private final int[] pontuacoes;
+    // Árvore de segmentos iterativa: cada nó guarda a posição de maior pontuação do intervalo
+    private final int[] arvore;
+    // id nos 32 bits altos e posição nos baixos, em ordem de id, para achar a entrada de um id
+    private final long[] porId;
+
+    IndicePrefixos(List<Entrada> entradas) {
+        this(null, id -> true, entradas);
+    }
+
+    /**
+     * Índice com as entradas de {@code anterior} cujo id não é {@code descartado} mais as
+     * {@code novas}. Os termos mantidos são copiados já empacotados, sem um objeto por termo.
+     */
+    IndicePrefixos(IndicePrefixos anterior, IntPredicate descartado, List<Entrada> novas) {
+        Entrada[] ordenadas = novas.toArray(new Entrada[0]);
+        Arrays.sort(ordenadas, ((Comparator<Entrada>) (a, b) -> Arrays.compareUnsigned(a.chave, b.chave))
+                .thenComparingInt(e -> e.id));
+
+        // Posições mantidas do índice anterior, já na ordem do índice
+        int[] mantidas = new int[anterior == null ? 0 : anterior.tamanho];
+        int quantidadeMantidas = 0;
+        int totalChaves = 0;
+        int totalOriginais = 0;
+        for (int posicao = 0; posicao < mantidas.length; posicao++) {
+            if (!descartado.test(anterior.ids[posicao])) {
+                mantidas[quantidadeMantidas++] = posicao;
+                totalChaves += anterior.inicioChave[posicao + 1] - anterior.inicioChave[posicao];
+                totalOriginais += anterior.inicioOriginal[posicao + 1] - anterior.inicioOriginal[posicao];
+            }
+        }
+        byte[][] originaisNovas = new byte[ordenadas.length][];
+        for (int i = 0; i < ordenadas.length; i++) {
+            originaisNovas[i] = ordenadas[i].termo.getBytes(StandardCharsets.UTF_8);
+            totalChaves += ordenadas[i].chave.length;
+            totalOriginais += originaisNovas[i].length;
+        }
+
+        tamanho = quantidadeMantidas + ordenadas.length;
+        ids = new int[tamanho];
+        pontuacoes = new int[tamanho];
+        inicioChave = new int[tamanho + 1];
+        inicioOriginal = new int[tamanho + 1];
+        chaves = new byte[totalChaves];
+        originais = new byte[totalOriginais];
+
+        // Intercala as posições mantidas com as entradas novas
+        int mantida = 0;
+        int nova = 0;
+        for (int posicao = 0; posicao < tamanho; posicao++) {
+            if (nova == ordenadas.length
+                    || (mantida < quantidadeMantidas && anterior.compararCom(mantidas[mantida], ordenadas[nova]) < 0)) {
+                int origem = mantidas[mantida++];
+                ids[posicao] = anterior.ids[origem];
+                pontuacoes[posicao] = anterior.pontuacoes[origem];
+                copiar(anterior.chaves, anterior.inicioChave[origem], anterior.inicioChave[origem + 1], chaves, inicioChave, posicao);
+                copiar(anterior.originais, anterior.inicioOriginal[origem], anterior.inicioOriginal[origem + 1],
+                        originais, inicioOriginal, posicao);
+            } else {
+                Entrada entrada = ordenadas[nova];
+                ids[posicao] = entrada.id;
+                pontuacoes[posicao] = entrada.pontuacao;
+                copiar(entrada.chave, 0, entrada.chave.length, chaves, inicioChave, posicao);
+                copiar(originaisNovas[nova], 0, originaisNovas[nova].length, originais, inicioOriginal, posicao);
+                nova++;
+            }
+        }
+
+        arvore = new int[Math.max(2, 2 * tamanho)];
+        for (int i = 0; i < tamanho; i++) {
+            arvore[tamanho + i] = i;
+        }
+        for (int no = tamanho - 1; no > 0; no--) {
+            arvore[no] = melhor(arvore[2 * no], arvore[2 * no + 1]);
+        }
+
+        porId = new long[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            porId[i] = ((long) ids[i] << 32) | i;
+        }
+        Arrays.sort(porId);
+    }
+
+    int getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Devolve, em ordem decrescente de pontuação, até {@code k} termos que começam com o prefixo
+     * e cujo id não é {@code ignorado}.
+     * @param prefixo Prefixo já normalizado
+     */
+    List<Entrada> melhores(String prefixo, int k, IntPredicate ignorado) {
+        List<Entrada> resultado = new ArrayList<>();
+        if (tamanho == 0 || k <= 0) {
+            return resultado;
+        }
+
+        byte[] alvo = prefixo.getBytes(StandardCharsets.UTF_8);
+        int inicio = primeiraPosicao(alvo, false);
+        int fim = primeiraPosicao(alvo, true);
+        if (inicio >= fim) {
+            return resultado;
+        }
+
+        // Cada item é {posição do máximo, início, fim} de um intervalo ainda não explorado
+        PriorityQueue<int[]> fila = new PriorityQueue<>((a, b) -> comparar(b[0], a[0]));
+        fila.add(new int[]{maximo(inicio, fim), inicio, fim});
+
+        while (!fila.isEmpty() && resultado.size() < k) {
+            int[] intervalo = fila.poll();
+            int posicao = intervalo[0];
+
+            if (!ignorado.test(ids[posicao])) {
+                resultado.add(entrada(posicao));
+            }
+            if (intervalo[1] < posicao) {
+                fila.add(new int[]{maximo(intervalo[1], posicao), intervalo[1], posicao});
+            }
+            if (posicao + 1 < intervalo[2]) {
+                fila.add(new int[]{maximo(posicao + 1, intervalo[2]), posicao + 1, intervalo[2]});
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * A entrada do id, ou null se ele não está no índice.
+     */
+    Entrada entradaDoId(int id) {
+        int baixo = 0;
+        int alto = tamanho - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int atual = (int) (porId[meio] >> 32);
+            if (atual < id) {
+                baixo = meio + 1;
+            } else if (atual > id) {
+                alto = meio - 1;
+            } else {
+                return entrada((int) porId[meio]);
+            }
+        }
+        return null;
+    }
+
+    private Entrada entrada(int posicao) {
+        String termo = new String(originais, inicioOriginal[posicao],
+                inicioOriginal[posicao + 1] - inicioOriginal[posicao], StandardCharsets.UTF_8);
+        return new Entrada(ids[posicao], termo, pontuacoes[posicao]);
+    }
+
+    // Mesma ordem do índice: chave (bytes sem sinal) e id
+    private int compararCom(int posicao, Entrada entrada) {
+        int comparacao = Arrays.compareUnsigned(chaves, inicioChave[posicao], inicioChave[posicao + 1],
+                entrada.chave, 0, entrada.chave.length);
+        return comparacao != 0 ? comparacao : Integer.compare(ids[posicao], entrada.id);
+    }
+
+    // Copia origem[inicio, fim) para a posição do destino, que começa onde a anterior termina
+    private static void copiar(byte[] origem, int inicio, int fim, byte[] destino, int[] inicios, int posicao) {
+        System.arraycopy(origem, inicio, destino, inicios[posicao], fim - inicio);
+        inicios[posicao + 1] = inicios[posicao] + fim - inicio;
+    }
+
+    /**
+     * Busca binária da primeira chave que não é menor que o prefixo ou,
+     * com {@code aposPrefixo}, da primeira chave que já passou de todas as que começam com ele.
+     */
+    private int primeiraPosicao(byte[] prefixo, boolean aposPrefixo) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            int comparacao = compararPrefixo(meio, prefixo);
+            if (comparacao < 0 || (aposPrefixo && comparacao == 0)) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    // Compara os primeiros bytes da chave com o prefixo; 0 quando a chave começa com ele
+    private int compararPrefixo(int posicao, byte[] prefixo) {
+        int inicio = inicioChave[posicao];
+        int comprimento = inicioChave[posicao + 1] - inicio;
+        int limite = Math.min(comprimento, prefixo.length);
+        for (int i = 0; i < limite; i++) {
+            int diferenca = (chaves[inicio + i] & 0xFF) - (prefixo[i] & 0xFF);
+            if (diferenca != 0) {
+                return diferenca;
+            }
+        }
+        return comprimento < prefixo.length ? -1 : 0;
+    }
+
+    // Posição de maior pontuação em [inicio, fim)
+    private int maximo(int inicio, int fim) {
+        int resultado = -1;
+        for (int esquerda = inicio + tamanho, direita = fim + tamanho; esquerda < direita; esquerda >>= 1, direita >>= 1) {
+            if ((esquerda & 1) == 1) {
+                resultado = resultado < 0 ? arvore[esquerda] : melhor(resultado, arvore[esquerda]);
+                esquerda++;
+            }
+            if ((direita & 1) == 1) {
+                direita--;
+                resultado = resultado < 0 ? arvore[direita] : melhor(resultado, arvore[direita]);
+            }
+        }
+        return resultado;
+    }
+
+    private int melhor(int a, int b) {
+        return comparar(a, b) >= 0 ? a : b;
+    }
+
+    // Maior pontuação vence; no empate, a posição menor (ordem alfabética)
+    private int comparar(int a, int b) {
+        if (pontuacoes[a] != pontuacoes[b]) {
+            return Integer.compare(pontuacoes[a], pontuacoes[b]);
+        }
+        return Integer.compare(b, a);
+    }
+}
@@ -0,0 +1,277 @@
+package busca;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice invertido de trigramas sobre {@code giria.termo}, para buscas por trecho
+ * ({@code LIKE '%x%'}) sem varrer a tabela.
+ *
+ * Cada termo normalizado é quebrado em gramas de 1, 2 e 3 caracteres. Um trecho de até três
+ * caracteres é ele próprio um grama, e a sua lista já é a resposta; trechos maiores cruzam as
+ * listas dos seus trigramas, da mais curta para a mais longa, e confirmam cada candidato.
+ *
+ * As consultas são respondidas por uma {@link BaseTrigramas} imutável (listas de ids em
+ * {@code int[]} ordenados) mais um pequeno conjunto de alterações recentes, que é percorrido
+ * por inteiro. Quando as alterações acumulam, uma base nova é montada em segundo plano e
+ * trocada atomicamente; as consultas nunca travam.
+ *
+ * O índice é compartilhado pela aplicação: carregado uma vez do banco e mantido pelos
+ * métodos {@code salvar}/{@code atualizar}/{@code excluir} do GiriaDAO depois do commit
+ * (ver {@link bd.SincronizacaoTransacao}). Alterações feitas durante um {@link #carregar}
+ * são reaplicadas sobre o índice novo antes da troca.
+ */
+public class IndiceTrigramas {
+
+    private static final IndiceTrigramas INSTANCIA = new IndiceTrigramas();
+
+    // Acima disso as alterações recentes são incorporadas em uma base nova
+    private static final int LIMITE_ALTERACOES = 2_000;
+
+    private static final ExecutorService RECONSTRUCAO = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "trigramas-reconstrucao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Base e alterações recentes, trocadas juntas. As alterações são um mapa imutável (id ->
+     * termo normalizado; null = removido), copiado a cada alteração.
+     */
+    private static final class Estado {
+        final BaseTrigramas base;
+        final Map<Integer, String> recentes;
+        // Ids de recentes em ordem crescente, para esconder as versões da base sem Integer por candidato
+        final int[] idsRecentes;
+
+        Estado(BaseTrigramas base, Map<Integer, String> recentes) {
+            this.base = base;
+            this.recentes = Collections.unmodifiableMap(recentes);
+            this.idsRecentes = recentes.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+
+        String termo(int id) {
+            return recentes.containsKey(id) ? recentes.get(id) : base.termoDoId(id);
+        }
+
+        boolean sobrescrito(int id) {
+            return idsRecentes.length > 0 && Arrays.binarySearch(idsRecentes, id) >= 0;
+        }
+    }
+
+    private volatile Estado estado = new Estado(BaseTrigramas.VAZIA, new HashMap<>());
+    private volatile boolean carregado;
+
+    // Serializa as alterações entre si e com a troca da base
+    private final ReentrantLock lockAlteracoes = new ReentrantLock();
+    // Impede uma reconstrução de trocar a base enquanto outra (ou um carregamento) roda
+    private final ReentrantLock lockReconstrucao = new ReentrantLock();
+    private final AtomicBoolean reconstrucaoAgendada = new AtomicBoolean();
+    // Alterações feitas durante o carregamento (id, termo; termo null = remoção), reaplicadas no índice novo
+    private List<Object[]> alteracoesEmCarga;
+
+    public static IndiceTrigramas getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Reconstrói o índice a partir da tabela giria.
+     */
+    public void carregar(Connection connection) {
+        List<Object[]> alteracoes = new ArrayList<>();
+        lockAlteracoes.lock();
+        try {
+            alteracoesEmCarga = alteracoes;
+        } finally {
+            lockAlteracoes.unlock();
+        }
+
+        int[] ids = new int[1024];
+        String[] termos = new String[ids.length];
+        int quantidade = 0;
+        String sql = "SELECT id, termo FROM giria";
+        try (PreparedStatement pstm = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstm.setFetchSize(10_000);
+            try (ResultSet rst = pstm.executeQuery()) {
+                while (rst.next()) {
+                    if (quantidade == ids.length) {
+                        ids = Arrays.copyOf(ids, quantidade * 2);
+                        termos = Arrays.copyOf(termos, quantidade * 2);
+                    }
+                    ids[quantidade] = rst.getInt("id");
+                    termos[quantidade++] = Normalizador.normalizar(rst.getString("termo"));
+                }
+            }
+        } catch (SQLException e) {
+            lockAlteracoes.lock();
+            try {
+                alteracoesEmCarga = null;
+            } finally {
+                lockAlteracoes.unlock();
+            }
+            throw new RuntimeException("Erro ao carregar índice de trigramas: " + e.getMessage(), e);
+        }
+        BaseTrigramas novaBase = BaseTrigramas.criar(ids, termos, quantidade);
+
+        lockReconstrucao.lock();
+        lockAlteracoes.lock();
+        try {
+            // A leitura pode não ter visto o que foi alterado enquanto ela rodava
+            Map<Integer, String> recentes = new HashMap<>();
+            for (Object[] alteracao : alteracoes) {
+                recentes.put((Integer) alteracao[0], (String) alteracao[1]);
+            }
+            alteracoesEmCarga = null;
+            estado = new Estado(novaBase, recentes);
+            carregado = true;
+        } finally {
+            lockAlteracoes.unlock();
+            lockReconstrucao.unlock();
+        }
+        reconstruirSeNecessario();
+    }
+
+    /**
+     * Indica se o índice já foi carregado; enquanto estiver frio, a busca deve ir ao banco.
+     */
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    /**
+     * Inclui ou atualiza o termo de uma gíria no índice.
+     */
+    public void adicionar(int id, String termo) {
+        alterar(id, Normalizador.normalizar(termo));
+    }
+
+    /**
+     * Retira uma gíria do índice.
+     */
+    public void remover(int id) {
+        alterar(id, null);
+    }
+
+    // normalizado null remove a gíria
+    private void alterar(int id, String normalizado) {
+        lockAlteracoes.lock();
+        try {
+            Estado atual = estado;
+            if (!Objects.equals(atual.termo(id), normalizado)) {
+                Map<Integer, String> recentes = new HashMap<>(atual.recentes);
+                recentes.put(id, normalizado);
+                estado = new Estado(atual.base, recentes);
+            }
+            if (alteracoesEmCarga != null) {
+                alteracoesEmCarga.add(new Object[]{id, normalizado});
+            }
+        } finally {
+            lockAlteracoes.unlock();
+        }
+        reconstruirSeNecessario();
+    }
+
+    /**
+     * Busca as gírias cujo termo contém o trecho (sem diferenciar acentos e maiúsculas).
+     * @return Ids das gírias encontradas em ordem crescente
+     */
+    public List<Integer> buscarIds(String trecho) {
+        String consulta = Normalizador.normalizar(trecho);
+        Estado atual = estado;
+        BaseTrigramas base = atual.base;
+        List<Integer> ids = new ArrayList<>();
+
+        if (consulta.isEmpty()) {
+            for (int posicao = 0; posicao < base.getTamanho(); posicao++) {
+                if (!atual.sobrescrito(base.getId(posicao))) {
+                    ids.add(base.getId(posicao));
+                }
+            }
+        } else {
+            boolean confirmar = consulta.length() > 3;
+            for (int id : base.candidatos(consulta)) {
+                if (!atual.sobrescrito(id) && (!confirmar || base.termoContem(id, consulta))) {
+                    ids.add(id);
+                }
+            }
+        }
+
+        boolean incluiuRecentes = false;
+        for (Map.Entry<Integer, String> recente : atual.recentes.entrySet()) {
+            if (recente.getValue() != null && recente.getValue().contains(consulta)) {
+                ids.add(recente.getKey());
+                incluiuRecentes = true;
+            }
+        }
+        // Os ids da base já vêm em ordem
+        if (incluiuRecentes) {
+            Collections.sort(ids);
+        }
+        return ids;
+    }
+
+    public int getTotalTermos() {
+        Estado atual = estado;
+        int total = atual.base.getTamanho();
+        for (Map.Entry<Integer, String> recente : atual.recentes.entrySet()) {
+            if (atual.base.contemId(recente.getKey())) {
+                total--;
+            }
+            if (recente.getValue() != null) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    // Quantidade de gírias alteradas desde a última reconstrução
+    int getAlteracoesPendentes() {
+        return estado.recentes.size();
+    }
+
+    private void reconstruirSeNecessario() {
+        if (estado.recentes.size() >= LIMITE_ALTERACOES && reconstrucaoAgendada.compareAndSet(false, true)) {
+            RECONSTRUCAO.execute(this::reconstruir);
+        }
+    }
+
+    private void reconstruir() {
+        lockReconstrucao.lock();
+        try {
+            reconstrucaoAgendada.set(false);
+            Estado anterior = estado;
+            BaseTrigramas novaBase = anterior.base.mesclar(anterior.recentes);
+
+            lockAlteracoes.lock();
+            try {
+                // Alterações feitas durante a reconstrução continuam pendentes
+                Map<Integer, String> pendentes = new HashMap<>();
+                for (Map.Entry<Integer, String> recente : estado.recentes.entrySet()) {
+                    Integer id = recente.getKey();
+                    if (!anterior.recentes.containsKey(id) || !Objects.equals(anterior.recentes.get(id), recente.getValue())) {
+                        pendentes.put(id, recente.getValue());
+                    }
+                }
+                estado = new Estado(novaBase, pendentes);
+            } finally {
+                lockAlteracoes.unlock();
+            }
+        } finally {
+            lockReconstrucao.unlock();
+        }
+        reconstruirSeNecessario();
+    }
+}
@@ -0,0 +1,26 @@
+package busca;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de texto usada pelos índices em memória.
+ * Remove acentos e converte para minúsculas, aproximando a comparação
+ * insensível a acentos e maiúsculas que o MySQL faz nas colunas de texto.
+ */
+public class Normalizador {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private Normalizador() {
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,130 @@
+package busca;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Segmento imutável do {@link IndiceExplicacoes}: as listas invertidas de um conjunto de
+ * documentos, gravável em disco.
+ *
+ * Um documento pode aparecer em mais de um segmento (versões antigas de explicações alteradas);
+ * quem decide qual versão vale é o índice, pelo número do segmento.
+ */
+final class SegmentoBusca {
+
+    private static final int VERSAO_ARQUIVO = 1;
+
+    /**
+     * Documento indexado: id da explicação, quantidade de termos e assinatura do texto no banco
+     * (0 quando desconhecida).
+     */
+    static final class Documento {
+        final int id;
+        final int comprimento;
+        final long assinatura;
+
+        Documento(int id, int comprimento, long assinatura) {
+            this.id = id;
+            this.comprimento = comprimento;
+            this.assinatura = assinatura;
+        }
+    }
+
+    final int numero;
+    final Map<Integer, Documento> documentos;
+    // termo -> pares (id do documento, frequência do termo) em ordem de id
+    final Map<String, int[]> postings;
+
+    SegmentoBusca(int numero, Map<Integer, Documento> documentos, Map<String, int[]> postings) {
+        this.numero = numero;
+        this.documentos = documentos;
+        this.postings = postings;
+    }
+
+    /**
+     * Monta um segmento a partir dos termos de cada documento.
+     * @param termos Frequência de cada termo, por id do documento
+     */
+    static SegmentoBusca criar(int numero, Map<Integer, Documento> documentos, Map<Integer, Map<String, Integer>> termos) {
+        Map<String, int[]> postings = new HashMap<>();
+        Map<String, Integer> tamanhos = new HashMap<>();
+        Integer[] ids = termos.keySet().toArray(new Integer[0]);
+        Arrays.sort(ids);
+        for (Integer id : ids) {
+            for (Map.Entry<String, Integer> termo : termos.get(id).entrySet()) {
+                int tamanho = tamanhos.merge(termo.getKey(), 1, Integer::sum);
+                int[] lista = postings.get(termo.getKey());
+                if (lista == null || lista.length < tamanho * 2) {
+                    lista = lista == null ? new int[4] : Arrays.copyOf(lista, lista.length * 2);
+                    postings.put(termo.getKey(), lista);
+                }
+                lista[tamanho * 2 - 2] = id;
+                lista[tamanho * 2 - 1] = termo.getValue();
+            }
+        }
+        postings.replaceAll((termo, lista) -> Arrays.copyOf(lista, tamanhos.get(termo) * 2));
+        return new SegmentoBusca(numero, documentos, postings);
+    }
+
+    /**
+     * Grava o segmento em um arquivo temporário e troca, para nunca deixar um segmento pela metade.
+     */
+    void gravar(Path arquivo) throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario)))) {
+            saida.writeInt(VERSAO_ARQUIVO);
+            saida.writeInt(numero);
+            saida.writeInt(documentos.size());
+            for (Documento documento : documentos.values()) {
+                saida.writeInt(documento.id);
+                saida.writeInt(documento.comprimento);
+                saida.writeLong(documento.assinatura);
+            }
+            saida.writeInt(postings.size());
+            for (Map.Entry<String, int[]> termo : postings.entrySet()) {
+                saida.writeUTF(termo.getKey());
+                saida.writeInt(termo.getValue().length);
+                for (int valor : termo.getValue()) {
+                    saida.writeInt(valor);
+                }
+            }
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static SegmentoBusca ler(Path arquivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo)))) {
+            int versao = entrada.readInt();
+            if (versao != VERSAO_ARQUIVO) {
+                throw new IOException("Versão de segmento não suportada: " + versao);
+            }
+            int numero = entrada.readInt();
+            int totalDocumentos = entrada.readInt();
+            Map<Integer, Documento> documentos = new HashMap<>(totalDocumentos * 2);
+            for (int i = 0; i < totalDocumentos; i++) {
+                Documento documento = new Documento(entrada.readInt(), entrada.readInt(), entrada.readLong());
+                documentos.put(documento.id, documento);
+            }
+            int totalTermos = entrada.readInt();
+            Map<String, int[]> postings = new HashMap<>(totalTermos * 2);
+            for (int i = 0; i < totalTermos; i++) {
+                String termo = entrada.readUTF();
+                int[] lista = new int[entrada.readInt()];
+                for (int j = 0; j < lista.length; j++) {
+                    lista[j] = entrada.readInt();
+                }
+                postings.put(termo, lista);
+            }
+            return new SegmentoBusca(numero, documentos, postings);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package busca;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Quebra textos em português em termos para a busca por significado.
+ * Os termos são normalizados pelo {@link Normalizador} (sem acentos, minúsculas), separados
+ * em tudo que não é letra ou dígito, e as palavras vazias (artigos, preposições, pronomes...)
+ * são descartadas.
+ */
+public class Tokenizador {
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Já normalizadas (sem acentos)
+    private static final Set<String> PALAVRAS_VAZIAS = Set.of(
+            "a", "o", "e", "as", "os", "um", "uma", "uns", "umas",
+            "de", "da", "do", "das", "dos", "em", "na", "no", "nas", "nos", "num", "numa",
+            "ao", "aos", "para", "pra", "pro", "por", "pelo", "pela", "pelos", "pelas",
+            "com", "sem", "sob", "sobre", "entre", "ate", "apos", "desde",
+            "que", "quem", "qual", "se", "ou", "mas", "como", "quando", "onde", "porque", "pois", "entao",
+            "eu", "tu", "ele", "ela", "eles", "elas", "voce", "voces", "me", "te", "lhe",
+            "meu", "minha", "seu", "sua", "seus", "suas", "isso", "isto", "esse", "essa", "este", "esta",
+            "aquele", "aquela", "aquilo", "ja", "nao", "sim", "tambem", "muito", "mais", "menos",
+            "ser", "foi", "era", "sao", "estar", "estao", "ter", "tem", "ha");
+
+    private Tokenizador() {
+    }
+
+    /**
+     * Termos do texto, na ordem em que aparecem (com repetições).
+     */
+    public static List<String> termos(String texto) {
+        List<String> termos = new ArrayList<>();
+        if (texto == null) {
+            return termos;
+        }
+        for (String termo : SEPARADORES.split(Normalizador.normalizar(texto))) {
+            if (!termo.isEmpty() && !PALAVRAS_VAZIAS.contains(termo)) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+}
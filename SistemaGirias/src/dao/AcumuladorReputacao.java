@@ -0,0 +1,156 @@
+package dao;
+
+import bd.ConnectionFactory;
+import bd.PoolConexoes;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Acumulador opcional das variações de reputação causadas por votos.
+ *
+ * Desligado, o {@link VotoDAO} aplica cada variação na própria transação do voto. Ligado
+ * ({@link #iniciar(long)}), as variações são somadas em memória, um {@link LongAdder} por objeto
+ * votado, e gravadas periodicamente em lote numa conexão própria: votos simultâneos no conteúdo
+ * de um mesmo autor não disputam a linha do usuário a cada voto.
+ *
+ * As somas são feitas por objeto votado, e não por autor, para não exigir uma consulta do autor
+ * a cada voto; na gravação o autor é resolvido pelo próprio UPDATE. A reputação fica atrasada em
+ * até um intervalo de gravação e a variação é acumulada mesmo que a transação do voto seja
+ * desfeita depois; use apenas onde isso for aceitável.
+ */
+public class AcumuladorReputacao {
+
+    private static final AcumuladorReputacao INSTANCIA = new AcumuladorReputacao(ConnectionFactory::getPool);
+
+    // Pool da conexão própria usada nas gravações
+    private final Supplier<PoolConexoes> pool;
+
+    // Variações pendentes por tabela do objeto votado ("giria", "explicacao") e id do objeto
+    private final Map<String, ConcurrentHashMap<Integer, LongAdder>> pendentes = Map.of(
+            "giria", new ConcurrentHashMap<>(),
+            "explicacao", new ConcurrentHashMap<>());
+    private volatile ScheduledExecutorService gravador;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    AcumuladorReputacao(Supplier<PoolConexoes> pool) {
+        this.pool = pool;
+    }
+
+    public static AcumuladorReputacao getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Liga o acumulador, gravando as variações pendentes a cada {@code intervaloMs}.
+     */
+    public void iniciar(long intervaloMs) {
+        lock.lock();
+        try {
+            if (gravador != null) {
+                return;
+            }
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "acumulador-reputacao");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::gravarPendentes, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+            gravador = executor;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Desliga o acumulador e grava o que estiver pendente.
+     */
+    public void parar() {
+        lock.lock();
+        try {
+            ScheduledExecutorService executor = gravador;
+            if (executor == null) {
+                return;
+            }
+            gravador = null;
+            executor.shutdown();
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            gravarPendentes();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isAtivo() {
+        return gravador != null;
+    }
+
+    /**
+     * Soma uma variação à reputação do autor do objeto votado.
+     * @param tabelaObjeto "giria" ou "explicacao"
+     */
+    void acumular(String tabelaObjeto, int objetoId, int variacao) {
+        pendentes.get(tabelaObjeto).computeIfAbsent(objetoId, id -> new LongAdder()).add(variacao);
+    }
+
+    /**
+     * Grava as variações pendentes em um lote por tabela. Em caso de erro as variações voltam a
+     * ficar pendentes para a próxima gravação.
+     */
+    public void gravarPendentes() {
+        for (Map.Entry<String, ConcurrentHashMap<Integer, LongAdder>> tabela : pendentes.entrySet()) {
+            List<int[]> variacoes = new ArrayList<>();
+            // As entradas não são removidas: somas feitas durante a leitura continuam no LongAdder
+            tabela.getValue().forEach((objetoId, soma) -> {
+                long variacao = soma.sumThenReset();
+                if (variacao != 0) {
+                    variacoes.add(new int[]{objetoId, (int) variacao});
+                }
+            });
+            if (variacoes.isEmpty()) {
+                continue;
+            }
+
+            try {
+                gravar(tabela.getKey(), variacoes);
+            } catch (SQLException | RuntimeException e) {
+                for (int[] variacao : variacoes) {
+                    acumular(tabela.getKey(), variacao[0], variacao[1]);
+                }
+                System.err.println("Erro ao gravar reputações acumuladas: " + e.getMessage());
+            }
+        }
+    }
+
+    private void gravar(String tabelaObjeto, List<int[]> variacoes) throws SQLException {
+        try (Connection connection = pool.get().obterConexao()) {
+            try (PreparedStatement pstm = connection.prepareStatement(VotoDAO.sqlAjusteReputacao(tabelaObjeto))) {
+                for (int[] variacao : variacoes) {
+                    pstm.setInt(1, variacao[1]);
+                    pstm.setInt(2, variacao[0]);
+                    pstm.addBatch();
+                }
+                pstm.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                ConnectionFactory.rollback(connection);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package dao;
+
+import bd.SincronizacaoTransacao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dicionário nome → id de uma tabela de nomes ({@code categoria} ou {@code regiao}).
+ *
+ * Carregado uma vez e compartilhado pela aplicação, ele evita consultar a tabela a cada gíria
+ * salva: os nomes conhecidos são resolvidos em memória e os que faltam são criados com um único
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE}, que já devolve o id (novo ou existente).
+ * Os ids criados só entram no dicionário depois do commit da transação que os criou
+ * (ver {@link SincronizacaoTransacao}), então um rollback não deixa ids inexistentes nele.
+ */
+public class DicionarioNomes {
+
+    public static final DicionarioNomes CATEGORIAS = new DicionarioNomes("categoria");
+    public static final DicionarioNomes REGIOES = new DicionarioNomes("regiao");
+
+    private final String tabela;
+    // Nome como foi pedido -> id (variações de maiúsculas/acentos resolvem para o mesmo id pelo collation do banco)
+    private final Map<String, Integer> idsPorNome = new ConcurrentHashMap<>();
+    // id -> nome gravado no banco
+    private final Map<Integer, String> nomesPorId = new ConcurrentHashMap<>();
+    private volatile boolean carregado;
+
+    private DicionarioNomes(String tabela) {
+        this.tabela = tabela;
+    }
+
+    /**
+     * Carrega todos os nomes da tabela.
+     */
+    public void carregar(Connection connection) {
+        String sql = "SELECT id, nome FROM " + tabela;
+        try (PreparedStatement pstm = connection.prepareStatement(sql);
+             ResultSet rst = pstm.executeQuery()) {
+            idsPorNome.clear();
+            nomesPorId.clear();
+            while (rst.next()) {
+                registrar(rst.getString("nome"), rst.getInt("id"));
+            }
+            carregado = true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao carregar dicionário de " + tabela + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Descarta o conteúdo; a próxima consulta ou resolução recarrega a tabela.
+     * Usado quando uma gravação falha e algum id em memória pode não existir mais no banco
+     * (por exemplo, nome excluído por fora ou criado em uma conexão sem
+     * {@link SincronizacaoTransacao}, cujo id é publicado na hora).
+     */
+    public void invalidar() {
+        carregado = false;
+        idsPorNome.clear();
+        nomesPorId.clear();
+    }
+
+    /**
+     * Resolve os ids dos nomes, criando na tabela os que ainda não existem.
+     * @return Ids na mesma ordem dos nomes, sem repetição
+     */
+    public Collection<Integer> resolverIds(Connection connection, Collection<String> nomes) throws SQLException {
+        return new LinkedHashSet<>(resolver(connection, nomes).values());
+    }
+
+    /**
+     * Resolve o id de cada nome, criando na tabela os que ainda não existem.
+     * Cada nome desconhecido custa uma ida ao banco por chamada, mesmo que se repita.
+     * @return Id de cada nome, na ordem dos nomes
+     */
+    public Map<String, Integer> resolver(Connection connection, Collection<String> nomes) throws SQLException {
+        if (!carregado && !nomes.isEmpty()) {
+            carregar(connection);
+        }
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (String nome : nomes) {
+            if (!ids.containsKey(nome)) {
+                Integer id = idsPorNome.get(nome);
+                ids.put(nome, id != null ? id : criar(connection, nome));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Todos os nomes da tabela, em ordem alfabética.
+     */
+    Set<String> obterTodos(Connection connection) {
+        if (!carregado) {
+            carregar(connection);
+        }
+        return new TreeSet<>(nomesPorId.values());
+    }
+
+    // Uma ida ao banco: insere o nome ou, se ele já existe, só devolve o id da linha existente
+    private int criar(Connection connection, String nome) throws SQLException {
+        String sql = "INSERT INTO " + tabela + " (nome) VALUES (?) ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)";
+        try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstm.setString(1, nome);
+            pstm.executeUpdate();
+            try (ResultSet rst = pstm.getGeneratedKeys()) {
+                if (!rst.next()) {
+                    throw new SQLException("Falha ao obter id de " + tabela + " '" + nome + "'.");
+                }
+                int id = rst.getInt(1);
+                // Se a transação for desfeita, a linha (e o id) deixa de existir
+                SincronizacaoTransacao.aposCommit(connection, () -> {
+                    idsPorNome.put(nome, id);
+                    nomesPorId.putIfAbsent(id, nome);
+                });
+                return id;
+            }
+        }
+    }
+
+    private void registrar(String nome, int id) {
+        idsPorNome.put(nome, id);
+        nomesPorId.put(id, nome);
+    }
+}
@@ -1,22 +1,55 @@
 package dao;
 
+import bd.SincronizacaoTransacao;
+import bd.TransactionManager;
+import busca.IndiceExplicacoes;
+import busca.Tokenizador;
 import modelo.Explicacao;
 import modelo.Giria;
+import modelo.TipoObjetoAvaliado;
 import modelo.Usuario;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class ExplicacaoDAO implements BaseDAO {
 
+    /**
+     * Expressão SQL do hash da definição (coluna definicao_hash), com um parâmetro para o texto:
+     * SHA-256 da definição em minúsculas, com espaços em sequência reduzidos a um e sem espaços
+     * nas pontas. Calculado sempre pelo banco, para que gravações e migrações usem exatamente a
+     * mesma normalização.
+     */
+    public static final String SQL_HASH_DEFINICAO = "UNHEX(SHA2(LOWER(TRIM(REGEXP_REPLACE(?, '[[:space:]]+', ' '))), 256))";
+
     private Connection connection;
 
     public ExplicacaoDAO(Connection connection) {
         this.connection = connection;
     }
 
+    /**
+     * Cria o DAO usando a conexão da transação aberta na thread atual.
+     */
+    public ExplicacaoDAO() {
+        this(TransactionManager.getConexaoAtual());
+    }
+
+    /**
+     * Grava a explicação. Uma explicação nova com a mesma definição (normalizada) de outra da
+     * mesma gíria não é duplicada: a existente é atualizada com os dados da nova e o id dela é
+     * atribuído à explicação. A verificação e a inclusão são um único upsert pela chave única
+     * (giria_associada_id, definicao_hash).
+     */
     @Override
     public void salvar(Object objeto) {
         if (!(objeto instanceof Explicacao)) {
@@ -25,48 +58,40 @@ public class ExplicacaoDAO implements BaseDAO {
 
         Explicacao explicacao = (Explicacao) objeto;
 
-        try {
-            // Verifica se já existe uma explicação com a mesma definição para a mesma gíria
-            String checkSql = "SELECT id FROM explicacao WHERE definicao = ? AND giria_associada_id = ?";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkSql)) {
-                checkStmt.setString(1, explicacao.getDefinicao());
-                checkStmt.setInt(2, explicacao.getGiriaAssociada().getId());
-                ResultSet rs = checkStmt.executeQuery();
-
-                if (rs.next()) {
-                    // Se já existe, atualiza os dados da explicação com o ID existente
-                    int existingId = rs.getInt("id");
-                    explicacao.setId(existingId);
-                    atualizar(explicacao);
-                    return;
-                }
-            }
+        // Se já tem ID, atualiza
+        if (explicacao.getId() != 0) {
+            atualizar(explicacao);
+            return;
+        }
 
-            // Verifica se a explicação já existe para decidir entre INSERT e UPDATE
-            if (explicacao.getId() == 0) { // Considera que ID 0 indica novo objeto
-                String sql = "INSERT INTO explicacao (definicao, exemplo_uso, aprovada, data_proposta, " +
-                        "usuario_propositor_id, giria_associada_id, data_criacao) VALUES (?, ?, ?, ?, ?, ?, ?)";
-                try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                    pstm.setString(1, explicacao.getDefinicao());
-                    pstm.setString(2, explicacao.getExemploUso());
-                    pstm.setBoolean(3, explicacao.isAprovada());
-                    pstm.setObject(4, explicacao.getDataProposta());
-                    pstm.setInt(5, explicacao.getUsuarioPropositor().getId());
-                    pstm.setInt(6, explicacao.getGiriaAssociada().getId());
-                    pstm.setObject(7, explicacao.getDataCriacao());
-
-                    pstm.execute();
-
-                    try (ResultSet rst = pstm.getGeneratedKeys()) {
-                        if (rst.next()) {
-                            explicacao.setId(rst.getInt(1)); // Define o ID gerado pelo banco
-                        }
-                    }
+        String sql = "INSERT INTO explicacao (definicao, definicao_hash, exemplo_uso, aprovada, data_proposta, " +
+                "usuario_propositor_id, giria_associada_id, data_criacao) VALUES (?, " + SQL_HASH_DEFINICAO + ", ?, ?, ?, ?, ?, ?) AS nova " +
+                "ON DUPLICATE KEY UPDATE " +
+                // LAST_INSERT_ID(id) faz o id da explicação existente voltar como chave gerada
+                "id = LAST_INSERT_ID(explicacao.id), " +
+                "definicao = nova.definicao, exemplo_uso = nova.exemplo_uso, aprovada = nova.aprovada, " +
+                "data_proposta = nova.data_proposta, usuario_propositor_id = nova.usuario_propositor_id";
+
+        try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstm.setString(1, explicacao.getDefinicao());
+            pstm.setString(2, explicacao.getDefinicao());
+            pstm.setString(3, explicacao.getExemploUso());
+            pstm.setBoolean(4, explicacao.isAprovada());
+            pstm.setObject(5, explicacao.getDataProposta());
+            pstm.setInt(6, explicacao.getUsuarioPropositor().getId());
+            pstm.setInt(7, explicacao.getGiriaAssociada().getId());
+            pstm.setObject(8, explicacao.getDataCriacao());
+
+            pstm.executeUpdate();
+
+            try (ResultSet rst = pstm.getGeneratedKeys()) {
+                if (rst.next()) {
+                    explicacao.setId(rst.getInt(1)); // ID gerado, ou o da explicação existente
                 }
-            } else { // Se já tem ID, tenta atualizar
-                atualizar(explicacao); // Chama o método de atualização
             }
-
+            explicacao.limparAlteracoes();
+            atualizarMelhorExplicacao(explicacao);
+            atualizarIndice(explicacao);
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao salvar explicação: " + e.getMessage(), e);
         }
@@ -76,7 +101,7 @@ public class ExplicacaoDAO implements BaseDAO {
     public Object buscarPorId(int id) {
         Explicacao explicacao = null;
         try {
-            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, " +
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
                     "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
                     "g.id as giria_id, g.termo, g.data_cadastro, g.aprovada as giria_aprovada " +
                     "FROM explicacao e " +
@@ -125,7 +150,9 @@ public class ExplicacaoDAO implements BaseDAO {
                         );
                         explicacao.setDataProposta(rst.getObject("data_proposta", LocalDate.class));
                         explicacao.setAprovada(rst.getBoolean("aprovada"));
+                        explicacao.limparAlteracoes();
                         explicacao.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        explicacao.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
                     }
                 }
             }
@@ -140,7 +167,7 @@ public class ExplicacaoDAO implements BaseDAO {
     public ArrayList<Object> listarTodosLazyLoading() {
         ArrayList<Object> explicacoes = new ArrayList<>();
         try {
-            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, " +
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
                     "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
                     "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
                     "FROM explicacao e " +
@@ -167,6 +194,7 @@ public class ExplicacaoDAO implements BaseDAO {
                         giriaAssociada.setId(rst.getInt("giria_id"));
                         giriaAssociada.setTermo(rst.getString("termo"));
                         giriaAssociada.setAprovada(rst.getBoolean("giria_aprovada"));
+                        giriaAssociada.limparAlteracoes();
 
                         // Cria a explicação
                         Explicacao explicacao = new Explicacao(
@@ -178,7 +206,9 @@ public class ExplicacaoDAO implements BaseDAO {
                         );
                         explicacao.setDataProposta(rst.getObject("data_proposta", LocalDate.class));
                         explicacao.setAprovada(rst.getBoolean("aprovada"));
+                        explicacao.limparAlteracoes();
                         explicacao.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        explicacao.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         explicacoes.add(explicacao);
                     }
@@ -192,14 +222,23 @@ public class ExplicacaoDAO implements BaseDAO {
 
     @Override
     public ArrayList<Object> listarTodosEagerLoading() {
-        // Para Eager Loading, precisaríamos carregar também os votos relacionados a cada explicação
-        ArrayList<Object> explicacoes = new ArrayList<>();
+        // Chave = id da explicação; mantém a ordem da consulta principal
+        Map<Integer, Explicacao> explicacoes = new LinkedHashMap<>();
+        // Usuários (autores e votantes) e gírias repetidos são montados uma única vez
+        Map<Integer, Usuario> usuarios = new HashMap<>();
+        Map<Integer, Giria> girias = new HashMap<>();
 
         try {
-            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, " +
-                    "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao " +
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
+                    "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
+                    "g.id as giria_id, g.termo, g.data_cadastro, g.aprovada as giria_aprovada, g.data_criacao as giria_data_criacao, " +
+                    "g.positivos as giria_positivos, g.negativos as giria_negativos, " +
+                    "gu.id as giria_usuario_id, gu.nome as giria_usuario_nome, gu.email as giria_usuario_email, " +
+                    "gu.senha as giria_usuario_senha, gu.reputacao as giria_usuario_reputacao " +
                     "FROM explicacao e " +
                     "JOIN usuario u ON e.usuario_propositor_id = u.id " +
+                    "JOIN giria g ON e.giria_associada_id = g.id " +
+                    "JOIN usuario gu ON g.usuario_propositor_id = gu.id " +
                     "ORDER BY e.id";
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
@@ -207,21 +246,45 @@ public class ExplicacaoDAO implements BaseDAO {
 
                 try (ResultSet rst = pstm.getResultSet()) {
                     while (rst.next()) {
-                        // Para cada explicação, chamar o buscarPorId que já carrega tudo
-                        Explicacao explicacao = (Explicacao) buscarPorId(rst.getInt("id"));
-
-                        // Carregar votos da explicação
-                        VotoDAO votoDAO = new VotoDAO(connection);
-                        ArrayList<modelo.Voto> votos = votoDAO.listarPorExplicacaoId(explicacao.getId());
-                        for (modelo.Voto voto : votos) {
-                            explicacao.adicionarVoto(voto);
+                        Usuario usuarioPropositor = mapearUsuario(rst, usuarios, "usuario_id", "usuario_nome",
+                                "email", "senha", "reputacao");
+
+                        // Gíria completa, com o próprio propositor
+                        Giria giriaAssociada = girias.get(rst.getInt("giria_id"));
+                        if (giriaAssociada == null) {
+                            Usuario propositorGiria = mapearUsuario(rst, usuarios, "giria_usuario_id", "giria_usuario_nome",
+                                    "giria_usuario_email", "giria_usuario_senha", "giria_usuario_reputacao");
+                            giriaAssociada = new Giria(
+                                    rst.getInt("giria_id"),
+                                    rst.getString("termo"),
+                                    rst.getObject("data_cadastro", LocalDateTime.class),
+                                    rst.getBoolean("giria_aprovada"),
+                                    propositorGiria
+                            );
+                            giriaAssociada.setDataCriacao(rst.getObject("giria_data_criacao", LocalDateTime.class));
+                            giriaAssociada.setContadoresVotos(rst.getInt("giria_positivos"), rst.getInt("giria_negativos"));
+                            girias.put(giriaAssociada.getId(), giriaAssociada);
                         }
 
-                        explicacoes.add(explicacao);
+                        Explicacao explicacao = mapearExplicacao(rst, usuarioPropositor, giriaAssociada);
+                        explicacoes.put(explicacao.getId(), explicacao);
                     }
                 }
             }
-            return explicacoes;
+
+            // Categorias e regiões das gírias e votos das explicações: uma consulta cada,
+            // ligados em memória (evita recarregar a gíria e os votos a cada explicação)
+            new GiriaDAO(connection).carregarAssociacoesEmLote(girias);
+
+            VotoDAO votoDAO = new VotoDAO(connection);
+            for (modelo.Voto voto : votoDAO.listarPorObjetos(explicacoes.keySet(), TipoObjetoAvaliado.EXPLICACAO, usuarios)) {
+                Explicacao explicacao = explicacoes.get(voto.getObjetoAvaliadoId());
+                if (explicacao != null) {
+                    explicacao.adicionarVoto(voto);
+                }
+            }
+
+            return new ArrayList<>(explicacoes.values());
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao listar todas as explicações (Eager Loading): " + e.getMessage(), e);
         }
@@ -235,24 +298,28 @@ public class ExplicacaoDAO implements BaseDAO {
 
         Explicacao explicacao = (Explicacao) objeto;
 
-        String sql = "UPDATE explicacao SET definicao = ?, exemplo_uso = ?, aprovada = ?, " +
+        String sql = "UPDATE explicacao SET definicao = ?, definicao_hash = " + SQL_HASH_DEFINICAO + ", exemplo_uso = ?, aprovada = ?, " +
                 "data_proposta = ?, usuario_propositor_id = ?, giria_associada_id = ? " +
                 "WHERE id = ?";
 
         try (PreparedStatement pstm = connection.prepareStatement(sql)) {
             pstm.setString(1, explicacao.getDefinicao());
-            pstm.setString(2, explicacao.getExemploUso());
-            pstm.setBoolean(3, explicacao.isAprovada());
-            pstm.setObject(4, explicacao.getDataProposta());
-            pstm.setInt(5, explicacao.getUsuarioPropositor().getId());
-            pstm.setInt(6, explicacao.getGiriaAssociada().getId());
-            pstm.setInt(7, explicacao.getId());
+            pstm.setString(2, explicacao.getDefinicao());
+            pstm.setString(3, explicacao.getExemploUso());
+            pstm.setBoolean(4, explicacao.isAprovada());
+            pstm.setObject(5, explicacao.getDataProposta());
+            pstm.setInt(6, explicacao.getUsuarioPropositor().getId());
+            pstm.setInt(7, explicacao.getGiriaAssociada().getId());
+            pstm.setInt(8, explicacao.getId());
 
             int linhasAfetadas = pstm.executeUpdate();
 
             if (linhasAfetadas == 0) {
                 throw new SQLException("Falha ao atualizar explicação: nenhuma linha foi afetada.");
             }
+            explicacao.limparAlteracoes();
+            atualizarMelhorExplicacao(explicacao);
+            atualizarIndice(explicacao);
 
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao atualizar explicação: " + e.getMessage(), e);
@@ -262,6 +329,8 @@ public class ExplicacaoDAO implements BaseDAO {
     @Override
     public void excluir(int id) {
         try {
+            new GiriaDAO(connection).removerMelhorExplicacao(id);
+
             String sql = "DELETE FROM explicacao WHERE id = ?";
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
@@ -273,17 +342,137 @@ public class ExplicacaoDAO implements BaseDAO {
                     throw new SQLException("Falha ao deletar explicação: nenhuma linha foi afetada.");
                 }
             }
+            SincronizacaoTransacao.aposCommit(connection, () -> IndiceExplicacoes.getInstancia().remover(id));
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao excluir explicação: " + e.getMessage(), e);
         }
     }
 
+    // A explicação pode ter passado a ser (ou deixado de ser) a melhor da sua gíria, ou mudado de gíria
+    private void atualizarMelhorExplicacao(Explicacao explicacao) throws SQLException {
+        new GiriaDAO(connection).atualizarMelhoresExplicacoes(List.of(explicacao.getGiriaAssociada().getId()),
+                List.of(explicacao.getId()));
+    }
+
+    // Mantém o índice de busca por significado de acordo com a explicação gravada
+    private void atualizarIndice(Explicacao explicacao) {
+        atualizarIndice(explicacao.getId(), explicacao.getDefinicao(), explicacao.getExemploUso(), explicacao.isAprovada());
+    }
+
+    /**
+     * Agenda a atualização do índice de busca por significado para depois do commit, para quem
+     * grava explicações sem passar por este DAO (como a importação).
+     */
+    public void atualizarIndice(int id, String definicao, String exemploUso, boolean aprovada) {
+        SincronizacaoTransacao.aposCommit(connection, () ->
+                IndiceExplicacoes.getInstancia().atualizar(id, definicao, exemploUso, aprovada));
+    }
+
     // Métodos específicos para a classe ExplicacaoDAO
 
+    /**
+     * Busca explicações aprovadas pelo significado (definição e exemplo de uso), da mais para a
+     * menos relevante segundo o {@link IndiceExplicacoes}, com a gíria de cada uma. Enquanto o
+     * índice não foi carregado, procura as palavras da consulta com LIKE, sem ranking.
+     * @param limite Quantidade máxima de explicações
+     */
+    public ArrayList<Explicacao> buscarPorSignificado(String consulta, int limite) {
+        IndiceExplicacoes indice = IndiceExplicacoes.getInstancia();
+        // Carregar o índice aqui faria a primeira busca ler e tokenizar todas as explicações
+        if (!indice.isCarregado()) {
+            return buscarPorSignificadoSemIndice(consulta, limite);
+        }
+        List<IndiceExplicacoes.Resultado> resultados = indice.buscar(consulta, Math.min(limite, GiriaDAO.LIMITE_FILTRO_IN));
+
+        ArrayList<Explicacao> explicacoes = new ArrayList<>();
+        if (resultados.isEmpty()) {
+            return explicacoes;
+        }
+        Map<Integer, Explicacao> porId = new HashMap<>();
+        try {
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
+                    "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
+                    "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
+                    "FROM explicacao e " +
+                    "JOIN usuario u ON e.usuario_propositor_id = u.id " +
+                    "JOIN giria g ON e.giria_associada_id = g.id " +
+                    "WHERE e.id IN (" + GiriaDAO.placeholders(resultados.size()) + ")";
+
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                for (int i = 0; i < resultados.size(); i++) {
+                    pstm.setInt(i + 1, resultados.get(i).getExplicacaoId());
+                }
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        Explicacao explicacao = mapearExplicacao(rst);
+                        porId.put(explicacao.getId(), explicacao);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar explicações por significado: " + e.getMessage(), e);
+        }
+
+        // Na ordem de relevância do índice
+        for (IndiceExplicacoes.Resultado resultado : resultados) {
+            Explicacao explicacao = porId.get(resultado.getExplicacaoId());
+            if (explicacao != null) {
+                explicacoes.add(explicacao);
+            }
+        }
+        return explicacoes;
+    }
+
+    // Explicações aprovadas com alguma das palavras da consulta na definição ou no exemplo de uso
+    private ArrayList<Explicacao> buscarPorSignificadoSemIndice(String consulta, int limite) {
+        ArrayList<Explicacao> explicacoes = new ArrayList<>();
+        List<String> termos = new ArrayList<>(new LinkedHashSet<>(Tokenizador.termos(consulta)));
+        if (termos.isEmpty() || limite <= 0) {
+            return explicacoes;
+        }
+        try {
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
+                    "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
+                    "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
+                    "FROM explicacao e " +
+                    "JOIN usuario u ON e.usuario_propositor_id = u.id " +
+                    "JOIN giria g ON e.giria_associada_id = g.id " +
+                    "WHERE e.aprovada = true AND (" +
+                    String.join(" OR ", Collections.nCopies(termos.size(), "e.definicao LIKE ? OR e.exemplo_uso LIKE ?")) + ") " +
+                    "ORDER BY e.id LIMIT ?";
+
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                int indice = 1;
+                for (String termo : termos) {
+                    pstm.setString(indice++, "%" + termo + "%");
+                    pstm.setString(indice++, "%" + termo + "%");
+                }
+                pstm.setInt(indice, limite);
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        explicacoes.add(mapearExplicacao(rst));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar explicações por significado: " + e.getMessage(), e);
+        }
+        return explicacoes;
+    }
+
+    /**
+     * Explicações de uma gíria. A gíria (com categorias e regiões) é carregada uma vez e
+     * compartilhada por todas as explicações.
+     */
     public ArrayList<Explicacao> buscarPorGiria(int giriaId) {
         ArrayList<Explicacao> explicacoes = new ArrayList<>();
+        Giria giriaAssociada = (Giria) new GiriaDAO(connection).buscarPorId(giriaId);
+        if (giriaAssociada == null) {
+            return explicacoes;
+        }
+        Map<Integer, Usuario> usuarios = new HashMap<>();
         try {
-            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, " +
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
                     "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao " +
                     "FROM explicacao e " +
                     "JOIN usuario u ON e.usuario_propositor_id = u.id " +
@@ -296,32 +485,9 @@ public class ExplicacaoDAO implements BaseDAO {
 
                 try (ResultSet rst = pstm.getResultSet()) {
                     while (rst.next()) {
-                        // Recupera a gíria usando o GiriaDAO para ter todas as informações
-                        GiriaDAO giriaDAO = new GiriaDAO(connection);
-                        Giria giriaAssociada = (Giria) giriaDAO.buscarPorId(giriaId);
-
-                        // Cria o usuário propositor
-                        Usuario usuarioPropositor = new Usuario(
-                                rst.getInt("usuario_id"),
-                                rst.getString("usuario_nome"),
-                                rst.getString("email"),
-                                rst.getString("senha")
-                        );
-                        usuarioPropositor.setReputacao(rst.getInt("reputacao"));
-
-                        // Cria a explicação
-                        Explicacao explicacao = new Explicacao(
-                                rst.getInt("id"),
-                                rst.getString("definicao"),
-                                rst.getString("exemplo_uso"),
-                                usuarioPropositor,
-                                giriaAssociada
-                        );
-                        explicacao.setDataProposta(rst.getObject("data_proposta", LocalDate.class));
-                        explicacao.setAprovada(rst.getBoolean("aprovada"));
-                        explicacao.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
-
-                        explicacoes.add(explicacao);
+                        Usuario usuarioPropositor = mapearUsuario(rst, usuarios, "usuario_id", "usuario_nome",
+                                "email", "senha", "reputacao");
+                        explicacoes.add(mapearExplicacao(rst, usuarioPropositor, giriaAssociada));
                     }
                 }
             }
@@ -334,7 +500,7 @@ public class ExplicacaoDAO implements BaseDAO {
     public ArrayList<Explicacao> listarExplicacoesAprovadas() {
         ArrayList<Explicacao> explicacoes = new ArrayList<>();
         try {
-            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, " +
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
                     "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
                     "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
                     "FROM explicacao e " +
@@ -362,6 +528,7 @@ public class ExplicacaoDAO implements BaseDAO {
                         giriaAssociada.setId(rst.getInt("giria_id"));
                         giriaAssociada.setTermo(rst.getString("termo"));
                         giriaAssociada.setAprovada(rst.getBoolean("giria_aprovada"));
+                        giriaAssociada.limparAlteracoes();
 
                         // Cria a explicação
                         Explicacao explicacao = new Explicacao(
@@ -373,7 +540,9 @@ public class ExplicacaoDAO implements BaseDAO {
                         );
                         explicacao.setDataProposta(rst.getObject("data_proposta", LocalDate.class));
                         explicacao.setAprovada(rst.getBoolean("aprovada"));
+                        explicacao.limparAlteracoes();
                         explicacao.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        explicacao.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         explicacoes.add(explicacao);
                     }
@@ -388,7 +557,7 @@ public class ExplicacaoDAO implements BaseDAO {
     public ArrayList<Explicacao> listarExplicacoesAguardandoAprovacao() {
         ArrayList<Explicacao> explicacoes = new ArrayList<>();
         try {
-            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, " +
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
                     "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
                     "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
                     "FROM explicacao e " +
@@ -416,6 +585,7 @@ public class ExplicacaoDAO implements BaseDAO {
                         giriaAssociada.setId(rst.getInt("giria_id"));
                         giriaAssociada.setTermo(rst.getString("termo"));
                         giriaAssociada.setAprovada(rst.getBoolean("giria_aprovada"));
+                        giriaAssociada.limparAlteracoes();
 
                         // Cria a explicação
                         Explicacao explicacao = new Explicacao(
@@ -427,7 +597,9 @@ public class ExplicacaoDAO implements BaseDAO {
                         );
                         explicacao.setDataProposta(rst.getObject("data_proposta", LocalDate.class));
                         explicacao.setAprovada(rst.getBoolean("aprovada"));
+                        explicacao.limparAlteracoes();
                         explicacao.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        explicacao.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         explicacoes.add(explicacao);
                     }
@@ -439,10 +611,19 @@ public class ExplicacaoDAO implements BaseDAO {
         }
     }
 
+    /**
+     * Explicações propostas por um usuário. O usuário é carregado uma vez e compartilhado, assim
+     * como cada gíria com mais de uma explicação dele.
+     */
     public ArrayList<Explicacao> buscarPorUsuario(int usuarioId) {
         ArrayList<Explicacao> explicacoes = new ArrayList<>();
+        Usuario usuarioPropositor = (Usuario) new UsuarioDAO(connection).buscarPorId(usuarioId);
+        if (usuarioPropositor == null) {
+            return explicacoes;
+        }
+        Map<Integer, Giria> girias = new HashMap<>();
         try {
-            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, " +
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
                     "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
                     "FROM explicacao e " +
                     "JOIN giria g ON e.giria_associada_id = g.id " +
@@ -455,35 +636,212 @@ public class ExplicacaoDAO implements BaseDAO {
 
                 try (ResultSet rst = pstm.getResultSet()) {
                     while (rst.next()) {
-                        // Recupera o usuário usando o UsuarioDAO
-                        UsuarioDAO usuarioDAO = new UsuarioDAO(connection);
-                        Usuario usuarioPropositor = (Usuario) usuarioDAO.buscarPorId(usuarioId);
-
-                        // Cria uma gíria básica
-                        Giria giriaAssociada = new Giria();
-                        giriaAssociada.setId(rst.getInt("giria_id"));
-                        giriaAssociada.setTermo(rst.getString("termo"));
-                        giriaAssociada.setAprovada(rst.getBoolean("giria_aprovada"));
+                        Giria giriaAssociada = girias.get(rst.getInt("giria_id"));
+                        if (giriaAssociada == null) {
+                            giriaAssociada = mapearGiriaBasica(rst);
+                            girias.put(giriaAssociada.getId(), giriaAssociada);
+                        }
+                        explicacoes.add(mapearExplicacao(rst, usuarioPropositor, giriaAssociada));
+                    }
+                }
+            }
+            return explicacoes;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar explicações por usuário: " + e.getMessage(), e);
+        }
+    }
 
-                        // Cria a explicação
-                        Explicacao explicacao = new Explicacao(
-                                rst.getInt("id"),
-                                rst.getString("definicao"),
-                                rst.getString("exemplo_uso"),
-                                usuarioPropositor,
-                                giriaAssociada
-                        );
-                        explicacao.setDataProposta(rst.getObject("data_proposta", LocalDate.class));
-                        explicacao.setAprovada(rst.getBoolean("aprovada"));
-                        explicacao.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+    /**
+     * Explicações de uma gíria da mais bem votada para a menos, usando o contador de pontuação
+     * da própria tabela (índice em giria_associada_id, pontuacao), sem agregar os votos.
+     */
+    public ArrayList<Explicacao> buscarMaisVotadasPorGiria(int giriaId, int limite) {
+        ArrayList<Explicacao> explicacoes = new ArrayList<>();
+        try {
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
+                    "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
+                    "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
+                    "FROM explicacao e " +
+                    "JOIN usuario u ON e.usuario_propositor_id = u.id " +
+                    "JOIN giria g ON e.giria_associada_id = g.id " +
+                    "WHERE e.giria_associada_id = ? " +
+                    "ORDER BY e.pontuacao DESC, e.id " +
+                    "LIMIT ?";
 
-                        explicacoes.add(explicacao);
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                pstm.setInt(1, giriaId);
+                pstm.setInt(2, limite);
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        explicacoes.add(mapearExplicacao(rst));
                     }
                 }
             }
             return explicacoes;
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao buscar explicações por usuário: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao buscar explicações mais votadas: " + e.getMessage(), e);
+        }
+    }
+
+    // Paginação por chave: "após o id X, no máximo N itens", sem OFFSET
+
+    /**
+     * Lista uma página das explicações de uma gíria em ordem de id.
+     * @param aposId Cursor da página anterior ({@link Pagina#getProximoCursor()}); 0 para a primeira página
+     * @param limite Quantidade máxima de explicações na página
+     */
+    public Pagina<Explicacao> buscarPaginaPorGiria(int giriaId, int aposId, int limite) {
+        return listarPaginaExplicacoes("AND e.giria_associada_id = ? ", giriaId, aposId, limite,
+                "Erro ao buscar página de explicações por gíria: ");
+    }
+
+    public Pagina<Explicacao> listarPaginaAprovadas(int aposId, int limite) {
+        return listarPaginaExplicacoes("AND e.aprovada = true ", null, aposId, limite,
+                "Erro ao listar página de explicações aprovadas: ");
+    }
+
+    public Pagina<Explicacao> listarPaginaAguardandoAprovacao(int aposId, int limite) {
+        return listarPaginaExplicacoes("AND e.aprovada = false ", null, aposId, limite,
+                "Erro ao listar página de explicações aguardando aprovação: ");
+    }
+
+    public Pagina<Explicacao> buscarPaginaPorUsuario(int usuarioId, int aposId, int limite) {
+        return listarPaginaExplicacoes("AND e.usuario_propositor_id = ? ", usuarioId, aposId, limite,
+                "Erro ao buscar página de explicações por usuário: ");
+    }
+
+    /**
+     * Executa a consulta paginada com o filtro adicional (e seu parâmetro, se houver).
+     */
+    private Pagina<Explicacao> listarPaginaExplicacoes(String filtro, Integer parametroFiltro,
+                                                       int aposId, int limite, String mensagemErro) {
+        ArrayList<Explicacao> explicacoes = new ArrayList<>();
+        try {
+            String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
+                    "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
+                    "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
+                    "FROM explicacao e " +
+                    "JOIN usuario u ON e.usuario_propositor_id = u.id " +
+                    "JOIN giria g ON e.giria_associada_id = g.id " +
+                    "WHERE e.id > ? " + filtro +
+                    "ORDER BY e.id " +
+                    "LIMIT ?";
+
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                int indice = 1;
+                pstm.setInt(indice++, aposId);
+                if (parametroFiltro != null) {
+                    pstm.setInt(indice++, parametroFiltro);
+                }
+                // Uma linha a mais indica se existe próxima página
+                pstm.setInt(indice, limite + 1);
+
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        explicacoes.add(mapearExplicacao(rst));
+                    }
+                }
+            }
+            return Pagina.deLinhas(explicacoes, limite);
+        } catch (SQLException e) {
+            throw new RuntimeException(mensagemErro + e.getMessage(), e);
+        }
+    }
+
+    // Consultas em streaming: as linhas são lidas do cursor sob demanda, sem materializar a tabela
+
+    /**
+     * Versão em streaming de {@link #listarTodosLazyLoading()}.
+     * O stream precisa ser fechado (try-with-resources) para liberar o cursor.
+     * @param tamanhoLote Quantidade de linhas buscadas do servidor a cada ida ao banco
+     */
+    public Stream<Explicacao> streamTodosLazyLoading(int tamanhoLote) {
+        String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
+                "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
+                "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
+                "FROM explicacao e " +
+                "JOIN usuario u ON e.usuario_propositor_id = u.id " +
+                "JOIN giria g ON e.giria_associada_id = g.id " +
+                "ORDER BY e.id";
+        try {
+            return ResultSetStream.criar(connection, sql, tamanhoLote, null, this::mapearExplicacao);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar todas as explicações (Streaming): " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Versão em streaming de {@link #listarExplicacoesAprovadas()}.
+     * @param tamanhoLote Quantidade de linhas buscadas do servidor a cada ida ao banco
+     */
+    public Stream<Explicacao> streamExplicacoesAprovadas(int tamanhoLote) {
+        String sql = "SELECT e.id, e.definicao, e.exemplo_uso, e.aprovada, e.data_proposta, e.data_criacao, e.positivos, e.negativos, " +
+                "u.id as usuario_id, u.nome as usuario_nome, u.email, u.senha, u.reputacao, " +
+                "g.id as giria_id, g.termo, g.aprovada as giria_aprovada " +
+                "FROM explicacao e " +
+                "JOIN usuario u ON e.usuario_propositor_id = u.id " +
+                "JOIN giria g ON e.giria_associada_id = g.id " +
+                "WHERE e.aprovada = true " +
+                "ORDER BY e.id";
+        try {
+            return ResultSetStream.criar(connection, sql, tamanhoLote, null, this::mapearExplicacao);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar explicações aprovadas (Streaming): " + e.getMessage(), e);
+        }
+    }
+
+    // Monta a explicação com uma gíria básica a partir das colunas e.*, u.* e g.* das listagens
+    private Explicacao mapearExplicacao(ResultSet rst) throws SQLException {
+        Usuario usuarioPropositor = new Usuario(
+                rst.getInt("usuario_id"),
+                rst.getString("usuario_nome"),
+                rst.getString("email"),
+                rst.getString("senha")
+        );
+        usuarioPropositor.setReputacao(rst.getInt("reputacao"));
+
+        return mapearExplicacao(rst, usuarioPropositor, mapearGiriaBasica(rst));
+    }
+
+    // Monta a explicação a partir das colunas e.*, com autor e gíria já montados
+    private Explicacao mapearExplicacao(ResultSet rst, Usuario usuarioPropositor, Giria giriaAssociada) throws SQLException {
+        Explicacao explicacao = new Explicacao(
+                rst.getInt("id"),
+                rst.getString("definicao"),
+                rst.getString("exemplo_uso"),
+                usuarioPropositor,
+                giriaAssociada
+        );
+        explicacao.setDataProposta(rst.getObject("data_proposta", LocalDate.class));
+        explicacao.setAprovada(rst.getBoolean("aprovada"));
+        explicacao.limparAlteracoes();
+        explicacao.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+        explicacao.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
+        return explicacao;
+    }
+
+    private Giria mapearGiriaBasica(ResultSet rst) throws SQLException {
+        Giria giria = new Giria();
+        giria.setId(rst.getInt("giria_id"));
+        giria.setTermo(rst.getString("termo"));
+        giria.setAprovada(rst.getBoolean("giria_aprovada"));
+        giria.limparAlteracoes();
+        return giria;
+    }
+
+    /**
+     * Devolve o usuário já montado com o id da coluna informada ou monta um novo com as colunas
+     * informadas e o guarda no mapa.
+     */
+    private Usuario mapearUsuario(ResultSet rst, Map<Integer, Usuario> usuarios, String colunaId, String colunaNome,
+                                  String colunaEmail, String colunaSenha, String colunaReputacao) throws SQLException {
+        int id = rst.getInt(colunaId);
+        Usuario usuario = usuarios.get(id);
+        if (usuario == null) {
+            usuario = new Usuario(id, rst.getString(colunaNome), rst.getString(colunaEmail), rst.getString(colunaSenha));
+            usuario.setReputacao(rst.getInt(colunaReputacao));
+            usuarios.put(id, usuario);
         }
+        return usuario;
     }
 }
@@ -0,0 +1,213 @@
+package dao;
+
+import modelo.TipoObjetoAvaliado;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom dos votos existentes (usuário, objeto, tipo de objeto), para responder
+ * "o usuário votou neste objeto?" sem ir ao banco na maioria dos casos.
+ *
+ * Um "não" do filtro é definitivo e dispensa a consulta; um "talvez" precisa ser confirmado no
+ * banco. O filtro é carregado da tabela voto e mantido pelo {@link VotoDAO} a cada voto gravado.
+ * Votos excluídos não saem do filtro (só geram consultas a mais até o próximo carregamento).
+ * Votos gravados por fora da aplicação só entram no próximo {@link #carregar(Connection)}.
+ *
+ * O filtro é dimensionado com folga sobre a quantidade de votos carregada; se os votos novos
+ * passarem dessa folga a taxa de falsos positivos sobe, e o filtro passa a responder sempre
+ * "talvez" até ser carregado de novo.
+ */
+public class FiltroVotos {
+
+    private static final FiltroVotos INSTANCIA = new FiltroVotos();
+
+    // ~9,6 bits por elemento e 7 funções de hash: ~1% de falsos positivos na capacidade
+    private static final int BITS_POR_ELEMENTO = 10;
+    private static final int FUNCOES_HASH = 7;
+    private static final int CAPACIDADE_MINIMA = 100_000;
+
+    /**
+     * Vetor de bits do filtro, com a capacidade para a qual foi dimensionado.
+     */
+    private static final class Filtro {
+        private final AtomicLongArray bits;
+        private final long totalBits;
+        private final int capacidade;
+        private final AtomicInteger elementos = new AtomicInteger();
+
+        Filtro(int capacidade) {
+            this.capacidade = capacidade;
+            this.totalBits = (long) capacidade * BITS_POR_ELEMENTO;
+            this.bits = new AtomicLongArray((int) ((totalBits + 63) / 64));
+        }
+
+        void adicionar(long h1, long h2) {
+            for (int i = 0; i < FUNCOES_HASH; i++) {
+                long bit = Math.floorMod(h1 + i * h2, totalBits);
+                int palavra = (int) (bit >>> 6);
+                long mascara = 1L << bit;
+                long atual = bits.get(palavra);
+                while ((atual & mascara) == 0 && !bits.compareAndSet(palavra, atual, atual | mascara)) {
+                    atual = bits.get(palavra);
+                }
+            }
+            elementos.incrementAndGet();
+        }
+
+        boolean contem(long h1, long h2) {
+            for (int i = 0; i < FUNCOES_HASH; i++) {
+                long bit = Math.floorMod(h1 + i * h2, totalBits);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isSaturado() {
+            return elementos.get() > capacidade;
+        }
+    }
+
+    private volatile Filtro atual;
+    // Filtro sendo carregado: recebe também os votos gravados durante o carregamento
+    private volatile Filtro emCarga;
+
+    private final LongAdder verificacoes = new LongAdder();
+    private final LongAdder consultasEvitadas = new LongAdder();
+
+    public static FiltroVotos getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * (Re)constrói o filtro a partir da tabela voto.
+     * Sem autocommit, confirma a transação da conexão (só com as leituras do carregamento) antes
+     * de ler os votos.
+     */
+    public void carregar(Connection connection) {
+        try {
+            int total = 0;
+            try (PreparedStatement pstm = connection.prepareStatement("SELECT COUNT(*) FROM voto");
+                 ResultSet rst = pstm.executeQuery()) {
+                if (rst.next()) {
+                    total = rst.getInt(1);
+                }
+            }
+
+            Filtro novo = new Filtro(Math.max(CAPACIDADE_MINIMA, total * 2));
+            emCarga = novo;
+            // A contagem abriu a transação e, em REPEATABLE READ, fixou o snapshot: um voto gravado
+            // entre ela e a publicação de emCarga ficaria fora dos dois. O commit faz a leitura abaixo
+            // ver tudo o que foi gravado até aqui; o que vier depois entra por emCarga
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            String sql = "SELECT usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado FROM voto";
+            try (PreparedStatement pstm = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstm.setFetchSize(10_000);
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        adicionar(novo, rst.getInt("usuario_votante_id"), rst.getInt("objeto_avaliado_id"),
+                                TipoObjetoAvaliado.deCodigo(rst.getByte("tipo_objeto_avaliado")));
+                    }
+                }
+            }
+            atual = novo;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao carregar filtro de votos: " + e.getMessage(), e);
+        } finally {
+            emCarga = null;
+        }
+    }
+
+    /**
+     * Registra um voto gravado.
+     */
+    void adicionar(int usuarioId, int objetoId, TipoObjetoAvaliado tipoObjeto) {
+        // emCarga é lido antes de atual: se o carregamento terminar entre as duas leituras,
+        // o voto ainda entra no filtro novo
+        Filtro carga = emCarga;
+        Filtro filtro = atual;
+        if (carga != null) {
+            adicionar(carga, usuarioId, objetoId, tipoObjeto);
+        }
+        if (filtro != null && filtro != carga) {
+            adicionar(filtro, usuarioId, objetoId, tipoObjeto);
+        }
+    }
+
+    /**
+     * Indica se o usuário pode ter votado no objeto. false é definitivo; true precisa ser
+     * confirmado no banco (inclusive enquanto o filtro não foi carregado ou está saturado).
+     */
+    public boolean podeTerVotado(int usuarioId, int objetoId, TipoObjetoAvaliado tipoObjeto) {
+        verificacoes.increment();
+        Filtro filtro = atual;
+        if (filtro == null || filtro.isSaturado()) {
+            return true;
+        }
+        long chave = chave(usuarioId, objetoId, tipoObjeto);
+        if (filtro.contem(hash1(chave), hash2(chave))) {
+            return true;
+        }
+        consultasEvitadas.increment();
+        return false;
+    }
+
+    public boolean isCarregado() {
+        return atual != null;
+    }
+
+    /**
+     * Descarta o filtro: até o próximo {@link #carregar(Connection)} todas as verificações vão ao
+     * banco (por exemplo, depois de excluir muitos votos ou de gravar votos por fora da aplicação).
+     */
+    public void invalidar() {
+        atual = null;
+    }
+
+    /**
+     * Verificações feitas desde o início da aplicação.
+     */
+    public long getVerificacoes() {
+        return verificacoes.sum();
+    }
+
+    /**
+     * Verificações respondidas sem consultar o banco.
+     */
+    public long getConsultasEvitadas() {
+        return consultasEvitadas.sum();
+    }
+
+    private static void adicionar(Filtro filtro, int usuarioId, int objetoId, TipoObjetoAvaliado tipoObjeto) {
+        long chave = chave(usuarioId, objetoId, tipoObjeto);
+        filtro.adicionar(hash1(chave), hash2(chave));
+    }
+
+    // usuário nos 32 bits altos; objeto e tipo (2 bits) nos baixos
+    private static long chave(int usuarioId, int objetoId, TipoObjetoAvaliado tipoObjeto) {
+        return ((long) usuarioId << 32) ^ (((long) objetoId << 2) | tipoObjeto.getCodigo());
+    }
+
+    // Duas funções de hash independentes (finalizador do SplitMix64 com constantes diferentes);
+    // as demais são combinações h1 + i * h2
+    private static long hash1(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    private static long hash2(long x) {
+        x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+        x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (x ^ (x >>> 33)) | 1;
+    }
+}
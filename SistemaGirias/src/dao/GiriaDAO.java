@@ -1,22 +1,50 @@
 package dao;
 
+import bd.SincronizacaoTransacao;
+import bd.TransactionManager;
+import busca.AutocompletarGirias;
+import busca.IndiceExplicacoes;
+import busca.IndiceTrigramas;
+import busca.Normalizador;
+import modelo.Explicacao;
 import modelo.Giria;
+import modelo.TipoObjetoAvaliado;
 import modelo.Usuario;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class GiriaDAO implements BaseDAO {
 
+    // Acima disso, os carregamentos em lote leem a tabela inteira em vez de montar um IN gigante
+    static final int LIMITE_FILTRO_IN = 1000;
+
     private Connection connection;
 
     public GiriaDAO(Connection connection) {
         this.connection = connection;
     }
 
+    /**
+     * Cria o DAO usando a conexão da transação aberta na thread atual.
+     */
+    public GiriaDAO() {
+        this(TransactionManager.getConexaoAtual());
+    }
+
     @Override
     public void salvar(Object objeto) {
         if (!(objeto instanceof Giria)) {
@@ -25,49 +53,44 @@ public class GiriaDAO implements BaseDAO {
 
         Giria giria = (Giria) objeto;
 
+        // Se já tem ID, tenta atualizar
+        if (giria.getId() != 0) {
+            atualizar(giria);
+            return;
+        }
+
         try {
-            // Verifica se já existe uma gíria com o mesmo termo
-            String checkSql = "SELECT id FROM giria WHERE termo = ?";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkSql)) {
-                checkStmt.setString(1, giria.getTermo());
-                ResultSet rs = checkStmt.executeQuery();
-
-                if (rs.next()) {
-                    // Se já existe, atualiza os dados da gíria com o ID existente
-                    int existingId = rs.getInt("id");
-                    giria.setId(existingId);
-                    atualizar(giria);
-                    return;
-                }
-            }
-
-            // Verifica se a gíria já existe para decidir entre INSERT e UPDATE
-            if (giria.getId() == 0) { // Considera que ID 0 indica novo objeto
-                String sql = "INSERT INTO giria (termo, data_cadastro, aprovada, usuario_propositor_id, data_criacao) VALUES (?, ?, ?, ?, ?)";
-                try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                    pstm.setString(1, giria.getTermo());
-                    pstm.setObject(2, giria.getDataCadastro());
-                    pstm.setBoolean(3, giria.isAprovada());
-                    pstm.setInt(4, giria.getUsuarioPropositor().getId());
-                    pstm.setObject(5, giria.getDataCriacao());
-
-                    pstm.execute();
-
-                    try (ResultSet rst = pstm.getGeneratedKeys()) {
-                        if (rst.next()) {
-                            giria.setId(rst.getInt(1)); // Define o ID gerado pelo banco
-                        }
-                    }
+            // Insere ou, se o termo já existe (UNIQUE), atualiza a linha existente em um único comando.
+            // LAST_INSERT_ID(id) faz o id da linha existente voltar como chave gerada.
+            String sql = "INSERT INTO giria (termo, data_cadastro, aprovada, usuario_propositor_id, data_criacao) " +
+                    "VALUES (?, ?, ?, ?, ?) AS novo " +
+                    "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(giria.id), data_cadastro = novo.data_cadastro, " +
+                    "aprovada = novo.aprovada, usuario_propositor_id = novo.usuario_propositor_id";
+            try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstm.setString(1, giria.getTermo());
+                pstm.setObject(2, giria.getDataCadastro());
+                pstm.setBoolean(3, giria.isAprovada());
+                pstm.setInt(4, giria.getUsuarioPropositor().getId());
+                pstm.setObject(5, giria.getDataCriacao());
 
-                    // Salvando categorias da gíria
-                    salvarCategorias(giria);
+                pstm.executeUpdate();
 
-                    // Salvando regiões da gíria
-                    salvarRegioes(giria);
+                try (ResultSet rst = pstm.getGeneratedKeys()) {
+                    if (rst.next()) {
+                        giria.setId(rst.getInt(1)); // ID gerado ou da gíria já existente
+                    }
                 }
-            } else { // Se já tem ID, tenta atualizar
-                atualizar(giria); // Chama o método de atualização
             }
+            giria.limparAlteracoes();
+
+            // Salvando categorias da gíria
+            salvarCategorias(giria);
+
+            // Salvando regiões da gíria
+            salvarRegioes(giria);
+            giria.marcarAssociacoesPersistidas();
+
+            atualizarIndices(List.of(giria));
 
             // OBS: As explicações e votos são salvos pelos seus próprios DAOs, não aqui
 
@@ -76,97 +99,271 @@ public class GiriaDAO implements BaseDAO {
         }
     }
 
-    private void salvarCategorias(Giria giria) throws SQLException {
-        // Primeiro exclui as categorias existentes para essa gíria para evitar duplicidade
-        if (giria.getId() > 0) {
-            String sqlDeleteCategorias = "DELETE FROM giria_categoria WHERE giria_id = ?";
-            try (PreparedStatement pstm = connection.prepareStatement(sqlDeleteCategorias)) {
-                pstm.setInt(1, giria.getId());
-                pstm.executeUpdate();
-            }
+    /**
+     * Salva várias gírias de uma vez: insere as novas e atualiza as que já existem (pelo termo)
+     * com INSERTs de várias linhas, e depois busca os ids de todas em uma consulta.
+     * Categorias e regiões são regravadas em lote para todas as gírias.
+     */
+    public void salvarTodos(List<Giria> girias) {
+        if (girias.isEmpty()) {
+            return;
         }
 
-        // Insere as categorias atuais
-        if (giria.getCategorias() != null && !giria.getCategorias().isEmpty()) {
-            String sqlInsertCategoria = "INSERT INTO giria_categoria (giria_id, categoria_id) " +
-                    "SELECT ?, id FROM categoria WHERE nome = ?";
-
-            try (PreparedStatement pstm = connection.prepareStatement(sqlInsertCategoria)) {
-                for (String categoria : giria.getCategorias()) {
-                    // Primeiro verifica se a categoria existe, se não, cria
-                    criarCategoriaSeNaoExiste(categoria);
+        try {
+            for (int inicio = 0; inicio < girias.size(); inicio += LIMITE_FILTRO_IN) {
+                List<Giria> parte = girias.subList(inicio, Math.min(girias.size(), inicio + LIMITE_FILTRO_IN));
+
+                String sql = "INSERT INTO giria (termo, data_cadastro, aprovada, usuario_propositor_id, data_criacao) VALUES " +
+                        String.join(", ", Collections.nCopies(parte.size(), "(?, ?, ?, ?, ?)")) + " AS novo " +
+                        "ON DUPLICATE KEY UPDATE data_cadastro = novo.data_cadastro, aprovada = novo.aprovada, " +
+                        "usuario_propositor_id = novo.usuario_propositor_id";
+                try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                    int indice = 1;
+                    for (Giria giria : parte) {
+                        pstm.setString(indice++, giria.getTermo());
+                        pstm.setObject(indice++, giria.getDataCadastro());
+                        pstm.setBoolean(indice++, giria.isAprovada());
+                        pstm.setInt(indice++, giria.getUsuarioPropositor().getId());
+                        pstm.setObject(indice++, giria.getDataCriacao());
+                    }
+                    pstm.executeUpdate();
+                }
 
-                    // Insere na tabela de associação
-                    pstm.setInt(1, giria.getId());
-                    pstm.setString(2, categoria);
-                    pstm.addBatch(); // Adiciona à batch para executar em lote
+                // Ids das gírias novas e das já existentes, com os contadores de votos (usados pelos índices)
+                String sqlIds = "SELECT id, termo, positivos, negativos FROM giria WHERE termo IN (" + placeholders(parte.size()) + ")";
+                Map<String, int[]> ids = new HashMap<>();
+                try (PreparedStatement pstm = connection.prepareStatement(sqlIds)) {
+                    for (int i = 0; i < parte.size(); i++) {
+                        pstm.setString(i + 1, parte.get(i).getTermo());
+                    }
+                    try (ResultSet rst = pstm.executeQuery()) {
+                        while (rst.next()) {
+                            ids.put(Normalizador.normalizar(rst.getString("termo")),
+                                    new int[]{rst.getInt("id"), rst.getInt("positivos"), rst.getInt("negativos")});
+                        }
+                    }
+                }
+                for (Giria giria : parte) {
+                    int[] linha = ids.get(Normalizador.normalizar(giria.getTermo()));
+                    if (linha == null) {
+                        throw new SQLException("Falha ao obter id da gíria '" + giria.getTermo() + "'.");
+                    }
+                    giria.setId(linha[0]);
+                    giria.setContadoresVotos(linha[1], linha[2]);
+                    giria.limparAlteracoes();
                 }
-                pstm.executeBatch(); // Executa todas as inserções em lote
+
+                sincronizarAssociacoesEmLote(parte);
+            }
+
+            atualizarIndices(girias);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao salvar gírias em lote: " + e.getMessage(), e);
+        }
+    }
+
+    // Mantém os índices em memória (busca por trecho e autocompletar) de acordo com as gírias gravadas,
+    // depois do commit da transação. A pontuação vem dos contadores carregados com a gíria; a das
+    // aprovadas sem contadores é lida da coluna pontuacao, em uma consulta para todas
+    void atualizarIndices(Collection<Giria> girias) throws SQLException {
+        List<Integer> semContadores = new ArrayList<>();
+        for (Giria giria : girias) {
+            if (giria.isAprovada() && !giria.isContadoresCarregados()) {
+                semContadores.add(giria.getId());
             }
         }
+        Map<Integer, Integer> pontuacoes = buscarPontuacoes(semContadores);
+        for (Giria giria : girias) {
+            int pontuacao = !giria.isAprovada() ? 0
+                    : giria.isContadoresCarregados() ? giria.getPontuacaoVotos() : pontuacoes.getOrDefault(giria.getId(), 0);
+            atualizarIndices(giria.getId(), giria.getTermo(), giria.isAprovada(), pontuacao);
+        }
     }
 
-    private void criarCategoriaSeNaoExiste(String nomeCategoria) throws SQLException {
-        String sqlCheck = "SELECT COUNT(*) FROM categoria WHERE nome = ?";
-        try (PreparedStatement pstmCheck = connection.prepareStatement(sqlCheck)) {
-            pstmCheck.setString(1, nomeCategoria);
-            try (ResultSet rst = pstmCheck.executeQuery()) {
-                if (rst.next() && rst.getInt(1) == 0) {
-                    // Se não existe, cria a categoria
-                    String sqlInsert = "INSERT INTO categoria (nome) VALUES (?)";
-                    try (PreparedStatement pstmInsert = connection.prepareStatement(sqlInsert)) {
-                        pstmInsert.setString(1, nomeCategoria);
-                        pstmInsert.executeUpdate();
+    // id -> pontuação de votos gravada na tabela giria
+    private Map<Integer, Integer> buscarPontuacoes(List<Integer> ids) throws SQLException {
+        Map<Integer, Integer> pontuacoes = new HashMap<>();
+        for (int inicio = 0; inicio < ids.size(); inicio += LIMITE_FILTRO_IN) {
+            List<Integer> parte = ids.subList(inicio, Math.min(ids.size(), inicio + LIMITE_FILTRO_IN));
+            String sql = "SELECT id, pontuacao FROM giria WHERE id IN (" + placeholders(parte.size()) + ")";
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parte.size(); i++) {
+                    pstm.setInt(i + 1, parte.get(i));
+                }
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        pontuacoes.put(rst.getInt("id"), rst.getInt("pontuacao"));
                     }
                 }
             }
         }
+        return pontuacoes;
+    }
+
+    /**
+     * Agenda a atualização dos índices em memória (busca por trecho e autocompletar) para
+     * depois do commit, para quem grava gírias sem passar por este DAO (como a importação).
+     */
+    public void atualizarIndices(int id, String termo, boolean aprovada, int pontuacao) {
+        SincronizacaoTransacao.aposCommit(connection, () -> {
+            IndiceTrigramas.getInstancia().adicionar(id, termo);
+            AutocompletarGirias.getInstancia().atualizarGiria(id, termo, aprovada, pontuacao);
+        });
+    }
+
+    private void salvarCategorias(Giria giria) throws SQLException {
+        salvarAssociacoes(giria.getId(), giria.getCategorias(), giria.getCategoriasPersistidas(),
+                DicionarioNomes.CATEGORIAS, "giria_categoria", "categoria_id");
     }
 
     private void salvarRegioes(Giria giria) throws SQLException {
-        // Primeiro exclui as regiões existentes para essa gíria para evitar duplicidade
-        if (giria.getId() > 0) {
-            String sqlDeleteRegioes = "DELETE FROM giria_regiao WHERE giria_id = ?";
-            try (PreparedStatement pstm = connection.prepareStatement(sqlDeleteRegioes)) {
-                pstm.setInt(1, giria.getId());
-                pstm.executeUpdate();
-            }
+        salvarAssociacoes(giria.getId(), giria.getRegioes(), giria.getRegioesPersistidas(),
+                DicionarioNomes.REGIOES, "giria_regiao", "regiao_id");
+    }
+
+    /**
+     * Grava as associações de uma gíria com categorias ou regiões.
+     * Quando a gíria foi carregada do banco, só as associações incluídas ou removidas desde então
+     * são gravadas (nada, se não mudou); senão, todas as associações da gíria são regravadas.
+     * Os ids vêm do dicionário em memória (nomes novos são criados nele), então a gravação
+     * vai direto por id, sem procurar cada nome na tabela.
+     * @param persistidos Nomes gravados no banco, ou null se não são conhecidos
+     */
+    private void salvarAssociacoes(int giriaId, Set<String> nomes, Set<String> persistidos, DicionarioNomes dicionario,
+                                   String tabelaAssociacao, String colunaId) throws SQLException {
+        Set<String> atuais = nomes != null ? nomes : Collections.emptySet();
+        if (atuais.equals(persistidos)) {
+            return;
         }
 
-        // Insere as regiões atuais
-        if (giria.getRegioes() != null && !giria.getRegioes().isEmpty()) {
-            String sqlInsertRegiao = "INSERT INTO giria_regiao (giria_id, regiao_id) " +
-                    "SELECT ?, id FROM regiao WHERE nome = ?";
+        try {
+            Collection<Integer> removidos;
+            Set<String> incluidos;
+            if (persistidos != null) {
+                Set<String> nomesRemovidos = new HashSet<>(persistidos);
+                nomesRemovidos.removeAll(atuais);
+                removidos = dicionario.resolverIds(connection, nomesRemovidos);
+                incluidos = new HashSet<>(atuais);
+                incluidos.removeAll(persistidos);
+            } else {
+                removidos = null;
+                incluidos = atuais;
+            }
 
-            try (PreparedStatement pstm = connection.prepareStatement(sqlInsertRegiao)) {
-                for (String regiao : giria.getRegioes()) {
-                    // Primeiro verifica se a região existe, se não, cria
-                    criarRegiaoSeNaoExiste(regiao);
+            if (removidos == null) {
+                // Associações no banco desconhecidas: exclui todas para evitar duplicidade
+                String sqlDelete = "DELETE FROM " + tabelaAssociacao + " WHERE giria_id = ?";
+                try (PreparedStatement pstm = connection.prepareStatement(sqlDelete)) {
+                    pstm.setInt(1, giriaId);
+                    pstm.executeUpdate();
+                }
+            } else if (!removidos.isEmpty()) {
+                String sqlDelete = "DELETE FROM " + tabelaAssociacao + " WHERE giria_id = ? AND " + colunaId +
+                        " IN (" + placeholders(removidos.size()) + ")";
+                try (PreparedStatement pstm = connection.prepareStatement(sqlDelete)) {
+                    pstm.setInt(1, giriaId);
+                    int indice = 2;
+                    for (int id : removidos) {
+                        pstm.setInt(indice++, id);
+                    }
+                    pstm.executeUpdate();
+                }
+            }
 
-                    // Insere na tabela de associação
-                    pstm.setInt(1, giria.getId());
-                    pstm.setString(2, regiao);
-                    pstm.addBatch(); // Adiciona à batch para executar em lote
+            if (!incluidos.isEmpty()) {
+                Collection<Integer> ids = dicionario.resolverIds(connection, incluidos);
+                String sqlInsert = "INSERT INTO " + tabelaAssociacao + " (giria_id, " + colunaId + ") VALUES " +
+                        String.join(", ", Collections.nCopies(ids.size(), "(?, ?)"));
+                try (PreparedStatement pstm = connection.prepareStatement(sqlInsert)) {
+                    int indice = 1;
+                    for (int id : ids) {
+                        pstm.setInt(indice++, giriaId);
+                        pstm.setInt(indice++, id);
+                    }
+                    pstm.executeUpdate();
                 }
-                pstm.executeBatch(); // Executa todas as inserções em lote
             }
+        } catch (SQLException e) {
+            // Algum id em memória pode ter deixado de existir (ex.: criado em transação desfeita)
+            dicionario.invalidar();
+            throw e;
         }
     }
 
-    private void criarRegiaoSeNaoExiste(String nomeRegiao) throws SQLException {
-        String sqlCheck = "SELECT COUNT(*) FROM regiao WHERE nome = ?";
-        try (PreparedStatement pstmCheck = connection.prepareStatement(sqlCheck)) {
-            pstmCheck.setString(1, nomeRegiao);
-            try (ResultSet rst = pstmCheck.executeQuery()) {
-                if (rst.next() && rst.getInt(1) == 0) {
-                    // Se não existe, cria a região
-                    String sqlInsert = "INSERT INTO regiao (nome) VALUES (?)";
-                    try (PreparedStatement pstmInsert = connection.prepareStatement(sqlInsert)) {
-                        pstmInsert.setString(1, nomeRegiao);
-                        pstmInsert.executeUpdate();
+    /**
+     * Grava as categorias e regiões das gírias cujas associações mudaram desde que foram
+     * carregadas ou gravadas (todas as gírias, se não há como saber).
+     */
+    void sincronizarAssociacoesEmLote(List<Giria> girias) throws SQLException {
+        salvarAssociacoesEmLote(girias, DicionarioNomes.CATEGORIAS, "giria_categoria", "categoria_id",
+                Giria::getCategorias, Giria::getCategoriasPersistidas);
+        salvarAssociacoesEmLote(girias, DicionarioNomes.REGIOES, "giria_regiao", "regiao_id",
+                Giria::getRegioes, Giria::getRegioesPersistidas);
+        for (Giria giria : girias) {
+            giria.marcarAssociacoesPersistidas();
+        }
+    }
+
+    // Regrava as associações das gírias que mudaram: um DELETE com IN e um único batch de INSERTs
+    private void salvarAssociacoesEmLote(List<Giria> girias, DicionarioNomes dicionario, String tabelaAssociacao,
+                                         String colunaId, Function<Giria, Set<String>> nomesDaGiria,
+                                         Function<Giria, Set<String>> persistidosDaGiria) throws SQLException {
+        List<Giria> alteradas = new ArrayList<>();
+        for (Giria giria : girias) {
+            Set<String> nomes = nomesDaGiria.apply(giria);
+            if (!(nomes != null ? nomes : Collections.emptySet()).equals(persistidosDaGiria.apply(giria))) {
+                alteradas.add(giria);
+            }
+        }
+        if (alteradas.isEmpty()) {
+            return;
+        }
+        try {
+            String sqlDelete = "DELETE FROM " + tabelaAssociacao + " WHERE giria_id IN (" + placeholders(alteradas.size()) + ")";
+            try (PreparedStatement pstm = connection.prepareStatement(sqlDelete)) {
+                for (int i = 0; i < alteradas.size(); i++) {
+                    pstm.setInt(i + 1, alteradas.get(i).getId());
+                }
+                pstm.executeUpdate();
+            }
+
+            // Todos os nomes de uma vez: um nome novo é criado uma só vez para o lote inteiro
+            Set<String> todosNomes = new LinkedHashSet<>();
+            for (Giria giria : alteradas) {
+                Set<String> nomes = nomesDaGiria.apply(giria);
+                if (nomes != null) {
+                    todosNomes.addAll(nomes);
+                }
+            }
+            Map<String, Integer> ids = dicionario.resolver(connection, todosNomes);
+
+            String sqlInsert = "INSERT INTO " + tabelaAssociacao + " (giria_id, " + colunaId + ") VALUES (?, ?)";
+            try (PreparedStatement pstm = connection.prepareStatement(sqlInsert)) {
+                boolean vazio = true;
+                for (Giria giria : alteradas) {
+                    Set<String> nomes = nomesDaGiria.apply(giria);
+                    if (nomes == null || nomes.isEmpty()) {
+                        continue;
+                    }
+                    // Variações do mesmo nome podem resolver para o mesmo id
+                    Set<Integer> idsDaGiria = new LinkedHashSet<>();
+                    for (String nome : nomes) {
+                        idsDaGiria.add(ids.get(nome));
                     }
+                    for (Integer id : idsDaGiria) {
+                        pstm.setInt(1, giria.getId());
+                        pstm.setInt(2, id);
+                        pstm.addBatch();
+                        vazio = false;
+                    }
+                }
+                if (!vazio) {
+                    pstm.executeBatch();
                 }
             }
+        } catch (SQLException e) {
+            dicionario.invalidar();
+            throw e;
         }
     }
 
@@ -175,7 +372,7 @@ public class GiriaDAO implements BaseDAO {
         Giria giria = null;
         try {
             // Consulta principal para buscar uma gíria
-            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, " +
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM giria g " +
                     "JOIN usuario u ON g.usuario_propositor_id = u.id " +
@@ -205,10 +402,12 @@ public class GiriaDAO implements BaseDAO {
                                 propositor
                         );
                         giria.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        giria.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         // Carregar categorias e regiões
                         carregarCategorias(giria);
                         carregarRegioes(giria);
+                        giria.marcarAssociacoesPersistidas();
                     }
                 }
             }
@@ -253,7 +452,7 @@ public class GiriaDAO implements BaseDAO {
     public ArrayList<Object> listarTodosLazyLoading() {
         ArrayList<Object> girias = new ArrayList<>();
         try {
-            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, " +
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM giria g " +
                     "JOIN usuario u ON g.usuario_propositor_id = u.id " +
@@ -282,6 +481,7 @@ public class GiriaDAO implements BaseDAO {
                                 propositor
                         );
                         giria.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        giria.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         // No lazy loading, não carregamos categorias, regiões, explicações ou votos
                         girias.add(giria);
@@ -296,9 +496,10 @@ public class GiriaDAO implements BaseDAO {
 
     @Override
     public ArrayList<Object> listarTodosEagerLoading() {
-        ArrayList<Object> girias = new ArrayList<>();
+        // Chave = id da gíria; mantém a ordem da consulta principal
+        Map<Integer, Giria> girias = new LinkedHashMap<>();
         try {
-            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, " +
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM giria g " +
                     "JOIN usuario u ON g.usuario_propositor_id = u.id " +
@@ -327,31 +528,104 @@ public class GiriaDAO implements BaseDAO {
                                 propositor
                         );
                         giria.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        giria.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
-                        // No eager loading, carregamos categorias e regiões
-                        carregarCategorias(giria);
-                        carregarRegioes(giria);
+                        girias.put(giria.getId(), giria);
+                    }
+                }
+            }
 
-                        // Carregar votos da gíria
-                        VotoDAO votoDAO = new VotoDAO(connection);
-                        ArrayList<modelo.Voto> votos = votoDAO.listarPorGiriaId(giria.getId());
-                        for (modelo.Voto voto : votos) {
-                            giria.adicionarVoto(voto);
-                        }
+            // No eager loading, categorias, regiões e votos de todas as gírias são carregados
+            // em uma consulta cada e ligados às gírias em memória (evita 3 consultas por gíria)
+            carregarRelacionamentosEmLote(girias);
 
-                        // E também carregaríamos explicações e votos, mas isso é melhor
-                        // ser feito por seus respectivos DAOs para evitar complexidade excessiva
+            // Explicações continuam sendo carregadas pelo ExplicacaoDAO
 
-                        girias.add(giria);
+            return new ArrayList<>(girias.values());
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar todas as gírias (Eager Loading): " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Carrega categorias, regiões e votos das gírias informadas com uma consulta para cada
+     * relacionamento, independentemente da quantidade de gírias.
+     * @param girias Gírias indexadas pelo id
+     */
+    void carregarRelacionamentosEmLote(Map<Integer, Giria> girias) throws SQLException {
+        carregarAssociacoesEmLote(girias);
+
+        VotoDAO votoDAO = new VotoDAO(connection);
+        for (modelo.Voto voto : votoDAO.listarPorObjetos(girias.keySet(), TipoObjetoAvaliado.GIRIA)) {
+            Giria giria = girias.get(voto.getObjetoAvaliadoId());
+            if (giria != null) {
+                giria.adicionarVoto(voto);
+            }
+        }
+    }
+
+    /**
+     * Carrega categorias e regiões das gírias informadas, uma consulta para cada.
+     * @param girias Gírias indexadas pelo id
+     */
+    void carregarAssociacoesEmLote(Map<Integer, Giria> girias) throws SQLException {
+        if (girias.isEmpty()) {
+            return;
+        }
+
+        boolean filtrarIds = girias.size() <= LIMITE_FILTRO_IN;
+        String ids = placeholders(girias.size());
+
+        String sqlCategorias = "SELECT gc.giria_id, c.nome FROM categoria c " +
+                "JOIN giria_categoria gc ON c.id = gc.categoria_id" +
+                (filtrarIds ? " WHERE gc.giria_id IN (" + ids + ")" : "");
+        try (PreparedStatement pstm = connection.prepareStatement(sqlCategorias)) {
+            if (filtrarIds) {
+                preencherIds(pstm, girias.keySet());
+            }
+            try (ResultSet rst = pstm.executeQuery()) {
+                while (rst.next()) {
+                    Giria giria = girias.get(rst.getInt("giria_id"));
+                    if (giria != null) {
+                        giria.adicionarCategoria(rst.getString("nome"));
                     }
                 }
             }
-            return girias;
-        } catch (SQLException e) {
-            throw new RuntimeException("Erro ao listar todas as gírias (Eager Loading): " + e.getMessage(), e);
+        }
+
+        String sqlRegioes = "SELECT gr.giria_id, r.nome FROM regiao r " +
+                "JOIN giria_regiao gr ON r.id = gr.regiao_id" +
+                (filtrarIds ? " WHERE gr.giria_id IN (" + ids + ")" : "");
+        try (PreparedStatement pstm = connection.prepareStatement(sqlRegioes)) {
+            if (filtrarIds) {
+                preencherIds(pstm, girias.keySet());
+            }
+            try (ResultSet rst = pstm.executeQuery()) {
+                while (rst.next()) {
+                    Giria giria = girias.get(rst.getInt("giria_id"));
+                    if (giria != null) {
+                        giria.adicionarRegiao(rst.getString("nome"));
+                    }
+                }
+            }
+        }
+
+        for (Giria giria : girias.values()) {
+            giria.marcarAssociacoesPersistidas();
         }
     }
 
+    static void preencherIds(PreparedStatement pstm, Iterable<Integer> ids) throws SQLException {
+        int indice = 1;
+        for (int id : ids) {
+            pstm.setInt(indice++, id);
+        }
+    }
+
+    static String placeholders(int quantidade) {
+        return String.join(", ", Collections.nCopies(quantidade, "?"));
+    }
+
     @Override
     public void atualizar(Object objeto) {
         if (!(objeto instanceof Giria)) {
@@ -375,10 +649,14 @@ public class GiriaDAO implements BaseDAO {
             if (linhasAfetadas == 0) {
                 throw new SQLException("Falha ao atualizar gíria: nenhuma linha foi afetada.");
             }
+            giria.limparAlteracoes();
 
             // Atualiza categorias e regiões
             salvarCategorias(giria);
             salvarRegioes(giria);
+            giria.marcarAssociacoesPersistidas();
+
+            atualizarIndices(List.of(giria));
 
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao atualizar gíria: " + e.getMessage(), e);
@@ -392,6 +670,17 @@ public class GiriaDAO implements BaseDAO {
             // nas tabelas giria_categoria, giria_regiao serão excluídas automaticamente.
             // Também excluirá as explicações e votos se estiverem configurados como CASCADE.
 
+            // As explicações somem junto com a gíria, então também precisam sair do índice de busca
+            List<Integer> explicacaoIds = new ArrayList<>();
+            try (PreparedStatement pstm = connection.prepareStatement("SELECT id FROM explicacao WHERE giria_associada_id = ?")) {
+                pstm.setInt(1, id);
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        explicacaoIds.add(rst.getInt("id"));
+                    }
+                }
+            }
+
             String sql = "DELETE FROM giria WHERE id = ?";
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
@@ -403,6 +692,14 @@ public class GiriaDAO implements BaseDAO {
                     throw new SQLException("Falha ao deletar gíria: nenhuma linha foi afetada.");
                 }
             }
+
+            SincronizacaoTransacao.aposCommit(connection, () -> {
+                IndiceTrigramas.getInstancia().remover(id);
+                AutocompletarGirias.getInstancia().remover(id);
+                for (int explicacaoId : explicacaoIds) {
+                    IndiceExplicacoes.getInstancia().remover(explicacaoId);
+                }
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao excluir gíria: " + e.getMessage(), e);
         }
@@ -411,9 +708,14 @@ public class GiriaDAO implements BaseDAO {
     // Métodos específicos para a classe GiriaDAO
 
     public ArrayList<Giria> buscarPorTermo(String termo) {
+        // Com o índice de trigramas carregado, a busca por trecho não varre a tabela
+        if (IndiceTrigramas.getInstancia().isCarregado()) {
+            return buscarPorTermoIndexado(termo);
+        }
+
         ArrayList<Giria> girias = new ArrayList<>();
         try {
-            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, " +
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM giria g " +
                     "JOIN usuario u ON g.usuario_propositor_id = u.id " +
@@ -442,6 +744,7 @@ public class GiriaDAO implements BaseDAO {
                                 propositor
                         );
                         giria.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        giria.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         girias.add(giria);
                     }
@@ -453,10 +756,47 @@ public class GiriaDAO implements BaseDAO {
         }
     }
 
+    /**
+     * Resolve os ids pelo índice de trigramas e carrega só essas linhas pela chave primária.
+     */
+    private ArrayList<Giria> buscarPorTermoIndexado(String termo) {
+        ArrayList<Giria> girias = new ArrayList<>();
+        List<Integer> ids = IndiceTrigramas.getInstancia().buscarIds(termo);
+        String trecho = Normalizador.normalizar(termo);
+
+        try {
+            for (int inicio = 0; inicio < ids.size(); inicio += LIMITE_FILTRO_IN) {
+                List<Integer> lote = ids.subList(inicio, Math.min(inicio + LIMITE_FILTRO_IN, ids.size()));
+                String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
+                        "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
+                        "FROM giria g " +
+                        "JOIN usuario u ON g.usuario_propositor_id = u.id " +
+                        "WHERE g.id IN (" + placeholders(lote.size()) + ") " +
+                        "ORDER BY g.id";
+
+                try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                    preencherIds(pstm, lote);
+                    try (ResultSet rst = pstm.executeQuery()) {
+                        while (rst.next()) {
+                            Giria giria = mapearGiria(rst);
+                            // Confere o termo atual: o índice pode estar à frente de uma transação desfeita
+                            if (Normalizador.normalizar(giria.getTermo()).contains(trecho)) {
+                                girias.add(giria);
+                            }
+                        }
+                    }
+                }
+            }
+            return girias;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar gírias por termo: " + e.getMessage(), e);
+        }
+    }
+
     public ArrayList<Giria> buscarPorCategoria(String categoria) {
         ArrayList<Giria> girias = new ArrayList<>();
         try {
-            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, " +
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM giria g " +
                     "JOIN usuario u ON g.usuario_propositor_id = u.id " +
@@ -487,6 +827,7 @@ public class GiriaDAO implements BaseDAO {
                                 propositor
                         );
                         giria.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        giria.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         girias.add(giria);
                     }
@@ -501,7 +842,7 @@ public class GiriaDAO implements BaseDAO {
     public ArrayList<Giria> buscarPorRegiao(String regiao) {
         ArrayList<Giria> girias = new ArrayList<>();
         try {
-            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, " +
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM giria g " +
                     "JOIN usuario u ON g.usuario_propositor_id = u.id " +
@@ -532,6 +873,7 @@ public class GiriaDAO implements BaseDAO {
                                 propositor
                         );
                         giria.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        giria.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         girias.add(giria);
                     }
@@ -546,7 +888,7 @@ public class GiriaDAO implements BaseDAO {
     public ArrayList<Giria> listarGiriasAprovadas() {
         ArrayList<Giria> girias = new ArrayList<>();
         try {
-            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, " +
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM giria g " +
                     "JOIN usuario u ON g.usuario_propositor_id = u.id " +
@@ -574,6 +916,7 @@ public class GiriaDAO implements BaseDAO {
                                 propositor
                         );
                         giria.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        giria.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         girias.add(giria);
                     }
@@ -588,7 +931,7 @@ public class GiriaDAO implements BaseDAO {
     public ArrayList<Giria> listarGiriasAguardandoAprovacao() {
         ArrayList<Giria> girias = new ArrayList<>();
         try {
-            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, " +
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM giria g " +
                     "JOIN usuario u ON g.usuario_propositor_id = u.id " +
@@ -616,6 +959,7 @@ public class GiriaDAO implements BaseDAO {
                                 propositor
                         );
                         giria.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+                        giria.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
 
                         girias.add(giria);
                     }
@@ -627,41 +971,358 @@ public class GiriaDAO implements BaseDAO {
         }
     }
 
-    // Método adicional para obter categorias
-    public Set<String> obterTodasCategorias() {
-        Set<String> categorias = new HashSet<>();
+    /**
+     * Sugestões de autocompletar: até {@code k} gírias aprovadas que começam com o prefixo,
+     * das mais bem votadas para as menos. Respondida em memória, sem consultar o banco.
+     */
+    public List<String> sugerir(String prefixo, int k) {
+        return AutocompletarGirias.getInstancia().sugerir(prefixo, k);
+    }
+
+    /**
+     * Gírias aprovadas mais bem votadas, usando o contador de pontuação da própria tabela
+     * (índice em aprovada, pontuacao), sem agregar os votos.
+     */
+    public ArrayList<Giria> listarMaisVotadas(int limite) {
+        ArrayList<Giria> girias = new ArrayList<>();
         try {
-            String sql = "SELECT nome FROM categoria ORDER BY nome";
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
+                    "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
+                    "FROM giria g " +
+                    "JOIN usuario u ON g.usuario_propositor_id = u.id " +
+                    "WHERE g.aprovada = true " +
+                    "ORDER BY g.pontuacao DESC, g.id " +
+                    "LIMIT ?";
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                pstm.setInt(1, limite);
                 try (ResultSet rst = pstm.executeQuery()) {
                     while (rst.next()) {
-                        categorias.add(rst.getString("nome"));
+                        girias.add(mapearGiria(rst));
+                    }
+                }
+            }
+            return girias;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar gírias mais votadas: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Busca a gíria com a sua melhor explicação (a aprovada mais bem votada, mantida em
+     * giria.melhor_explicacao_id) em uma única consulta. Categorias, regiões e votos não são
+     * carregados; a gíria sem explicação aprovada volta com {@link Giria#getMelhorExplicacao()} null.
+     */
+    public Giria buscarComMelhorExplicacao(int id) {
+        try {
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
+                    "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao, " +
+                    "e.id as explicacao_id, e.definicao, e.exemplo_uso, e.data_proposta, e.data_criacao as explicacao_data_criacao, " +
+                    "e.positivos as explicacao_positivos, e.negativos as explicacao_negativos, " +
+                    "eu.id as explicacao_usuario_id, eu.nome as explicacao_usuario_nome, eu.email as explicacao_usuario_email, " +
+                    "eu.senha as explicacao_usuario_senha, eu.reputacao as explicacao_usuario_reputacao " +
+                    "FROM giria g " +
+                    "JOIN usuario u ON g.usuario_propositor_id = u.id " +
+                    "LEFT JOIN explicacao e ON e.id = g.melhor_explicacao_id AND e.aprovada = true " +
+                    "LEFT JOIN usuario eu ON e.usuario_propositor_id = eu.id " +
+                    "WHERE g.id = ?";
+
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                pstm.setInt(1, id);
+                try (ResultSet rst = pstm.executeQuery()) {
+                    if (!rst.next()) {
+                        return null;
+                    }
+                    Giria giria = mapearGiria(rst);
+                    if (rst.getObject("explicacao_id") != null) {
+                        Usuario autor = new Usuario(
+                                rst.getInt("explicacao_usuario_id"),
+                                rst.getString("explicacao_usuario_nome"),
+                                rst.getString("explicacao_usuario_email"),
+                                rst.getString("explicacao_usuario_senha")
+                        );
+                        autor.setReputacao(rst.getInt("explicacao_usuario_reputacao"));
+
+                        Explicacao explicacao = new Explicacao(rst.getInt("explicacao_id"), rst.getString("definicao"),
+                                rst.getString("exemplo_uso"), autor, giria);
+                        explicacao.setDataProposta(rst.getObject("data_proposta", LocalDate.class));
+                        explicacao.setAprovada(true);
+                        explicacao.limparAlteracoes();
+                        explicacao.setDataCriacao(rst.getObject("explicacao_data_criacao", LocalDateTime.class));
+                        explicacao.setContadoresVotos(rst.getInt("explicacao_positivos"), rst.getInt("explicacao_negativos"));
+                        giria.setMelhorExplicacao(explicacao);
                     }
+                    return giria;
                 }
             }
-            return categorias;
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao obter todas as categorias: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao buscar gíria com a melhor explicação: " + e.getMessage(), e);
+        }
+    }
+
+    // Manutenção de giria.melhor_explicacao_id: a explicação aprovada de maior pontuação
+    // (no empate, a de menor id), ignorando a explicação de id informado no primeiro parâmetro
+    private static final String SQL_MELHOR_EXPLICACAO = "(SELECT e.id FROM explicacao e " +
+            "WHERE e.giria_associada_id = g.id AND e.aprovada = true AND e.id <> ? " +
+            "ORDER BY e.pontuacao DESC, e.id LIMIT 1)";
+
+    private static final String SQL_ATUALIZAR_MELHOR_EXPLICACAO =
+            "UPDATE giria g SET g.melhor_explicacao_id = " + SQL_MELHOR_EXPLICACAO + " WHERE ";
+
+    /**
+     * Recalcula a melhor explicação das gírias informadas (usado depois de inserir explicações
+     * fora do {@link ExplicacaoDAO}, como na importação).
+     */
+    public void atualizarMelhoresExplicacoes(Collection<Integer> giriaIds) {
+        try {
+            atualizarMelhoresExplicacoes(giriaIds, List.of());
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao atualizar melhores explicações: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Recalcula a melhor explicação das gírias informadas e das gírias cuja melhor explicação
+     * atual é uma das explicações informadas (explicações que mudaram de gíria ou foram desaprovadas).
+     */
+    void atualizarMelhoresExplicacoes(Collection<Integer> giriaIds, Collection<Integer> explicacaoIds) throws SQLException {
+        List<Integer> girias = new ArrayList<>(giriaIds);
+        List<Integer> explicacoes = new ArrayList<>(explicacaoIds);
+        int total = Math.max(girias.size(), explicacoes.size());
+        for (int inicio = 0; inicio < total; inicio += LIMITE_FILTRO_IN) {
+            List<Integer> parteGirias = girias.subList(Math.min(inicio, girias.size()), Math.min(girias.size(), inicio + LIMITE_FILTRO_IN));
+            List<Integer> parteExplicacoes = explicacoes.subList(Math.min(inicio, explicacoes.size()), Math.min(explicacoes.size(), inicio + LIMITE_FILTRO_IN));
+            List<String> filtros = new ArrayList<>();
+            if (!parteGirias.isEmpty()) {
+                filtros.add("g.id IN (" + placeholders(parteGirias.size()) + ")");
+            }
+            if (!parteExplicacoes.isEmpty()) {
+                filtros.add("g.melhor_explicacao_id IN (" + placeholders(parteExplicacoes.size()) + ")");
+            }
+
+            try (PreparedStatement pstm = connection.prepareStatement(SQL_ATUALIZAR_MELHOR_EXPLICACAO + String.join(" OR ", filtros))) {
+                int indice = 1;
+                pstm.setInt(indice++, 0);
+                for (int id : parteGirias) {
+                    pstm.setInt(indice++, id);
+                }
+                for (int id : parteExplicacoes) {
+                    pstm.setInt(indice++, id);
+                }
+                pstm.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Recalcula a melhor explicação das gírias das explicações votadas. Votos em explicações
+     * não aprovadas não mudam a melhor explicação de ninguém.
+     */
+    void atualizarMelhoresExplicacoesVotadas(Collection<Integer> explicacaoIds) throws SQLException {
+        List<Integer> ids = new ArrayList<>(explicacaoIds);
+        for (int inicio = 0; inicio < ids.size(); inicio += LIMITE_FILTRO_IN) {
+            List<Integer> parte = ids.subList(inicio, Math.min(ids.size(), inicio + LIMITE_FILTRO_IN));
+            String sql = SQL_ATUALIZAR_MELHOR_EXPLICACAO + "g.id IN (SELECT giria_associada_id FROM explicacao " +
+                    "WHERE aprovada = true AND id IN (" + placeholders(parte.size()) + "))";
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                pstm.setInt(1, 0);
+                int indice = 2;
+                for (int id : parte) {
+                    pstm.setInt(indice++, id);
+                }
+                pstm.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Troca a melhor explicação das gírias que apontam para a explicação que vai ser excluída.
+     * Deve ser chamado antes do DELETE, enquanto a explicação ainda existe.
+     */
+    void removerMelhorExplicacao(int explicacaoId) throws SQLException {
+        try (PreparedStatement pstm = connection.prepareStatement(SQL_ATUALIZAR_MELHOR_EXPLICACAO + "g.melhor_explicacao_id = ?")) {
+            pstm.setInt(1, explicacaoId);
+            pstm.setInt(2, explicacaoId);
+            pstm.executeUpdate();
+        }
+    }
+
+    /**
+     * Recalcula a melhor explicação de todas as gírias a partir da tabela explicacao, corrigindo
+     * as que divergirem (explicações excluídas em cascata junto com o autor, alterações feitas por
+     * fora da aplicação). Processa faixas de ids com um commit por faixa; deve rodar em uma conexão própria.
+     * @param tamanhoFaixa Quantidade de ids por faixa
+     * @return Quantidade de gírias corrigidas
+     */
+    public int recalcularMelhoresExplicacoes(int tamanhoFaixa) {
+        int corrigidas = 0;
+        try {
+            int maiorId = 0;
+            try (PreparedStatement pstm = connection.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM giria");
+                 ResultSet rst = pstm.executeQuery()) {
+                if (rst.next()) {
+                    maiorId = rst.getInt(1);
+                }
+            }
+
+            String sql = SQL_ATUALIZAR_MELHOR_EXPLICACAO + "g.id BETWEEN ? AND ? " +
+                    "AND NOT (g.melhor_explicacao_id <=> " + SQL_MELHOR_EXPLICACAO + ")";
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                for (int inicio = 1; inicio <= maiorId; inicio += tamanhoFaixa) {
+                    pstm.setInt(1, 0);
+                    pstm.setInt(2, inicio);
+                    pstm.setInt(3, inicio + tamanhoFaixa - 1);
+                    pstm.setInt(4, 0);
+                    corrigidas += pstm.executeUpdate();
+                    connection.commit();
+                }
+            }
+            return corrigidas;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao recalcular melhores explicações: " + e.getMessage(), e);
+        }
+    }
+
+    // Método adicional para obter categorias
+    public Set<String> obterTodasCategorias() {
+        return DicionarioNomes.CATEGORIAS.obterTodos(connection);
+    }
+
     // Método adicional para obter regiões
     public Set<String> obterTodasRegioes() {
-        Set<String> regioes = new HashSet<>();
+        return DicionarioNomes.REGIOES.obterTodos(connection);
+    }
+
+    // Paginação por chave: "após o id X, no máximo N itens", sem OFFSET
+
+    /**
+     * Lista uma página de gírias em ordem de id.
+     * @param aposId Cursor da página anterior ({@link Pagina#getProximoCursor()}); 0 para a primeira página
+     * @param limite Quantidade máxima de gírias na página
+     */
+    public Pagina<Giria> listarPagina(int aposId, int limite) {
+        return listarPaginaGirias("", null, aposId, limite, "Erro ao listar página de gírias: ");
+    }
+
+    public Pagina<Giria> listarPaginaAprovadas(int aposId, int limite) {
+        return listarPaginaGirias("AND g.aprovada = true ", null, aposId, limite,
+                "Erro ao listar página de gírias aprovadas: ");
+    }
+
+    public Pagina<Giria> listarPaginaAguardandoAprovacao(int aposId, int limite) {
+        return listarPaginaGirias("AND g.aprovada = false ", null, aposId, limite,
+                "Erro ao listar página de gírias aguardando aprovação: ");
+    }
+
+    public Pagina<Giria> buscarPaginaPorCategoria(String categoria, int aposId, int limite) {
+        return listarPaginaGirias("AND EXISTS (SELECT 1 FROM giria_categoria gc " +
+                        "JOIN categoria c ON gc.categoria_id = c.id " +
+                        "WHERE gc.giria_id = g.id AND c.nome LIKE ?) ",
+                "%" + categoria + "%", aposId, limite,
+                "Erro ao buscar página de gírias por categoria: ");
+    }
+
+    public Pagina<Giria> buscarPaginaPorRegiao(String regiao, int aposId, int limite) {
+        return listarPaginaGirias("AND EXISTS (SELECT 1 FROM giria_regiao gr " +
+                        "JOIN regiao r ON gr.regiao_id = r.id " +
+                        "WHERE gr.giria_id = g.id AND r.nome LIKE ?) ",
+                "%" + regiao + "%", aposId, limite,
+                "Erro ao buscar página de gírias por região: ");
+    }
+
+    /**
+     * Executa a consulta paginada com o filtro adicional (e seu parâmetro, se houver).
+     */
+    private Pagina<Giria> listarPaginaGirias(String filtro, String parametroFiltro,
+                                             int aposId, int limite, String mensagemErro) {
+        ArrayList<Giria> girias = new ArrayList<>();
         try {
-            String sql = "SELECT nome FROM regiao ORDER BY nome";
+            String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
+                    "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
+                    "FROM giria g " +
+                    "JOIN usuario u ON g.usuario_propositor_id = u.id " +
+                    "WHERE g.id > ? " + filtro +
+                    "ORDER BY g.id " +
+                    "LIMIT ?";
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                int indice = 1;
+                pstm.setInt(indice++, aposId);
+                if (parametroFiltro != null) {
+                    pstm.setString(indice++, parametroFiltro);
+                }
+                // Uma linha a mais indica se existe próxima página
+                pstm.setInt(indice, limite + 1);
+
                 try (ResultSet rst = pstm.executeQuery()) {
                     while (rst.next()) {
-                        regioes.add(rst.getString("nome"));
+                        girias.add(mapearGiria(rst));
                     }
                 }
             }
-            return regioes;
+            return Pagina.deLinhas(girias, limite);
+        } catch (SQLException e) {
+            throw new RuntimeException(mensagemErro + e.getMessage(), e);
+        }
+    }
+
+    // Consultas em streaming: as linhas são lidas do cursor sob demanda, sem materializar a tabela
+
+    /**
+     * Versão em streaming de {@link #listarTodosLazyLoading()}.
+     * O stream precisa ser fechado (try-with-resources) para liberar o cursor.
+     * @param tamanhoLote Quantidade de linhas buscadas do servidor a cada ida ao banco
+     */
+    public Stream<Giria> streamTodosLazyLoading(int tamanhoLote) {
+        String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
+                "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
+                "FROM giria g " +
+                "JOIN usuario u ON g.usuario_propositor_id = u.id " +
+                "ORDER BY g.id";
+        try {
+            return ResultSetStream.criar(connection, sql, tamanhoLote, null, this::mapearGiria);
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao obter todas as regiões: " + e.getMessage(), e);
+            throw new RuntimeException("Erro ao listar todas as gírias (Streaming): " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Versão em streaming de {@link #listarGiriasAprovadas()}.
+     * @param tamanhoLote Quantidade de linhas buscadas do servidor a cada ida ao banco
+     */
+    public Stream<Giria> streamGiriasAprovadas(int tamanhoLote) {
+        String sql = "SELECT g.id, g.termo, g.data_cadastro, g.aprovada, g.data_criacao, g.positivos, g.negativos, " +
+                "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
+                "FROM giria g " +
+                "JOIN usuario u ON g.usuario_propositor_id = u.id " +
+                "WHERE g.aprovada = true " +
+                "ORDER BY g.id";
+        try {
+            return ResultSetStream.criar(connection, sql, tamanhoLote, null, this::mapearGiria);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar gírias aprovadas (Streaming): " + e.getMessage(), e);
+        }
+    }
+
+    // Monta a gíria (sem relacionamentos) a partir das colunas g.* e u.* usadas nas listagens
+    private Giria mapearGiria(ResultSet rst) throws SQLException {
+        Usuario propositor = new Usuario(
+                rst.getInt("usuario_id"),
+                rst.getString("nome"),
+                rst.getString("email"),
+                rst.getString("senha")
+        );
+        propositor.setReputacao(rst.getInt("reputacao"));
+
+        Giria giria = new Giria(
+                rst.getInt("id"),
+                rst.getString("termo"),
+                rst.getObject("data_cadastro", LocalDateTime.class),
+                rst.getBoolean("aprovada"),
+                propositor
+        );
+        giria.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+        giria.setContadoresVotos(rst.getInt("positivos"), rst.getInt("negativos"));
+        return giria;
+    }
 }
@@ -0,0 +1,509 @@
+package dao;
+
+import bd.ConnectionFactory;
+import bd.PoolConexoes;
+import modelo.EnumVoto;
+import modelo.TipoObjetoAvaliado;
+import modelo.Usuario;
+import modelo.Voto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recebe votos de forma assíncrona e grava em lote ({@link VotoDAO#salvarTodos(List)}) numa thread própria.
+ *
+ * Cada voto aceito é anotado em um journal no disco (com fsync) antes de {@link #enviar(Voto)}
+ * retornar, então uma queda antes da gravação no banco não perde votos: o journal é reaplicado
+ * na próxima inicialização. O journal é dividido em segmentos; a cada gravação o segmento atual é
+ * fechado junto com a retirada dos votos da fila e apagado depois do commit.
+ *
+ * A fila tem capacidade limitada: com ela cheia, {@link #enviar(Voto)} espera a próxima gravação.
+ * A gravação acontece quando a fila atinge o tamanho do lote ou a cada intervalo, o que vier
+ * primeiro. Votos repetidos do mesmo usuário no mesmo objeto dentro de um lote são combinados
+ * e vale o último.
+ *
+ * Erros transitórios do banco (conexão perdida, pool esgotado, deadlock) repetem a gravação do lote
+ * no intervalo seguinte. Se o banco recusar o lote por outro motivo, ele é dividido ao meio até
+ * isolar os votos recusados, que vão para o arquivo {@value #ARQUIVO_REJEITADOS} no diretório do
+ * journal (no mesmo formato, precedidos de uma linha com o motivo) e não bloqueiam os demais.
+ *
+ * Os votos devem ter o id do usuário votante e do objeto avaliado; o id e as datas são preenchidos
+ * no objeto {@link Voto} quando o lote é gravado.
+ */
+public class IngestorVotos implements Closeable {
+
+    private static final String PREFIXO_SEGMENTO = "votos-";
+    private static final String SUFIXO_SEGMENTO = ".journal";
+    private static final String ARQUIVO_REJEITADOS = "votos-rejeitados.log";
+
+    private final PoolConexoes pool;
+    private final Path diretorio;
+    private final int capacidade;
+    private final int tamanhoLote;
+    private final long intervaloNanos;
+
+    // Protege a fila e o segmento atual: a anotação no journal e a entrada na fila ficam na mesma ordem
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition espacoLivre = lock.newCondition();
+    private final Condition loteCheio = lock.newCondition();
+    private final ArrayDeque<Voto> fila = new ArrayDeque<>();
+    private volatile FileChannel segmentoAtual;
+    private Path caminhoSegmentoAtual;
+    private long numeroSegmento;
+    private volatile long registrosEscritos;
+
+    // fsync em grupo: quem sincroniza cobre todos os registros escritos até então.
+    // A troca de segmento também o exige; quando os dois locks são necessários, este vem primeiro.
+    private final ReentrantLock lockSincronizacao = new ReentrantLock();
+    private volatile long registrosSincronizados;
+
+    private final Thread escritor;
+    private volatile boolean fechando;
+    private volatile long votosGravados;
+    private volatile long votosRejeitados;
+    private volatile long falhasGravacao;
+    private volatile long falhasJournal;
+
+    /**
+     * Abre o ingestor, reaplicando antes os votos que ficaram no journal de uma execução anterior.
+     * @param diretorio Diretório do journal
+     * @param capacidade Máximo de votos aguardando gravação
+     * @param tamanhoLote Quantidade de votos que dispara uma gravação
+     * @param intervaloMs Tempo máximo que um voto aguarda na fila
+     */
+    public IngestorVotos(Path diretorio, int capacidade, int tamanhoLote, long intervaloMs) throws IOException {
+        this(ConnectionFactory.getPool(), diretorio, capacidade, tamanhoLote, intervaloMs);
+    }
+
+    IngestorVotos(PoolConexoes pool, Path diretorio, int capacidade, int tamanhoLote, long intervaloMs) throws IOException {
+        if (capacidade <= 0 || tamanhoLote <= 0 || tamanhoLote > capacidade) {
+            throw new IllegalArgumentException("Capacidade e tamanho do lote inválidos: " + capacidade + ", " + tamanhoLote + ".");
+        }
+        this.pool = pool;
+        this.diretorio = diretorio;
+        this.capacidade = capacidade;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+
+        Files.createDirectories(diretorio);
+        recuperarJournal();
+        abrirSegmento();
+
+        escritor = new Thread(this::executarEscritor, "ingestor-votos");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Enfileira o voto, esperando enquanto a fila estiver cheia.
+     * Ao retornar, o voto está no journal e será gravado no banco.
+     */
+    public void enviar(Voto voto) {
+        try {
+            if (!tentarEnviar(voto, Long.MAX_VALUE)) {
+                throw new IllegalStateException("Ingestor de votos fechado.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrompido aguardando espaço na fila de votos.", e);
+        }
+    }
+
+    /**
+     * Enfileira o voto, esperando no máximo {@code timeoutMs} por espaço na fila.
+     * @return false se a fila continuou cheia ou o ingestor foi fechado
+     */
+    public boolean tentarEnviar(Voto voto, long timeoutMs) throws InterruptedException {
+        ByteBuffer registro = StandardCharsets.UTF_8.encode(serializar(voto));
+        long numeroRegistro;
+
+        lock.lockInterruptibly();
+        try {
+            long restante = TimeUnit.MILLISECONDS.toNanos(Math.min(timeoutMs, Long.MAX_VALUE / 1_000_000));
+            while (fila.size() >= capacidade && !fechando) {
+                if (restante <= 0) {
+                    return false;
+                }
+                restante = espacoLivre.awaitNanos(restante);
+            }
+            if (fechando) {
+                return false;
+            }
+
+            while (registro.hasRemaining()) {
+                segmentoAtual.write(registro);
+            }
+            numeroRegistro = ++registrosEscritos;
+            fila.add(voto);
+            if (fila.size() >= tamanhoLote) {
+                loteCheio.signal();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao anotar voto no journal: " + e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+
+        sincronizar(numeroRegistro);
+        return true;
+    }
+
+    private void sincronizar(long numeroRegistro) {
+        if (registrosSincronizados >= numeroRegistro) {
+            return;
+        }
+        lockSincronizacao.lock();
+        try {
+            if (registrosSincronizados >= numeroRegistro) {
+                return;
+            }
+            // Registros até o alvo estão no segmento atual ou em segmentos já sincronizados na troca
+            long alvo = registrosEscritos;
+            segmentoAtual.force(false);
+            registrosSincronizados = alvo;
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao sincronizar journal de votos: " + e.getMessage(), e);
+        } finally {
+            lockSincronizacao.unlock();
+        }
+    }
+
+    /**
+     * Votos aguardando gravação.
+     */
+    public int getPendentes() {
+        lock.lock();
+        try {
+            return fila.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getVotosGravados() {
+        return votosGravados;
+    }
+
+    /**
+     * Votos recusados pelo banco e desviados para o arquivo de rejeitados.
+     */
+    public long getVotosRejeitados() {
+        return votosRejeitados;
+    }
+
+    /**
+     * Tentativas de gravação que falharam (erro transitório do banco ou troca de segmento do
+     * journal) e foram repetidas.
+     */
+    public long getFalhasGravacao() {
+        return falhasGravacao;
+    }
+
+    /**
+     * Segmentos do journal já gravados que não puderam ser apagados na primeira tentativa.
+     */
+    public long getFalhasJournal() {
+        return falhasJournal;
+    }
+
+    /**
+     * Para de aceitar votos, grava os pendentes e fecha o journal.
+     * Se a última gravação falhar, os votos continuam no journal para a próxima inicialização.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            fechando = true;
+            loteCheio.signal();
+            espacoLivre.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        lockSincronizacao.lock();
+        lock.lock();
+        try {
+            // Fechado se a última troca de segmento falhou: os votos pendentes estão nos anteriores
+            if (segmentoAtual.isOpen()) {
+                segmentoAtual.force(false);
+                registrosSincronizados = registrosEscritos;
+                segmentoAtual.close();
+            }
+            if (fila.isEmpty()) {
+                Files.deleteIfExists(caminhoSegmentoAtual);
+            }
+        } finally {
+            lock.unlock();
+            lockSincronizacao.unlock();
+        }
+    }
+
+    // Escritor: espera um lote cheio ou o fim do intervalo e grava. Com erro transitório do banco ou
+    // falha na troca de segmento do journal, tenta de novo no próximo intervalo o que ficou pendente;
+    // a thread só termina quando o ingestor é fechado
+
+    private void executarEscritor() {
+        ArrayDeque<List<Voto>> partes = new ArrayDeque<>();
+        List<Path> segmentos = new ArrayList<>();
+        while (true) {
+            try {
+                if (partes.isEmpty()) {
+                    apagar(segmentos);
+                    List<Voto> lote = retirarLote(segmentos);
+                    if (lote == null) {
+                        return;
+                    }
+                    if (!lote.isEmpty()) {
+                        partes.add(lote);
+                    }
+                    continue;
+                }
+                gravarPartes(partes);
+            } catch (SQLException | RuntimeException | IOException e) {
+                falhasGravacao++;
+                if (fechando) {
+                    return;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(intervaloNanos);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Espera um lote, fecha o segmento atual e retira os votos da fila. Se a troca de segmento
+     * falhar, os votos continuam na fila e a troca pode ser repetida; enquanto não houver segmento
+     * aberto, {@link #enviar(Voto)} falha em vez de aceitar votos fora do journal.
+     * @param segmentos Recebe os segmentos que só contêm votos do lote retirado
+     * @return O lote, vazio se não houve votos no intervalo, ou null se o ingestor foi fechado sem pendências
+     */
+    private List<Voto> retirarLote(List<Path> segmentos) {
+        lock.lock();
+        try {
+            long restante = intervaloNanos;
+            while (fila.size() < tamanhoLote && !fechando && restante > 0) {
+                restante = loteCheio.awaitNanos(restante);
+            }
+            if (fila.isEmpty()) {
+                return fechando ? null : List.of();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+
+        lockSincronizacao.lock();
+        lock.lock();
+        try {
+            // Segmento já fechado: a abertura do próximo falhou na tentativa anterior
+            if (segmentoAtual.isOpen()) {
+                segmentoAtual.force(false);
+                registrosSincronizados = registrosEscritos;
+                segmentoAtual.close();
+                segmentos.add(caminhoSegmentoAtual);
+            }
+            abrirSegmento();
+
+            List<Voto> lote = new ArrayList<>(fila);
+            fila.clear();
+            espacoLivre.signalAll();
+            return lote;
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao trocar segmento do journal de votos: " + e.getMessage(), e);
+        } finally {
+            lock.unlock();
+            lockSincronizacao.unlock();
+        }
+    }
+
+    /**
+     * Grava as partes em ordem, tirando cada uma da fila depois do commit. Uma parte recusada com
+     * erro não transitório é dividida ao meio até isolar os votos recusados, que vão para o arquivo
+     * de rejeitados. Erro transitório é lançado e as partes não gravadas ficam na fila.
+     */
+    private void gravarPartes(ArrayDeque<List<Voto>> partes) throws SQLException, IOException {
+        while (!partes.isEmpty()) {
+            List<Voto> parte = partes.peekFirst();
+            try {
+                gravar(parte);
+            } catch (SQLException | RuntimeException e) {
+                if (transitorio(e)) {
+                    throw e;
+                }
+                partes.pollFirst();
+                if (parte.size() == 1) {
+                    rejeitar(parte.get(0), e);
+                } else {
+                    int meio = parte.size() / 2;
+                    partes.addFirst(parte.subList(meio, parte.size()));
+                    partes.addFirst(parte.subList(0, meio));
+                }
+                continue;
+            }
+            partes.pollFirst();
+            votosGravados += parte.size();
+        }
+    }
+
+    private void gravar(List<Voto> lote) throws SQLException {
+        try (Connection connection = pool.obterConexao()) {
+            try {
+                new VotoDAO(connection).salvarTodos(lote);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                ConnectionFactory.rollback(connection);
+                throw e;
+            }
+        }
+    }
+
+    // Conexão perdida, pool esgotado, deadlock ou timeout de lock: a mesma gravação pode dar certo depois
+    private static boolean transitorio(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLTransientException || causa instanceof SQLRecoverableException
+                    || causa instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (causa instanceof SQLException) {
+                // Classe 08: falha de conexão; classe 40: transação desfeita pelo servidor
+                String estado = ((SQLException) causa).getSQLState();
+                if (estado != null && (estado.startsWith("08") || estado.startsWith("40"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void rejeitar(Voto voto, Exception motivo) throws IOException {
+        String registro = "# " + String.valueOf(motivo.getMessage()).replace('\n', ' ') + "\n" + serializar(voto);
+        try (FileChannel rejeitados = FileChannel.open(diretorio.resolve(ARQUIVO_REJEITADOS),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(registro);
+            while (buffer.hasRemaining()) {
+                rejeitados.write(buffer);
+            }
+            rejeitados.force(false);
+        }
+        votosRejeitados++;
+    }
+
+    // Apaga os segmentos já gravados no banco; os que não puderem ser apagados ficam na lista
+    // para a próxima tentativa
+    private void apagar(List<Path> segmentos) {
+        Iterator<Path> iterador = segmentos.iterator();
+        while (iterador.hasNext()) {
+            try {
+                Files.deleteIfExists(iterador.next());
+                iterador.remove();
+            } catch (IOException e) {
+                falhasJournal++;
+            }
+        }
+    }
+
+    // Journal: uma linha por voto, "tipo;usuario;objeto;tipoObjeto;dataVoto"
+
+    private void abrirSegmento() throws IOException {
+        numeroSegmento++;
+        caminhoSegmentoAtual = diretorio.resolve(PREFIXO_SEGMENTO + numeroSegmento + SUFIXO_SEGMENTO);
+        segmentoAtual = FileChannel.open(caminhoSegmentoAtual,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static String serializar(Voto voto) {
+        return voto.getTipo().name() + ";" + voto.getUsuarioVotante().getId() + ";" + voto.getObjetoAvaliadoId() + ";" +
+                voto.getTipoObjetoAvaliado() + ";" + voto.getDataVoto() + "\n";
+    }
+
+    private static Voto desserializar(String linha) {
+        String[] campos = linha.split(";");
+        if (campos.length != 5) {
+            return null;
+        }
+        try {
+            Voto voto = new Voto(0, EnumVoto.valueOf(campos[0]), new Usuario(Integer.parseInt(campos[1]), null, null, null),
+                    Integer.parseInt(campos[2]), TipoObjetoAvaliado.valueOf(campos[3]));
+            voto.setDataVoto(LocalDateTime.parse(campos[4]));
+            return voto;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reaplica os segmentos deixados por uma execução interrompida, na ordem em que foram escritos.
+     * Uma linha incompleta no fim de um segmento (queda durante a escrita) é de um voto que não
+     * chegou a ser confirmado ao chamador e é descartada.
+     */
+    private void recuperarJournal() throws IOException {
+        TreeMap<Long, Path> segmentos = new TreeMap<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO_SEGMENTO + "*" + SUFIXO_SEGMENTO)) {
+            for (Path arquivo : arquivos) {
+                String nome = arquivo.getFileName().toString();
+                try {
+                    segmentos.put(Long.parseLong(nome.substring(PREFIXO_SEGMENTO.length(), nome.length() - SUFIXO_SEGMENTO.length())), arquivo);
+                } catch (NumberFormatException e) {
+                    // Arquivo que não é segmento do journal
+                }
+            }
+        }
+        if (segmentos.isEmpty()) {
+            return;
+        }
+        numeroSegmento = segmentos.lastKey();
+
+        List<Voto> votos = new ArrayList<>();
+        for (Path segmento : segmentos.values()) {
+            for (String linha : Files.readAllLines(segmento, StandardCharsets.UTF_8)) {
+                Voto voto = desserializar(linha);
+                if (voto != null) {
+                    votos.add(voto);
+                }
+            }
+        }
+        if (!votos.isEmpty()) {
+            ArrayDeque<List<Voto>> partes = new ArrayDeque<>();
+            partes.add(votos);
+            try {
+                gravarPartes(partes);
+            } catch (SQLException | RuntimeException e) {
+                throw new IOException("Erro ao reaplicar journal de votos: " + e.getMessage(), e);
+            }
+        }
+        apagar(new ArrayList<>(segmentos.values()));
+    }
+}
@@ -0,0 +1,47 @@
+package dao;
+
+import modelo.EntidadeBase;
+
+import java.util.ArrayList;
+
+/**
+ * Página de uma listagem paginada por chave (keyset).
+ * Em vez de um OFFSET, a próxima página é pedida a partir do id do último item desta,
+ * então qualquer página custa o mesmo que a primeira.
+ */
+public class Pagina<T extends EntidadeBase> {
+    private final ArrayList<T> itens;
+    private final boolean temProxima;
+
+    Pagina(ArrayList<T> itens, boolean temProxima) {
+        this.itens = itens;
+        this.temProxima = temProxima;
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code limite + 1} linhas:
+     * a linha extra só indica que existe uma próxima página e é descartada.
+     */
+    static <T extends EntidadeBase> Pagina<T> deLinhas(ArrayList<T> linhas, int limite) {
+        boolean temProxima = linhas.size() > limite;
+        if (temProxima) {
+            linhas.remove(linhas.size() - 1);
+        }
+        return new Pagina<>(linhas, temProxima);
+    }
+
+    public ArrayList<T> getItens() {
+        return itens;
+    }
+
+    public boolean temProxima() {
+        return temProxima;
+    }
+
+    /**
+     * Id a ser passado para buscar a página seguinte, ou 0 se esta página estiver vazia.
+     */
+    public int getProximoCursor() {
+        return itens.isEmpty() ? 0 : itens.get(itens.size() - 1).getId();
+    }
+}
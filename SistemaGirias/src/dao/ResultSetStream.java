@@ -0,0 +1,85 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Transforma uma consulta em um {@link Stream} preenchido sob demanda.
+ * As linhas são lidas do cursor do servidor em lotes de {@code tamanhoLote}, então a memória
+ * usada não depende do tamanho da tabela. O ResultSet e o statement são fechados quando o
+ * stream é fechado; por isso o stream deve ser usado em um try-with-resources.
+ */
+class ResultSetStream {
+
+    /**
+     * Converte a linha atual do ResultSet em um objeto.
+     */
+    @FunctionalInterface
+    interface MapeadorLinha<T> {
+        T mapear(ResultSet rst) throws SQLException;
+    }
+
+    /**
+     * Preenche os parâmetros da consulta antes da execução.
+     */
+    @FunctionalInterface
+    interface Parametros {
+        void preencher(PreparedStatement pstm) throws SQLException;
+    }
+
+    private ResultSetStream() {
+    }
+
+    static <T> Stream<T> criar(Connection connection, String sql, int tamanhoLote,
+                               Parametros parametros, MapeadorLinha<T> mapeador) throws SQLException {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Tamanho do lote deve ser positivo.");
+        }
+
+        // Statement próprio (fora do cache de statements): ele vive enquanto o stream estiver aberto
+        PreparedStatement pstm = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ResultSet rst;
+        try {
+            pstm.setFetchSize(tamanhoLote);
+            if (parametros != null) {
+                parametros.preencher(pstm);
+            }
+            rst = pstm.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            pstm.close();
+            throw e;
+        }
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> acao) {
+                try {
+                    if (!rst.next()) {
+                        return false;
+                    }
+                    acao.accept(mapeador.mapear(rst));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Erro ao ler próxima linha da consulta: " + e.getMessage(), e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                rst.close();
+                pstm.close();
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao fechar consulta em streaming: " + e.getMessage(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package dao;
+
+/**
+ * Efeito da gravação de um voto ({@link VotoDAO#registrarVoto(modelo.Voto)}).
+ */
+public enum ResultadoVoto {
+    // O usuário ainda não tinha votado no objeto
+    NOVO,
+    // O usuário já tinha votado no objeto com o outro tipo
+    INVERTIDO,
+    // O usuário já tinha o mesmo voto no objeto; nada foi alterado
+    INALTERADO
+}
@@ -0,0 +1,292 @@
+package dao;
+
+import bd.TransactionManager;
+import modelo.TipoObjetoAvaliado;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Séries de votos por hora e por dia (tabelas voto_hora e voto_dia), para análises de tendência
+ * sem varrer a tabela voto.
+ *
+ * Cada período guarda quanto os contadores positivos/negativos dos objetos variaram nele: um voto
+ * novo soma no período do voto, uma inversão desfaz o voto anterior e soma o novo no período da
+ * inversão e uma exclusão subtrai no período em que aconteceu. Somando todos os períodos de um
+ * objeto chega-se aos contadores gravados em giria/explicacao. As tabelas são mantidas pelo
+ * {@link VotoDAO} na mesma transação do voto; {@link #reconstruir(LocalDateTime)} refaz os
+ * períodos a partir de voto.data_voto.
+ */
+public class TendenciaDAO {
+
+    /**
+     * Tamanho do período das séries.
+     */
+    public enum Granularidade {
+        HORA("voto_hora", ChronoUnit.HOURS, "DATE_FORMAT(data_voto, '%Y-%m-%d %H:00:00')"),
+        DIA("voto_dia", ChronoUnit.DAYS, "DATE(data_voto)");
+
+        private final String tabela;
+        private final ChronoUnit unidade;
+        // Expressão SQL que leva data_voto ao início do período
+        private final String inicioPeriodoSql;
+
+        Granularidade(String tabela, ChronoUnit unidade, String inicioPeriodoSql) {
+            this.tabela = tabela;
+            this.unidade = unidade;
+            this.inicioPeriodoSql = inicioPeriodoSql;
+        }
+
+        LocalDateTime inicioPeriodo(LocalDateTime momento) {
+            return momento.truncatedTo(unidade);
+        }
+    }
+
+    /**
+     * Votos de um objeto em um período.
+     */
+    public static class Ponto {
+        private final LocalDateTime periodo;
+        private final int positivos;
+        private final int negativos;
+
+        Ponto(LocalDateTime periodo, int positivos, int negativos) {
+            this.periodo = periodo;
+            this.positivos = positivos;
+            this.negativos = negativos;
+        }
+
+        public LocalDateTime getPeriodo() {
+            return periodo;
+        }
+
+        public int getPositivos() {
+            return positivos;
+        }
+
+        public int getNegativos() {
+            return negativos;
+        }
+
+        public int getSaldo() {
+            return positivos - negativos;
+        }
+    }
+
+    /**
+     * Saldo de votos de um objeto em uma janela e na janela anterior de mesmo tamanho.
+     */
+    public static class Movimento {
+        private final int objetoId;
+        private final int saldoJanela;
+        private final int saldoAnterior;
+
+        Movimento(int objetoId, int saldoJanela, int saldoAnterior) {
+            this.objetoId = objetoId;
+            this.saldoJanela = saldoJanela;
+            this.saldoAnterior = saldoAnterior;
+        }
+
+        public int getObjetoId() {
+            return objetoId;
+        }
+
+        public int getSaldoJanela() {
+            return saldoJanela;
+        }
+
+        public int getSaldoAnterior() {
+            return saldoAnterior;
+        }
+
+        public int getCrescimento() {
+            return saldoJanela - saldoAnterior;
+        }
+    }
+
+    // Variação dos contadores de um objeto em um momento, a ser somada nas séries
+    static final class Variacao {
+        final TipoObjetoAvaliado tipoObjeto;
+        final int objetoId;
+        final LocalDateTime momento;
+        final int positivos;
+        final int negativos;
+
+        Variacao(TipoObjetoAvaliado tipoObjeto, int objetoId, LocalDateTime momento, int positivos, int negativos) {
+            this.tipoObjeto = tipoObjeto;
+            this.objetoId = objetoId;
+            this.momento = momento;
+            this.positivos = positivos;
+            this.negativos = negativos;
+        }
+    }
+
+    private final Connection connection;
+
+    public TendenciaDAO(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Cria o DAO usando a conexão da transação aberta na thread atual.
+     */
+    public TendenciaDAO() {
+        this(TransactionManager.getConexaoAtual());
+    }
+
+    /**
+     * Soma as variações nas séries por hora e por dia, um batch de upserts por tabela.
+     * Variações do mesmo objeto no mesmo período são somadas antes.
+     */
+    void registrar(List<Variacao> variacoes) throws SQLException {
+        if (variacoes.isEmpty()) {
+            return;
+        }
+        for (Granularidade granularidade : Granularidade.values()) {
+            // Chave: tipo, objeto e início do período -> {positivos, negativos}
+            Map<List<Object>, int[]> somas = new LinkedHashMap<>();
+            for (Variacao variacao : variacoes) {
+                int[] soma = somas.computeIfAbsent(
+                        List.of(variacao.tipoObjeto, variacao.objetoId, granularidade.inicioPeriodo(variacao.momento)),
+                        chave -> new int[2]);
+                soma[0] += variacao.positivos;
+                soma[1] += variacao.negativos;
+            }
+
+            String sql = "INSERT INTO " + granularidade.tabela + " (tipo_objeto_avaliado, objeto_avaliado_id, periodo, positivos, negativos) " +
+                    "VALUES (?, ?, ?, ?, ?) AS novo " +
+                    "ON DUPLICATE KEY UPDATE positivos = " + granularidade.tabela + ".positivos + novo.positivos, " +
+                    "negativos = " + granularidade.tabela + ".negativos + novo.negativos";
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                for (Map.Entry<List<Object>, int[]> soma : somas.entrySet()) {
+                    if (soma.getValue()[0] == 0 && soma.getValue()[1] == 0) {
+                        continue;
+                    }
+                    pstm.setByte(1, ((TipoObjetoAvaliado) soma.getKey().get(0)).getCodigo());
+                    pstm.setInt(2, (Integer) soma.getKey().get(1));
+                    pstm.setObject(3, soma.getKey().get(2));
+                    pstm.setInt(4, soma.getValue()[0]);
+                    pstm.setInt(5, soma.getValue()[1]);
+                    pstm.addBatch();
+                }
+                pstm.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Série de votos de um objeto entre {@code inicio} (inclusive) e {@code fim} (exclusive).
+     * Períodos sem votos não aparecem.
+     */
+    public List<Ponto> serieTemporal(TipoObjetoAvaliado tipoObjeto, int objetoId, Granularidade granularidade,
+                                     LocalDateTime inicio, LocalDateTime fim) {
+        List<Ponto> pontos = new ArrayList<>();
+        String sql = "SELECT periodo, positivos, negativos FROM " + granularidade.tabela + " " +
+                "WHERE tipo_objeto_avaliado = ? AND objeto_avaliado_id = ? AND periodo >= ? AND periodo < ? " +
+                "ORDER BY periodo";
+        try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+            pstm.setByte(1, tipoObjeto.getCodigo());
+            pstm.setInt(2, objetoId);
+            pstm.setObject(3, granularidade.inicioPeriodo(inicio));
+            pstm.setObject(4, fim);
+            try (ResultSet rst = pstm.executeQuery()) {
+                while (rst.next()) {
+                    pontos.add(new Ponto(rst.getObject("periodo", LocalDateTime.class),
+                            rst.getInt("positivos"), rst.getInt("negativos")));
+                }
+            }
+            return pontos;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar série de votos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Objetos que mais cresceram em saldo de votos na janela [inicio, fim) em relação à janela
+     * anterior de mesmo tamanho (por exemplo, as gírias em alta nesta semana).
+     * @param limite Quantidade máxima de objetos
+     */
+    public List<Movimento> maioresAltas(TipoObjetoAvaliado tipoObjeto, Granularidade granularidade,
+                                        LocalDateTime inicio, LocalDateTime fim, int limite) {
+        LocalDateTime inicioJanela = granularidade.inicioPeriodo(inicio);
+        LocalDateTime inicioAnterior = inicioJanela.minus(Duration.between(inicioJanela, fim));
+
+        List<Movimento> movimentos = new ArrayList<>();
+        String sql = "SELECT objeto_avaliado_id, " +
+                "SUM(IF(periodo >= ?, positivos - negativos, 0)) AS saldo_janela, " +
+                "SUM(IF(periodo < ?, positivos - negativos, 0)) AS saldo_anterior " +
+                "FROM " + granularidade.tabela + " " +
+                "WHERE tipo_objeto_avaliado = ? AND periodo >= ? AND periodo < ? " +
+                "GROUP BY objeto_avaliado_id " +
+                "ORDER BY saldo_janela - saldo_anterior DESC, objeto_avaliado_id " +
+                "LIMIT ?";
+        try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+            pstm.setObject(1, inicioJanela);
+            pstm.setObject(2, inicioJanela);
+            pstm.setByte(3, tipoObjeto.getCodigo());
+            pstm.setObject(4, inicioAnterior);
+            pstm.setObject(5, fim);
+            pstm.setInt(6, limite);
+            try (ResultSet rst = pstm.executeQuery()) {
+                while (rst.next()) {
+                    movimentos.add(new Movimento(rst.getInt("objeto_avaliado_id"),
+                            rst.getInt("saldo_janela"), rst.getInt("saldo_anterior")));
+                }
+            }
+            return movimentos;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar maiores altas de votos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Refaz as séries a partir de voto.data_voto, do dia de {@code desde} até agora, um dia por
+     * commit para não manter as tabelas bloqueadas; deve rodar em uma conexão própria.
+     * Cada voto atual conta no período da sua data (a de inversão, se foi invertido); votos
+     * excluídos e o voto anterior a uma inversão não ficam registrados na tabela voto e
+     * deixam de aparecer nos períodos reconstruídos.
+     * @return Quantidade de dias reconstruídos
+     */
+    public int reconstruir(LocalDateTime desde) {
+        LocalDateTime dia = desde.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime fim = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        int dias = 0;
+        try {
+            for (; dia.isBefore(fim); dia = dia.plusDays(1)) {
+                for (Granularidade granularidade : Granularidade.values()) {
+                    try (PreparedStatement pstm = connection.prepareStatement(
+                            "DELETE FROM " + granularidade.tabela + " WHERE periodo >= ? AND periodo < ?")) {
+                        pstm.setObject(1, dia);
+                        pstm.setObject(2, dia.plusDays(1));
+                        pstm.executeUpdate();
+                    }
+
+                    String sql = "INSERT INTO " + granularidade.tabela + " (tipo_objeto_avaliado, objeto_avaliado_id, periodo, positivos, negativos) " +
+                            "SELECT tipo_objeto_avaliado, objeto_avaliado_id, " + granularidade.inicioPeriodoSql + " AS inicio, " +
+                            "SUM(tipo = 'POSITIVO'), SUM(tipo = 'NEGATIVO') " +
+                            "FROM voto WHERE data_voto >= ? AND data_voto < ? " +
+                            "GROUP BY tipo_objeto_avaliado, objeto_avaliado_id, inicio";
+                    try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                        pstm.setObject(1, dia);
+                        pstm.setObject(2, dia.plusDays(1));
+                        pstm.executeUpdate();
+                    }
+                }
+                connection.commit();
+                dias++;
+            }
+            return dias;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao reconstruir séries de votos: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package dao;
+
+import bd.ConnectionFactory;
+import modelo.EntidadeBase;
+import modelo.Explicacao;
+import modelo.Giria;
+import modelo.Usuario;
+import modelo.Voto;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unidade de trabalho: acumula as entidades alteradas durante uma operação e grava tudo de uma vez.
+ *
+ * As entidades registradas podem ser alteradas livremente; cada setter marca a coluna alterada
+ * ({@link EntidadeBase#getColunasAlteradas()}). Na gravação, entidades sem alteração são
+ * ignoradas e as demais são agrupadas por tabela e conjunto de colunas: cada grupo vira um único
+ * UPDATE (com {@code CASE id}) para até {@link GiriaDAO#LIMITE_FILTRO_IN} linhas. As tabelas são
+ * gravadas na ordem das chaves estrangeiras (usuario, giria, explicacao, voto) e as entidades
+ * novas (id 0) são inseridas antes das atualizações da sua tabela.
+ *
+ * A reputação dos usuários não é gravada pela unidade: ela muda só com os votos, que o
+ * {@link VotoDAO} grava junto com a variação atômica da reputação do autor do objeto votado.
+ *
+ * Uso típico:
+ * <pre>
+ * UnidadeDeTrabalho unidade = new UnidadeDeTrabalho(connection);
+ * unidade.registrarCarregada(giria);
+ * giria.aprovar();
+ * unidade.registrar(new Voto(0, EnumVoto.POSITIVO, votante, giria.getId(), TipoObjetoAvaliado.GIRIA));
+ * unidade.commit();
+ * </pre>
+ */
+public class UnidadeDeTrabalho {
+
+    // Ordem de gravação: cada tabela só referencia as anteriores
+    private static final List<Class<? extends EntidadeBase>> ORDEM =
+            List.of(Usuario.class, Giria.class, Explicacao.class, Voto.class);
+
+    private final Connection connection;
+    // Entidades registradas, sem repetição do mesmo objeto, na ordem de registro
+    private final Map<EntidadeBase, Boolean> entidades = new IdentityHashMap<>();
+    private final List<EntidadeBase> ordemRegistro = new ArrayList<>();
+
+    public UnidadeDeTrabalho(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Passa a acompanhar a entidade. Entidades com id 0 serão inseridas; as demais só serão
+     * gravadas se tiverem colunas alteradas.
+     */
+    public void registrar(EntidadeBase entidade) {
+        if (entidades.put(entidade, Boolean.TRUE) == null) {
+            ordemRegistro.add(entidade);
+        }
+    }
+
+    /**
+     * Acompanha uma entidade recém-carregada do banco: o estado atual é considerado o gravado.
+     */
+    public void registrarCarregada(EntidadeBase entidade) {
+        entidade.limparAlteracoes();
+        registrar(entidade);
+    }
+
+    /**
+     * Grava as alterações pendentes e confirma a transação da conexão.
+     * Dentro de {@code TransactionManager.inTransaction}, use {@link #gravar()}: quem confirma é a transação.
+     */
+    public void commit() {
+        try {
+            gravar();
+            connection.commit();
+        } catch (RuntimeException | SQLException e) {
+            ConnectionFactory.rollback(connection);
+            throw new RuntimeException("Erro ao confirmar unidade de trabalho: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Grava as entidades novas e as alteradas, sem confirmar a transação.
+     */
+    public void gravar() {
+        try {
+            for (Class<? extends EntidadeBase> tipo : ORDEM) {
+                List<EntidadeBase> novas = new ArrayList<>();
+                List<EntidadeBase> existentes = new ArrayList<>();
+                for (EntidadeBase entidade : ordemRegistro) {
+                    if (tipo.isInstance(entidade)) {
+                        (entidade.getId() == 0 ? novas : existentes).add(entidade);
+                    }
+                }
+                inserir(tipo, novas);
+                atualizar(tipo, existentes);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao gravar unidade de trabalho: " + e.getMessage(), e);
+        }
+    }
+
+    private void inserir(Class<? extends EntidadeBase> tipo, List<EntidadeBase> novas) {
+        if (novas.isEmpty()) {
+            return;
+        }
+        if (tipo == Usuario.class) {
+            new UsuarioDAO(connection).salvarTodos(converter(novas, Usuario.class));
+        } else if (tipo == Giria.class) {
+            new GiriaDAO(connection).salvarTodos(converter(novas, Giria.class));
+        } else if (tipo == Explicacao.class) {
+            ExplicacaoDAO explicacaoDAO = new ExplicacaoDAO(connection);
+            for (EntidadeBase explicacao : novas) {
+                explicacaoDAO.salvar(explicacao);
+            }
+        } else {
+            // Votos passam pelo VotoDAO por causa dos contadores e da reputação do autor
+            new VotoDAO(connection).salvarTodos(converter(novas, Voto.class));
+        }
+    }
+
+    private void atualizar(Class<? extends EntidadeBase> tipo, List<EntidadeBase> existentes) throws SQLException {
+        // Agrupa pelo conjunto de colunas alteradas: cada grupo é um único UPDATE
+        Map<Set<String>, List<EntidadeBase>> grupos = new LinkedHashMap<>();
+        List<Giria> indicesDesatualizados = new ArrayList<>();
+        List<Explicacao> explicacoesDesatualizadas = new ArrayList<>();
+        for (EntidadeBase entidade : existentes) {
+            if (!entidade.isAlterada()) {
+                continue;
+            }
+            Set<String> colunas = entidade.getColunasAlteradas();
+            grupos.computeIfAbsent(Set.copyOf(colunas), c -> new ArrayList<>()).add(entidade);
+            if (entidade instanceof Giria giria && (colunas.contains("termo") || colunas.contains("aprovada"))) {
+                indicesDesatualizados.add(giria);
+            }
+            if (entidade instanceof Explicacao explicacao
+                    && (colunas.contains("aprovada") || colunas.contains("giria_associada_id"))) {
+                explicacoesDesatualizadas.add(explicacao);
+            }
+        }
+
+        String tabela = tabela(tipo);
+        for (Map.Entry<Set<String>, List<EntidadeBase>> grupo : grupos.entrySet()) {
+            List<String> colunas = new ArrayList<>(grupo.getKey());
+            Collections.sort(colunas);
+            List<EntidadeBase> lista = grupo.getValue();
+            for (int inicio = 0; inicio < lista.size(); inicio += GiriaDAO.LIMITE_FILTRO_IN) {
+                atualizarEmLote(tabela, colunas, lista.subList(inicio, Math.min(lista.size(), inicio + GiriaDAO.LIMITE_FILTRO_IN)));
+            }
+        }
+
+        if (tipo == Giria.class && !existentes.isEmpty()) {
+            // Só gírias com categorias e regiões carregadas: nas outras, conjuntos vazios não significam remoção
+            List<Giria> comAssociacoes = new ArrayList<>();
+            for (Giria giria : converter(existentes, Giria.class)) {
+                if (giria.getCategoriasPersistidas() != null) {
+                    comAssociacoes.add(giria);
+                }
+            }
+            GiriaDAO giriaDAO = new GiriaDAO(connection);
+            if (!comAssociacoes.isEmpty()) {
+                giriaDAO.sincronizarAssociacoesEmLote(comAssociacoes);
+            }
+            if (!indicesDesatualizados.isEmpty()) {
+                giriaDAO.atualizarIndices(indicesDesatualizados);
+            }
+        }
+
+        if (!explicacoesDesatualizadas.isEmpty()) {
+            // Aprovação ou troca de gíria muda a melhor explicação e a presença no índice de busca
+            Set<Integer> giriaIds = new HashSet<>();
+            Set<Integer> explicacaoIds = new HashSet<>();
+            ExplicacaoDAO explicacaoDAO = new ExplicacaoDAO(connection);
+            for (Explicacao explicacao : explicacoesDesatualizadas) {
+                giriaIds.add(explicacao.getGiriaAssociada().getId());
+                explicacaoIds.add(explicacao.getId());
+                explicacaoDAO.atualizarIndice(explicacao.getId(), explicacao.getDefinicao(),
+                        explicacao.getExemploUso(), explicacao.isAprovada());
+            }
+            new GiriaDAO(connection).atualizarMelhoresExplicacoes(giriaIds, explicacaoIds);
+        }
+    }
+
+    // UPDATE t SET c1 = CASE id WHEN ? THEN ? ... END, c2 = ... WHERE id IN (...)
+    private void atualizarEmLote(String tabela, List<String> colunas, List<EntidadeBase> lote) throws SQLException {
+        String casos = String.join(" ", Collections.nCopies(lote.size(), "WHEN ? THEN ?"));
+        List<String> atribuicoes = new ArrayList<>();
+        for (String coluna : colunas) {
+            atribuicoes.add(coluna + " = CASE id " + casos + " END");
+        }
+        String sql = "UPDATE " + tabela + " SET " + String.join(", ", atribuicoes) +
+                " WHERE id IN (" + GiriaDAO.placeholders(lote.size()) + ")";
+
+        try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+            int indice = 1;
+            for (String coluna : colunas) {
+                for (EntidadeBase entidade : lote) {
+                    pstm.setInt(indice++, entidade.getId());
+                    pstm.setObject(indice++, valor(entidade, coluna));
+                }
+            }
+            for (EntidadeBase entidade : lote) {
+                pstm.setInt(indice++, entidade.getId());
+            }
+
+            int linhasAfetadas = pstm.executeUpdate();
+            if (linhasAfetadas < lote.size()) {
+                throw new SQLException("Falha ao atualizar " + tabela + ": " + linhasAfetadas + " de " +
+                        lote.size() + " linhas encontradas.");
+            }
+        }
+
+        for (EntidadeBase entidade : lote) {
+            entidade.limparAlteracoes();
+        }
+    }
+
+    private static Object valor(EntidadeBase entidade, String coluna) {
+        if (entidade instanceof Giria giria) {
+            switch (coluna) {
+                case "termo":
+                    return giria.getTermo();
+                case "aprovada":
+                    return giria.isAprovada();
+                case "usuario_propositor_id":
+                    return giria.getUsuarioPropositor().getId();
+            }
+        } else if (entidade instanceof Explicacao explicacao) {
+            switch (coluna) {
+                case "aprovada":
+                    return explicacao.isAprovada();
+                case "data_proposta":
+                    return explicacao.getDataProposta();
+                case "giria_associada_id":
+                    return explicacao.getGiriaAssociada().getId();
+            }
+        } else if (entidade instanceof Voto voto) {
+            if (coluna.equals("data_voto")) {
+                return voto.getDataVoto();
+            }
+        }
+        throw new IllegalStateException("Coluna não suportada pela unidade de trabalho: " + coluna);
+    }
+
+    private static String tabela(Class<? extends EntidadeBase> tipo) {
+        if (tipo == Usuario.class) {
+            return "usuario";
+        }
+        if (tipo == Giria.class) {
+            return "giria";
+        }
+        if (tipo == Explicacao.class) {
+            return "explicacao";
+        }
+        return "voto";
+    }
+
+    private static <T extends EntidadeBase> List<T> converter(List<EntidadeBase> entidades, Class<T> tipo) {
+        List<T> convertidas = new ArrayList<>(entidades.size());
+        for (EntidadeBase entidade : entidades) {
+            convertidas.add(tipo.cast(entidade));
+        }
+        return convertidas;
+    }
+}
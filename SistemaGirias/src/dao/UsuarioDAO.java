@@ -1,12 +1,18 @@
 
 package dao;
 
+import bd.TransactionManager;
 import modelo.Giria;
 import modelo.Usuario;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 public class UsuarioDAO implements BaseDAO {
 
@@ -16,6 +22,13 @@ public class UsuarioDAO implements BaseDAO {
         this.connection = connection;
     }
 
+    /**
+     * Cria o DAO usando a conexão da transação aberta na thread atual.
+     */
+    public UsuarioDAO() {
+        this(TransactionManager.getConexaoAtual());
+    }
+
     @Override
     public void salvar(Object objeto) {
         if (!(objeto instanceof Usuario)) {
@@ -24,43 +37,34 @@ public class UsuarioDAO implements BaseDAO {
 
         Usuario usuario = (Usuario) objeto;
 
-        try {
-            // Verifica se já existe um usuário com o mesmo email
-            String checkSql = "SELECT id FROM usuario WHERE email = ?";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkSql)) {
-                checkStmt.setString(1, usuario.getEmail());
-                ResultSet rs = checkStmt.executeQuery();
-
-                if (rs.next()) {
-                    // Se já existe, atualiza os dados do usuário com o ID existente
-                    int existingId = rs.getInt("id");
-                    usuario.setId(existingId);
-                    atualizar(usuario);
-                    return;
-                }
-            }
+        // Se já tem ID, tenta atualizar
+        if (usuario.getId() != 0) {
+            atualizar(usuario);
+            return;
+        }
 
-            // Verifica se o usuário já existe para decidir entre INSERT e UPDATE
-            if (usuario.getId() == 0) { // Considera que ID 0 indica novo objeto
-                String sql = "INSERT INTO usuario (nome, email, senha, reputacao, data_criacao) VALUES (?, ?, ?, ?, ?)";
-                try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                    pstm.setString(1, usuario.getNome());
-                    pstm.setString(2, usuario.getEmail());
-                    pstm.setString(3, usuario.getSenha());
-                    pstm.setInt(4, usuario.getReputacao());
-                    pstm.setObject(5, LocalDateTime.now()); // Data de criação no momento do salvamento
-
-                    pstm.execute();
-
-                    try (ResultSet rst = pstm.getGeneratedKeys()) {
-                        if (rst.next()) {
-                            usuario.setId(rst.getInt(1)); // Define o ID gerado pelo banco
-                        }
+        try {
+            // Insere ou, se o email já existe (UNIQUE), atualiza a linha existente em um único comando.
+            // LAST_INSERT_ID(id) faz o id da linha existente voltar como chave gerada.
+            // A reputação de uma linha existente não é regravada: só os votos a alteram (VotoDAO)
+            String sql = "INSERT INTO usuario (nome, email, senha, reputacao, data_criacao) VALUES (?, ?, ?, ?, ?) AS novo " +
+                    "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(usuario.id), nome = novo.nome, senha = novo.senha";
+            try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstm.setString(1, usuario.getNome());
+                pstm.setString(2, usuario.getEmail());
+                pstm.setString(3, usuario.getSenha());
+                pstm.setInt(4, usuario.getReputacao());
+                pstm.setObject(5, LocalDateTime.now()); // Data de criação no momento do salvamento
+
+                pstm.executeUpdate();
+
+                try (ResultSet rst = pstm.getGeneratedKeys()) {
+                    if (rst.next()) {
+                        usuario.setId(rst.getInt(1)); // ID gerado ou do usuário já existente
                     }
                 }
-            } else { // Se já tem ID, tenta atualizar
-                atualizar(usuario); // Chama o método de atualização
             }
+            usuario.limparAlteracoes();
 
             // **IMPORTANTE:**
             // Para as listas (giriasPropostas, explicacoesPropostas, votosRealizados),
@@ -83,6 +87,59 @@ public class UsuarioDAO implements BaseDAO {
         }
     }
 
+    /**
+     * Salva vários usuários de uma vez: insere os novos e atualiza nome e senha dos que já existem
+     * (pelo email) com INSERTs de várias linhas, e depois busca os ids de todos em uma consulta.
+     * A reputação de usuários existentes não é regravada; só os votos a alteram.
+     */
+    public void salvarTodos(List<Usuario> usuarios) {
+        try {
+            for (int inicio = 0; inicio < usuarios.size(); inicio += GiriaDAO.LIMITE_FILTRO_IN) {
+                List<Usuario> parte = usuarios.subList(inicio, Math.min(usuarios.size(), inicio + GiriaDAO.LIMITE_FILTRO_IN));
+
+                String sql = "INSERT INTO usuario (nome, email, senha, reputacao, data_criacao) VALUES " +
+                        String.join(", ", Collections.nCopies(parte.size(), "(?, ?, ?, ?, ?)")) + " AS novo " +
+                        "ON DUPLICATE KEY UPDATE nome = novo.nome, senha = novo.senha";
+                LocalDateTime agora = LocalDateTime.now();
+                try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                    int indice = 1;
+                    for (Usuario usuario : parte) {
+                        pstm.setString(indice++, usuario.getNome());
+                        pstm.setString(indice++, usuario.getEmail());
+                        pstm.setString(indice++, usuario.getSenha());
+                        pstm.setInt(indice++, usuario.getReputacao());
+                        pstm.setObject(indice++, agora);
+                    }
+                    pstm.executeUpdate();
+                }
+
+                // Ids dos usuários novos e dos já existentes (o email é comparado sem diferenciar maiúsculas)
+                String sqlIds = "SELECT id, email FROM usuario WHERE email IN (" + GiriaDAO.placeholders(parte.size()) + ")";
+                Map<String, Integer> ids = new HashMap<>();
+                try (PreparedStatement pstm = connection.prepareStatement(sqlIds)) {
+                    for (int i = 0; i < parte.size(); i++) {
+                        pstm.setString(i + 1, parte.get(i).getEmail());
+                    }
+                    try (ResultSet rst = pstm.executeQuery()) {
+                        while (rst.next()) {
+                            ids.put(rst.getString("email").toLowerCase(Locale.ROOT), rst.getInt("id"));
+                        }
+                    }
+                }
+                for (Usuario usuario : parte) {
+                    Integer id = ids.get(usuario.getEmail().toLowerCase(Locale.ROOT));
+                    if (id == null) {
+                        throw new SQLException("Falha ao obter id do usuário '" + usuario.getEmail() + "'.");
+                    }
+                    usuario.setId(id);
+                    usuario.limparAlteracoes();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao salvar usuários em lote: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public Object buscarPorId(int id) {
         Usuario usuario = null;
@@ -214,20 +271,22 @@ public class UsuarioDAO implements BaseDAO {
 
         Usuario usuario = (Usuario) objeto;
 
-        String sql = "UPDATE usuario SET nome = ?, email = ?, senha = ?, reputacao = ? WHERE id = ?";
+        // Sem a reputação: a cópia em memória pode estar atrasada em relação às variações atômicas
+        // gravadas pelos votos (VotoDAO, AcumuladorReputacao), e regravá-la desfaria essas variações
+        String sql = "UPDATE usuario SET nome = ?, email = ?, senha = ? WHERE id = ?";
 
         try (PreparedStatement pstm = connection.prepareStatement(sql)) {
             pstm.setString(1, usuario.getNome());
             pstm.setString(2, usuario.getEmail());
             pstm.setString(3, usuario.getSenha());
-            pstm.setInt(4, usuario.getReputacao());
-            pstm.setInt(5, usuario.getId());
+            pstm.setInt(4, usuario.getId());
 
             int linhasAfetadas = pstm.executeUpdate();
 
             if (linhasAfetadas == 0) {
                 throw new SQLException("Falha ao atualizar usuário: nenhuma linha foi afetada.");
             }
+            usuario.limparAlteracoes();
 
             // **IMPORTANTE:**
             // A atualização das listas (giriasPropostas, explicacoesPropostas, votosRealizados)
@@ -1,12 +1,23 @@
 package dao;
 
+import bd.SincronizacaoTransacao;
+import bd.TransactionManager;
+import busca.AutocompletarGirias;
 import modelo.EnumVoto;
+import modelo.TipoObjetoAvaliado;
 import modelo.Usuario;
 import modelo.Voto;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public class VotoDAO implements BaseDAO {
 
@@ -16,6 +27,13 @@ public class VotoDAO implements BaseDAO {
         this.connection = connection;
     }
 
+    /**
+     * Cria o DAO usando a conexão da transação aberta na thread atual.
+     */
+    public VotoDAO() {
+        this(TransactionManager.getConexaoAtual());
+    }
+
     @Override
     public void salvar(Object objeto) {
         if (!(objeto instanceof Voto)) {
@@ -23,183 +41,381 @@ public class VotoDAO implements BaseDAO {
         }
 
         Voto voto = (Voto) objeto;
+        if (voto.getId() != 0) { // Se já tem ID, atualiza
+            atualizar(voto);
+            return;
+        }
+        registrarVoto(voto);
+    }
+
+    /**
+     * Grava o voto de um usuário em um objeto com um único upsert sobre a chave única
+     * (usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado): insere o voto, inverte o
+     * voto existente ou não altera nada, e ajusta contadores e reputação uma única vez.
+     * Requisições simultâneas do mesmo usuário não geram votos duplicados.
+     *
+     * A conexão conta as linhas encontradas (padrão do driver): 1 para um voto inserido ou
+     * inalterado e 2 para um voto invertido. O id só é informado quando o voto foi inserido ou
+     * invertido, o que separa o voto novo do inalterado: no voto inalterado o upsert zera
+     * LAST_INSERT_ID explicitamente, porque sem isso o insert_id devolvido não é definido e pode
+     * repetir o de um comando anterior da mesma conexão.
+     */
+    public ResultadoVoto registrarVoto(Voto voto) {
+        String sql = "INSERT INTO voto (tipo, data_voto, usuario_votante_id, objeto_avaliado_id, " +
+                "tipo_objeto_avaliado, data_criacao) VALUES (?, ?, ?, ?, ?, ?) AS novo " +
+                "ON DUPLICATE KEY UPDATE " +
+                // As atribuições são avaliadas em ordem: tipo por último, para as anteriores verem o tipo antigo
+                "id = IF(voto.tipo = novo.tipo, voto.id + LAST_INSERT_ID(0) * 0, LAST_INSERT_ID(voto.id)), " +
+                "data_voto = IF(voto.tipo = novo.tipo, voto.data_voto, novo.data_voto), " +
+                "tipo = novo.tipo";
 
         try {
-            // Verifica se já existe um voto do mesmo usuário para o mesmo objeto
-            String checkSql = "SELECT id, tipo FROM voto WHERE usuario_votante_id = ? AND objeto_avaliado_id = ? AND tipo_objeto_avaliado = ?";
-            try (PreparedStatement checkStmt = connection.prepareStatement(checkSql)) {
-                checkStmt.setInt(1, voto.getUsuarioVotante().getId());
-                checkStmt.setInt(2, voto.getObjetoAvaliadoId());
-                checkStmt.setString(3, voto.getTipoObjetoAvaliado());
-                ResultSet rs = checkStmt.executeQuery();
-
-                if (rs.next()) {
-                    // Se já existe, atualiza apenas se o tipo de voto for diferente
-                    int existingId = rs.getInt("id");
-                    String existingTipo = rs.getString("tipo");
-
-                    if (!existingTipo.equals(voto.getTipo().name())) {
-                        voto.setId(existingId);
-                        atualizar(voto);
-
-                        // Atualiza a reputação considerando a mudança de voto (dobro do impacto)
-                        atualizarReputacaoUsuarioMudancaVoto(voto, EnumVoto.valueOf(existingTipo));
+            int linhasAfetadas;
+            int id = 0;
+            try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstm.setString(1, voto.getTipo().name());
+                pstm.setObject(2, voto.getDataVoto());
+                pstm.setInt(3, voto.getUsuarioVotante().getId());
+                pstm.setInt(4, voto.getObjetoAvaliadoId());
+                pstm.setByte(5, voto.getTipoObjetoAvaliado().getCodigo());
+                pstm.setObject(6, voto.getDataCriacao());
+
+                linhasAfetadas = pstm.executeUpdate();
+                try (ResultSet rst = pstm.getGeneratedKeys()) {
+                    if (rst.next()) {
+                        id = rst.getInt(1);
                     }
-                    return;
                 }
             }
 
-            // Verifica se o voto já existe para decidir entre INSERT e UPDATE
-            if (voto.getId() == 0) { // Considera que ID 0 indica novo objeto
-                String sql = "INSERT INTO voto (tipo, data_voto, usuario_votante_id, objeto_avaliado_id, " +
-                        "tipo_objeto_avaliado, data_criacao) VALUES (?, ?, ?, ?, ?, ?)";
-                try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                    pstm.setString(1, voto.getTipo().name());
-                    pstm.setObject(2, voto.getDataVoto());
-                    pstm.setInt(3, voto.getUsuarioVotante().getId());
-                    pstm.setInt(4, voto.getObjetoAvaliadoId());
-                    pstm.setString(5, voto.getTipoObjetoAvaliado());
-                    pstm.setObject(6, voto.getDataCriacao());
-
-                    pstm.execute();
-
-                    try (ResultSet rst = pstm.getGeneratedKeys()) {
-                        if (rst.next()) {
-                            voto.setId(rst.getInt(1)); // Define o ID gerado pelo banco
-                        }
-                    }
-                }
-
-                // Atualiza a reputação do usuário que criou o objeto avaliado
-                atualizarReputacaoUsuario(voto);
-
-            } else { // Se já tem ID, tenta atualizar
-                atualizar(voto); // Chama o método de atualização
+            if (id == 0) {
+                return ResultadoVoto.INALTERADO;
+            }
+            voto.setId(id);
+            voto.limparAlteracoes();
+
+            TipoObjetoAvaliado tipoObjeto = voto.getTipoObjetoAvaliado();
+            int objetoId = voto.getObjetoAvaliadoId();
+            if (linhasAfetadas == 1) {
+                FiltroVotos.getInstancia().adicionar(voto.getUsuarioVotante().getId(), objetoId, tipoObjeto);
+                ajustarContadores(tipoObjeto, objetoId, voto.getTipo(), 1, voto.getDataVoto());
+                ajustarReputacao(tipoObjeto, objetoId, valorReputacao(voto.getTipo()));
+                return ResultadoVoto.NOVO;
             }
 
+            // Invertido: desfaz o voto anterior (do outro tipo) e aplica o novo
+            EnumVoto anterior = voto.getTipo() == EnumVoto.POSITIVO ? EnumVoto.NEGATIVO : EnumVoto.POSITIVO;
+            int sinal = voto.getTipo() == EnumVoto.POSITIVO ? 1 : -1;
+            ajustarContadores(tipoObjeto, objetoId, sinal, -sinal, voto.getDataVoto());
+            ajustarReputacao(tipoObjeto, objetoId, valorReputacao(voto.getTipo()) - valorReputacao(anterior));
+            return ResultadoVoto.INVERTIDO;
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao salvar voto: " + e.getMessage(), e);
         }
     }
 
-    private void atualizarReputacaoUsuario(Voto voto) throws SQLException {
-        // Busca o ID do usuário que criou o objeto avaliado (giria ou explicacao)
-        int usuarioPropositorId = 0;
-        String tipo = voto.getTipoObjetoAvaliado();
+    /**
+     * Grava vários votos com as mesmas regras de {@link #salvar(Object)}: o voto é inserido se o
+     * usuário ainda não votou no objeto, invertido se votou com o outro tipo e ignorado se votou
+     * com o mesmo. Votos repetidos do mesmo usuário no mesmo objeto são combinados e vale o último.
+     * Cada lote faz uma consulta dos votos existentes, um batch de inserts, um de updates e os
+     * ajustes de contadores e reputação somados por objeto avaliado. Se outra transação gravar o
+     * mesmo voto entre a consulta e o insert, a chave única rejeita o lote, que pode ser repetido.
+     */
+    public void salvarTodos(List<Voto> votos) {
+        // Último voto de cada (usuário, objeto, tipo de objeto)
+        Map<String, Voto> ultimos = new LinkedHashMap<>();
+        for (Voto voto : votos) {
+            ultimos.put(chaveVoto(voto.getUsuarioVotante().getId(), voto.getObjetoAvaliadoId(), voto.getTipoObjetoAvaliado()), voto);
+        }
+        List<Voto> unicos = new ArrayList<>(ultimos.values());
 
-        if ("GIRIA".equals(tipo)) {
-            String sql = "SELECT usuario_propositor_id FROM giria WHERE id = ?";
-            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
-                pstm.setInt(1, voto.getObjetoAvaliadoId());
-                try (ResultSet rst = pstm.executeQuery()) {
-                    if (rst.next()) {
-                        usuarioPropositorId = rst.getInt("usuario_propositor_id");
-                    }
-                }
-            }
-        } else if ("EXPLICACAO".equals(tipo)) {
-            String sql = "SELECT usuario_propositor_id FROM explicacao WHERE id = ?";
-            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
-                pstm.setInt(1, voto.getObjetoAvaliadoId());
-                try (ResultSet rst = pstm.executeQuery()) {
-                    if (rst.next()) {
-                        usuarioPropositorId = rst.getInt("usuario_propositor_id");
-                    }
-                }
+        try {
+            for (int inicio = 0; inicio < unicos.size(); inicio += GiriaDAO.LIMITE_FILTRO_IN) {
+                salvarLote(unicos.subList(inicio, Math.min(unicos.size(), inicio + GiriaDAO.LIMITE_FILTRO_IN)));
             }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao salvar votos em lote: " + e.getMessage(), e);
         }
 
-        // Se encontrou o usuário propositor, atualiza sua reputação
-        if (usuarioPropositorId > 0) {
-            // Recupera reputação atual
-            int reputacaoAtual = 0;
-            String sqlSelect = "SELECT reputacao FROM usuario WHERE id = ?";
-            try (PreparedStatement pstm = connection.prepareStatement(sqlSelect)) {
-                pstm.setInt(1, usuarioPropositorId);
-                try (ResultSet rst = pstm.executeQuery()) {
-                    if (rst.next()) {
-                        reputacaoAtual = rst.getInt("reputacao");
-                    }
+        // Votos combinados passam a apontar para a linha gravada
+        for (Voto voto : votos) {
+            Voto gravado = ultimos.get(chaveVoto(voto.getUsuarioVotante().getId(), voto.getObjetoAvaliadoId(), voto.getTipoObjetoAvaliado()));
+            voto.setId(gravado.getId());
+            voto.limparAlteracoes();
+        }
+    }
+
+    private void salvarLote(List<Voto> lote) throws SQLException {
+        // Votos já existentes: chave -> {id, ordinal do tipo}
+        Map<String, int[]> existentes = new HashMap<>();
+        String sqlExistentes = "SELECT id, tipo, usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado FROM voto " +
+                "WHERE (usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado) IN (" +
+                String.join(", ", Collections.nCopies(lote.size(), "(?, ?, ?)")) + ")";
+        try (PreparedStatement pstm = connection.prepareStatement(sqlExistentes)) {
+            int indice = 1;
+            for (Voto voto : lote) {
+                pstm.setInt(indice++, voto.getUsuarioVotante().getId());
+                pstm.setInt(indice++, voto.getObjetoAvaliadoId());
+                pstm.setByte(indice++, voto.getTipoObjetoAvaliado().getCodigo());
+            }
+            try (ResultSet rst = pstm.executeQuery()) {
+                while (rst.next()) {
+                    existentes.put(chaveVoto(rst.getInt("usuario_votante_id"), rst.getInt("objeto_avaliado_id"),
+                            TipoObjetoAvaliado.deCodigo(rst.getByte("tipo_objeto_avaliado"))),
+                            new int[]{rst.getInt("id"), EnumVoto.valueOf(rst.getString("tipo")).ordinal()});
                 }
             }
+        }
 
-            // Calcula nova reputação
-            int novaReputacao = reputacaoAtual;
-            if (voto.getTipo() == EnumVoto.POSITIVO) {
-                novaReputacao++;
+        List<Voto> novos = new ArrayList<>();
+        List<Voto> invertidos = new ArrayList<>();
+        // Variações por tabela e objeto: {positivos, negativos, reputação}
+        Map<String, Map<Integer, int[]>> variacoes = new HashMap<>();
+        List<TendenciaDAO.Variacao> tendencias = new ArrayList<>();
+        for (Voto voto : lote) {
+            int[] existente = existentes.get(chaveVoto(voto.getUsuarioVotante().getId(), voto.getObjetoAvaliadoId(), voto.getTipoObjetoAvaliado()));
+            int[] variacao;
+            if (existente == null) {
+                novos.add(voto);
+                variacao = variacao(variacoes, voto);
+            } else if (existente[1] != voto.getTipo().ordinal()) {
+                voto.setId(existente[0]);
+                invertidos.add(voto);
+                variacao = variacao(variacoes, voto);
+                // Desfaz o voto anterior
+                variacao[voto.getTipo() == EnumVoto.POSITIVO ? 1 : 0]--;
+                variacao[2] -= valorReputacao(voto.getTipo() == EnumVoto.POSITIVO ? EnumVoto.NEGATIVO : EnumVoto.POSITIVO);
             } else {
-                novaReputacao--;
+                voto.setId(existente[0]);
+                continue;
             }
+            variacao[voto.getTipo() == EnumVoto.POSITIVO ? 0 : 1]++;
+            variacao[2] += valorReputacao(voto.getTipo());
 
-            // Atualiza reputação
-            String sqlUpdate = "UPDATE usuario SET reputacao = ? WHERE id = ?";
-            try (PreparedStatement pstm = connection.prepareStatement(sqlUpdate)) {
-                pstm.setInt(1, novaReputacao);
-                pstm.setInt(2, usuarioPropositorId);
-                pstm.executeUpdate();
-            }
+            int sinal = voto.getTipo() == EnumVoto.POSITIVO ? 1 : -1;
+            tendencias.add(existente == null
+                    ? new TendenciaDAO.Variacao(voto.getTipoObjetoAvaliado(), voto.getObjetoAvaliadoId(), voto.getDataVoto(), Math.max(sinal, 0), Math.max(-sinal, 0))
+                    : new TendenciaDAO.Variacao(voto.getTipoObjetoAvaliado(), voto.getObjetoAvaliadoId(), voto.getDataVoto(), sinal, -sinal));
         }
-    }
 
-    private void atualizarReputacaoUsuarioMudancaVoto(Voto votoNovo, EnumVoto tipoAnterior) throws SQLException {
-        // Busca o ID do usuário que criou o objeto avaliado (giria ou explicacao)
-        int usuarioPropositorId = 0;
-        String tipo = votoNovo.getTipoObjetoAvaliado();
+        if (!novos.isEmpty()) {
+            String sql = "INSERT INTO voto (tipo, data_voto, usuario_votante_id, objeto_avaliado_id, " +
+                    "tipo_objeto_avaliado, data_criacao) VALUES (?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement pstm = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (Voto voto : novos) {
+                    pstm.setString(1, voto.getTipo().name());
+                    pstm.setObject(2, voto.getDataVoto());
+                    pstm.setInt(3, voto.getUsuarioVotante().getId());
+                    pstm.setInt(4, voto.getObjetoAvaliadoId());
+                    pstm.setByte(5, voto.getTipoObjetoAvaliado().getCodigo());
+                    pstm.setObject(6, voto.getDataCriacao());
+                    pstm.addBatch();
+                }
+                pstm.executeBatch();
 
-        if ("GIRIA".equals(tipo)) {
-            String sql = "SELECT usuario_propositor_id FROM giria WHERE id = ?";
-            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
-                pstm.setInt(1, votoNovo.getObjetoAvaliadoId());
-                try (ResultSet rst = pstm.executeQuery()) {
-                    if (rst.next()) {
-                        usuarioPropositorId = rst.getInt("usuario_propositor_id");
+                try (ResultSet rst = pstm.getGeneratedKeys()) {
+                    for (Voto voto : novos) {
+                        if (!rst.next()) {
+                            throw new SQLException("Falha ao obter ids dos votos inseridos.");
+                        }
+                        voto.setId(rst.getInt(1));
+                        FiltroVotos.getInstancia().adicionar(voto.getUsuarioVotante().getId(),
+                                voto.getObjetoAvaliadoId(), voto.getTipoObjetoAvaliado());
                     }
                 }
             }
-        } else if ("EXPLICACAO".equals(tipo)) {
-            String sql = "SELECT usuario_propositor_id FROM explicacao WHERE id = ?";
+        }
+
+        if (!invertidos.isEmpty()) {
+            String sql = "UPDATE voto SET tipo = ?, data_voto = ? WHERE id = ?";
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
-                pstm.setInt(1, votoNovo.getObjetoAvaliadoId());
-                try (ResultSet rst = pstm.executeQuery()) {
-                    if (rst.next()) {
-                        usuarioPropositorId = rst.getInt("usuario_propositor_id");
-                    }
+                for (Voto voto : invertidos) {
+                    pstm.setString(1, voto.getTipo().name());
+                    pstm.setObject(2, voto.getDataVoto());
+                    pstm.setInt(3, voto.getId());
+                    pstm.addBatch();
                 }
+                pstm.executeBatch();
             }
         }
 
-        // Se encontrou o usuário propositor, atualiza sua reputação
-        if (usuarioPropositorId > 0) {
-            // Recupera reputação atual
-            int reputacaoAtual = 0;
-            String sqlSelect = "SELECT reputacao FROM usuario WHERE id = ?";
-            try (PreparedStatement pstm = connection.prepareStatement(sqlSelect)) {
-                pstm.setInt(1, usuarioPropositorId);
-                try (ResultSet rst = pstm.executeQuery()) {
-                    if (rst.next()) {
-                        reputacaoAtual = rst.getInt("reputacao");
+        AcumuladorReputacao acumulador = AcumuladorReputacao.getInstancia();
+        for (Map.Entry<String, Map<Integer, int[]>> tabela : variacoes.entrySet()) {
+            String sqlContadores = "UPDATE " + tabela.getKey() + " SET positivos = positivos + ?, negativos = negativos + ? WHERE id = ?";
+            try (PreparedStatement contadores = connection.prepareStatement(sqlContadores);
+                 PreparedStatement reputacao = connection.prepareStatement(sqlAjusteReputacao(tabela.getKey()))) {
+                boolean ajustarReputacao = false;
+                for (Map.Entry<Integer, int[]> objeto : tabela.getValue().entrySet()) {
+                    int[] variacao = objeto.getValue();
+                    contadores.setInt(1, variacao[0]);
+                    contadores.setInt(2, variacao[1]);
+                    contadores.setInt(3, objeto.getKey());
+                    contadores.addBatch();
+
+                    if (variacao[2] == 0) {
+                        continue;
                     }
+                    if (acumulador.isAtivo()) {
+                        acumulador.acumular(tabela.getKey(), objeto.getKey(), variacao[2]);
+                    } else {
+                        reputacao.setInt(1, variacao[2]);
+                        reputacao.setInt(2, objeto.getKey());
+                        reputacao.addBatch();
+                        ajustarReputacao = true;
+                    }
+                }
+                contadores.executeBatch();
+                if (tabela.getKey().equals(tabelaObjeto(TipoObjetoAvaliado.GIRIA))) {
+                    ajustarAutocompletar(tabela.getValue());
                 }
+                if (ajustarReputacao) {
+                    reputacao.executeBatch();
+                }
+            }
+            if (tabela.getKey().equals(tabelaObjeto(TipoObjetoAvaliado.EXPLICACAO))) {
+                new GiriaDAO(connection).atualizarMelhoresExplicacoesVotadas(tabela.getValue().keySet());
             }
+        }
+        new TendenciaDAO(connection).registrar(tendencias);
+    }
 
-            // Calcula nova reputação
-            int novaReputacao = reputacaoAtual;
+    private static String chaveVoto(int usuarioId, int objetoId, TipoObjetoAvaliado tipoObjeto) {
+        return usuarioId + ":" + objetoId + ":" + tipoObjeto;
+    }
+
+    private static int[] variacao(Map<String, Map<Integer, int[]>> variacoes, Voto voto) {
+        return variacoes.computeIfAbsent(tabelaObjeto(voto.getTipoObjetoAvaliado()), t -> new HashMap<>())
+                .computeIfAbsent(voto.getObjetoAvaliadoId(), id -> new int[3]);
+    }
+
+    /**
+     * Soma uma variação à reputação do usuário que propôs o objeto avaliado.
+     * O autor é resolvido e incrementado no próprio UPDATE: uma ida ao banco, sem ler a reputação
+     * atual, então votos simultâneos não se sobrescrevem. Com o {@link AcumuladorReputacao} ligado,
+     * a variação é acumulada e gravada depois, em lote.
+     */
+    private void ajustarReputacao(TipoObjetoAvaliado tipoObjeto, int objetoId, int variacao) throws SQLException {
+        String tabela = tabelaObjeto(tipoObjeto);
+        AcumuladorReputacao acumulador = AcumuladorReputacao.getInstancia();
+        if (acumulador.isAtivo()) {
+            acumulador.acumular(tabela, objetoId, variacao);
+            return;
+        }
+        try (PreparedStatement pstm = connection.prepareStatement(sqlAjusteReputacao(tabela))) {
+            pstm.setInt(1, variacao);
+            pstm.setInt(2, objetoId);
+            pstm.executeUpdate();
+        }
+    }
 
-            // Se o voto anterior era NEGATIVO e o novo é POSITIVO: +2 (remover -1 e adicionar +1)
-            // Se o voto anterior era POSITIVO e o novo é NEGATIVO: -2 (remover +1 e adicionar -1)
-            if (tipoAnterior == EnumVoto.NEGATIVO && votoNovo.getTipo() == EnumVoto.POSITIVO) {
-                novaReputacao += 2;
-            } else if (tipoAnterior == EnumVoto.POSITIVO && votoNovo.getTipo() == EnumVoto.NEGATIVO) {
-                novaReputacao -= 2;
+    // Parâmetros: variação e id do objeto avaliado
+    static String sqlAjusteReputacao(String tabelaObjeto) {
+        return "UPDATE usuario u JOIN " + tabelaObjeto + " o ON o.usuario_propositor_id = u.id " +
+                "SET u.reputacao = u.reputacao + ? WHERE o.id = ?";
+    }
+
+    // Efeito de um voto na reputação do autor do objeto avaliado
+    private static int valorReputacao(EnumVoto tipo) {
+        return tipo == EnumVoto.POSITIVO ? 1 : -1;
+    }
+
+    /**
+     * Soma (ou, com sinal -1, subtrai) um voto aos contadores positivos/negativos do objeto avaliado
+     * e às séries por hora e por dia do momento informado ({@link TendenciaDAO}).
+     * O incremento é feito no próprio UPDATE, então votos simultâneos não se sobrescrevem.
+     */
+    private void ajustarContadores(TipoObjetoAvaliado tipoObjeto, int objetoId, EnumVoto tipo, int sinal,
+                                   LocalDateTime momento) throws SQLException {
+        if (tipo == EnumVoto.POSITIVO) {
+            ajustarContadores(tipoObjeto, objetoId, sinal, 0, momento);
+        } else {
+            ajustarContadores(tipoObjeto, objetoId, 0, sinal, momento);
+        }
+    }
+
+    private void ajustarContadores(TipoObjetoAvaliado tipoObjeto, int objetoId, int positivos, int negativos,
+                                   LocalDateTime momento) throws SQLException {
+        String sql = "UPDATE " + tabelaObjeto(tipoObjeto) + " SET positivos = positivos + ?, negativos = negativos + ? WHERE id = ?";
+        try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+            pstm.setInt(1, positivos);
+            pstm.setInt(2, negativos);
+            pstm.setInt(3, objetoId);
+            pstm.executeUpdate();
+        }
+        if (tipoObjeto == TipoObjetoAvaliado.EXPLICACAO) {
+            new GiriaDAO(connection).atualizarMelhoresExplicacoesVotadas(List.of(objetoId));
+        } else {
+            ajustarAutocompletar(Map.of(objetoId, new int[]{positivos, negativos}));
+        }
+        new TendenciaDAO(connection).registrar(List.of(
+                new TendenciaDAO.Variacao(tipoObjeto, objetoId, momento, positivos, negativos)));
+    }
+
+    // O autocompletar ordena pela pontuação (positivos - negativos) e só recebe a variação depois do commit
+    private void ajustarAutocompletar(Map<Integer, int[]> variacoesPorGiria) {
+        Map<Integer, Integer> pontuacoes = new HashMap<>();
+        for (Map.Entry<Integer, int[]> giria : variacoesPorGiria.entrySet()) {
+            int variacao = giria.getValue()[0] - giria.getValue()[1];
+            if (variacao != 0) {
+                pontuacoes.put(giria.getKey(), variacao);
             }
+        }
+        if (!pontuacoes.isEmpty()) {
+            SincronizacaoTransacao.aposCommit(connection, () ->
+                    pontuacoes.forEach(AutocompletarGirias.getInstancia()::ajustarPontuacao));
+        }
+    }
+
+    static String tabelaObjeto(TipoObjetoAvaliado tipoObjeto) {
+        return tipoObjeto == TipoObjetoAvaliado.GIRIA ? "giria" : "explicacao";
+    }
+
+
+    /**
+     * Recalcula os contadores de votos de gírias e explicações a partir da tabela voto,
+     * corrigindo as linhas que divergirem, e em seguida a melhor explicação de cada gíria
+     * ({@link GiriaDAO#recalcularMelhoresExplicacoes(int)}). Processa faixas de ids com um commit
+     * por faixa, para não manter a tabela inteira bloqueada; deve rodar em uma conexão própria.
+     * @param tamanhoFaixa Quantidade de ids por faixa
+     * @return Quantidade de linhas corrigidas
+     */
+    public int reconciliarContadores(int tamanhoFaixa) {
+        int corrigidas = 0;
+        try {
+            for (TipoObjetoAvaliado tipoObjeto : TipoObjetoAvaliado.values()) {
+                String tabela = tabelaObjeto(tipoObjeto);
+                int maiorId = 0;
+                try (PreparedStatement pstm = connection.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM " + tabela);
+                     ResultSet rst = pstm.executeQuery()) {
+                    if (rst.next()) {
+                        maiorId = rst.getInt(1);
+                    }
+                }
 
-            // Atualiza reputação
-            String sqlUpdate = "UPDATE usuario SET reputacao = ? WHERE id = ?";
-            try (PreparedStatement pstm = connection.prepareStatement(sqlUpdate)) {
-                pstm.setInt(1, novaReputacao);
-                pstm.setInt(2, usuarioPropositorId);
-                pstm.executeUpdate();
+                String sql = "UPDATE " + tabela + " o " +
+                        "LEFT JOIN (SELECT objeto_avaliado_id, SUM(tipo = 'POSITIVO') AS positivos, SUM(tipo = 'NEGATIVO') AS negativos " +
+                        "FROM voto WHERE tipo_objeto_avaliado = ? AND objeto_avaliado_id BETWEEN ? AND ? " +
+                        "GROUP BY objeto_avaliado_id) v ON v.objeto_avaliado_id = o.id " +
+                        "SET o.positivos = COALESCE(v.positivos, 0), o.negativos = COALESCE(v.negativos, 0) " +
+                        "WHERE o.id BETWEEN ? AND ? " +
+                        "AND (o.positivos <> COALESCE(v.positivos, 0) OR o.negativos <> COALESCE(v.negativos, 0))";
+                try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                    for (int inicio = 1; inicio <= maiorId; inicio += tamanhoFaixa) {
+                        int fim = inicio + tamanhoFaixa - 1;
+                        pstm.setByte(1, tipoObjeto.getCodigo());
+                        pstm.setInt(2, inicio);
+                        pstm.setInt(3, fim);
+                        pstm.setInt(4, inicio);
+                        pstm.setInt(5, fim);
+                        corrigidas += pstm.executeUpdate();
+                        connection.commit();
+                    }
+                }
             }
+            return corrigidas + new GiriaDAO(connection).recalcularMelhoresExplicacoes(tamanhoFaixa);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao reconciliar contadores de votos: " + e.getMessage(), e);
         }
     }
 
@@ -234,9 +450,10 @@ public class VotoDAO implements BaseDAO {
                                 EnumVoto.valueOf(rst.getString("tipo")),
                                 usuarioVotante,
                                 rst.getInt("objeto_avaliado_id"),
-                                rst.getString("tipo_objeto_avaliado")
+                                TipoObjetoAvaliado.deCodigo(rst.getByte("tipo_objeto_avaliado"))
                         );
                         voto.setDataVoto(rst.getObject("data_voto", LocalDateTime.class));
+                        voto.limparAlteracoes();
                         voto.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
                     }
                 }
@@ -251,6 +468,7 @@ public class VotoDAO implements BaseDAO {
     @Override
     public ArrayList<Object> listarTodosLazyLoading() {
         ArrayList<Object> votos = new ArrayList<>();
+        Map<Integer, Usuario> usuarios = new HashMap<>();
         try {
             String sql = "SELECT v.id, v.tipo, v.data_voto, v.objeto_avaliado_id, v.tipo_objeto_avaliado, v.data_criacao, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
@@ -263,27 +481,7 @@ public class VotoDAO implements BaseDAO {
 
                 try (ResultSet rst = pstm.getResultSet()) {
                     while (rst.next()) {
-                        // Cria o usuário votante
-                        Usuario usuarioVotante = new Usuario(
-                                rst.getInt("usuario_id"),
-                                rst.getString("nome"),
-                                rst.getString("email"),
-                                rst.getString("senha")
-                        );
-                        usuarioVotante.setReputacao(rst.getInt("reputacao"));
-
-                        // Cria o voto
-                        Voto voto = new Voto(
-                                rst.getInt("id"),
-                                EnumVoto.valueOf(rst.getString("tipo")),
-                                usuarioVotante,
-                                rst.getInt("objeto_avaliado_id"),
-                                rst.getString("tipo_objeto_avaliado")
-                        );
-                        voto.setDataVoto(rst.getObject("data_voto", LocalDateTime.class));
-                        voto.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
-
-                        votos.add(voto);
+                        votos.add(mapearVoto(rst, usuarios));
                     }
                 }
             }
@@ -309,7 +507,7 @@ public class VotoDAO implements BaseDAO {
 
         Voto voto = (Voto) objeto;
 
-        // Busca o voto atual para saber se o tipo mudou e precisa reverter reputação
+        // Busca o voto atual para saber se o tipo mudou e precisa reverter contadores e reputação
         Voto votoAtual = (Voto) buscarPorId(voto.getId());
         boolean tipoMudou = votoAtual != null && votoAtual.getTipo() != voto.getTipo();
 
@@ -322,7 +520,7 @@ public class VotoDAO implements BaseDAO {
             pstm.setObject(2, voto.getDataVoto());
             pstm.setInt(3, voto.getUsuarioVotante().getId());
             pstm.setInt(4, voto.getObjetoAvaliadoId());
-            pstm.setString(5, voto.getTipoObjetoAvaliado());
+            pstm.setByte(5, voto.getTipoObjetoAvaliado().getCodigo());
             pstm.setInt(6, voto.getId());
 
             int linhasAfetadas = pstm.executeUpdate();
@@ -330,24 +528,25 @@ public class VotoDAO implements BaseDAO {
             if (linhasAfetadas == 0) {
                 throw new SQLException("Falha ao atualizar voto: nenhuma linha foi afetada.");
             }
-
-            // Se o tipo de voto mudou, atualiza reputação do usuário que propôs o conteúdo
-            if (tipoMudou) {
-                // Um "truque" para duplicar o efeito da troca de voto: remover o efeito antigo e aplicar o novo
-                // Para isso, inverte o voto antigo e salva para "cancelar" o efeito e depois salva o novo
-                Voto votoReversao = new Voto(
-                        0, // ID 0 para não atualizar o voto existente
-                        votoAtual.getTipo() == EnumVoto.POSITIVO ? EnumVoto.NEGATIVO : EnumVoto.POSITIVO,
-                        votoAtual.getUsuarioVotante(),
-                        votoAtual.getObjetoAvaliadoId(),
-                        votoAtual.getTipoObjetoAvaliado()
-                );
-
-                // Aplica a reversão no banco sem salvar como novo voto (só para atualizar reputação)
-                atualizarReputacaoUsuario(votoReversao);
-
-                // Agora aplica o novo voto
-                atualizarReputacaoUsuario(voto);
+            voto.limparAlteracoes();
+            FiltroVotos.getInstancia().adicionar(voto.getUsuarioVotante().getId(),
+                    voto.getObjetoAvaliadoId(), voto.getTipoObjetoAvaliado());
+
+            // Move o voto antigo para o novo nos contadores e na reputação dos autores dos objetos avaliados
+            if (votoAtual != null && (tipoMudou || votoAtual.getObjetoAvaliadoId() != voto.getObjetoAvaliadoId()
+                    || votoAtual.getTipoObjetoAvaliado() != voto.getTipoObjetoAvaliado())) {
+                ajustarContadores(votoAtual.getTipoObjetoAvaliado(), votoAtual.getObjetoAvaliadoId(), votoAtual.getTipo(), -1, voto.getDataVoto());
+                ajustarContadores(voto.getTipoObjetoAvaliado(), voto.getObjetoAvaliadoId(), voto.getTipo(), 1, voto.getDataVoto());
+
+                if (votoAtual.getObjetoAvaliadoId() == voto.getObjetoAvaliadoId()
+                        && votoAtual.getTipoObjetoAvaliado() == voto.getTipoObjetoAvaliado()) {
+                    // Mesmo objeto, voto invertido: desfaz o anterior e aplica o novo em um único UPDATE (±2)
+                    ajustarReputacao(voto.getTipoObjetoAvaliado(), voto.getObjetoAvaliadoId(),
+                            valorReputacao(voto.getTipo()) - valorReputacao(votoAtual.getTipo()));
+                } else {
+                    ajustarReputacao(votoAtual.getTipoObjetoAvaliado(), votoAtual.getObjetoAvaliadoId(), -valorReputacao(votoAtual.getTipo()));
+                    ajustarReputacao(voto.getTipoObjetoAvaliado(), voto.getObjetoAvaliadoId(), valorReputacao(voto.getTipo()));
+                }
             }
 
         } catch (SQLException e) {
@@ -373,18 +572,10 @@ public class VotoDAO implements BaseDAO {
                 }
             }
 
-            // Desfaz o efeito do voto na reputação do usuário propositor
+            // Desfaz o efeito do voto nos contadores do objeto e na reputação do usuário propositor
             if (voto != null) {
-                Voto votoReversao = new Voto(
-                        0, // ID 0 para não atualizar o voto existente
-                        voto.getTipo() == EnumVoto.POSITIVO ? EnumVoto.NEGATIVO : EnumVoto.POSITIVO,
-                        voto.getUsuarioVotante(),
-                        voto.getObjetoAvaliadoId(),
-                        voto.getTipoObjetoAvaliado()
-                );
-
-                // Aplica a reversão no banco sem salvar (só para atualizar reputação)
-                atualizarReputacaoUsuario(votoReversao);
+                ajustarContadores(voto.getTipoObjetoAvaliado(), voto.getObjetoAvaliadoId(), voto.getTipo(), -1, LocalDateTime.now());
+                ajustarReputacao(voto.getTipoObjetoAvaliado(), voto.getObjetoAvaliadoId(), -valorReputacao(voto.getTipo()));
             }
 
         } catch (SQLException e) {
@@ -394,8 +585,16 @@ public class VotoDAO implements BaseDAO {
 
     // Métodos específicos para a classe VotoDAO
 
+    /**
+     * Lista os votos de um usuário em duas consultas: o usuário é buscado uma vez e a mesma
+     * instância é compartilhada por todos os votos.
+     */
     public ArrayList<Voto> buscarVotosPorUsuario(int usuarioId) {
         ArrayList<Voto> votos = new ArrayList<>();
+        Usuario usuarioVotante = (Usuario) new UsuarioDAO(connection).buscarPorId(usuarioId);
+        if (usuarioVotante == null) {
+            return votos;
+        }
         try {
             String sql = "SELECT v.id, v.tipo, v.data_voto, v.objeto_avaliado_id, v.tipo_objeto_avaliado, v.data_criacao " +
                     "FROM voto v " +
@@ -408,22 +607,7 @@ public class VotoDAO implements BaseDAO {
 
                 try (ResultSet rst = pstm.getResultSet()) {
                     while (rst.next()) {
-                        // Recupera o usuário para evitar consultas repetidas
-                        UsuarioDAO usuarioDAO = new UsuarioDAO(connection);
-                        Usuario usuarioVotante = (Usuario) usuarioDAO.buscarPorId(usuarioId);
-
-                        // Cria o voto
-                        Voto voto = new Voto(
-                                rst.getInt("id"),
-                                EnumVoto.valueOf(rst.getString("tipo")),
-                                usuarioVotante,
-                                rst.getInt("objeto_avaliado_id"),
-                                rst.getString("tipo_objeto_avaliado")
-                        );
-                        voto.setDataVoto(rst.getObject("data_voto", LocalDateTime.class));
-                        voto.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
-
-                        votos.add(voto);
+                        votos.add(mapearVoto(rst, usuarioVotante));
                     }
                 }
             }
@@ -433,10 +617,11 @@ public class VotoDAO implements BaseDAO {
         }
     }
 
-    public ArrayList<Voto> buscarVotosPorObjeto(int objetoId, String tipoObjeto) {
+    public ArrayList<Voto> buscarVotosPorObjeto(int objetoId, TipoObjetoAvaliado tipoObjeto) {
         ArrayList<Voto> votos = new ArrayList<>();
+        Map<Integer, Usuario> usuarios = new HashMap<>();
         try {
-            String sql = "SELECT v.id, v.tipo, v.data_voto, v.data_criacao, " +
+            String sql = "SELECT v.id, v.tipo, v.data_voto, v.objeto_avaliado_id, v.tipo_objeto_avaliado, v.data_criacao, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM voto v " +
                     "JOIN usuario u ON v.usuario_votante_id = u.id " +
@@ -445,32 +630,12 @@ public class VotoDAO implements BaseDAO {
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
                 pstm.setInt(1, objetoId);
-                pstm.setString(2, tipoObjeto);
+                pstm.setByte(2, tipoObjeto.getCodigo());
                 pstm.execute();
 
                 try (ResultSet rst = pstm.getResultSet()) {
                     while (rst.next()) {
-                        // Cria o usuário votante
-                        Usuario usuarioVotante = new Usuario(
-                                rst.getInt("usuario_id"),
-                                rst.getString("nome"),
-                                rst.getString("email"),
-                                rst.getString("senha")
-                        );
-                        usuarioVotante.setReputacao(rst.getInt("reputacao"));
-
-                        // Cria o voto
-                        Voto voto = new Voto(
-                                rst.getInt("id"),
-                                EnumVoto.valueOf(rst.getString("tipo")),
-                                usuarioVotante,
-                                objetoId,
-                                tipoObjeto
-                        );
-                        voto.setDataVoto(rst.getObject("data_voto", LocalDateTime.class));
-                        voto.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
-
-                        votos.add(voto);
+                        votos.add(mapearVoto(rst, usuarios));
                     }
                 }
             }
@@ -480,20 +645,17 @@ public class VotoDAO implements BaseDAO {
         }
     }
 
-    public int calcularPontuacaoVotos(int objetoId, String tipoObjeto) {
+    public int calcularPontuacaoVotos(int objetoId, TipoObjetoAvaliado tipoObjeto) {
         int pontuacao = 0;
         try {
-            String sql = "SELECT " +
-                    "SUM(CASE WHEN tipo = 'POSITIVO' THEN 1 ELSE -1 END) as pontuacao " +
-                    "FROM voto " +
-                    "WHERE objeto_avaliado_id = ? AND tipo_objeto_avaliado = ?";
+            // Lida dos contadores mantidos a cada voto, sem agregar a tabela voto
+            String sql = "SELECT pontuacao FROM " + tabelaObjeto(tipoObjeto) + " WHERE id = ?";
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
                 pstm.setInt(1, objetoId);
-                pstm.setString(2, tipoObjeto);
 
                 try (ResultSet rst = pstm.executeQuery()) {
-                    if (rst.next() && rst.getObject("pontuacao") != null) {
+                    if (rst.next()) {
                         pontuacao = rst.getInt("pontuacao");
                     }
                 }
@@ -504,35 +666,26 @@ public class VotoDAO implements BaseDAO {
         }
     }
 
-    public Voto buscarVotoUsuarioObjeto(int usuarioId, int objetoId, String tipoObjeto) {
+    public Voto buscarVotoUsuarioObjeto(int usuarioId, int objetoId, TipoObjetoAvaliado tipoObjeto) {
+        // O filtro responde a maioria das buscas sem voto sem consultar o banco
+        if (!FiltroVotos.getInstancia().podeTerVotado(usuarioId, objetoId, tipoObjeto)) {
+            return null;
+        }
         try {
-            String sql = "SELECT id, tipo, data_voto, data_criacao " +
-                    "FROM voto " +
-                    "WHERE usuario_votante_id = ? AND objeto_avaliado_id = ? AND tipo_objeto_avaliado = ?";
+            String sql = "SELECT v.id, v.tipo, v.data_voto, v.objeto_avaliado_id, v.tipo_objeto_avaliado, v.data_criacao, " +
+                    "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
+                    "FROM voto v " +
+                    "JOIN usuario u ON v.usuario_votante_id = u.id " +
+                    "WHERE v.usuario_votante_id = ? AND v.objeto_avaliado_id = ? AND v.tipo_objeto_avaliado = ?";
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
                 pstm.setInt(1, usuarioId);
                 pstm.setInt(2, objetoId);
-                pstm.setString(3, tipoObjeto);
+                pstm.setByte(3, tipoObjeto.getCodigo());
 
                 try (ResultSet rst = pstm.executeQuery()) {
                     if (rst.next()) {
-                        // Recupera o usuário
-                        UsuarioDAO usuarioDAO = new UsuarioDAO(connection);
-                        Usuario usuarioVotante = (Usuario) usuarioDAO.buscarPorId(usuarioId);
-
-                        // Cria o voto
-                        Voto voto = new Voto(
-                                rst.getInt("id"),
-                                EnumVoto.valueOf(rst.getString("tipo")),
-                                usuarioVotante,
-                                objetoId,
-                                tipoObjeto
-                        );
-                        voto.setDataVoto(rst.getObject("data_voto", LocalDateTime.class));
-                        voto.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
-
-                        return voto;
+                        return mapearVoto(rst);
                     }
                 }
             }
@@ -545,12 +698,13 @@ public class VotoDAO implements BaseDAO {
 
     public ArrayList<Voto> listarPorGiriaId(int giriaId) {
         ArrayList<Voto> votos = new ArrayList<>();
+        Map<Integer, Usuario> usuarios = new HashMap<>();
         try {
             String sql = "SELECT v.id, v.tipo, v.data_voto, v.objeto_avaliado_id, v.tipo_objeto_avaliado, v.data_criacao, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM voto v " +
                     "JOIN usuario u ON v.usuario_votante_id = u.id " +
-                    "WHERE v.objeto_avaliado_id = ? AND v.tipo_objeto_avaliado = 'GIRIA' ";
+                    "WHERE v.objeto_avaliado_id = ? AND v.tipo_objeto_avaliado = " + TipoObjetoAvaliado.GIRIA.getCodigo();
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
                 pstm.setInt(1, giriaId);
@@ -558,24 +712,7 @@ public class VotoDAO implements BaseDAO {
 
                 try (ResultSet rst = pstm.getResultSet()) {
                     while (rst.next()) {
-                        Usuario usuarioVotante = new Usuario(
-                                rst.getInt("usuario_id"),
-                                rst.getString("nome"),
-                                rst.getString("email"),
-                                rst.getString("senha")
-                        );
-                        usuarioVotante.setReputacao(rst.getInt("reputacao"));
-
-                        Voto voto = new Voto(
-                                rst.getInt("id"),
-                                EnumVoto.valueOf(rst.getString("tipo")),
-                                usuarioVotante,
-                                rst.getInt("objeto_avaliado_id"),
-                                rst.getString("tipo_objeto_avaliado")
-                        );
-                        voto.setDataVoto(rst.getObject("data_voto", LocalDateTime.class));
-                        voto.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
-                        votos.add(voto);
+                        votos.add(mapearVoto(rst, usuarios));
                     }
                 }
             }
@@ -588,12 +725,13 @@ public class VotoDAO implements BaseDAO {
 
     public ArrayList<Voto> listarPorExplicacaoId(int explicacaoId) {
         ArrayList<Voto> votos = new ArrayList<>();
+        Map<Integer, Usuario> usuarios = new HashMap<>();
         try {
             String sql = "SELECT v.id, v.tipo, v.data_voto, v.objeto_avaliado_id, v.tipo_objeto_avaliado, v.data_criacao, " +
                     "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
                     "FROM voto v " +
                     "JOIN usuario u ON v.usuario_votante_id = u.id " +
-                    "WHERE v.objeto_avaliado_id = ? AND v.tipo_objeto_avaliado = 'EXPLICACAO' ";
+                    "WHERE v.objeto_avaliado_id = ? AND v.tipo_objeto_avaliado = " + TipoObjetoAvaliado.EXPLICACAO.getCodigo();
 
             try (PreparedStatement pstm = connection.prepareStatement(sql)) {
                 pstm.setInt(1, explicacaoId);
@@ -601,24 +739,7 @@ public class VotoDAO implements BaseDAO {
 
                 try (ResultSet rst = pstm.getResultSet()) {
                     while (rst.next()) {
-                        Usuario usuarioVotante = new Usuario(
-                                rst.getInt("usuario_id"),
-                                rst.getString("nome"),
-                                rst.getString("email"),
-                                rst.getString("senha")
-                        );
-                        usuarioVotante.setReputacao(rst.getInt("reputacao"));
-
-                        Voto voto = new Voto(
-                                rst.getInt("id"),
-                                EnumVoto.valueOf(rst.getString("tipo")),
-                                usuarioVotante,
-                                rst.getInt("objeto_avaliado_id"),
-                                rst.getString("tipo_objeto_avaliado")
-                        );
-                        voto.setDataVoto(rst.getObject("data_voto", LocalDateTime.class));
-                        voto.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
-                        votos.add(voto);
+                        votos.add(mapearVoto(rst, usuarios));
                     }
                 }
             }
@@ -627,4 +748,180 @@ public class VotoDAO implements BaseDAO {
             throw new RuntimeException("Erro ao listar votos por explicação: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Lista em uma única consulta os votos de vários objetos do mesmo tipo.
+     * Para conjuntos grandes, lê todos os votos do tipo e descarta os que não interessam,
+     * evitando uma lista IN com milhares de parâmetros.
+     * @param objetoIds Ids dos objetos avaliados
+     * @param tipoObjeto Tipo dos objetos avaliados
+     */
+    public ArrayList<Voto> listarPorObjetos(Set<Integer> objetoIds, TipoObjetoAvaliado tipoObjeto) {
+        return listarPorObjetos(objetoIds, tipoObjeto, new HashMap<>());
+    }
+
+    /**
+     * Como {@link #listarPorObjetos(Set, TipoObjetoAvaliado)}, reaproveitando os usuários já
+     * montados por quem chama (e acrescentando os novos votantes ao mapa).
+     * @param usuarios Usuários já montados, por id
+     */
+    ArrayList<Voto> listarPorObjetos(Set<Integer> objetoIds, TipoObjetoAvaliado tipoObjeto,
+                                     Map<Integer, Usuario> usuarios) {
+        ArrayList<Voto> votos = new ArrayList<>();
+        if (objetoIds.isEmpty()) {
+            return votos;
+        }
+
+        boolean filtrarIds = objetoIds.size() <= GiriaDAO.LIMITE_FILTRO_IN;
+        try {
+            String sql = "SELECT v.id, v.tipo, v.data_voto, v.objeto_avaliado_id, v.tipo_objeto_avaliado, v.data_criacao, " +
+                    "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
+                    "FROM voto v " +
+                    "JOIN usuario u ON v.usuario_votante_id = u.id " +
+                    "WHERE v.tipo_objeto_avaliado = ? " +
+                    (filtrarIds ? "AND v.objeto_avaliado_id IN (" + GiriaDAO.placeholders(objetoIds.size()) + ") " : "") +
+                    "ORDER BY v.id";
+
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                pstm.setByte(1, tipoObjeto.getCodigo());
+                if (filtrarIds) {
+                    int indice = 2;
+                    for (int id : objetoIds) {
+                        pstm.setInt(indice++, id);
+                    }
+                }
+
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        if (!filtrarIds && !objetoIds.contains(rst.getInt("objeto_avaliado_id"))) {
+                            continue;
+                        }
+                        votos.add(mapearVoto(rst, usuarios));
+                    }
+                }
+            }
+            return votos;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar votos por objetos: " + e.getMessage(), e);
+        }
+    }
+
+    // Paginação por chave, dos votos mais recentes para os mais antigos, sem OFFSET
+
+    /**
+     * Lista uma página dos votos de um usuário, do mais recente para o mais antigo.
+     * @param antesDeId Cursor da página anterior ({@link Pagina#getProximoCursor()}); 0 para a primeira página
+     * @param limite Quantidade máxima de votos na página
+     */
+    public Pagina<Voto> buscarPaginaVotosPorUsuario(int usuarioId, int antesDeId, int limite) {
+        return listarPaginaVotos("AND v.usuario_votante_id = ? ", usuarioId, null, antesDeId, limite,
+                "Erro ao buscar página de votos por usuário: ");
+    }
+
+    public Pagina<Voto> buscarPaginaVotosPorObjeto(int objetoId, TipoObjetoAvaliado tipoObjeto, int antesDeId, int limite) {
+        return listarPaginaVotos("AND v.objeto_avaliado_id = ? AND v.tipo_objeto_avaliado = ? ", objetoId, tipoObjeto,
+                antesDeId, limite, "Erro ao buscar página de votos por objeto: ");
+    }
+
+    /**
+     * Executa a consulta paginada em ordem decrescente de id (equivale à ordem de data do voto).
+     */
+    private Pagina<Voto> listarPaginaVotos(String filtro, int idFiltro, TipoObjetoAvaliado tipoFiltro,
+                                           int antesDeId, int limite, String mensagemErro) {
+        ArrayList<Voto> votos = new ArrayList<>();
+        Map<Integer, Usuario> usuarios = new HashMap<>();
+        try {
+            String sql = "SELECT v.id, v.tipo, v.data_voto, v.objeto_avaliado_id, v.tipo_objeto_avaliado, v.data_criacao, " +
+                    "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
+                    "FROM voto v " +
+                    "JOIN usuario u ON v.usuario_votante_id = u.id " +
+                    "WHERE v.id < ? " + filtro +
+                    "ORDER BY v.id DESC " +
+                    "LIMIT ?";
+
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                int indice = 1;
+                pstm.setInt(indice++, antesDeId > 0 ? antesDeId : Integer.MAX_VALUE);
+                pstm.setInt(indice++, idFiltro);
+                if (tipoFiltro != null) {
+                    pstm.setByte(indice++, tipoFiltro.getCodigo());
+                }
+                // Uma linha a mais indica se existe próxima página
+                pstm.setInt(indice, limite + 1);
+
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        votos.add(mapearVoto(rst, usuarios));
+                    }
+                }
+            }
+            return Pagina.deLinhas(votos, limite);
+        } catch (SQLException e) {
+            throw new RuntimeException(mensagemErro + e.getMessage(), e);
+        }
+    }
+
+    // Consultas em streaming: as linhas são lidas do cursor sob demanda, sem materializar a tabela
+
+    /**
+     * Versão em streaming de {@link #listarTodosLazyLoading()}, para exportar ou varrer a tabela de votos.
+     * O stream precisa ser fechado (try-with-resources) para liberar o cursor.
+     * @param tamanhoLote Quantidade de linhas buscadas do servidor a cada ida ao banco
+     */
+    public Stream<Voto> streamTodosLazyLoading(int tamanhoLote) {
+        String sql = "SELECT v.id, v.tipo, v.data_voto, v.objeto_avaliado_id, v.tipo_objeto_avaliado, v.data_criacao, " +
+                "u.id as usuario_id, u.nome, u.email, u.senha, u.reputacao " +
+                "FROM voto v " +
+                "JOIN usuario u ON v.usuario_votante_id = u.id " +
+                "ORDER BY v.id";
+        try {
+            return ResultSetStream.criar(connection, sql, tamanhoLote, null, this::mapearVoto);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar todos os votos (Streaming): " + e.getMessage(), e);
+        }
+    }
+
+    // Monta o voto e o usuário votante a partir das colunas v.* e u.* das listagens
+    private Voto mapearVoto(ResultSet rst) throws SQLException {
+        return mapearVoto(rst, mapearUsuario(rst));
+    }
+
+    /**
+     * Como {@link #mapearVoto(ResultSet)}, reaproveitando o usuário já montado na mesma consulta:
+     * cada votante é materializado uma vez e compartilhado pelos seus votos.
+     * @param usuarios Usuários já montados, por id; preenchido a cada usuário novo
+     */
+    private Voto mapearVoto(ResultSet rst, Map<Integer, Usuario> usuarios) throws SQLException {
+        Usuario usuarioVotante = usuarios.get(rst.getInt("usuario_id"));
+        if (usuarioVotante == null) {
+            usuarioVotante = mapearUsuario(rst);
+            usuarios.put(usuarioVotante.getId(), usuarioVotante);
+        }
+        return mapearVoto(rst, usuarioVotante);
+    }
+
+    private Voto mapearVoto(ResultSet rst, Usuario usuarioVotante) throws SQLException {
+        Voto voto = new Voto(
+                rst.getInt("id"),
+                EnumVoto.valueOf(rst.getString("tipo")),
+                usuarioVotante,
+                rst.getInt("objeto_avaliado_id"),
+                TipoObjetoAvaliado.deCodigo(rst.getByte("tipo_objeto_avaliado"))
+        );
+        voto.setDataVoto(rst.getObject("data_voto", LocalDateTime.class));
+        voto.limparAlteracoes();
+        voto.setDataCriacao(rst.getObject("data_criacao", LocalDateTime.class));
+        return voto;
+    }
+
+    private Usuario mapearUsuario(ResultSet rst) throws SQLException {
+        Usuario usuario = new Usuario(
+                rst.getInt("usuario_id"),
+                rst.getString("nome"),
+                rst.getString("email"),
+                rst.getString("senha")
+        );
+        usuario.setReputacao(rst.getInt("reputacao"));
+        return usuario;
+    }
 }
@@ -0,0 +1,419 @@
+package importacao;
+
+import bd.ConnectionFactory;
+import busca.Normalizador;
+import dao.DicionarioNomes;
+import dao.ExplicacaoDAO;
+import dao.GiriaDAO;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Importação em massa de gírias (com categorias, regiões e explicações) a partir de CSV ou JSONL.
+ *
+ * O arquivo é lido em streaming e processado em lotes. Cada lote custa poucas idas ao banco,
+ * independente do número de linhas: uma consulta para achar os termos que já existem, um INSERT
+ * de várias linhas para os novos e uma consulta para obter os ids gerados; categorias e regiões
+ * são resolvidas pelo {@link DicionarioNomes} e as associações e explicações entram também em
+ * INSERTs de várias linhas.
+ *
+ * Cada lote é confirmado com seu próprio commit e gravado no arquivo de checkpoint; se a
+ * importação for interrompida, a próxima execução com o mesmo checkpoint continua do último
+ * lote confirmado. Gírias que já existem não são alteradas: recebem apenas as categorias,
+ * regiões e explicações que ainda não tinham. Os índices em memória (busca por trecho,
+ * autocompletar e busca por significado) são atualizados pelos mesmos métodos dos DAOs,
+ * depois do commit de cada lote.
+ */
+public class ImportadorGirias {
+
+    public static final int TAMANHO_LOTE_PADRAO = 2000;
+    // Linhas por INSERT de várias linhas (mantém o número de parâmetros bem abaixo do limite do MySQL)
+    private static final int LINHAS_POR_INSERT = 1000;
+
+    private final Connection connection;
+    private final int usuarioPropositorId;
+    private final int tamanhoLote;
+
+    public ImportadorGirias(Connection connection, int usuarioPropositorId, int tamanhoLote) {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Tamanho do lote deve ser positivo.");
+        }
+        this.connection = connection;
+        this.usuarioPropositorId = usuarioPropositorId;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Importa o arquivo.
+     * @param arquivo Arquivo {@code .csv} ou {@code .jsonl}
+     * @param checkpoint Arquivo onde é guardado o número de registros já importados; pode ser null
+     *                   para importar sem checkpoint. É apagado quando a importação termina.
+     */
+    public RelatorioImportacao importar(Path arquivo, Path checkpoint) {
+        long inicio = System.currentTimeMillis();
+        long jaImportados = lerCheckpoint(checkpoint);
+        long lidos = 0;
+        long giriasNovas = 0;
+        long explicacoesNovas = 0;
+
+        try (LeitorRegistros leitor = LeitorRegistros.abrir(arquivo)) {
+            for (long i = 0; i < jaImportados; i++) {
+                if (leitor.proximo() == null) {
+                    break;
+                }
+            }
+
+            List<RegistroImportacao> lote = new ArrayList<>(tamanhoLote);
+            RegistroImportacao registro;
+            do {
+                registro = leitor.proximo();
+                if (registro != null) {
+                    lote.add(registro);
+                }
+                if (lote.size() == tamanhoLote || (registro == null && !lote.isEmpty())) {
+                    int[] novos = importarLote(lote);
+                    giriasNovas += novos[0];
+                    explicacoesNovas += novos[1];
+                    lidos += lote.size();
+                    gravarCheckpoint(checkpoint, jaImportados + lidos);
+                    lote.clear();
+
+                    long decorrido = System.currentTimeMillis() - inicio;
+                    System.out.printf("Importados %d registros (%.0f registros/s)%n",
+                            jaImportados + lidos, RelatorioImportacao.porSegundo(lidos, decorrido));
+                }
+            } while (registro != null);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao ler arquivo de importação: " + e.getMessage(), e);
+        }
+
+        apagarCheckpoint(checkpoint);
+        return new RelatorioImportacao(lidos, jaImportados, giriasNovas, explicacoesNovas,
+                System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Grava um lote em uma transação.
+     * @return {gírias novas, explicações novas}
+     */
+    private int[] importarLote(List<RegistroImportacao> lote) {
+        // Termos repetidos no lote viram um registro só (o banco compara sem acento e sem maiúsculas)
+        Map<String, RegistroImportacao> porTermo = new LinkedHashMap<>();
+        for (RegistroImportacao registro : lote) {
+            RegistroImportacao existente = porTermo.putIfAbsent(Normalizador.normalizar(registro.termo), registro);
+            if (existente != null) {
+                existente.incorporar(registro);
+            }
+        }
+
+        try {
+            Map<String, Integer> ids = buscarIds(porTermo.values());
+            List<RegistroImportacao> novas = new ArrayList<>();
+            for (Map.Entry<String, RegistroImportacao> entrada : porTermo.entrySet()) {
+                if (!ids.containsKey(entrada.getKey())) {
+                    novas.add(entrada.getValue());
+                }
+            }
+
+            Set<Integer> giriasNovas = new HashSet<>();
+            if (!novas.isEmpty()) {
+                inserirGirias(novas);
+                Map<String, Integer> idsNovas = buscarIds(novas);
+                ids.putAll(idsNovas);
+                giriasNovas.addAll(idsNovas.values());
+            }
+
+            inserirAssociacoes(porTermo, ids, DicionarioNomes.CATEGORIAS, "giria_categoria", "categoria_id", r -> r.categorias);
+            inserirAssociacoes(porTermo, ids, DicionarioNomes.REGIOES, "giria_regiao", "regiao_id", r -> r.regioes);
+            int explicacoesNovas = inserirExplicacoes(porTermo, ids, giriasNovas);
+
+            // Gírias novas ainda não têm votos
+            GiriaDAO giriaDAO = new GiriaDAO(connection);
+            for (RegistroImportacao registro : novas) {
+                Integer id = ids.get(Normalizador.normalizar(registro.termo));
+                if (id != null) {
+                    giriaDAO.atualizarIndices(id, registro.termo, registro.aprovada, 0);
+                }
+            }
+
+            // Executa as atualizações de índice agendadas acima
+            connection.commit();
+            return new int[]{novas.size(), explicacoesNovas};
+        } catch (SQLException | RuntimeException e) {
+            ConnectionFactory.rollback(connection);
+            // Nomes criados neste lote foram desfeitos junto com ele
+            DicionarioNomes.CATEGORIAS.invalidar();
+            DicionarioNomes.REGIOES.invalidar();
+            throw new RuntimeException("Erro ao importar lote de gírias: " + e.getMessage(), e);
+        }
+    }
+
+    // Termo normalizado -> id, para os termos que existem no banco
+    private Map<String, Integer> buscarIds(Collection<RegistroImportacao> registros) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<RegistroImportacao> lista = new ArrayList<>(registros);
+        for (int inicio = 0; inicio < lista.size(); inicio += LINHAS_POR_INSERT) {
+            List<RegistroImportacao> parte = lista.subList(inicio, Math.min(lista.size(), inicio + LINHAS_POR_INSERT));
+            String sql = "SELECT id, termo FROM giria WHERE termo IN (" + String.join(", ", Collections.nCopies(parte.size(), "?")) + ")";
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parte.size(); i++) {
+                    pstm.setString(i + 1, parte.get(i).termo);
+                }
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        ids.put(Normalizador.normalizar(rst.getString("termo")), rst.getInt("id"));
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void inserirGirias(List<RegistroImportacao> novas) throws SQLException {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Object[]> linhas = new ArrayList<>(novas.size());
+        for (RegistroImportacao registro : novas) {
+            linhas.add(new Object[]{registro.termo, agora, registro.aprovada, usuarioPropositorId, agora});
+        }
+        // Um termo inserido por outra conexão entre a consulta e o INSERT não derruba o lote; ao
+        // contrário de INSERT IGNORE, erros de outro tipo (chave estrangeira, valor inválido) não são engolidos
+        inserirVariasLinhas("INSERT INTO giria (termo, data_cadastro, aprovada, usuario_propositor_id, data_criacao) VALUES ",
+                " ON DUPLICATE KEY UPDATE id = id", linhas);
+    }
+
+    private void inserirAssociacoes(Map<String, RegistroImportacao> porTermo, Map<String, Integer> ids,
+                                    DicionarioNomes dicionario, String tabela, String colunaId,
+                                    Function<RegistroImportacao, Set<String>> nomesDoRegistro) throws SQLException {
+        // Todos os nomes do lote de uma vez: um nome novo é criado uma só vez
+        Set<String> todosNomes = new LinkedHashSet<>();
+        for (RegistroImportacao registro : porTermo.values()) {
+            todosNomes.addAll(nomesDoRegistro.apply(registro));
+        }
+        Map<String, Integer> idsNomes = dicionario.resolver(connection, todosNomes);
+
+        List<Object[]> linhas = new ArrayList<>();
+        for (Map.Entry<String, RegistroImportacao> entrada : porTermo.entrySet()) {
+            Set<String> nomes = nomesDoRegistro.apply(entrada.getValue());
+            Integer giriaId = ids.get(entrada.getKey());
+            if (nomes.isEmpty() || giriaId == null) {
+                continue;
+            }
+            // Variações do mesmo nome podem resolver para o mesmo id
+            Set<Integer> idsDoRegistro = new LinkedHashSet<>();
+            for (String nome : nomes) {
+                idsDoRegistro.add(idsNomes.get(nome));
+            }
+            for (Integer id : idsDoRegistro) {
+                linhas.add(new Object[]{giriaId, id});
+            }
+        }
+        // Associações que a gíria já tinha continuam como estão
+        inserirVariasLinhas("INSERT INTO " + tabela + " (giria_id, " + colunaId + ") VALUES ",
+                " ON DUPLICATE KEY UPDATE giria_id = giria_id", linhas);
+    }
+
+    // Explicações com a mesma definição (normalizada) de outra da gíria, já cadastrada ou repetida
+    // no arquivo, são descartadas pela chave única (giria_associada_id, definicao_hash)
+    private int inserirExplicacoes(Map<String, RegistroImportacao> porTermo, Map<String, Integer> ids,
+                                   Set<Integer> giriasNovas) throws SQLException {
+        LocalDate hoje = LocalDate.now();
+        LocalDateTime agora = LocalDateTime.now();
+        List<Object[]> linhas = new ArrayList<>();
+        List<Integer> comExplicacoes = new ArrayList<>();
+        for (Map.Entry<String, RegistroImportacao> entrada : porTermo.entrySet()) {
+            RegistroImportacao registro = entrada.getValue();
+            Integer giriaId = ids.get(entrada.getKey());
+            if (giriaId == null || registro.explicacoes.isEmpty()) {
+                continue;
+            }
+            for (RegistroImportacao.ExplicacaoImportada explicacao : registro.explicacoes) {
+                linhas.add(new Object[]{explicacao.definicao, explicacao.definicao, explicacao.exemploUso, registro.aprovada,
+                        hoje, usuarioPropositorId, giriaId, agora});
+            }
+            comExplicacoes.add(giriaId);
+        }
+        if (linhas.isEmpty()) {
+            return 0;
+        }
+
+        // Com ON DUPLICATE KEY as linhas afetadas não separam as explicações novas das repetidas:
+        // novas são as que não existiam antes do INSERT (gírias novas não tinham nenhuma)
+        List<Integer> jaExistentes = new ArrayList<>(comExplicacoes);
+        jaExistentes.removeAll(giriasNovas);
+        Set<Integer> anteriores = new HashSet<>();
+        for (Object[] explicacao : buscarExplicacoes(jaExistentes, false)) {
+            anteriores.add((Integer) explicacao[0]);
+        }
+
+        inserirVariasLinhas("INSERT INTO explicacao (definicao, definicao_hash, exemplo_uso, aprovada, data_proposta, " +
+                "usuario_propositor_id, giria_associada_id, data_criacao) VALUES ",
+                "(?, " + ExplicacaoDAO.SQL_HASH_DEFINICAO + ", ?, ?, ?, ?, ?, ?)", " ON DUPLICATE KEY UPDATE id = id", linhas);
+
+        int inseridas = 0;
+        // Gírias que recebem explicações aprovadas: a melhor explicação delas pode mudar
+        Set<Integer> comAprovadas = new LinkedHashSet<>();
+        ExplicacaoDAO explicacaoDAO = new ExplicacaoDAO(connection);
+        for (Object[] explicacao : buscarExplicacoes(comExplicacoes, true)) {
+            int id = (Integer) explicacao[0];
+            if (anteriores.contains(id)) {
+                continue;
+            }
+            inseridas++;
+            if ((Boolean) explicacao[4]) {
+                explicacaoDAO.atualizarIndice(id, (String) explicacao[2], (String) explicacao[3], true);
+                comAprovadas.add((Integer) explicacao[1]);
+            }
+        }
+        if (!comAprovadas.isEmpty()) {
+            new GiriaDAO(connection).atualizarMelhoresExplicacoes(comAprovadas);
+        }
+        return inseridas;
+    }
+
+    /**
+     * Explicações das gírias, como {id, giria_associada_id, definicao, exemplo_uso, aprovada}.
+     * @param comTextos Se false, só o id e a gíria são lidos
+     */
+    private List<Object[]> buscarExplicacoes(List<Integer> giriaIds, boolean comTextos) throws SQLException {
+        List<Object[]> explicacoes = new ArrayList<>();
+        String colunas = comTextos ? "id, giria_associada_id, definicao, exemplo_uso, aprovada" : "id, giria_associada_id";
+        for (int inicio = 0; inicio < giriaIds.size(); inicio += LINHAS_POR_INSERT) {
+            List<Integer> parte = giriaIds.subList(inicio, Math.min(giriaIds.size(), inicio + LINHAS_POR_INSERT));
+            String sql = "SELECT " + colunas + " FROM explicacao WHERE giria_associada_id IN (" +
+                    String.join(", ", Collections.nCopies(parte.size(), "?")) + ")";
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parte.size(); i++) {
+                    pstm.setInt(i + 1, parte.get(i));
+                }
+                try (ResultSet rst = pstm.executeQuery()) {
+                    while (rst.next()) {
+                        explicacoes.add(comTextos
+                                ? new Object[]{rst.getInt("id"), rst.getInt("giria_associada_id"), rst.getString("definicao"),
+                                        rst.getString("exemplo_uso"), rst.getBoolean("aprovada")}
+                                : new Object[]{rst.getInt("id"), rst.getInt("giria_associada_id")});
+                    }
+                }
+            }
+        }
+        return explicacoes;
+    }
+
+    /**
+     * Executa {@code prefixo} seguido de "(?, ...), (?, ...)" com as linhas e do {@code sufixo},
+     * em INSERTs de até {@link #LINHAS_POR_INSERT} linhas cada.
+     */
+    private void inserirVariasLinhas(String prefixo, String sufixo, List<Object[]> linhas) throws SQLException {
+        if (linhas.isEmpty()) {
+            return;
+        }
+        int colunas = linhas.get(0).length;
+        inserirVariasLinhas(prefixo, "(" + String.join(", ", Collections.nCopies(colunas, "?")) + ")", sufixo, linhas);
+    }
+
+    /**
+     * Como {@link #inserirVariasLinhas(String, String, List)}, com o modelo de cada linha informado
+     * (para linhas com expressões, como o hash da definição).
+     */
+    private void inserirVariasLinhas(String prefixo, String linha, String sufixo, List<Object[]> linhas) throws SQLException {
+        for (int inicio = 0; inicio < linhas.size(); inicio += LINHAS_POR_INSERT) {
+            List<Object[]> parte = linhas.subList(inicio, Math.min(linhas.size(), inicio + LINHAS_POR_INSERT));
+            String sql = prefixo + String.join(", ", Collections.nCopies(parte.size(), linha)) + sufixo;
+
+            try (PreparedStatement pstm = connection.prepareStatement(sql)) {
+                int indice = 1;
+                for (Object[] valores : parte) {
+                    for (Object valor : valores) {
+                        pstm.setObject(indice++, valor);
+                    }
+                }
+                pstm.executeUpdate();
+            }
+        }
+    }
+
+    private static long lerCheckpoint(Path checkpoint) {
+        if (checkpoint == null || !Files.exists(checkpoint)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(checkpoint, StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            throw new RuntimeException("Erro ao ler checkpoint da importação: " + e.getMessage(), e);
+        }
+    }
+
+    private static void gravarCheckpoint(Path checkpoint, long importados) {
+        if (checkpoint == null) {
+            return;
+        }
+        try {
+            // Grava em um arquivo temporário e troca, para nunca deixar um checkpoint pela metade
+            Path temporario = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            Files.writeString(temporario, Long.toString(importados), StandardCharsets.UTF_8);
+            Files.move(temporario, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao gravar checkpoint da importação: " + e.getMessage(), e);
+        }
+    }
+
+    private static void apagarCheckpoint(Path checkpoint) {
+        if (checkpoint == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(checkpoint);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao apagar checkpoint da importação: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Uso: {@code ImportadorGirias <arquivo.csv|arquivo.jsonl> <id do usuário propositor> [tamanho do lote]}.
+     * O checkpoint fica ao lado do arquivo, com a extensão {@code .checkpoint}.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: ImportadorGirias <arquivo.csv|arquivo.jsonl> <id do usuário propositor> [tamanho do lote]");
+            return;
+        }
+        Path arquivo = Paths.get(args[0]);
+        int usuarioId = Integer.parseInt(args[1]);
+        int tamanhoLote = args.length > 2 ? Integer.parseInt(args[2]) : TAMANHO_LOTE_PADRAO;
+        Path checkpoint = arquivo.resolveSibling(arquivo.getFileName() + ".checkpoint");
+
+        try (Connection connection = ConnectionFactory.getConnection()) {
+            DicionarioNomes.CATEGORIAS.carregar(connection);
+            DicionarioNomes.REGIOES.carregar(connection);
+
+            RelatorioImportacao relatorio = new ImportadorGirias(connection, usuarioId, tamanhoLote)
+                    .importar(arquivo, checkpoint);
+            System.out.println("Importação concluída: " + relatorio);
+        } catch (SQLException e) {
+            System.err.println("Erro ao fechar conexão: " + e.getMessage());
+        } finally {
+            ConnectionFactory.closeConnection();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lê arquivos CSV com cabeçalho. Colunas reconhecidas:
+ * {@code termo} (obrigatória), {@code categorias}, {@code regioes}, {@code definicao},
+ * {@code exemplo_uso} e {@code aprovada}. Categorias e regiões vêm separadas por {@code |}.
+ * Campos entre aspas podem conter vírgulas, aspas duplicadas e quebras de linha.
+ */
+class LeitorCsv extends LeitorRegistros {
+
+    private static final String SEPARADOR_VALORES = "\\|";
+
+    private final Map<String, Integer> colunas = new HashMap<>();
+
+    LeitorCsv(BufferedReader leitor) throws IOException {
+        super(leitor);
+        List<String> cabecalho = lerCampos();
+        if (cabecalho == null) {
+            throw erro("arquivo vazio.");
+        }
+        for (int i = 0; i < cabecalho.size(); i++) {
+            colunas.put(cabecalho.get(i).trim().toLowerCase(), i);
+        }
+        if (!colunas.containsKey("termo")) {
+            throw erro("cabeçalho sem a coluna 'termo'.");
+        }
+    }
+
+    @Override
+    RegistroImportacao proximo() throws IOException {
+        List<String> campos;
+        do {
+            campos = lerCampos();
+            if (campos == null) {
+                return null;
+            }
+        } while (campos.size() == 1 && campos.get(0).isBlank());
+
+        String termo = campo(campos, "termo");
+        if (termo == null || termo.isBlank()) {
+            throw erro("termo vazio.");
+        }
+
+        RegistroImportacao registro = new RegistroImportacao(termo.trim());
+        registro.aprovada = Boolean.parseBoolean(campo(campos, "aprovada"));
+        adicionarValores(registro.categorias, campo(campos, "categorias"));
+        adicionarValores(registro.regioes, campo(campos, "regioes"));
+
+        String definicao = campo(campos, "definicao");
+        if (definicao != null && !definicao.isBlank()) {
+            String exemplo = campo(campos, "exemplo_uso");
+            registro.explicacoes.add(new RegistroImportacao.ExplicacaoImportada(definicao.trim(),
+                    exemplo == null || exemplo.isBlank() ? null : exemplo.trim()));
+        }
+        return registro;
+    }
+
+    private String campo(List<String> campos, String coluna) {
+        Integer indice = colunas.get(coluna);
+        return indice == null || indice >= campos.size() ? null : campos.get(indice);
+    }
+
+    private static void adicionarValores(Set<String> destino, String valores) {
+        if (valores == null) {
+            return;
+        }
+        for (String valor : valores.split(SEPARADOR_VALORES)) {
+            if (!valor.isBlank()) {
+                destino.add(valor.trim());
+            }
+        }
+    }
+
+    // Lê um registro CSV, que pode ocupar mais de uma linha quando há quebra de linha entre aspas
+    private List<String> lerCampos() throws IOException {
+        String linha = lerLinha();
+        if (linha == null) {
+            return null;
+        }
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        int i = 0;
+        while (true) {
+            if (i == linha.length()) {
+                if (!entreAspas) {
+                    break;
+                }
+                linha = lerLinha();
+                if (linha == null) {
+                    throw erro("aspas não fechadas no fim do arquivo.");
+                }
+                atual.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = linha.charAt(i++);
+            if (entreAspas) {
+                if (c == '"') {
+                    if (i < linha.length() && linha.charAt(i) == '"') {
+                        atual.append('"');
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+}
@@ -0,0 +1,229 @@
+package importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lê arquivos JSONL: um objeto JSON por linha, no formato
+ * <pre>
+ * {"termo": "...", "aprovada": true, "categorias": ["..."], "regioes": ["..."],
+ *  "explicacoes": [{"definicao": "...", "exemplo_uso": "..."}]}
+ * </pre>
+ * Também são aceitos {@code definicao}/{@code exemplo_uso} diretamente no objeto, para uma
+ * única explicação. Campos desconhecidos são ignorados.
+ */
+class LeitorJsonl extends LeitorRegistros {
+
+    private String texto;
+    private int posicao;
+
+    LeitorJsonl(BufferedReader leitor) {
+        super(leitor);
+    }
+
+    @Override
+    RegistroImportacao proximo() throws IOException {
+        String linha;
+        do {
+            linha = lerLinha();
+            if (linha == null) {
+                return null;
+            }
+        } while (linha.isBlank());
+
+        texto = linha;
+        posicao = 0;
+        Object valor = lerValor();
+        pularEspacos();
+        if (!(valor instanceof Map) || posicao != texto.length()) {
+            throw erro("esperado um objeto JSON por linha.");
+        }
+        Map<?, ?> objeto = (Map<?, ?>) valor;
+
+        String termo = texto(objeto.get("termo"));
+        if (termo == null || termo.isBlank()) {
+            throw erro("termo vazio.");
+        }
+
+        RegistroImportacao registro = new RegistroImportacao(termo.trim());
+        registro.aprovada = Boolean.TRUE.equals(objeto.get("aprovada"));
+        adicionarValores(registro.categorias, objeto.get("categorias"));
+        adicionarValores(registro.regioes, objeto.get("regioes"));
+
+        adicionarExplicacao(registro, objeto);
+        if (objeto.get("explicacoes") instanceof List<?> explicacoes) {
+            for (Object explicacao : explicacoes) {
+                if (explicacao instanceof Map<?, ?> mapa) {
+                    adicionarExplicacao(registro, mapa);
+                }
+            }
+        }
+        return registro;
+    }
+
+    private static void adicionarExplicacao(RegistroImportacao registro, Map<?, ?> objeto) {
+        String definicao = texto(objeto.get("definicao"));
+        if (definicao != null && !definicao.isBlank()) {
+            String exemplo = texto(objeto.get("exemplo_uso"));
+            registro.explicacoes.add(new RegistroImportacao.ExplicacaoImportada(definicao.trim(),
+                    exemplo == null || exemplo.isBlank() ? null : exemplo.trim()));
+        }
+    }
+
+    private static void adicionarValores(Set<String> destino, Object valores) {
+        if (valores instanceof List<?> lista) {
+            for (Object valor : lista) {
+                String nome = texto(valor);
+                if (nome != null && !nome.isBlank()) {
+                    destino.add(nome.trim());
+                }
+            }
+        }
+    }
+
+    private static String texto(Object valor) {
+        return valor instanceof String s ? s : null;
+    }
+
+    // Analisador JSON mínimo: objetos, listas, textos, números, booleanos e null
+
+    private Object lerValor() {
+        pularEspacos();
+        if (posicao >= texto.length()) {
+            throw erro("fim inesperado do JSON.");
+        }
+        char c = texto.charAt(posicao);
+        switch (c) {
+            case '{':
+                return lerObjeto();
+            case '[':
+                return lerLista();
+            case '"':
+                return lerTexto();
+            case 't':
+                return lerLiteral("true", Boolean.TRUE);
+            case 'f':
+                return lerLiteral("false", Boolean.FALSE);
+            case 'n':
+                return lerLiteral("null", null);
+            default:
+                return lerNumero();
+        }
+    }
+
+    private Map<String, Object> lerObjeto() {
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        posicao++;
+        pularEspacos();
+        if (consumir('}')) {
+            return objeto;
+        }
+        do {
+            pularEspacos();
+            if (posicao >= texto.length() || texto.charAt(posicao) != '"') {
+                throw erro("esperado nome de campo na coluna " + (posicao + 1) + ".");
+            }
+            String chave = lerTexto();
+            pularEspacos();
+            if (!consumir(':')) {
+                throw erro("esperado ':' na coluna " + (posicao + 1) + ".");
+            }
+            objeto.put(chave, lerValor());
+            pularEspacos();
+        } while (consumir(','));
+        if (!consumir('}')) {
+            throw erro("esperado '}' na coluna " + (posicao + 1) + ".");
+        }
+        return objeto;
+    }
+
+    private List<Object> lerLista() {
+        List<Object> lista = new ArrayList<>();
+        posicao++;
+        pularEspacos();
+        if (consumir(']')) {
+            return lista;
+        }
+        do {
+            lista.add(lerValor());
+            pularEspacos();
+        } while (consumir(','));
+        if (!consumir(']')) {
+            throw erro("esperado ']' na coluna " + (posicao + 1) + ".");
+        }
+        return lista;
+    }
+
+    private String lerTexto() {
+        StringBuilder sb = new StringBuilder();
+        posicao++;
+        while (posicao < texto.length()) {
+            char c = texto.charAt(posicao++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (posicao >= texto.length()) {
+                break;
+            }
+            char escape = texto.charAt(posicao++);
+            switch (escape) {
+                case 'n' -> sb.append('\n');
+                case 't' -> sb.append('\t');
+                case 'r' -> sb.append('\r');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if (posicao + 4 > texto.length()) {
+                        throw erro("escape \\u incompleto.");
+                    }
+                    sb.append((char) Integer.parseInt(texto.substring(posicao, posicao + 4), 16));
+                    posicao += 4;
+                }
+                default -> sb.append(escape); // \" \\ \/
+            }
+        }
+        throw erro("texto não fechado.");
+    }
+
+    private Object lerLiteral(String literal, Object valor) {
+        if (!texto.startsWith(literal, posicao)) {
+            throw erro("valor inválido na coluna " + (posicao + 1) + ".");
+        }
+        posicao += literal.length();
+        return valor;
+    }
+
+    private Object lerNumero() {
+        int inicio = posicao;
+        while (posicao < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(posicao)) >= 0) {
+            posicao++;
+        }
+        if (inicio == posicao) {
+            throw erro("valor inválido na coluna " + (posicao + 1) + ".");
+        }
+        return Double.parseDouble(texto.substring(inicio, posicao));
+    }
+
+    private boolean consumir(char esperado) {
+        if (posicao < texto.length() && texto.charAt(posicao) == esperado) {
+            posicao++;
+            return true;
+        }
+        return false;
+    }
+
+    private void pularEspacos() {
+        while (posicao < texto.length() && Character.isWhitespace(texto.charAt(posicao))) {
+            posicao++;
+        }
+    }
+}
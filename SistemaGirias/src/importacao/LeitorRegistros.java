@@ -0,0 +1,60 @@
+package importacao;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lê os registros de um arquivo de importação um a um, sem carregar o arquivo inteiro.
+ */
+abstract class LeitorRegistros implements Closeable {
+
+    protected final BufferedReader leitor;
+    // Linha física do arquivo (para mensagens de erro)
+    protected int linhaAtual;
+
+    protected LeitorRegistros(BufferedReader leitor) {
+        this.leitor = leitor;
+    }
+
+    /**
+     * Abre o leitor adequado pela extensão do arquivo ({@code .csv} ou {@code .jsonl}).
+     */
+    static LeitorRegistros abrir(Path arquivo) throws IOException {
+        String nome = arquivo.getFileName().toString().toLowerCase();
+        BufferedReader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8);
+        if (nome.endsWith(".csv")) {
+            return new LeitorCsv(leitor);
+        }
+        if (nome.endsWith(".jsonl") || nome.endsWith(".ndjson")) {
+            return new LeitorJsonl(leitor);
+        }
+        leitor.close();
+        throw new IllegalArgumentException("Formato de arquivo não suportado (use .csv ou .jsonl): " + arquivo);
+    }
+
+    /**
+     * @return O próximo registro, ou null no fim do arquivo
+     */
+    abstract RegistroImportacao proximo() throws IOException;
+
+    protected String lerLinha() throws IOException {
+        String linha = leitor.readLine();
+        if (linha != null) {
+            linhaAtual++;
+        }
+        return linha;
+    }
+
+    protected IllegalArgumentException erro(String mensagem) {
+        return new IllegalArgumentException("Linha " + linhaAtual + ": " + mensagem);
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+}
@@ -0,0 +1,45 @@
+package importacao;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Uma gíria lida do arquivo de importação, com suas categorias, regiões e explicações.
+ */
+class RegistroImportacao {
+
+    /**
+     * Explicação a ser importada junto com a gíria.
+     */
+    static final class ExplicacaoImportada {
+        final String definicao;
+        final String exemploUso;
+
+        ExplicacaoImportada(String definicao, String exemploUso) {
+            this.definicao = definicao;
+            this.exemploUso = exemploUso;
+        }
+    }
+
+    final String termo;
+    boolean aprovada;
+    final Set<String> categorias = new LinkedHashSet<>();
+    final Set<String> regioes = new LinkedHashSet<>();
+    final List<ExplicacaoImportada> explicacoes = new ArrayList<>();
+
+    RegistroImportacao(String termo) {
+        this.termo = termo;
+    }
+
+    /**
+     * Junta outro registro do mesmo termo a este (o arquivo pode repetir a gíria em várias linhas).
+     */
+    void incorporar(RegistroImportacao outro) {
+        aprovada |= outro.aprovada;
+        categorias.addAll(outro.categorias);
+        regioes.addAll(outro.regioes);
+        explicacoes.addAll(outro.explicacoes);
+    }
+}
@@ -0,0 +1,61 @@
+package importacao;
+
+/**
+ * Resumo de uma importação de gírias.
+ */
+public class RelatorioImportacao {
+    private final long registrosLidos;
+    private final long registrosPulados;
+    private final long giriasNovas;
+    private final long explicacoesNovas;
+    private final long duracaoMs;
+
+    RelatorioImportacao(long registrosLidos, long registrosPulados, long giriasNovas,
+                        long explicacoesNovas, long duracaoMs) {
+        this.registrosLidos = registrosLidos;
+        this.registrosPulados = registrosPulados;
+        this.giriasNovas = giriasNovas;
+        this.explicacoesNovas = explicacoesNovas;
+        this.duracaoMs = duracaoMs;
+    }
+
+    /**
+     * Registros processados nesta execução (sem contar os pulados pelo checkpoint).
+     */
+    public long getRegistrosLidos() {
+        return registrosLidos;
+    }
+
+    /**
+     * Registros já importados em uma execução anterior e pulados pelo checkpoint.
+     */
+    public long getRegistrosPulados() {
+        return registrosPulados;
+    }
+
+    public long getGiriasNovas() {
+        return giriasNovas;
+    }
+
+    public long getExplicacoesNovas() {
+        return explicacoesNovas;
+    }
+
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+
+    public double getRegistrosPorSegundo() {
+        return porSegundo(registrosLidos, duracaoMs);
+    }
+
+    static double porSegundo(long quantidade, long duracaoMs) {
+        return duracaoMs == 0 ? quantidade * 1000.0 : quantidade * 1000.0 / duracaoMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d registros em %.1f s (%.0f registros/s): %d gírias novas, %d explicações novas, %d pulados pelo checkpoint",
+                registrosLidos, duracaoMs / 1000.0, getRegistrosPorSegundo(), giriasNovas, explicacoesNovas, registrosPulados);
+    }
+}
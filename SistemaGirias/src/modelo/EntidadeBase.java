@@ -1,10 +1,15 @@
 package modelo;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public abstract class EntidadeBase {
     protected int id;
     protected LocalDateTime dataCriacao;
+    // Colunas alteradas desde que a entidade foi carregada ou gravada (usado pela unidade de trabalho)
+    private final Set<String> colunasAlteradas = new LinkedHashSet<>();
     
     public EntidadeBase(int id) {
         this.id = id;
@@ -30,4 +35,26 @@ public abstract class EntidadeBase {
     public void setDataCriacao(LocalDateTime dataCriacao) {
         this.dataCriacao = dataCriacao;
     }
+
+    /**
+     * Registra que a coluna correspondente a um campo foi alterada.
+     */
+    protected void marcarAlterada(String coluna) {
+        colunasAlteradas.add(coluna);
+    }
+
+    public boolean isAlterada() {
+        return !colunasAlteradas.isEmpty();
+    }
+
+    public Set<String> getColunasAlteradas() {
+        return Collections.unmodifiableSet(colunasAlteradas);
+    }
+
+    /**
+     * Marca a entidade como igual à gravada no banco (depois de carregar ou gravar).
+     */
+    public void limparAlteracoes() {
+        colunasAlteradas.clear();
+    }
 }
@@ -12,6 +12,10 @@ public class Explicacao extends EntidadeBase implements Avaliavel {
     private Usuario usuarioPropositor;
     private Giria giriaAssociada;
     private List<Voto> votos;
+    // Contadores gravados na tabela explicacao (mantidos pelo VotoDAO); só valem se contadoresCarregados
+    private int positivos;
+    private int negativos;
+    private boolean contadoresCarregados;
     
     public Explicacao() {
         super();
@@ -45,7 +49,7 @@ public class Explicacao extends EntidadeBase implements Avaliavel {
     
     @Override
     public void adicionarVoto(Voto voto) {
-        if (voto.getTipoObjetoAvaliado().equals("EXPLICACAO") && voto.getObjetoAvaliadoId() == this.id) {
+        if (voto.getTipoObjetoAvaliado() == TipoObjetoAvaliado.EXPLICACAO && voto.getObjetoAvaliadoId() == this.id) {
             votos.add(voto);
             if (voto.isPositivo()) {
                 usuarioPropositor.incrementarReputacao();
@@ -57,6 +61,10 @@ public class Explicacao extends EntidadeBase implements Avaliavel {
     
     @Override
     public int getPontuacaoVotos() {
+        // Carregada do banco: usa os contadores, sem depender de a lista de votos estar carregada
+        if (contadoresCarregados) {
+            return positivos - negativos;
+        }
         int pontuacao = 0;
         for (Voto voto : votos) {
             if (voto.isPositivo()) {
@@ -82,13 +90,16 @@ public class Explicacao extends EntidadeBase implements Avaliavel {
 
     public void setAprovada(boolean aprovada) {
         this.aprovada = aprovada;
+        marcarAlterada("aprovada");
     }
 
     public void aprovar() {
         this.aprovada = true;
+        marcarAlterada("aprovada");
     }
     public void desaprovar() {
         this.aprovada = false;
+        marcarAlterada("aprovada");
         usuarioPropositor.decrementarReputacao();
     }
 
@@ -98,6 +109,7 @@ public class Explicacao extends EntidadeBase implements Avaliavel {
 
     public void setDataProposta(LocalDate dataProposta) {
         this.dataProposta = dataProposta;
+        marcarAlterada("data_proposta");
     }
 
     public Usuario getUsuarioPropositor() {
@@ -109,7 +121,24 @@ public class Explicacao extends EntidadeBase implements Avaliavel {
     }
 
     public void setGiriaAssociada(Giria giriaAssociada) {
+        if (this.giriaAssociada != giriaAssociada) {
+            marcarAlterada("giria_associada_id");
+        }
         this.giriaAssociada = giriaAssociada;
     }
 
+    public int getPositivos() {
+        return positivos;
+    }
+
+    public int getNegativos() {
+        return negativos;
+    }
+
+    // Usado pelo DAO ao carregar a entidade
+    public void setContadoresVotos(int positivos, int negativos) {
+        this.positivos = positivos;
+        this.negativos = negativos;
+        this.contadoresCarregados = true;
+    }
 }
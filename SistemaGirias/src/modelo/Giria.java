@@ -12,9 +12,19 @@ public class Giria extends EntidadeBase implements Avaliavel {
     private boolean aprovada;
     private Usuario usuarioPropositor;
     private List<Voto> votos;
+    // Contadores gravados na tabela giria (mantidos pelo VotoDAO); só valem se contadoresCarregados
+    private int positivos;
+    private int negativos;
+    private boolean contadoresCarregados;
     private List<Explicacao> explicacoes;
+    // Explicação aprovada mais bem votada (carregada só por GiriaDAO.buscarComMelhorExplicacao)
+    private Explicacao melhorExplicacao;
     private Set<String> categorias;
     private Set<String> regioes;
+    // Categorias e regiões como estão gravadas no banco (null enquanto não foram carregadas);
+    // o DAO compara com as atuais para gravar só o que mudou
+    private Set<String> categoriasPersistidas;
+    private Set<String> regioesPersistidas;
     
     public Giria() {
         super();
@@ -69,7 +79,7 @@ public class Giria extends EntidadeBase implements Avaliavel {
     
     @Override
     public void adicionarVoto(Voto voto) {
-        if (voto.getTipoObjetoAvaliado().equals("GIRIA") && voto.getObjetoAvaliadoId() == this.id) {
+        if (voto.getTipoObjetoAvaliado() == TipoObjetoAvaliado.GIRIA && voto.getObjetoAvaliadoId() == this.id) {
             votos.add(voto);
             if (voto.isPositivo()) {
                 usuarioPropositor.incrementarReputacao();
@@ -81,6 +91,10 @@ public class Giria extends EntidadeBase implements Avaliavel {
     
     @Override
     public int getPontuacaoVotos() {
+        // Carregada do banco: usa os contadores, sem depender de a lista de votos estar carregada
+        if (contadoresCarregados) {
+            return positivos - negativos;
+        }
         int pontuacao = 0;
         for (Voto voto : votos) {
             if (voto.isPositivo()) {
@@ -123,6 +137,7 @@ public class Giria extends EntidadeBase implements Avaliavel {
     
     public void setTermo(String termo) {
         this.termo = termo;
+        marcarAlterada("termo");
     }
     
     public LocalDateTime getDataCadastro() {
@@ -135,15 +150,18 @@ public class Giria extends EntidadeBase implements Avaliavel {
     
     public void setAprovada(boolean aprovada) {
         this.aprovada = aprovada;
+        marcarAlterada("aprovada");
     }
 
     public void desaprovar() {
         this.aprovada = false;
+        marcarAlterada("aprovada");
         usuarioPropositor.decrementarReputacao();
     }
 
     public void aprovar() {
         this.aprovada = true;
+        marcarAlterada("aprovada");
     }
     
     public Usuario getUsuarioPropositor() {
@@ -152,6 +170,7 @@ public class Giria extends EntidadeBase implements Avaliavel {
     
     public void setUsuarioPropositor(Usuario usuarioPropositor) {
         this.usuarioPropositor = usuarioPropositor;
+        marcarAlterada("usuario_propositor_id");
     }
     
     public List<Voto> getVotos() {
@@ -169,4 +188,46 @@ public class Giria extends EntidadeBase implements Avaliavel {
     public Set<String> getRegioes() {
         return regioes;
     }
+
+    public Set<String> getCategoriasPersistidas() {
+        return categoriasPersistidas;
+    }
+
+    public Set<String> getRegioesPersistidas() {
+        return regioesPersistidas;
+    }
+
+    // Usado pelo DAO depois de carregar ou gravar as categorias e regiões
+    public void marcarAssociacoesPersistidas() {
+        this.categoriasPersistidas = new HashSet<>(categorias);
+        this.regioesPersistidas = new HashSet<>(regioes);
+    }
+
+    public int getPositivos() {
+        return positivos;
+    }
+
+    public int getNegativos() {
+        return negativos;
+    }
+
+    public boolean isContadoresCarregados() {
+        return contadoresCarregados;
+    }
+
+    public Explicacao getMelhorExplicacao() {
+        return melhorExplicacao;
+    }
+
+    // Usado pelo DAO ao carregar a entidade
+    public void setMelhorExplicacao(Explicacao melhorExplicacao) {
+        this.melhorExplicacao = melhorExplicacao;
+    }
+
+    // Usado pelo DAO ao carregar a entidade
+    public void setContadoresVotos(int positivos, int negativos) {
+        this.positivos = positivos;
+        this.negativos = negativos;
+        this.contadoresCarregados = true;
+    }
 }
@@ -0,0 +1,29 @@
+package modelo;
+
+/**
+ * Tipo do objeto que recebe um voto. No banco é gravado como o código de 1 byte
+ * (coluna voto.tipo_objeto_avaliado).
+ */
+public enum TipoObjetoAvaliado {
+    GIRIA((byte) 1),
+    EXPLICACAO((byte) 2);
+
+    private final byte codigo;
+
+    TipoObjetoAvaliado(byte codigo) {
+        this.codigo = codigo;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    public static TipoObjetoAvaliado deCodigo(int codigo) {
+        for (TipoObjetoAvaliado tipo : values()) {
+            if (tipo.codigo == codigo) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Código de tipo de objeto avaliado inválido: " + codigo);
+    }
+}
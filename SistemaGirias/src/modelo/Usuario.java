@@ -67,6 +67,8 @@ public class Usuario extends EntidadeBase {
         return reputacao;
     }
     
+    // A reputação não entra nas colunas alteradas: no banco ela só muda pela variação
+    // atômica gravada pelo VotoDAO junto com cada voto
     public void incrementarReputacao() {
         this.reputacao++;
     }
@@ -7,14 +7,14 @@ public class Voto extends EntidadeBase {
     private LocalDateTime dataVoto;
     private Usuario usuarioVotante;
     private int objetoAvaliadoId;
-    private String tipoObjetoAvaliado;
+    private TipoObjetoAvaliado tipoObjetoAvaliado;
     
     public Voto() {
         super();
         this.dataVoto = LocalDateTime.now();
     }
     
-    public Voto(int id, EnumVoto tipo, Usuario usuarioVotante, int objetoAvaliadoId, String tipoObjetoAvaliado) {
+    public Voto(int id, EnumVoto tipo, Usuario usuarioVotante, int objetoAvaliadoId, TipoObjetoAvaliado tipoObjetoAvaliado) {
         super(id);
         this.tipo = tipo;
         this.dataVoto = LocalDateTime.now();
@@ -28,8 +28,7 @@ public class Voto extends EntidadeBase {
         return tipo != null && 
                usuarioVotante != null && 
                objetoAvaliadoId > 0 && 
-               tipoObjetoAvaliado != null && !tipoObjetoAvaliado.trim().isEmpty() && 
-               ("GIRIA".equals(tipoObjetoAvaliado) || "EXPLICACAO".equals(tipoObjetoAvaliado));
+               tipoObjetoAvaliado != null;
     }
     
     @Override
@@ -52,6 +51,7 @@ public class Voto extends EntidadeBase {
 
     public void setDataVoto(LocalDateTime dataVoto) {
         this.dataVoto = dataVoto;
+        marcarAlterada("data_voto");
     }
 
     public Usuario getUsuarioVotante() {
@@ -62,7 +62,7 @@ public class Voto extends EntidadeBase {
         return objetoAvaliadoId;
     }
 
-    public String getTipoObjetoAvaliado() {
+    public TipoObjetoAvaliado getTipoObjetoAvaliado() {
         return tipoObjetoAvaliado;
     }
 }
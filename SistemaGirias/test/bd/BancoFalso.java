@@ -0,0 +1,642 @@
+package bd;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Banco de dados falso para os testes: conexões JDBC que respondem às consultas com as linhas
+ * registradas pelo teste e contam os statements preparados e os comandos executados.
+ *
+ * Cada consulta é respondida pela primeira resposta registrada cujo trecho aparece no SQL
+ * (sem resposta: nenhuma linha); cada comando de escrita, pela primeira atualização registrada
+ * (sem atualização: 1 linha afetada). Colunas que a linha não tem são lidas como null.
+ *
+ * Também atende URLs {@code jdbc:falso:<nome>} pelo {@link DriverManager}, para os testes do pool.
+ *
+ * Como o driver do MySQL, um executeBatch custa uma ida ao banco por linha do lote, a não ser que
+ * a conexão tenha {@code rewriteBatchedStatements=true}: aí um lote de INSERT é uma única ida, e
+ * os demais lotes também, quando têm mais de 3 linhas (viram um multi-statement).
+ */
+public class BancoFalso {
+
+    /**
+     * Linhas devolvidas para uma consulta.
+     */
+    public interface Resposta {
+        List<Map<String, Object>> linhas(String sql, List<Object> parametros);
+    }
+
+    /**
+     * Quantidade de linhas afetadas por um comando de escrita.
+     */
+    public interface Atualizacao {
+        int executar(String sql, List<Object> parametros);
+    }
+
+    /**
+     * Chave informada pelo banco após um comando de escrita (null: nenhuma, como um insert_id 0).
+     */
+    public interface ChaveGerada {
+        Object chave(String sql, List<Object> parametros);
+    }
+
+    private static final String PREFIXO_URL = "jdbc:falso:";
+    private static final Map<String, BancoFalso> REGISTRADOS = new ConcurrentHashMap<>();
+
+    static {
+        try {
+            DriverManager.registerDriver(new DriverFalso());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final List<Object[]> respostas = new CopyOnWriteArrayList<>();
+    private final List<Object[]> atualizacoes = new CopyOnWriteArrayList<>();
+    private final List<Object[]> geradoresChave = new CopyOnWriteArrayList<>();
+    private final List<String> executados = new CopyOnWriteArrayList<>();
+    private final AtomicInteger preparados = new AtomicInteger();
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger conexoesAbertas = new AtomicInteger();
+    private final AtomicInteger conexoesCriadas = new AtomicInteger();
+    private final AtomicInteger proximaChave = new AtomicInteger(1000);
+    private volatile long latenciaExecucaoMicros;
+    private volatile long latenciaPreparoMicros;
+    private volatile boolean conexoesValidas = true;
+
+    /**
+     * Registra o banco para URLs {@code jdbc:falso:<nome>}.
+     * @return A URL do banco
+     */
+    public String registrar(String nome) {
+        REGISTRADOS.put(nome, this);
+        return PREFIXO_URL + nome;
+    }
+
+    public BancoFalso responder(String trechoSql, Resposta resposta) {
+        respostas.add(new Object[]{trechoSql, resposta});
+        return this;
+    }
+
+    public BancoFalso responder(String trechoSql, List<Map<String, Object>> linhas) {
+        return responder(trechoSql, (sql, parametros) -> linhas);
+    }
+
+    public BancoFalso aoAtualizar(String trechoSql, Atualizacao atualizacao) {
+        atualizacoes.add(new Object[]{trechoSql, atualizacao});
+        return this;
+    }
+
+    /**
+     * Decide a chave gerada pelos comandos que contêm o trecho, chamada depois da atualização
+     * correspondente (sem registro: uma chave nova sempre que alguma linha é afetada).
+     */
+    public BancoFalso aoGerarChave(String trechoSql, ChaveGerada chaveGerada) {
+        geradoresChave.add(new Object[]{trechoSql, chaveGerada});
+        return this;
+    }
+
+    /**
+     * Monta uma linha a partir de pares coluna, valor.
+     */
+    public static Map<String, Object> linha(Object... colunasEValores) {
+        Map<String, Object> linha = new LinkedHashMap<>();
+        for (int i = 0; i < colunasEValores.length; i += 2) {
+            linha.put(((String) colunasEValores[i]).toLowerCase(Locale.ROOT), colunasEValores[i + 1]);
+        }
+        return linha;
+    }
+
+    /**
+     * Simula a ida ao banco em cada execução (e, separadamente, em cada preparo de statement).
+     */
+    public void setLatencia(long execucaoMicros, long preparoMicros) {
+        this.latenciaExecucaoMicros = execucaoMicros;
+        this.latenciaPreparoMicros = preparoMicros;
+    }
+
+    /**
+     * O que {@code isValid} responde nas conexões abertas (false simula conexões derrubadas pelo servidor).
+     */
+    public void setConexoesValidas(boolean conexoesValidas) {
+        this.conexoesValidas = conexoesValidas;
+    }
+
+    public int getComandosExecutados() {
+        return executados.size();
+    }
+
+    public List<String> getSqlExecutados() {
+        return new ArrayList<>(executados);
+    }
+
+    public int contarExecutados(String trechoSql) {
+        int total = 0;
+        for (String sql : executados) {
+            if (sql.contains(trechoSql)) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    public int getCommits() {
+        return commits.get();
+    }
+
+    public int getStatementsPreparados() {
+        return preparados.get();
+    }
+
+    public int getConexoesAbertas() {
+        return conexoesAbertas.get();
+    }
+
+    public int getConexoesCriadas() {
+        return conexoesCriadas.get();
+    }
+
+    public void zerarContagem() {
+        executados.clear();
+        preparados.set(0);
+    }
+
+    /**
+     * Abre uma conexão configurada como as da aplicação ({@link ConnectionFactory#PROPRIEDADES_URL}).
+     */
+    public Connection conectar() {
+        return conectar(ConnectionFactory.PROPRIEDADES_URL);
+    }
+
+    /**
+     * Abre uma conexão com as propriedades dadas, no formato da URL ({@code a=b&c=d}).
+     */
+    public Connection conectar(String propriedades) {
+        conexoesCriadas.incrementAndGet();
+        conexoesAbertas.incrementAndGet();
+        boolean reescreverLotes = List.of(propriedades.split("&")).contains("rewriteBatchedStatements=true");
+        return (Connection) Proxy.newProxyInstance(BancoFalso.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConexaoFalsa(reescreverLotes));
+    }
+
+    private List<Map<String, Object>> consultar(String sql, List<Object> parametros) {
+        registrarExecucao(sql);
+        for (Object[] resposta : respostas) {
+            if (sql.contains((String) resposta[0])) {
+                return ((Resposta) resposta[1]).linhas(sql, parametros);
+            }
+        }
+        return List.of();
+    }
+
+    private int atualizar(String sql, List<Object> parametros) {
+        for (Object[] atualizacao : atualizacoes) {
+            if (sql.contains((String) atualizacao[0])) {
+                return ((Atualizacao) atualizacao[1]).executar(sql, parametros);
+            }
+        }
+        return 1;
+    }
+
+    private void registrarExecucao(String sql) {
+        executados.add(sql);
+        esperar(latenciaExecucaoMicros);
+    }
+
+    private static void esperar(long micros) {
+        if (micros <= 0) {
+            return;
+        }
+        long fim = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(micros);
+        long restante;
+        while ((restante = fim - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(restante);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static boolean isConsulta(String sql) {
+        String inicio = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return inicio.startsWith("SELECT") || inicio.startsWith("WITH");
+    }
+
+    private static Object padrao(Class<?> tipo) {
+        if (tipo == boolean.class) {
+            return false;
+        }
+        if (tipo == int.class) {
+            return 0;
+        }
+        if (tipo == long.class) {
+            return 0L;
+        }
+        if (tipo == byte.class) {
+            return (byte) 0;
+        }
+        if (tipo == double.class) {
+            return 0.0;
+        }
+        return null;
+    }
+
+    private class ConexaoFalsa implements InvocationHandler {
+        private final boolean reescreverLotes;
+        private boolean fechada;
+        private boolean autoCommit = true;
+        private boolean somenteLeitura;
+
+        private ConexaoFalsa(boolean reescreverLotes) {
+            this.reescreverLotes = reescreverLotes;
+        }
+
+        @Override
+        public Object invoke(Object proxy, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    if (fechada) {
+                        throw new SQLException("Conexão fechada.");
+                    }
+                    preparados.incrementAndGet();
+                    esperar(latenciaPreparoMicros);
+                    boolean chaves = args.length == 2 && args[1] instanceof Integer
+                            && (Integer) args[1] == Statement.RETURN_GENERATED_KEYS;
+                    return (PreparedStatement) Proxy.newProxyInstance(BancoFalso.class.getClassLoader(),
+                            new Class<?>[]{PreparedStatement.class}, new StatementFalso((Connection) proxy, (String) args[0], chaves, reescreverLotes));
+                case "close":
+                    if (!fechada) {
+                        fechada = true;
+                        conexoesAbertas.decrementAndGet();
+                    }
+                    return null;
+                case "isClosed":
+                    return fechada;
+                case "isValid":
+                    return !fechada && conexoesValidas;
+                case "setAutoCommit":
+                    autoCommit = (Boolean) args[0];
+                    return null;
+                case "getAutoCommit":
+                    return autoCommit;
+                case "setReadOnly":
+                    somenteLeitura = (Boolean) args[0];
+                    return null;
+                case "isReadOnly":
+                    return somenteLeitura;
+                case "commit":
+                    commits.incrementAndGet();
+                    return null;
+                case "rollback":
+                case "clearWarnings":
+                case "setTransactionIsolation":
+                    return null;
+                case "getWarnings":
+                    return null;
+                case "isWrapperFor":
+                    return false;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexaoFalsa@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    throw new SQLFeatureNotSupportedException("BancoFalso: Connection." + method.getName());
+            }
+        }
+    }
+
+    private class StatementFalso implements InvocationHandler {
+        private final Connection conexao;
+        private final String sql;
+        private final boolean chavesGeradas;
+        private final boolean reescreverLotes;
+        private final TreeMap<Integer, Object> parametros = new TreeMap<>();
+        private final List<List<Object>> lote = new ArrayList<>();
+        private ResultSet resultado;
+        private int linhasAfetadas = -1;
+        private List<Map<String, Object>> chaves = List.of();
+        private boolean fechado;
+        private int fetchSize;
+        private int maxRows;
+        private int queryTimeout;
+        private int maxFieldSize;
+        private int fetchDirection = ResultSet.FETCH_FORWARD;
+
+        private StatementFalso(Connection conexao, String sql, boolean chavesGeradas, boolean reescreverLotes) {
+            this.conexao = conexao;
+            this.sql = sql;
+            this.chavesGeradas = chavesGeradas;
+            this.reescreverLotes = reescreverLotes;
+        }
+
+        @Override
+        public Object invoke(Object proxy, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+            if (nome.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parametros.put((Integer) args[0], nome.equals("setNull") ? null : args[1]);
+                return null;
+            }
+            switch (nome) {
+                case "executeQuery":
+                    resultado = criarResultSet(consultar(sql, parametrosAtuais()), (Statement) proxy);
+                    return resultado;
+                case "execute":
+                    if (isConsulta(sql)) {
+                        resultado = criarResultSet(consultar(sql, parametrosAtuais()), (Statement) proxy);
+                        return true;
+                    }
+                    linhasAfetadas = executarAtualizacao(parametrosAtuais());
+                    return false;
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    int linhas = executarAtualizacao(parametrosAtuais());
+                    return nome.equals("executeUpdate") ? (Object) linhas : (Object) (long) linhas;
+                case "addBatch":
+                    lote.add(parametrosAtuais());
+                    return null;
+                case "executeBatch":
+                    int idas = !lote.isEmpty() && reescreverLotes
+                            && (sql.stripLeading().toUpperCase(Locale.ROOT).startsWith("INSERT") || lote.size() > 3)
+                            ? 1 : lote.size();
+                    for (int i = 0; i < idas; i++) {
+                        registrarExecucao(sql);
+                    }
+                    int[] contagens = new int[lote.size()];
+                    List<Map<String, Object>> chavesLote = new ArrayList<>();
+                    for (int i = 0; i < lote.size(); i++) {
+                        contagens[i] = atualizar(sql, lote.get(i));
+                        if (chavesGeradas && contagens[i] > 0) {
+                            chavesLote.add(linha("id", proximaChave.getAndIncrement()));
+                        }
+                    }
+                    chaves = chavesLote;
+                    lote.clear();
+                    return contagens;
+                case "clearBatch":
+                    lote.clear();
+                    return null;
+                case "clearParameters":
+                    parametros.clear();
+                    return null;
+                case "getResultSet":
+                    return resultado;
+                case "getUpdateCount":
+                    return linhasAfetadas;
+                case "getMoreResults":
+                    return false;
+                case "getGeneratedKeys":
+                    return criarResultSet(chaves, (Statement) proxy);
+                case "getConnection":
+                    return conexao;
+                case "close":
+                    fechado = true;
+                    return null;
+                case "isClosed":
+                    return fechado;
+                case "setFetchSize":
+                    fetchSize = (Integer) args[0];
+                    return null;
+                case "getFetchSize":
+                    return fetchSize;
+                case "setMaxRows":
+                    maxRows = (Integer) args[0];
+                    return null;
+                case "getMaxRows":
+                    return maxRows;
+                case "setQueryTimeout":
+                    queryTimeout = (Integer) args[0];
+                    return null;
+                case "getQueryTimeout":
+                    return queryTimeout;
+                case "setMaxFieldSize":
+                    maxFieldSize = (Integer) args[0];
+                    return null;
+                case "getMaxFieldSize":
+                    return maxFieldSize;
+                case "setFetchDirection":
+                    fetchDirection = (Integer) args[0];
+                    return null;
+                case "getFetchDirection":
+                    return fetchDirection;
+                case "getWarnings":
+                case "clearWarnings":
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "StatementFalso[" + sql + "]";
+                default:
+                    throw new SQLFeatureNotSupportedException("BancoFalso: PreparedStatement." + nome);
+            }
+        }
+
+        private List<Object> parametrosAtuais() {
+            return new ArrayList<>(parametros.values());
+        }
+
+        private int executarAtualizacao(List<Object> valores) {
+            registrarExecucao(sql);
+            int linhas = atualizar(sql, valores);
+            chaves = chavesGeradas ? chavesDoComando(linhas, valores) : List.of();
+            return linhas;
+        }
+
+        private List<Map<String, Object>> chavesDoComando(int linhas, List<Object> valores) {
+            for (Object[] chaveGerada : geradoresChave) {
+                if (sql.contains((String) chaveGerada[0])) {
+                    Object chave = ((ChaveGerada) chaveGerada[1]).chave(sql, valores);
+                    return chave == null ? List.of() : List.of(linha("id", chave));
+                }
+            }
+            return linhas > 0 ? List.of(linha("id", proximaChave.getAndIncrement())) : List.of();
+        }
+    }
+
+    private static ResultSet criarResultSet(List<Map<String, Object>> linhas, Statement statement) {
+        return (ResultSet) Proxy.newProxyInstance(BancoFalso.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new ResultSetFalso(linhas, statement));
+    }
+
+    private static class ResultSetFalso implements InvocationHandler {
+        private final List<Map<String, Object>> linhas;
+        private final Statement statement;
+        private int posicao = -1;
+        private boolean fechado;
+        private boolean ultimoNulo;
+
+        private ResultSetFalso(List<Map<String, Object>> linhas, Statement statement) {
+            this.linhas = linhas == null ? Collections.emptyList() : linhas;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+            switch (nome) {
+                case "next":
+                    if (fechado) {
+                        throw new SQLException("ResultSet fechado.");
+                    }
+                    posicao++;
+                    return posicao < linhas.size();
+                case "close":
+                    fechado = true;
+                    return null;
+                case "isClosed":
+                    return fechado;
+                case "wasNull":
+                    return ultimoNulo;
+                case "getStatement":
+                    return statement;
+                case "setFetchSize":
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ResultSetFalso" + linhas;
+                default:
+                    break;
+            }
+            if (!nome.startsWith("get") || args == null || args.length == 0) {
+                throw new SQLFeatureNotSupportedException("BancoFalso: ResultSet." + nome);
+            }
+            if (posicao < 0 || posicao >= linhas.size()) {
+                throw new SQLException("ResultSet fora de uma linha.");
+            }
+            Object valor = valor(linhas.get(posicao), args[0]);
+            ultimoNulo = valor == null;
+            if (valor == null) {
+                return padrao(method.getReturnType());
+            }
+            Class<?> tipo = nome.equals("getObject") && args.length == 2 ? (Class<?>) args[1] : method.getReturnType();
+            return converter(valor, tipo);
+        }
+
+        private static Object valor(Map<String, Object> linha, Object coluna) {
+            if (coluna instanceof Integer) {
+                int indice = (Integer) coluna;
+                int i = 1;
+                for (Object valor : linha.values()) {
+                    if (i++ == indice) {
+                        return valor;
+                    }
+                }
+                return null;
+            }
+            return linha.get(((String) coluna).toLowerCase(Locale.ROOT));
+        }
+
+        private static Object converter(Object valor, Class<?> tipo) {
+            if (tipo == Object.class || tipo.isInstance(valor)) {
+                return valor;
+            }
+            if (valor instanceof Number) {
+                Number numero = (Number) valor;
+                if (tipo == int.class || tipo == Integer.class) {
+                    return numero.intValue();
+                }
+                if (tipo == long.class || tipo == Long.class) {
+                    return numero.longValue();
+                }
+                if (tipo == byte.class || tipo == Byte.class) {
+                    return numero.byteValue();
+                }
+                if (tipo == double.class || tipo == Double.class) {
+                    return numero.doubleValue();
+                }
+                if (tipo == boolean.class || tipo == Boolean.class) {
+                    return numero.intValue() != 0;
+                }
+                if (tipo == BigDecimal.class) {
+                    return new BigDecimal(numero.toString());
+                }
+            }
+            if (valor instanceof Boolean && (tipo == int.class || tipo == Integer.class)) {
+                return (Boolean) valor ? 1 : 0;
+            }
+            if (valor instanceof LocalDateTime && tipo == LocalDate.class) {
+                return ((LocalDateTime) valor).toLocalDate();
+            }
+            if (tipo == String.class) {
+                return String.valueOf(valor);
+            }
+            return valor;
+        }
+    }
+
+    private static class DriverFalso implements Driver {
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            String resto = url.substring(PREFIXO_URL.length());
+            int interrogacao = resto.indexOf('?');
+            BancoFalso banco = REGISTRADOS.get(interrogacao < 0 ? resto : resto.substring(0, interrogacao));
+            return banco == null ? null : banco.conectar(interrogacao < 0 ? "" : resto.substring(interrogacao + 1));
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith(PREFIXO_URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
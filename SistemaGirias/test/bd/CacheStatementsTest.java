@@ -0,0 +1,94 @@
+package bd;
+
+import dao.GiriaDAO;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheStatementsTest {
+
+    private static final String SQL = "SELECT id FROM giria WHERE id = ?";
+    private static final int REPETICOES = 50;
+
+    @Test
+    void statementDevolvidoVoltaComoFoiPreparado() throws SQLException {
+        BancoFalso banco = new BancoFalso();
+        banco.responder("FROM giria", List.of(linha("id", 1), linha("id", 2)));
+        PoolConexoes pool = new PoolConexoes(banco.registrar("cache-estado"), "", "", 0, 1, 1_000, 60_000, 0, 16);
+        try (Connection connection = pool.obterConexao()) {
+            ResultSet esquecido;
+            try (PreparedStatement pstm = connection.prepareStatement(SQL)) {
+                pstm.setFetchSize(500);
+                pstm.setMaxRows(10);
+                pstm.setQueryTimeout(3);
+                pstm.setInt(1, 1);
+                esquecido = pstm.executeQuery();
+                esquecido.next();
+            }
+
+            try (PreparedStatement pstm = connection.prepareStatement(SQL)) {
+                assertEquals(1, pool.getAcertosCacheStatements());
+                assertEquals(0, pstm.getFetchSize());
+                assertEquals(0, pstm.getMaxRows());
+                assertEquals(0, pstm.getQueryTimeout());
+            }
+            assertTrue(esquecido.isClosed(), "ResultSet deixado aberto deveria ser fechado na devolução");
+            assertEquals(1, banco.getStatementsPreparados());
+        } finally {
+            pool.fechar();
+        }
+    }
+
+    @Test
+    void mesmoSqlEmUsoGeraStatementAvulso() throws SQLException {
+        BancoFalso banco = new BancoFalso();
+        PoolConexoes pool = new PoolConexoes(banco.registrar("cache-aninhado"), "", "", 0, 1, 1_000, 60_000, 0, 16);
+        try (Connection connection = pool.obterConexao();
+             PreparedStatement externo = connection.prepareStatement(SQL);
+             PreparedStatement interno = connection.prepareStatement(SQL)) {
+            assertNotNull(externo);
+            assertNotNull(interno);
+            assertEquals(2, banco.getStatementsPreparados());
+            assertEquals(2, pool.getFalhasCacheStatements());
+        } finally {
+            pool.fechar();
+        }
+    }
+
+    @Test
+    void buscarPorIdPreparaOStatementUmaSoVezComOCache() throws SQLException {
+        BancoFalso semCache = new BancoFalso();
+        buscarPorIdRepetidamente(semCache, 0);
+        BancoFalso comCache = new BancoFalso();
+        buscarPorIdRepetidamente(comCache, 64);
+
+        // Gíria, categorias e regiões: sem cache, três preparos no servidor por chamada; com cache, só na primeira
+        assertEquals(3 * REPETICOES, semCache.getStatementsPreparados());
+        assertEquals(3, comCache.getStatementsPreparados());
+        assertEquals(REPETICOES, comCache.contarExecutados("FROM giria g"));
+    }
+
+    private static void buscarPorIdRepetidamente(BancoFalso banco, int tamanhoCache) throws SQLException {
+        banco.responder("FROM giria g", List.of(linha("id", 1, "termo", "mano do céu",
+                "data_cadastro", LocalDateTime.now(), "aprovada", true, "usuario_id", 1, "nome", "Autor")));
+        PoolConexoes pool = new PoolConexoes(banco.registrar("cache-" + tamanhoCache), "", "", 0, 1, 1_000, 60_000, 0, tamanhoCache);
+        try (Connection connection = pool.obterConexao()) {
+            GiriaDAO giriaDAO = new GiriaDAO(connection);
+            for (int i = 0; i < REPETICOES; i++) {
+                assertNotNull(giriaDAO.buscarPorId(1));
+            }
+        } finally {
+            pool.fechar();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package bd;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PoolConexoesTest {
+
+    private static final int THREADS = 8;
+    private static final int LEITURAS_POR_THREAD = 40;
+
+    @Test
+    @Tag("benchmark")
+    void leiturasConcorrentesEscalamComOTamanhoDoPool() throws Exception {
+        BancoFalso banco = new BancoFalso();
+        banco.setLatencia(2_000, 0); // 2 ms por consulta
+        String url = banco.registrar("vazao");
+
+        long comUmaConexao = medirLeituras(url, 1);
+        long comOitoConexoes = medirLeituras(url, THREADS);
+
+        // Com uma conexão as leituras ficam em fila; com oito, rodam em paralelo
+        assertTrue(comOitoConexoes * 3 < comUmaConexao,
+                "Esperava vazão ao menos 3x maior com 8 conexões: " + comUmaConexao + " ms x " + comOitoConexoes + " ms");
+    }
+
+    @Test
+    void aquisicaoFalhaDepoisDoTimeoutQuandoOPoolEstaEsgotado() throws SQLException {
+        PoolConexoes pool = new PoolConexoes(new BancoFalso().registrar("esgotado"), "", "",
+                0, 1, 100, 60_000, 0, 0);
+        try {
+            Connection emprestada = pool.obterConexao();
+            long inicio = System.currentTimeMillis();
+            assertThrows(SQLException.class, pool::obterConexao);
+            assertTrue(System.currentTimeMillis() - inicio >= 100);
+            emprestada.close();
+        } finally {
+            pool.fechar();
+        }
+    }
+
+    @Test
+    void conexaoDevolvidaEReaproveitada() throws SQLException {
+        BancoFalso banco = new BancoFalso();
+        PoolConexoes pool = new PoolConexoes(banco.registrar("reuso"), "", "", 0, 2, 1_000, 60_000, 0, 0);
+        try {
+            Connection primeira = pool.obterConexao();
+            primeira.close();
+            Connection segunda = pool.obterConexao();
+            assertNotSame(primeira, segunda);
+            assertTrue(primeira.isClosed());
+            segunda.close();
+            assertEquals(1, banco.getConexoesCriadas());
+        } finally {
+            pool.fechar();
+        }
+    }
+
+    @Test
+    void zeladorTrocaConexoesOciosasDerrubadasPeloServidor() throws Exception {
+        BancoFalso banco = new BancoFalso();
+        PoolConexoes pool = new PoolConexoes(banco.registrar("ociosas"), "", "", 1, 2, 1_000, 50, 0, 0);
+        try {
+            pool.obterConexao().close();
+            assertEquals(1, banco.getConexoesCriadas());
+
+            // wait_timeout do servidor: a conexão ociosa morre sem o cliente saber
+            banco.setConexoesValidas(false);
+            long limite = System.currentTimeMillis() + 5_000;
+            while (banco.getConexoesCriadas() < 2 && System.currentTimeMillis() < limite) {
+                Thread.sleep(50);
+            }
+            banco.setConexoesValidas(true);
+
+            assertTrue(banco.getConexoesCriadas() >= 2, "A conexão derrubada não foi substituída");
+            assertEquals(1, pool.getTotalAbertas());
+        } finally {
+            pool.fechar();
+        }
+    }
+
+    private static long medirLeituras(String url, int tamanhoPool) throws Exception {
+        PoolConexoes pool = new PoolConexoes(url, "", "", 0, tamanhoPool, 30_000, 60_000, 0, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long inicio = System.nanoTime();
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < LEITURAS_POR_THREAD; i++) {
+                        try (Connection connection = pool.obterConexao();
+                             PreparedStatement pstm = connection.prepareStatement("SELECT id FROM giria WHERE id = ?")) {
+                            pstm.setInt(1, i);
+                            try (ResultSet rst = pstm.executeQuery()) {
+                                rst.next();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+            return (System.nanoTime() - inicio) / 1_000_000;
+        } finally {
+            executor.shutdown();
+            pool.fechar();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package bd;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionManagerTest {
+
+    private static final String SQL = "SELECT id FROM giria WHERE id = ?";
+
+    @AfterEach
+    void fecharPool() {
+        ConnectionFactory.closeConnection();
+    }
+
+    @Test
+    void statementsDaTransacaoNaoDevolvemAConexaoDoPool() {
+        BancoFalso banco = new BancoFalso();
+        ConnectionFactory.usarPool(new PoolConexoes(banco.registrar("transacao"), "", "", 0, 1, 1_000, 60_000, 0, 16));
+
+        TransactionManager.inTransaction(connection -> {
+            // Um vem do cache e o outro é avulso, porque o mesmo SQL já está em uso
+            try (PreparedStatement cacheado = connection.prepareStatement(SQL);
+                 PreparedStatement avulso = connection.prepareStatement(SQL)) {
+                for (PreparedStatement statement : new PreparedStatement[]{cacheado, avulso}) {
+                    assertSame(connection, statement.getConnection());
+                    assertThrows(SQLException.class, () -> statement.getConnection().commit());
+                    statement.getConnection().close();
+                }
+            }
+            assertFalse(connection.isClosed(), "A conexão da transação foi fechada por um statement");
+            return null;
+        });
+
+        // Só o commit do próprio TransactionManager
+        assertEquals(1, banco.getCommits());
+    }
+}
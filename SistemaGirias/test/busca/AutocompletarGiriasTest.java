@@ -0,0 +1,169 @@
+package busca;
+
+import bd.BancoFalso;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutocompletarGiriasTest {
+
+    @Test
+    void alteracoesRecentesEntramNasSugestoesPeloPrefixo() {
+        AutocompletarGirias autocompletar = carregado();
+        autocompletar.atualizarGiria(3, "Massa", true, 7);
+        autocompletar.atualizarGiria(4, "Trem", true, 1);
+
+        assertEquals(List.of("Massa", "Mano", "Marola"), autocompletar.sugerir("ma", 10));
+
+        autocompletar.atualizarGiria(1, "Brother", true, 5);
+        autocompletar.remover(3);
+        assertEquals(List.of("Marola"), autocompletar.sugerir("ma", 10));
+        assertEquals(List.of("Brother"), autocompletar.sugerir("b", 10));
+    }
+
+    @Test
+    void votosMudamAOrdemDasSugestoes() {
+        AutocompletarGirias autocompletar = carregado();
+        autocompletar.ajustarPontuacao(2, 3);
+        assertEquals(List.of("Marola", "Mano"), autocompletar.sugerir("ma", 10));
+
+        autocompletar.atualizarGiria(3, "Massa", true, 0);
+        autocompletar.ajustarPontuacao(3, 10);
+        autocompletar.ajustarPontuacao(1, -1);
+        assertEquals(List.of("Massa", "Marola", "Mano"), autocompletar.sugerir("ma", 10));
+
+        // Gíria fora das sugestões continua fora
+        autocompletar.remover(3);
+        autocompletar.ajustarPontuacao(3, 5);
+        autocompletar.ajustarPontuacao(99, 5);
+        assertEquals(List.of("Marola", "Mano"), autocompletar.sugerir("ma", 10));
+    }
+
+    @Test
+    void reconstrucaoRodaEmSegundoPlano() throws InterruptedException {
+        AutocompletarGirias autocompletar = carregado();
+        int total = 12_000;
+        for (int id = 100; id < 100 + total; id++) {
+            autocompletar.atualizarGiria(id, "termo " + id, true, id);
+        }
+
+        long limite = System.currentTimeMillis() + 10_000;
+        while (autocompletar.getAlteracoesPendentes() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, autocompletar.getAlteracoesPendentes());
+        assertEquals(total + 2, autocompletar.getTotalTermos());
+        assertEquals(List.of("termo " + (99 + total)), autocompletar.sugerir("termo " + (99 + total), 10));
+        assertEquals(List.of("Mano", "Marola"), autocompletar.sugerir("ma", 10));
+    }
+
+    @Test
+    void termoAlteradoNuncaSomeNemApareceDuasVezes() throws InterruptedException {
+        AutocompletarGirias autocompletar = carregado();
+        AtomicBoolean parar = new AtomicBoolean();
+        AtomicReference<List<String>> erro = new AtomicReference<>();
+        Thread leitor = new Thread(() -> {
+            while (!parar.get() && erro.get() == null) {
+                List<String> sugestoes = autocompletar.sugerir("mano", 10);
+                if (sugestoes.size() != 1) {
+                    erro.set(sugestoes);
+                }
+            }
+        });
+        leitor.start();
+        for (int i = 0; i < 50_000; i++) {
+            autocompletar.atualizarGiria(1, "Mano", true, i);
+        }
+        parar.set(true);
+        leitor.join();
+
+        assertNull(erro.get(), "Sugestões inconsistentes durante a alteração: " + erro.get());
+        assertTrue(autocompletar.getTotalTermos() >= 2);
+    }
+
+    private static AutocompletarGirias carregado() {
+        BancoFalso banco = new BancoFalso();
+        banco.responder("FROM giria", List.of(
+                linha("id", 1, "termo", "Mano", "pontuacao", 5),
+                linha("id", 2, "termo", "Marola", "pontuacao", 3)));
+        AutocompletarGirias autocompletar = new AutocompletarGirias();
+        autocompletar.carregar(banco.conectar());
+        return autocompletar;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void sugestoesEMemoriaComUmMilhaoDeTermos() {
+        int total = 1_000_000;
+        Random aleatorio = new Random(42);
+        List<IndicePrefixos.Entrada> entradas = new ArrayList<>(total);
+        for (int id = 1; id <= total; id++) {
+            entradas.add(new IndicePrefixos.Entrada(id, termoAleatorio(aleatorio), aleatorio.nextInt(1_000) - 100));
+        }
+        List<String> prefixos = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String termo = entradas.get(aleatorio.nextInt(total)).normalizado;
+            prefixos.add(termo.substring(0, 1 + aleatorio.nextInt(Math.min(4, termo.length()))));
+        }
+
+        long antes = memoriaUsada();
+        IndicePrefixos indice = new IndicePrefixos(entradas);
+        long memoriaMb = (memoriaUsada() - antes) / (1024 * 1024);
+
+        // A primeira rodada aquece o JIT
+        long[] micros = new long[prefixos.size()];
+        for (int rodada = 0; rodada < 2; rodada++) {
+            for (int i = 0; i < prefixos.size(); i++) {
+                long inicio = System.nanoTime();
+                List<IndicePrefixos.Entrada> melhores = indice.melhores(prefixos.get(i), 10, id -> false);
+                micros[i] = (System.nanoTime() - inicio) / 1_000;
+                assertTrue(!melhores.isEmpty());
+            }
+        }
+        Arrays.sort(micros);
+        String resumo = String.format("%d termos: %d MB; 10 melhores de um prefixo p50 %d us / p99 %d us",
+                total, memoriaMb, micros[micros.length / 2], micros[micros.length * 99 / 100]);
+
+        assertEquals(total, indice.getTamanho());
+        // Mediana: o p99 fica no resumo, mas em máquinas com poucos núcleos mede mais as pausas do GC que a busca
+        assertTrue(micros[micros.length / 2] < 100, resumo);
+        assertTrue(memoriaMb < 64, resumo);
+    }
+
+    // Duas a quatro sílabas, às vezes com uma segunda palavra, como "marolê bonito"
+    private static String termoAleatorio(Random aleatorio) {
+        String[] silabas = {"ma", "ro", "lê", "ti", "bo", "xe", "lu", "pa", "gu", "de", "ca", "ni", "zé", "fu", "ba",
+                "sa", "vi", "to", "qui", "nha", "mo", "ra", "ju", "pi", "che", "li", "go", "ta", "vê", "du"};
+        StringBuilder termo = new StringBuilder();
+        int palavras = aleatorio.nextInt(4) == 0 ? 2 : 1;
+        for (int p = 0; p < palavras; p++) {
+            if (p > 0) {
+                termo.append(' ');
+            }
+            int quantidade = 2 + aleatorio.nextInt(3);
+            for (int s = 0; s < quantidade; s++) {
+                termo.append(silabas[aleatorio.nextInt(silabas.length)]);
+            }
+        }
+        return termo.toString();
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,42 @@
+package busca;
+
+import bd.BancoFalso;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndiceExplicacoesTest {
+
+    private static final String TEXTOS = "WHERE aprovada = true AND id IN";
+
+    @Test
+    void assinaturaCalculadaEmJavaIgualADoBanco() {
+        // CRC32(CONCAT_WS('|', 'Sem grana nenhuma', 'Tô liso hoje')) no MySQL, com utf8mb4
+        assertEquals(2056745721L, IndiceExplicacoes.assinatura("Sem grana nenhuma", "Tô liso hoje"));
+        // CONCAT_WS ignora o exemplo nulo, sem deixar o separador
+        assertEquals(1413042687L, IndiceExplicacoes.assinatura("Sem grana nenhuma", null));
+    }
+
+    @Test
+    void explicacaoIndexadaPelaAplicacaoNaoEReindexadaNaCarga(@TempDir Path diretorio) {
+        IndiceExplicacoes indice = new IndiceExplicacoes();
+        indice.carregar(new BancoFalso().conectar(), diretorio);
+        indice.atualizar(1, "Sem grana nenhuma", "Tô liso hoje", true);
+        indice.gravar();
+
+        BancoFalso banco = new BancoFalso();
+        banco.responder(TEXTOS, List.of(linha("id", 1, "definicao", "Sem grana nenhuma", "exemplo_uso", "Tô liso hoje",
+                "assinatura", 2056745721L)));
+        banco.responder("WHERE aprovada = true", List.of(linha("id", 1, "assinatura", 2056745721L)));
+        IndiceExplicacoes recarregado = new IndiceExplicacoes();
+        recarregado.carregar(banco.conectar(), diretorio);
+
+        assertEquals(0, banco.contarExecutados(TEXTOS), "Explicação com a assinatura do banco foi lida de novo");
+        assertEquals(1, recarregado.buscar("grana", 10).get(0).getExplicacaoId());
+    }
+}
@@ -0,0 +1,218 @@
+package busca;
+
+import bd.BancoFalso;
+import bd.PoolConexoes;
+import dao.GiriaDAO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceTrigramasTest {
+
+    @Test
+    void trechosCurtosUsamOsGramasDeUmEDoisCaracteres() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.adicionar(1, "Mano");
+        indice.adicionar(2, "Marola");
+        indice.adicionar(3, "Trem");
+
+        assertEquals(List.of(1, 2), indice.buscarIds("ma"));
+        assertEquals(List.of(1, 2, 3), indice.buscarIds("m"));
+        assertEquals(List.of(3), indice.buscarIds("re"));
+        assertEquals(List.of(1), indice.buscarIds("an"));
+        assertTrue(indice.buscarIds("xz").isEmpty());
+
+        indice.adicionar(1, "Brother");
+        assertEquals(List.of(2), indice.buscarIds("ma"));
+        indice.remover(2);
+        assertEquals(List.of(3), indice.buscarIds("m"));
+    }
+
+    @Test
+    void trechosLongosCruzamAsListasDosTrigramas() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        BancoFalso banco = new BancoFalso();
+        banco.responder("SELECT id, termo FROM giria", List.of(linha("id", 3, "termo", "Amaro rola"),
+                linha("id", 1, "termo", "Marola"), linha("id", 2, "termo", "Rolê"), linha("id", 4, "termo", "Olaria")));
+        indice.carregar(banco.conectar());
+
+        assertEquals(List.of(2), indice.buscarIds("role"));
+        // "Amaro rola" tem os trigramas "mar", "aro" e "rol", mas não o trecho inteiro
+        assertEquals(List.of(1), indice.buscarIds("marol"));
+        assertEquals(List.of(1, 3, 4), indice.buscarIds("ola"));
+        assertEquals(List.of(1, 2, 3, 4), indice.buscarIds(""));
+
+        indice.adicionar(5, "Carola");
+        indice.remover(1);
+        assertEquals(List.of(5), indice.buscarIds("arola"));
+        assertEquals(List.of(2, 3, 4, 5), indice.buscarIds("ol"));
+        assertEquals(4, indice.getTotalTermos());
+    }
+
+    @Test
+    void reconstrucaoIncorporaAsAlteracoesEmSegundoPlano() throws InterruptedException {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        BancoFalso banco = new BancoFalso();
+        banco.responder("SELECT id, termo FROM giria", List.of(linha("id", 1, "termo", "Mano"), linha("id", 2, "termo", "Marola")));
+        indice.carregar(banco.conectar());
+        int total = 5_000;
+        for (int id = 100; id < 100 + total; id++) {
+            indice.adicionar(id, "termo " + id);
+        }
+        indice.remover(2);
+
+        // Sobram pendentes só as alterações feitas depois da última reconstrução começar
+        long limite = System.currentTimeMillis() + 10_000;
+        while (indice.getAlteracoesPendentes() > total / 2 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertTrue(indice.getAlteracoesPendentes() <= total / 2, "Pendentes: " + indice.getAlteracoesPendentes());
+        assertEquals(total + 1, indice.getTotalTermos());
+        assertEquals(List.of(99 + total), indice.buscarIds("termo " + (99 + total)));
+        assertEquals(List.of(1), indice.buscarIds("ma"));
+    }
+
+    @Test
+    void alteracoesDuranteOCarregamentoNaoSePerdem() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        BancoFalso banco = new BancoFalso();
+        banco.responder("SELECT id, termo FROM giria", (sql, parametros) -> {
+            // Gravações confirmadas enquanto a tabela é lida
+            indice.adicionar(3, "Trem bão");
+            indice.remover(1);
+            return List.of(linha("id", 1, "termo", "Mano"), linha("id", 2, "termo", "Marola"));
+        });
+
+        indice.carregar(banco.conectar());
+
+        assertEquals(List.of(2), indice.buscarIds("ma"));
+        assertEquals(List.of(3), indice.buscarIds("trem"));
+    }
+
+    @Test
+    void indiceSoMudaDepoisDoCommit() throws SQLException {
+        int id = 900_001;
+        IndiceTrigramas indice = IndiceTrigramas.getInstancia();
+        indice.adicionar(id, "Xurupita");
+
+        BancoFalso banco = new BancoFalso();
+        banco.aoAtualizar("DELETE FROM giria", (sql, parametros) -> 1);
+        PoolConexoes pool = new PoolConexoes(banco.registrar("indice-commit"), "", "", 0, 1, 1_000, 60_000, 0, 0);
+        try (Connection connection = pool.obterConexao()) {
+            connection.setAutoCommit(false);
+            new GiriaDAO(connection).excluir(id);
+            connection.rollback();
+            assertEquals(List.of(id), indice.buscarIds("xurupita"), "Exclusão desfeita não pode sair do índice");
+
+            new GiriaDAO(connection).excluir(id);
+            assertEquals(List.of(id), indice.buscarIds("xurupita"), "Índice não pode mudar antes do commit");
+            connection.commit();
+            assertTrue(indice.buscarIds("xurupita").isEmpty());
+        } finally {
+            indice.remover(id);
+            pool.fechar();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void buscaEMemoriaComCemMilEUmMilhaoDeTermos() {
+        for (int total : new int[]{100_000, 1_000_000}) {
+            List<Map<String, Object>> linhas = termosGerados(total);
+            long antes = memoriaUsada();
+            IndiceTrigramas indice = new IndiceTrigramas();
+            indice.carregar(bancoComLinhas(linhas).conectar());
+            long memoriaMb = (memoriaUsada() - antes) / (1024 * 1024);
+
+            // Trechos de 2 e de 5 caracteres tirados de termos existentes; a primeira rodada aquece o JIT
+            Random aleatorio = new Random(7);
+            List<String> trechos = new ArrayList<>();
+            while (trechos.size() < 2_000) {
+                String termo = (String) linhas.get(aleatorio.nextInt(total)).get("termo");
+                if (termo.length() >= 5) {
+                    int inicio = aleatorio.nextInt(termo.length() - 4);
+                    trechos.add(termo.substring(inicio, inicio + 5));
+                }
+            }
+            long[] curtos = new long[trechos.size()];
+            long[] longos = new long[trechos.size()];
+            for (int rodada = 0; rodada < 2; rodada++) {
+                for (int i = 0; i < trechos.size(); i++) {
+                    curtos[i] = medirMicros(indice, trechos.get(i).substring(0, 2));
+                    longos[i] = medirMicros(indice, trechos.get(i));
+                }
+            }
+            long encontrados = 0;
+            for (String trecho : trechos) {
+                encontrados += indice.buscarIds(trecho).size();
+            }
+            Arrays.sort(curtos);
+            Arrays.sort(longos);
+            String resumo = String.format("%d termos: %d MB; trecho de 5 chars (%d gírias em média) p50 %d us / p99 %d us; "
+                            + "de 2 chars p50 %d us / p99 %d us",
+                    total, memoriaMb, encontrados / trechos.size(), longos[longos.length / 2], longos[longos.length * 99 / 100],
+                    curtos[curtos.length / 2], curtos[curtos.length * 99 / 100]);
+
+            assertEquals(total, indice.getTotalTermos());
+            // Medianas: o p99 fica no resumo, mas em máquinas com poucos núcleos mede mais as pausas do GC que a busca
+            assertTrue(longos[longos.length / 2] < (total == 100_000 ? 200 : 2_000), resumo);
+            assertTrue(memoriaMb < (total == 100_000 ? 32 : 160), resumo);
+        }
+    }
+
+    private static long medirMicros(IndiceTrigramas indice, String trecho) {
+        long inicio = System.nanoTime();
+        List<Integer> ids = indice.buscarIds(trecho);
+        long micros = (System.nanoTime() - inicio) / 1_000;
+        assertTrue(!ids.isEmpty());
+        return micros;
+    }
+
+    // Termos de duas a quatro sílabas, às vezes com uma segunda palavra, como "marolê bonito"
+    private static List<Map<String, Object>> termosGerados(int total) {
+        String[] silabas = {"ma", "ro", "lê", "ti", "bo", "xe", "lu", "pa", "gu", "de", "ca", "ni", "zé", "fu", "ba",
+                "sa", "vi", "to", "qui", "nha", "mo", "ra", "ju", "pi", "che", "li", "go", "ta", "vê", "du"};
+        Random aleatorio = new Random(42);
+        List<Map<String, Object>> linhas = new ArrayList<>(total);
+        for (int id = 1; id <= total; id++) {
+            StringBuilder termo = new StringBuilder();
+            int palavras = aleatorio.nextInt(4) == 0 ? 2 : 1;
+            for (int p = 0; p < palavras; p++) {
+                if (p > 0) {
+                    termo.append(' ');
+                }
+                int quantidade = 2 + aleatorio.nextInt(3);
+                for (int s = 0; s < quantidade; s++) {
+                    termo.append(silabas[aleatorio.nextInt(silabas.length)]);
+                }
+            }
+            linhas.add(linha("id", id, "termo", termo.toString()));
+        }
+        return linhas;
+    }
+
+    private static BancoFalso bancoComLinhas(List<Map<String, Object>> linhas) {
+        BancoFalso banco = new BancoFalso();
+        banco.responder("SELECT id, termo FROM giria", linhas);
+        return banco;
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,159 @@
+package dao;
+
+import bd.BancoFalso;
+import bd.PoolConexoes;
+import modelo.EnumVoto;
+import modelo.TipoObjetoAvaliado;
+import modelo.Usuario;
+import modelo.Voto;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AcumuladorReputacaoTest {
+
+    private static final int THREADS = 64;
+    private static final String AJUSTE = "SET u.reputacao = u.reputacao + ?";
+
+    @Test
+    void votosSimultaneosNaoPerdemVariacoesDeReputacao() throws Exception {
+        assertFalse(AcumuladorReputacao.getInstancia().isAtivo());
+        Map<Integer, Integer> reputacoes = new ConcurrentHashMap<>();
+        BancoFalso banco = bancoComReputacoes(reputacoes);
+        int votosPorThread = 100;
+
+        executarEmParalelo(t -> {
+            VotoDAO votoDAO = new VotoDAO(banco.conectar());
+            for (int i = 0; i < votosPorThread; i++) {
+                Voto voto = new Voto(0, tipo(i), new Usuario(950_000 + t * votosPorThread + i, null, null, null),
+                        objeto(t, i), TipoObjetoAvaliado.GIRIA);
+                votoDAO.registrarVoto(voto);
+            }
+        });
+
+        assertEquals(esperado(votosPorThread), reputacoes);
+        assertEquals(THREADS * votosPorThread, banco.contarExecutados(AJUSTE));
+    }
+
+    @Test
+    void acumuladorGravaExatamenteASomaDasVariacoes() throws Exception {
+        Map<Integer, Integer> reputacoes = new ConcurrentHashMap<>();
+        BancoFalso banco = bancoComReputacoes(reputacoes);
+        PoolConexoes pool = new PoolConexoes(banco.registrar("acumulador-estresse"), "", "", 0, 1, 5_000, 60_000, 0, 0);
+        AcumuladorReputacao acumulador = new AcumuladorReputacao(() -> pool);
+        int votosPorThread = 2_000;
+        try {
+            acumulador.iniciar(1);
+            executarEmParalelo(t -> {
+                for (int i = 0; i < votosPorThread; i++) {
+                    acumulador.acumular("giria", objeto(t, i), tipo(i) == EnumVoto.POSITIVO ? 1 : -1);
+                }
+            });
+            acumulador.parar();
+        } finally {
+            pool.fechar();
+        }
+
+        assertEquals(esperado(votosPorThread), reputacoes);
+        // As variações de cada intervalo vão num único lote, não uma gravação por voto
+        assertTrue(banco.contarExecutados(AJUSTE) < THREADS * votosPorThread / 10,
+                "Lotes gravados: " + banco.contarExecutados(AJUSTE));
+    }
+
+    @Test
+    void gravarUsuarioNaoSobrescreveAReputacaoAjustadaPelosVotos() {
+        Map<Integer, Integer> reputacoes = new ConcurrentHashMap<>();
+        BancoFalso banco = bancoComReputacoes(reputacoes);
+        banco.responder("SELECT id, email FROM usuario", List.of(linha("id", 10, "email", "autor@girias.com")));
+        Connection connection = banco.conectar();
+        // Cópia em memória carregada antes dos votos
+        Usuario autor = new Usuario(10, "Autor", "autor@girias.com", "123", 5);
+
+        new VotoDAO(connection).registrarVoto(new Voto(0, EnumVoto.POSITIVO, new Usuario(960_001, null, null, null),
+                1, TipoObjetoAvaliado.GIRIA));
+        UsuarioDAO usuarioDAO = new UsuarioDAO(connection);
+        usuarioDAO.atualizar(autor);
+        usuarioDAO.salvarTodos(List.of(autor));
+
+        for (String sql : banco.getSqlExecutados()) {
+            if (sql.startsWith("UPDATE usuario SET") || sql.startsWith("INSERT INTO usuario")) {
+                assertFalse(sql.contains("reputacao = ?") || sql.contains("reputacao = novo.reputacao"),
+                        "Reputação regravada com o valor da cópia em memória: " + sql);
+            }
+        }
+        assertEquals(Map.of(10, 1), reputacoes);
+    }
+
+    private interface Tarefa {
+        void executar(int thread) throws Exception;
+    }
+
+    private static void executarEmParalelo(Tarefa tarefa) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    tarefa.executar(thread);
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> futura : tarefas) {
+                futura.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Banco em que o ajuste de reputação soma a variação ao autor da gíria, como o UPDATE com JOIN
+    private static BancoFalso bancoComReputacoes(Map<Integer, Integer> reputacoes) {
+        BancoFalso banco = new BancoFalso();
+        banco.aoAtualizar(AJUSTE, (sql, parametros) -> {
+            reputacoes.merge(autor((Integer) parametros.get(1)), (Integer) parametros.get(0), Integer::sum);
+            return 1;
+        });
+        return banco;
+    }
+
+    private static Map<Integer, Integer> esperado(int votosPorThread) {
+        Map<Integer, Integer> esperado = new HashMap<>();
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < votosPorThread; i++) {
+                esperado.merge(autor(objeto(t, i)), tipo(i) == EnumVoto.POSITIVO ? 1 : -1, Integer::sum);
+            }
+        }
+        return esperado;
+    }
+
+    // Quatro gírias de dois autores
+    private static int objeto(int thread, int voto) {
+        return (thread + voto) % 4 + 1;
+    }
+
+    private static int autor(int giriaId) {
+        return giriaId <= 2 ? 10 : 20;
+    }
+
+    private static EnumVoto tipo(int voto) {
+        return voto % 3 == 0 ? EnumVoto.NEGATIVO : EnumVoto.POSITIVO;
+    }
+}
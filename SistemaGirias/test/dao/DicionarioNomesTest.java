@@ -0,0 +1,65 @@
+package dao;
+
+import bd.BancoFalso;
+import bd.PoolConexoes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DicionarioNomesTest {
+
+    private static final String INSERT = "INSERT INTO categoria";
+    private static final String SELECT = "SELECT id, nome FROM categoria";
+
+    @AfterEach
+    void limpar() {
+        DicionarioNomes.CATEGORIAS.invalidar();
+    }
+
+    @Test
+    void idCriadoEmTransacaoDesfeitaNaoFicaNoDicionario() throws SQLException {
+        BancoFalso banco = banco();
+        PoolConexoes pool = new PoolConexoes(banco.registrar("dicionario-rollback"), "", "", 0, 1, 1_000, 60_000, 0, 0);
+        try (Connection connection = pool.obterConexao()) {
+            connection.setAutoCommit(false);
+            DicionarioNomes.CATEGORIAS.resolverIds(connection, List.of("Nova"));
+            connection.rollback();
+
+            // Nada foi publicado: o nome volta a ser criado (e o id novo vem do banco)
+            Map<String, Integer> ids = DicionarioNomes.CATEGORIAS.resolver(connection, List.of("Nova", "Nova"));
+            assertEquals(2, banco.contarExecutados(INSERT));
+            connection.commit();
+
+            assertEquals(ids, DicionarioNomes.CATEGORIAS.resolver(connection, List.of("Nova")));
+            assertEquals(2, banco.contarExecutados(INSERT));
+        } finally {
+            pool.fechar();
+        }
+    }
+
+    @Test
+    void resolverIdsRecarregaDepoisDeInvalidar() throws SQLException {
+        BancoFalso banco = banco();
+        Connection connection = banco.conectar();
+        DicionarioNomes.CATEGORIAS.carregar(connection);
+        DicionarioNomes.CATEGORIAS.invalidar();
+
+        assertEquals(List.of(7), List.copyOf(DicionarioNomes.CATEGORIAS.resolverIds(connection, List.of("Gíria de internet"))));
+        assertEquals(2, banco.contarExecutados(SELECT));
+        assertEquals(0, banco.contarExecutados(INSERT));
+    }
+
+    private static BancoFalso banco() {
+        BancoFalso banco = new BancoFalso();
+        banco.responder(SELECT, List.of(linha("id", 7, "nome", "Gíria de internet")));
+        banco.aoAtualizar(INSERT, (sql, parametros) -> 1);
+        return banco;
+    }
+}
@@ -0,0 +1,102 @@
+package dao;
+
+import bd.BancoFalso;
+import modelo.Explicacao;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ExplicacaoDAOTest {
+
+    // Explicações com autor e gíria, categorias, regiões e votos: uma consulta cada
+    @Test
+    void eagerLoadingUsaAsMesmasConsultasParaQualquerQuantidadeDeExplicacoes() {
+        assertEquals(4, comandosListarTodosEager(3));
+        assertEquals(4, comandosListarTodosEager(200));
+    }
+
+    // Gíria (com categorias e regiões) e explicações
+    @Test
+    void buscarPorGiriaUsaAsMesmasConsultasParaQualquerQuantidadeDeExplicacoes() {
+        assertEquals(4, comandosBuscarPorGiria(3));
+        assertEquals(4, comandosBuscarPorGiria(200));
+    }
+
+    // Usuário e explicações com as gírias
+    @Test
+    void buscarPorUsuarioUsaAsMesmasConsultasParaQualquerQuantidadeDeExplicacoes() {
+        assertEquals(2, comandosBuscarPorUsuario(3));
+        assertEquals(2, comandosBuscarPorUsuario(200));
+    }
+
+    private static int comandosListarTodosEager(int quantidade) {
+        BancoFalso banco = new BancoFalso();
+        banco.responder("FROM explicacao e JOIN usuario u", linhasExplicacao(quantidade));
+
+        List<Object> explicacoes = new ExplicacaoDAO(banco.conectar()).listarTodosEagerLoading();
+
+        assertEquals(quantidade, explicacoes.size());
+        assertCompartilhados((Explicacao) explicacoes.get(0), (Explicacao) explicacoes.get(2));
+        return banco.getComandosExecutados();
+    }
+
+    private static int comandosBuscarPorGiria(int quantidade) {
+        BancoFalso banco = new BancoFalso();
+        banco.responder("FROM giria g", List.of(GiriaDAOTest.linhaGiria(1, "giria 1", true)));
+        banco.responder("WHERE e.giria_associada_id = ?", linhasExplicacao(quantidade));
+
+        List<Explicacao> explicacoes = new ExplicacaoDAO(banco.conectar()).buscarPorGiria(1);
+
+        assertEquals(quantidade, explicacoes.size());
+        assertSame(explicacoes.get(0).getGiriaAssociada(), explicacoes.get(1).getGiriaAssociada());
+        assertSame(explicacoes.get(0).getUsuarioPropositor(), explicacoes.get(2).getUsuarioPropositor());
+        return banco.getComandosExecutados();
+    }
+
+    private static int comandosBuscarPorUsuario(int quantidade) {
+        BancoFalso banco = new BancoFalso();
+        banco.responder("FROM usuario WHERE id = ?", List.of(linha("id", 1, "nome", "Autor",
+                "email", "autor@girias.com", "senha", "123", "reputacao", 0, "data_criacao", LocalDateTime.now())));
+        banco.responder("WHERE e.usuario_propositor_id = ?", linhasExplicacao(quantidade));
+
+        List<Explicacao> explicacoes = new ExplicacaoDAO(banco.conectar()).buscarPorUsuario(1);
+
+        assertEquals(quantidade, explicacoes.size());
+        assertCompartilhados(explicacoes.get(0), explicacoes.get(2));
+        assertSame(explicacoes.get(0).getUsuarioPropositor(), explicacoes.get(1).getUsuarioPropositor());
+        return banco.getComandosExecutados();
+    }
+
+    // Explicações de mesma gíria e mesmo autor apontam para os mesmos objetos
+    private static void assertCompartilhados(Explicacao primeira, Explicacao terceira) {
+        assertSame(primeira.getGiriaAssociada(), terceira.getGiriaAssociada());
+        assertSame(primeira.getUsuarioPropositor(), terceira.getUsuarioPropositor());
+    }
+
+    // Explicações de duas gírias e dois autores, alternados, com as colunas de todas as consultas
+    private static List<Map<String, Object>> linhasExplicacao(int quantidade) {
+        List<Map<String, Object>> linhas = new ArrayList<>();
+        for (int id = 1; id <= quantidade; id++) {
+            int giriaId = id % 2 + 1;
+            int usuarioId = id % 2 + 1;
+            linhas.add(linha("id", id, "definicao", "definição " + id, "exemplo_uso", "exemplo " + id,
+                    "aprovada", true, "data_proposta", LocalDate.now(), "data_criacao", LocalDateTime.now(),
+                    "positivos", 1, "negativos", 0,
+                    "usuario_id", usuarioId, "usuario_nome", "Autor " + usuarioId, "email", "autor" + usuarioId + "@girias.com",
+                    "senha", "123", "reputacao", 0,
+                    "giria_id", giriaId, "termo", "giria " + giriaId, "data_cadastro", LocalDateTime.now(),
+                    "giria_aprovada", true, "giria_data_criacao", LocalDateTime.now(), "giria_positivos", 0, "giria_negativos", 0,
+                    "giria_usuario_id", 3, "giria_usuario_nome", "Autor da gíria", "giria_usuario_email", "giria@girias.com",
+                    "giria_usuario_senha", "123", "giria_usuario_reputacao", 0));
+        }
+        return linhas;
+    }
+}
@@ -0,0 +1,137 @@
+package dao;
+
+import bd.BancoFalso;
+import modelo.TipoObjetoAvaliado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FiltroVotosTest {
+
+    private static final String CONSULTA_VOTO = "WHERE v.usuario_votante_id = ?";
+    private static final int VOTOS = 20_000;
+    private static final int BUSCAS = 4_000;
+
+    @AfterEach
+    void limpar() {
+        FiltroVotos.getInstancia().invalidar();
+    }
+
+    @Test
+    void buscasSemVotoNaoConsultamOBancoComOFiltroCarregado() {
+        Random aleatorio = new Random(42);
+        // Votos existentes de 2.000 usuários em 5.000 gírias
+        Set<Long> votos = new HashSet<>();
+        List<Map<String, Object>> linhasVoto = new ArrayList<>();
+        while (votos.size() < VOTOS) {
+            int usuario = 1 + aleatorio.nextInt(2_000);
+            int giria = 1 + aleatorio.nextInt(5_000);
+            if (votos.add(chave(usuario, giria))) {
+                linhasVoto.add(linha("usuario_votante_id", usuario, "objeto_avaliado_id", giria, "tipo_objeto_avaliado", 1));
+            }
+        }
+        List<Long> existentes = new ArrayList<>(votos);
+
+        // Renderização de páginas: 95% das buscas são de gírias em que o usuário não votou
+        List<long[]> buscas = new ArrayList<>();
+        for (int i = 0; i < BUSCAS; i++) {
+            long chave;
+            if (i % 20 == 0) {
+                chave = existentes.get(aleatorio.nextInt(existentes.size()));
+            } else {
+                do {
+                    chave = chave(1 + aleatorio.nextInt(2_000), 1 + aleatorio.nextInt(5_000));
+                } while (votos.contains(chave));
+            }
+            buscas.add(new long[]{chave >>> 32, chave & 0xffffffffL});
+        }
+
+        BancoFalso banco = new BancoFalso();
+        banco.responder("SELECT COUNT(*) FROM voto", List.of(linha("total", VOTOS)));
+        banco.responder("SELECT usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado FROM voto", linhasVoto);
+        banco.responder(CONSULTA_VOTO, (sql, parametros) -> {
+            int usuario = (Integer) parametros.get(0);
+            int giria = (Integer) parametros.get(1);
+            return !votos.contains(chave(usuario, giria)) ? List.of() : List.of(linha("id", 1, "tipo", "POSITIVO",
+                    "data_voto", LocalDateTime.now(), "objeto_avaliado_id", giria, "tipo_objeto_avaliado", 1,
+                    "data_criacao", LocalDateTime.now(), "usuario_id", usuario, "nome", "Votante", "email", "v@girias.com",
+                    "senha", "123", "reputacao", 0));
+        });
+        VotoDAO votoDAO = new VotoDAO(banco.conectar());
+
+        FiltroVotos.getInstancia().invalidar();
+        int encontradosSemFiltro = buscar(votoDAO, buscas);
+        int consultasSemFiltro = banco.contarExecutados(CONSULTA_VOTO);
+
+        FiltroVotos.getInstancia().carregar(banco.conectar());
+        banco.zerarContagem();
+        int encontradosComFiltro = buscar(votoDAO, buscas);
+        int consultasComFiltro = banco.contarExecutados(CONSULTA_VOTO);
+
+        assertEquals(BUSCAS / 20, encontradosSemFiltro);
+        assertEquals(encontradosSemFiltro, encontradosComFiltro, "O filtro não pode esconder votos existentes");
+        assertEquals(BUSCAS, consultasSemFiltro);
+        // Só os acertos (5%) e os falsos positivos (~1% das buscas sem voto) vão ao banco
+        assertTrue(consultasComFiltro < BUSCAS / 10, "Consultas com o filtro: " + consultasComFiltro);
+    }
+
+    @Test
+    void votoGravadoDuranteOCarregamentoNaoFicaForaDoFiltro() throws SQLException {
+        BancoFalso banco = new BancoFalso();
+        List<Map<String, Object>> gravados = new CopyOnWriteArrayList<>();
+        gravados.add(voto(970_001, 970_100));
+        // Simula o snapshot de REPEATABLE READ: fixado pela contagem, renovado a cada commit
+        List<Map<String, Object>> snapshot = new ArrayList<>();
+        int[] commitsNoSnapshot = {0};
+        banco.responder("SELECT COUNT(*) FROM voto", (sql, parametros) -> {
+            snapshot.addAll(gravados);
+            commitsNoSnapshot[0] = banco.getCommits();
+            // Outro usuário vota logo depois da contagem
+            gravados.add(voto(970_002, 970_100));
+            FiltroVotos.getInstancia().adicionar(970_002, 970_100, TipoObjetoAvaliado.GIRIA);
+            return List.of(linha("total", snapshot.size()));
+        });
+        banco.responder("SELECT usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado FROM voto",
+                (sql, parametros) -> banco.getCommits() == commitsNoSnapshot[0] ? snapshot : gravados);
+        Connection connection = banco.conectar();
+        connection.setAutoCommit(false);
+
+        FiltroVotos.getInstancia().carregar(connection);
+
+        assertTrue(FiltroVotos.getInstancia().podeTerVotado(970_001, 970_100, TipoObjetoAvaliado.GIRIA));
+        assertTrue(FiltroVotos.getInstancia().podeTerVotado(970_002, 970_100, TipoObjetoAvaliado.GIRIA),
+                "Voto gravado durante o carregamento ficou fora do filtro");
+    }
+
+    private static Map<String, Object> voto(int usuario, int giria) {
+        return linha("usuario_votante_id", usuario, "objeto_avaliado_id", giria, "tipo_objeto_avaliado", 1);
+    }
+
+    private static int buscar(VotoDAO votoDAO, List<long[]> buscas) {
+        int encontrados = 0;
+        for (long[] busca : buscas) {
+            if (votoDAO.buscarVotoUsuarioObjeto((int) busca[0], (int) busca[1], TipoObjetoAvaliado.GIRIA) != null) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+
+    private static long chave(int usuario, int giria) {
+        return ((long) usuario << 32) | giria;
+    }
+}
@@ -0,0 +1,229 @@
+package dao;
+
+import bd.BancoFalso;
+import busca.AutocompletarGirias;
+import busca.IndiceExplicacoes;
+import busca.IndiceTrigramas;
+import modelo.Giria;
+import modelo.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GiriaDAOTest {
+
+    @AfterEach
+    void limpar() {
+        DicionarioNomes.CATEGORIAS.invalidar();
+        DicionarioNomes.REGIOES.invalidar();
+    }
+
+    @Test
+    void eagerLoadingUsaAsMesmasConsultasParaQualquerQuantidadeDeGirias() {
+        assertEquals(4, comandosListarTodosEager(3));
+        assertEquals(4, comandosListarTodosEager(200));
+    }
+
+    @Test
+    void eagerLoadingLigaCategoriasRegioesEVotosAsGirias() {
+        BancoFalso banco = bancoComGirias(2);
+        banco.responder("FROM categoria c", List.of(linha("giria_id", 2, "nome", "Gíria de internet")));
+        banco.responder("FROM regiao r", List.of(linha("giria_id", 1, "nome", "Nordeste")));
+        banco.responder("FROM voto v", List.of(
+                linha("id", 10, "tipo", "POSITIVO", "objeto_avaliado_id", 1, "tipo_objeto_avaliado", 1, "usuario_id", 7),
+                linha("id", 11, "tipo", "NEGATIVO", "objeto_avaliado_id", 1, "tipo_objeto_avaliado", 1, "usuario_id", 8)));
+
+        List<Object> girias = new GiriaDAO(banco.conectar()).listarTodosEagerLoading();
+
+        Giria primeira = (Giria) girias.get(0);
+        Giria segunda = (Giria) girias.get(1);
+        assertEquals(Set.of("Nordeste"), primeira.getRegioes());
+        assertTrue(primeira.getCategorias().isEmpty());
+        assertEquals(Set.of("Gíria de internet"), segunda.getCategorias());
+        assertEquals(2, primeira.getVotos().size());
+        assertTrue(segunda.getVotos().isEmpty());
+    }
+
+    @Test
+    void salvarTodosNaoConsultaAPontuacaoDeCadaGiria() {
+        assertEquals(comandosSalvarTodos(3), comandosSalvarTodos(200));
+    }
+
+    @Test
+    void atualizarSoGravaAsAssociacoesQueMudaram() {
+        BancoFalso banco = bancoComDicionarios();
+        Connection connection = banco.conectar();
+        DicionarioNomes.CATEGORIAS.carregar(connection);
+        DicionarioNomes.REGIOES.carregar(connection);
+        banco.zerarContagem();
+        GiriaDAO giriaDAO = new GiriaDAO(connection);
+        Giria giria = giriaComAssociacoes(940_001);
+        try {
+            giriaDAO.atualizar(giria);
+            assertEquals(List.of("UPDATE giria SET"), prefixos(banco.getSqlExecutados()),
+                    "Sem mudança nas associações só a gíria é gravada");
+
+            banco.zerarContagem();
+            giria.getCategorias().remove("Gíria de internet");
+            giria.adicionarCategoria("Gíria antiga");
+            giriaDAO.atualizar(giria);
+            assertEquals(List.of("UPDATE giria SET", "DELETE FROM giria_categoria", "INSERT INTO giria_categoria"),
+                    prefixos(banco.getSqlExecutados()));
+            assertEquals(0, banco.contarExecutados("giria_regiao"));
+
+            banco.zerarContagem();
+            giriaDAO.atualizar(giria);
+            assertEquals(1, banco.getComandosExecutados());
+        } finally {
+            IndiceTrigramas.getInstancia().remover(giria.getId());
+            AutocompletarGirias.getInstancia().remover(giria.getId());
+        }
+    }
+
+    @Test
+    void sincronizacaoEmLoteUsaAsMesmasConsultasParaQualquerQuantidadeDeGirias() throws SQLException {
+        assertEquals(0, comandosSincronizarAssociacoes(3, false));
+        assertEquals(0, comandosSincronizarAssociacoes(200, false));
+        assertEquals(comandosSincronizarAssociacoes(3, true), comandosSincronizarAssociacoes(200, true));
+    }
+
+    @Test
+    void semReescritaDeLotesCadaAssociacaoSincronizadaEUmaIdaAoBanco() throws SQLException {
+        // Garante que a contagem acima mede idas ao banco: sem rewriteBatchedStatements o lote não ajuda
+        assertTrue(comandosSincronizarAssociacoes(200, true, "") > comandosSincronizarAssociacoes(3, true, ""));
+    }
+
+    @Test
+    void excluirTiraAsExplicacoesDaGiriaDoIndiceDeBusca() {
+        IndiceExplicacoes indice = IndiceExplicacoes.getInstancia();
+        if (!indice.isCarregado()) {
+            indice.carregar(new BancoFalso().conectar(), null);
+        }
+        int explicacaoId = 930_101;
+        indice.atualizar(explicacaoId, "Gente muito xibiuzenta", "Que povo xibiuzento", true);
+        try {
+            BancoFalso banco = new BancoFalso();
+            banco.responder("SELECT id FROM explicacao WHERE giria_associada_id", List.of(linha("id", explicacaoId)));
+
+            new GiriaDAO(banco.conectar()).excluir(930_100);
+
+            assertTrue(indice.buscar("xibiuzenta", 10).isEmpty(), "Explicação apagada em cascata continua na busca");
+        } finally {
+            indice.remover(explicacaoId);
+        }
+    }
+
+    private static int comandosSincronizarAssociacoes(int quantidade, boolean alterar) throws SQLException {
+        return comandosSincronizarAssociacoes(quantidade, alterar, "rewriteBatchedStatements=true");
+    }
+
+    private static int comandosSincronizarAssociacoes(int quantidade, boolean alterar, String propriedades)
+            throws SQLException {
+        BancoFalso banco = bancoComDicionarios();
+        Connection connection = banco.conectar(propriedades);
+        DicionarioNomes.CATEGORIAS.carregar(connection);
+        DicionarioNomes.REGIOES.carregar(connection);
+        List<Giria> girias = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            Giria giria = giriaComAssociacoes(i + 1);
+            if (alterar) {
+                giria.adicionarCategoria("Gíria antiga");
+                giria.adicionarRegiao("Sul");
+            }
+            girias.add(giria);
+        }
+        banco.zerarContagem();
+
+        new GiriaDAO(connection).sincronizarAssociacoesEmLote(girias);
+
+        for (Giria giria : girias) {
+            assertEquals(giria.getCategorias(), giria.getCategoriasPersistidas());
+        }
+        return banco.getComandosExecutados();
+    }
+
+    // Gíria como carregada do banco: categorias e regiões conhecidas e ainda não alteradas
+    private static Giria giriaComAssociacoes(int id) {
+        Giria giria = new Giria(id, "termo associado " + id, LocalDateTime.now(), false,
+                new Usuario(1, "Autor", "autor@girias.com", "123"));
+        giria.adicionarCategoria("Gíria de internet");
+        giria.adicionarRegiao("Nordeste");
+        giria.marcarAssociacoesPersistidas();
+        giria.limparAlteracoes();
+        return giria;
+    }
+
+    private static BancoFalso bancoComDicionarios() {
+        BancoFalso banco = new BancoFalso();
+        banco.responder("SELECT id, nome FROM categoria", List.of(
+                linha("id", 1, "nome", "Gíria de internet"), linha("id", 2, "nome", "Gíria antiga")));
+        banco.responder("SELECT id, nome FROM regiao", List.of(
+                linha("id", 1, "nome", "Nordeste"), linha("id", 2, "nome", "Sul")));
+        return banco;
+    }
+
+    // Início de cada comando (até o nome da tabela), para comparar a sequência executada
+    private static List<String> prefixos(List<String> comandos) {
+        List<String> prefixos = new ArrayList<>();
+        for (String sql : comandos) {
+            String[] palavras = sql.split(" ");
+            prefixos.add(palavras[0] + " " + palavras[1] + " " + palavras[2]);
+        }
+        return prefixos;
+    }
+
+    private static int comandosSalvarTodos(int quantidade) {
+        BancoFalso banco = new BancoFalso();
+        // Devolve cada termo pedido com um id e contadores de votos
+        banco.responder("SELECT id, termo, positivos, negativos FROM giria WHERE termo IN", (sql, parametros) -> {
+            List<Map<String, Object>> linhas = new ArrayList<>();
+            for (Object termo : parametros) {
+                linhas.add(linha("id", linhas.size() + 1, "termo", termo, "positivos", 2, "negativos", 1));
+            }
+            return linhas;
+        });
+        Usuario autor = new Usuario(1, "Autor", "autor@girias.com", "123");
+        List<Giria> girias = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            girias.add(new Giria(0, "termo em lote " + i, LocalDateTime.now(), true, autor));
+        }
+
+        new GiriaDAO(banco.conectar()).salvarTodos(girias);
+
+        assertEquals(0, banco.contarExecutados("pontuacao"));
+        assertEquals(1, girias.get(0).getPontuacaoVotos());
+        return banco.getComandosExecutados();
+    }
+
+    private static int comandosListarTodosEager(int quantidade) {
+        BancoFalso banco = bancoComGirias(quantidade);
+        List<Object> girias = new GiriaDAO(banco.conectar()).listarTodosEagerLoading();
+        assertEquals(quantidade, girias.size());
+        return banco.getComandosExecutados();
+    }
+
+    static BancoFalso bancoComGirias(int quantidade) {
+        List<Map<String, Object>> linhas = new ArrayList<>();
+        for (int id = 1; id <= quantidade; id++) {
+            linhas.add(linhaGiria(id, "giria " + id, true));
+        }
+        return new BancoFalso().responder("FROM giria g", linhas);
+    }
+
+    static Map<String, Object> linhaGiria(int id, String termo, boolean aprovada) {
+        return linha("id", id, "termo", termo, "data_cadastro", LocalDateTime.now(), "aprovada", aprovada,
+                "positivos", 0, "negativos", 0, "usuario_id", 1, "nome", "Autor", "email", "autor@girias.com",
+                "senha", "123", "reputacao", 0);
+    }
+}
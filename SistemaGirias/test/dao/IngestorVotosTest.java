@@ -0,0 +1,129 @@
+package dao;
+
+import bd.BancoFalso;
+import bd.PoolConexoes;
+import modelo.EnumVoto;
+import modelo.TipoObjetoAvaliado;
+import modelo.Usuario;
+import modelo.Voto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngestorVotosTest {
+
+    private static final int OBJETO_RECUSADO = 666;
+
+    @Test
+    void votoRecusadoVaiParaOsRejeitadosSemBloquearOLote(@TempDir Path diretorio) throws Exception {
+        BancoFalso banco = new BancoFalso();
+        banco.aoAtualizar("INSERT INTO voto", (sql, parametros) -> {
+            if (parametros.get(3).equals(OBJETO_RECUSADO)) {
+                throw new RuntimeException("Cannot add or update a child row: a foreign key constraint fails");
+            }
+            return 1;
+        });
+        PoolConexoes pool = new PoolConexoes(banco.registrar("ingestor-rejeitados"), "", "", 0, 1, 1_000, 60_000, 0, 0);
+        try {
+            IngestorVotos ingestor = new IngestorVotos(pool, diretorio, 64, 16, 10_000);
+            for (int i = 0; i < 16; i++) {
+                ingestor.enviar(voto(910_000 + i, i == 5 ? OBJETO_RECUSADO : 1));
+            }
+            ingestor.close();
+
+            assertEquals(15, ingestor.getVotosGravados());
+            assertEquals(1, ingestor.getVotosRejeitados());
+            assertEquals(0, ingestor.getFalhasGravacao());
+            List<String> rejeitados = Files.readAllLines(diretorio.resolve("votos-rejeitados.log"), StandardCharsets.UTF_8);
+            assertEquals(2, rejeitados.size());
+            assertTrue(rejeitados.get(0).startsWith("# Cannot add"));
+            assertTrue(rejeitados.get(1).startsWith("POSITIVO;910005;" + OBJETO_RECUSADO + ";GIRIA;"));
+        } finally {
+            pool.fechar();
+        }
+    }
+
+    @Test
+    void erroTransitorioRepeteOLoteInteiro(@TempDir Path diretorio) throws Exception {
+        BancoFalso banco = new BancoFalso();
+        AtomicInteger falhasRestantes = new AtomicInteger(2);
+        banco.aoAtualizar("INSERT INTO voto", (sql, parametros) -> {
+            if (falhasRestantes.getAndDecrement() > 0) {
+                throw new RuntimeException(new SQLTransientConnectionException("Communications link failure", "08S01"));
+            }
+            return 1;
+        });
+        PoolConexoes pool = new PoolConexoes(banco.registrar("ingestor-transitorio"), "", "", 0, 1, 1_000, 60_000, 0, 0);
+        try {
+            IngestorVotos ingestor = new IngestorVotos(pool, diretorio, 64, 8, 10);
+            for (int i = 0; i < 8; i++) {
+                ingestor.enviar(voto(920_000 + i, 1));
+            }
+            long limite = System.currentTimeMillis() + 5_000;
+            while (ingestor.getVotosGravados() < 8 && System.currentTimeMillis() < limite) {
+                Thread.sleep(10);
+            }
+            ingestor.close();
+
+            assertEquals(8, ingestor.getVotosGravados());
+            assertEquals(2, ingestor.getFalhasGravacao());
+            assertEquals(0, ingestor.getVotosRejeitados());
+            assertFalse(Files.exists(diretorio.resolve("votos-rejeitados.log")));
+        } finally {
+            pool.fechar();
+        }
+    }
+
+    @Test
+    void falhaAoTrocarSegmentoDoJournalNaoDerrubaOEscritor(@TempDir Path base) throws Exception {
+        Path diretorio = base.resolve("journal");
+        PoolConexoes pool = new PoolConexoes(new BancoFalso().registrar("ingestor-journal"), "", "", 0, 1, 1_000, 60_000, 0, 0);
+        try {
+            IngestorVotos ingestor = new IngestorVotos(pool, diretorio, 64, 4, 20);
+            // Sem o diretório, o próximo segmento não pode ser aberto
+            try (DirectoryStream<Path> segmentos = Files.newDirectoryStream(diretorio)) {
+                for (Path segmento : segmentos) {
+                    Files.delete(segmento);
+                }
+            }
+            Files.delete(diretorio);
+            for (int i = 0; i < 4; i++) {
+                ingestor.enviar(voto(930_000 + i, 1));
+            }
+            esperar(() -> ingestor.getFalhasGravacao() > 0);
+
+            Files.createDirectories(diretorio);
+            esperar(() -> ingestor.getVotosGravados() == 4);
+            ingestor.enviar(voto(930_010, 1));
+            ingestor.close();
+
+            assertEquals(5, ingestor.getVotosGravados());
+        } finally {
+            pool.fechar();
+        }
+    }
+
+    private static void esperar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "Tempo esgotado");
+            Thread.sleep(10);
+        }
+    }
+
+    private static Voto voto(int usuarioId, int objetoId) {
+        return new Voto(0, EnumVoto.POSITIVO, new Usuario(usuarioId, null, null, null), objetoId, TipoObjetoAvaliado.GIRIA);
+    }
+}
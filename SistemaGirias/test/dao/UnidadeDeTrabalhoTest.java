@@ -0,0 +1,88 @@
+package dao;
+
+import bd.BancoFalso;
+import busca.IndiceExplicacoes;
+import modelo.EnumVoto;
+import modelo.Explicacao;
+import modelo.Giria;
+import modelo.TipoObjetoAvaliado;
+import modelo.Usuario;
+import modelo.Voto;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnidadeDeTrabalhoTest {
+
+    @Test
+    void entidadesCarregadasPorConsultaNaoSaoRegravadas() {
+        BancoFalso banco = GiriaDAOTest.bancoComGirias(1);
+        Connection connection = banco.conectar();
+        Giria giria = (Giria) new GiriaDAO(connection).buscarPorId(1);
+        banco.zerarContagem();
+
+        UnidadeDeTrabalho unidade = new UnidadeDeTrabalho(connection);
+        unidade.registrar(giria);
+        unidade.registrar(giria.getUsuarioPropositor());
+        unidade.gravar();
+
+        assertEquals(List.of(), banco.getSqlExecutados());
+    }
+
+    @Test
+    void reputacaoSoMudaPelaVariacaoDoVoto() {
+        BancoFalso banco = GiriaDAOTest.bancoComGirias(1);
+        Connection connection = banco.conectar();
+        Giria giria = (Giria) new GiriaDAO(connection).buscarPorId(1);
+        Usuario autor = giria.getUsuarioPropositor();
+        banco.zerarContagem();
+
+        UnidadeDeTrabalho unidade = new UnidadeDeTrabalho(connection);
+        unidade.registrarCarregada(giria);
+        unidade.registrarCarregada(autor);
+        Voto voto = new Voto(0, EnumVoto.POSITIVO, new Usuario(2, "Votante", "votante@girias.com", "123"),
+                giria.getId(), TipoObjetoAvaliado.GIRIA);
+        giria.adicionarVoto(voto);
+        unidade.registrar(voto);
+        unidade.gravar();
+
+        for (String sql : banco.getSqlExecutados()) {
+            assertFalse(sql.startsWith("UPDATE usuario SET"), "Reputação regravada com valor absoluto: " + sql);
+        }
+        assertEquals(1, banco.contarExecutados("SET u.reputacao = u.reputacao + ?"));
+        assertFalse(autor.isAlterada());
+    }
+
+    @Test
+    void desaprovarOuAprovarExplicacaoAtualizaOIndiceDeBusca() {
+        IndiceExplicacoes indice = IndiceExplicacoes.getInstancia();
+        if (!indice.isCarregado()) {
+            indice.carregar(new BancoFalso().conectar(), null);
+        }
+        int id = 930_001;
+        Usuario autor = new Usuario(1, "Autor", "autor@girias.com", "123");
+        Explicacao explicacao = new Explicacao(id, "Quando o sujeito fica jururuzado de sono", "Tô jururuzado hoje",
+                autor, new Giria(1, "jururu", autor));
+        explicacao.setAprovada(true);
+        indice.atualizar(id, explicacao.getDefinicao(), explicacao.getExemploUso(), true);
+        try {
+            Connection connection = new BancoFalso().conectar();
+            UnidadeDeTrabalho unidade = new UnidadeDeTrabalho(connection);
+            unidade.registrarCarregada(explicacao);
+            explicacao.desaprovar();
+            unidade.gravar();
+            assertTrue(indice.buscar("jururuzado", 10).isEmpty(), "Explicação desaprovada continua na busca");
+
+            explicacao.aprovar();
+            unidade.gravar();
+            assertEquals(id, indice.buscar("jururuzado", 10).get(0).getExplicacaoId());
+        } finally {
+            indice.remover(id);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package dao;
+
+import bd.BancoFalso;
+import modelo.EnumVoto;
+import modelo.TipoObjetoAvaliado;
+import modelo.Usuario;
+import modelo.Voto;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VotoDAOTest {
+
+    private static final String UPSERT = "INSERT INTO voto (tipo";
+
+    @Test
+    void registrarVotoSeparaVotoNovoInvertidoEInalterado() {
+        BancoFalso banco = bancoComTabelaDeVotos();
+        VotoDAO votoDAO = new VotoDAO(banco.conectar());
+        Usuario usuario = new Usuario(960_001, null, null, null);
+
+        assertEquals(ResultadoVoto.NOVO, votoDAO.registrarVoto(voto(usuario, EnumVoto.POSITIVO)));
+        // O insert_id do voto anterior não pode vazar para o voto repetido na mesma conexão
+        assertEquals(ResultadoVoto.INALTERADO, votoDAO.registrarVoto(voto(usuario, EnumVoto.POSITIVO)));
+        assertEquals(ResultadoVoto.INVERTIDO, votoDAO.registrarVoto(voto(usuario, EnumVoto.NEGATIVO)));
+        assertEquals(ResultadoVoto.INALTERADO, votoDAO.registrarVoto(voto(usuario, EnumVoto.NEGATIVO)));
+
+        // Contadores e reputação só mudam no voto novo e no invertido
+        assertEquals(2, banco.contarExecutados("SET positivos = positivos + ?"));
+        assertEquals(2, banco.contarExecutados("reputacao = u.reputacao + ?"));
+    }
+
+    private static Voto voto(Usuario usuario, EnumVoto tipo) {
+        return new Voto(0, tipo, usuario, 960_100, TipoObjetoAvaliado.GIRIA);
+    }
+
+    /**
+     * Simula a tabela voto e o LAST_INSERT_ID da conexão: o upsert que não altera o voto só zera
+     * o insert_id se pedir isso explicitamente, senão o banco repete o do comando anterior.
+     */
+    private static BancoFalso bancoComTabelaDeVotos() {
+        Map<List<Object>, Object[]> votos = new HashMap<>();
+        long[] ultimoId = {0};
+        BancoFalso banco = new BancoFalso();
+        banco.aoAtualizar(UPSERT, (sql, parametros) -> {
+            List<Object> chave = parametros.subList(2, 5);
+            Object[] existente = votos.get(chave);
+            if (existente == null) {
+                ultimoId[0] = 2_000 + votos.size();
+                votos.put(chave, new Object[]{ultimoId[0], parametros.get(0)});
+                return 1;
+            }
+            if (existente[1].equals(parametros.get(0))) {
+                if (sql.contains("LAST_INSERT_ID(0)")) {
+                    ultimoId[0] = 0;
+                }
+                return 1;
+            }
+            existente[1] = parametros.get(0);
+            ultimoId[0] = (long) existente[0];
+            return 2;
+        });
+        banco.aoGerarChave(UPSERT, (sql, parametros) -> ultimoId[0] == 0 ? null : ultimoId[0]);
+        return banco;
+    }
+}
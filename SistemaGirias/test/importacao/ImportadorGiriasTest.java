@@ -0,0 +1,96 @@
+package importacao;
+
+import bd.BancoFalso;
+import bd.PoolConexoes;
+import busca.AutocompletarGirias;
+import busca.IndiceExplicacoes;
+import busca.IndiceTrigramas;
+import busca.Normalizador;
+import dao.DicionarioNomes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static bd.BancoFalso.linha;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportadorGiriasTest {
+
+    @Test
+    void importacaoAtualizaOsIndicesComoOsDAOsDepoisDoCommit(@TempDir Path diretorio) throws Exception {
+        Path arquivo = diretorio.resolve("girias.jsonl");
+        Files.writeString(arquivo,
+                "{\"termo\": \"Zuretinha\", \"aprovada\": true, \"categorias\": [\"Nordeste\"], "
+                        + "\"explicacoes\": [{\"definicao\": \"Pessoa meio desmiolada\", \"exemplo_uso\": \"Que zuretinha!\"}]}\n"
+                        + "{\"termo\": \"Zuretao\", \"aprovada\": false}\n");
+
+        BancoFalso banco = new BancoFalso();
+        Map<String, Integer> girias = new ConcurrentHashMap<>();
+        List<Map<String, Object>> explicacoes = new ArrayList<>();
+        banco.aoAtualizar("INSERT INTO giria (", (sql, p) -> {
+            for (int i = 0; i < p.size(); i += 5) {
+                girias.putIfAbsent(Normalizador.normalizar((String) p.get(i)), 500 + girias.size());
+            }
+            return p.size() / 5;
+        });
+        banco.responder("SELECT id, termo FROM giria WHERE termo IN", (sql, p) -> {
+            List<Map<String, Object>> linhas = new ArrayList<>();
+            for (Object termo : p) {
+                Integer id = girias.get(Normalizador.normalizar((String) termo));
+                if (id != null) {
+                    linhas.add(linha("id", id, "termo", termo));
+                }
+            }
+            return linhas;
+        });
+        banco.aoAtualizar("INSERT INTO explicacao (", (sql, p) -> {
+            for (int i = 0; i < p.size(); i += 8) {
+                explicacoes.add(linha("id", 900 + explicacoes.size(), "giria_associada_id", p.get(i + 6),
+                        "definicao", p.get(i), "exemplo_uso", p.get(i + 2), "aprovada", p.get(i + 3)));
+            }
+            return p.size() / 8;
+        });
+        banco.responder("FROM explicacao WHERE giria_associada_id IN", (sql, p) -> explicacoes);
+
+        PoolConexoes pool = new PoolConexoes(banco.registrar("importacao"), "", "", 0, 1, 1_000, 60_000, 0, 0);
+        try (Connection connection = pool.obterConexao()) {
+            IndiceExplicacoes.getInstancia().carregar(connection, null);
+            DicionarioNomes.CATEGORIAS.carregar(connection);
+            DicionarioNomes.REGIOES.carregar(connection);
+            connection.setAutoCommit(false);
+
+            new ImportadorGirias(connection, 1, 10).importar(arquivo, null);
+        } finally {
+            DicionarioNomes.CATEGORIAS.invalidar();
+            DicionarioNomes.REGIOES.invalidar();
+            pool.fechar();
+        }
+
+        for (String sql : banco.getSqlExecutados()) {
+            assertFalse(sql.contains("IGNORE"), sql);
+            if (sql.startsWith("INSERT INTO")) {
+                assertTrue(sql.contains("ON DUPLICATE KEY UPDATE"), sql);
+            }
+        }
+        int aprovada = girias.get("zuretinha");
+        int reprovada = girias.get("zuretao");
+        assertTrue(IndiceTrigramas.getInstancia().buscarIds("zureta").contains(reprovada));
+        assertTrue(IndiceTrigramas.getInstancia().buscarIds("zuretinha").contains(aprovada));
+        assertEquals(List.of("Zuretinha"), AutocompletarGirias.getInstancia().sugerir("zuret", 10));
+        assertEquals(900, IndiceExplicacoes.getInstancia().buscar("desmiolada", 5).get(0).getExplicacaoId());
+
+        IndiceTrigramas.getInstancia().remover(aprovada);
+        IndiceTrigramas.getInstancia().remover(reprovada);
+        AutocompletarGirias.getInstancia().remover(aprovada);
+        IndiceExplicacoes.getInstancia().remover(900);
+    }
+}
@@ -0,0 +1,34 @@
+-- Contadores de votos em giria e explicacao
+-- Mantidos pelo VotoDAO a cada voto incluído, alterado ou excluído;
+-- VotoDAO.reconciliarContadores recalcula a partir da tabela voto.
+
+USE sistema_girias;
+
+ALTER TABLE giria
+    ADD COLUMN positivos INT NOT NULL DEFAULT 0 AFTER usuario_propositor_id,
+    ADD COLUMN negativos INT NOT NULL DEFAULT 0 AFTER positivos,
+    ADD COLUMN pontuacao INT AS (positivos - negativos) STORED AFTER negativos,
+    ADD INDEX idx_giria_pontuacao (aprovada, pontuacao);
+
+ALTER TABLE explicacao
+    ADD COLUMN positivos INT NOT NULL DEFAULT 0 AFTER giria_associada_id,
+    ADD COLUMN negativos INT NOT NULL DEFAULT 0 AFTER positivos,
+    ADD COLUMN pontuacao INT AS (positivos - negativos) STORED AFTER negativos,
+    ADD INDEX idx_explicacao_pontuacao (giria_associada_id, pontuacao);
+
+-- Preenche os contadores com os votos já existentes
+UPDATE giria g
+JOIN (SELECT objeto_avaliado_id,
+             SUM(tipo = 'POSITIVO') AS positivos,
+             SUM(tipo = 'NEGATIVO') AS negativos
+      FROM voto WHERE tipo_objeto_avaliado = 'GIRIA'
+      GROUP BY objeto_avaliado_id) v ON v.objeto_avaliado_id = g.id
+SET g.positivos = v.positivos, g.negativos = v.negativos;
+
+UPDATE explicacao e
+JOIN (SELECT objeto_avaliado_id,
+             SUM(tipo = 'POSITIVO') AS positivos,
+             SUM(tipo = 'NEGATIVO') AS negativos
+      FROM voto WHERE tipo_objeto_avaliado = 'EXPLICACAO'
+      GROUP BY objeto_avaliado_id) v ON v.objeto_avaliado_id = e.id
+SET e.positivos = v.positivos, e.negativos = v.negativos;
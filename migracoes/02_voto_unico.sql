@@ -0,0 +1,58 @@
+-- Um voto por usuário e objeto avaliado, garantido por chave única
+-- Votos duplicados existentes são removidos antes (fica o mais recente de cada usuário e objeto),
+-- desfazendo seu efeito na reputação dos autores e nos contadores de votos.
+
+USE sistema_girias;
+
+CREATE TEMPORARY TABLE voto_duplicado AS
+SELECT v.id, v.tipo, v.objeto_avaliado_id, v.tipo_objeto_avaliado
+FROM voto v
+JOIN (SELECT usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado, MAX(id) AS manter
+      FROM voto
+      GROUP BY usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado
+      HAVING COUNT(*) > 1) d
+  ON d.usuario_votante_id = v.usuario_votante_id
+ AND d.objeto_avaliado_id = v.objeto_avaliado_id
+ AND d.tipo_objeto_avaliado = v.tipo_objeto_avaliado
+ AND v.id <> d.manter;
+
+-- Reputação dos autores: cada voto removido tinha somado +1 (positivo) ou -1 (negativo)
+UPDATE usuario u
+JOIN (SELECT g.usuario_propositor_id AS usuario_id, SUM(IF(d.tipo = 'POSITIVO', 1, -1)) AS efeito
+      FROM voto_duplicado d
+      JOIN giria g ON g.id = d.objeto_avaliado_id
+      WHERE d.tipo_objeto_avaliado = 'GIRIA'
+      GROUP BY g.usuario_propositor_id) x ON x.usuario_id = u.id
+SET u.reputacao = u.reputacao - x.efeito;
+
+UPDATE usuario u
+JOIN (SELECT e.usuario_propositor_id AS usuario_id, SUM(IF(d.tipo = 'POSITIVO', 1, -1)) AS efeito
+      FROM voto_duplicado d
+      JOIN explicacao e ON e.id = d.objeto_avaliado_id
+      WHERE d.tipo_objeto_avaliado = 'EXPLICACAO'
+      GROUP BY e.usuario_propositor_id) x ON x.usuario_id = u.id
+SET u.reputacao = u.reputacao - x.efeito;
+
+DELETE v FROM voto v JOIN voto_duplicado d ON d.id = v.id;
+
+-- Contadores: todo objeto afetado continua com um voto, então basta recalcular pelos votos restantes
+UPDATE giria g
+JOIN (SELECT objeto_avaliado_id,
+             SUM(tipo = 'POSITIVO') AS positivos,
+             SUM(tipo = 'NEGATIVO') AS negativos
+      FROM voto WHERE tipo_objeto_avaliado = 'GIRIA'
+      GROUP BY objeto_avaliado_id) v ON v.objeto_avaliado_id = g.id
+SET g.positivos = v.positivos, g.negativos = v.negativos;
+
+UPDATE explicacao e
+JOIN (SELECT objeto_avaliado_id,
+             SUM(tipo = 'POSITIVO') AS positivos,
+             SUM(tipo = 'NEGATIVO') AS negativos
+      FROM voto WHERE tipo_objeto_avaliado = 'EXPLICACAO'
+      GROUP BY objeto_avaliado_id) v ON v.objeto_avaliado_id = e.id
+SET e.positivos = v.positivos, e.negativos = v.negativos;
+
+DROP TEMPORARY TABLE voto_duplicado;
+
+ALTER TABLE voto
+    ADD UNIQUE KEY uk_voto_usuario_objeto (usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado);
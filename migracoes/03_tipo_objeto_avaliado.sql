@@ -0,0 +1,42 @@
+-- voto.tipo_objeto_avaliado passa de VARCHAR(50) ('GIRIA'/'EXPLICACAO') para um código de 1 byte
+-- (1 = GIRIA, 2 = EXPLICACAO; ver modelo.TipoObjetoAvaliado). A coluna faz parte da chave única e
+-- do índice por objeto, então a economia aparece na linha e nos dois índices.
+-- O relatório de tamanho usa as estatísticas do InnoDB, atualizadas com ANALYZE TABLE.
+
+USE sistema_girias;
+
+ANALYZE TABLE voto;
+SELECT 'antes' AS momento, table_rows AS linhas,
+       ROUND(data_length / 1024 / 1024, 2) AS dados_mb,
+       ROUND(index_length / 1024 / 1024, 2) AS indices_mb,
+       avg_row_length AS bytes_por_linha
+FROM information_schema.tables
+WHERE table_schema = DATABASE() AND table_name = 'voto';
+
+ALTER TABLE voto ADD COLUMN tipo_objeto_codigo TINYINT UNSIGNED NOT NULL DEFAULT 0 AFTER tipo_objeto_avaliado;
+
+UPDATE voto SET tipo_objeto_codigo = CASE tipo_objeto_avaliado
+    WHEN 'GIRIA' THEN 1
+    WHEN 'EXPLICACAO' THEN 2
+END;
+
+-- Em modo estrito um tipo desconhecido já faz o UPDATE falhar (o CASE devolve NULL); deve retornar 0
+SELECT COUNT(*) AS tipos_invalidos FROM voto WHERE tipo_objeto_codigo = 0;
+
+-- Uma única alteração: a tabela é reconstruída uma vez, já com os índices novos
+ALTER TABLE voto
+    DROP INDEX uk_voto_usuario_objeto,
+    DROP INDEX idx_voto_objeto,
+    DROP COLUMN tipo_objeto_avaliado,
+    RENAME COLUMN tipo_objeto_codigo TO tipo_objeto_avaliado,
+    ALTER COLUMN tipo_objeto_avaliado DROP DEFAULT,
+    ADD UNIQUE KEY uk_voto_usuario_objeto (usuario_votante_id, objeto_avaliado_id, tipo_objeto_avaliado),
+    ADD INDEX idx_voto_objeto (objeto_avaliado_id, tipo_objeto_avaliado);
+
+ANALYZE TABLE voto;
+SELECT 'depois' AS momento, table_rows AS linhas,
+       ROUND(data_length / 1024 / 1024, 2) AS dados_mb,
+       ROUND(index_length / 1024 / 1024, 2) AS indices_mb,
+       avg_row_length AS bytes_por_linha
+FROM information_schema.tables
+WHERE table_schema = DATABASE() AND table_name = 'voto';
@@ -0,0 +1,41 @@
+-- Séries de votos por hora e por dia, para consultas de tendência sem varrer a tabela voto
+-- Mantidas pelo VotoDAO a cada voto; TendenciaDAO.reconstruir refaz um intervalo de dias.
+
+USE sistema_girias;
+
+CREATE TABLE voto_hora (
+    tipo_objeto_avaliado TINYINT UNSIGNED NOT NULL,
+    objeto_avaliado_id INT NOT NULL,
+    periodo DATETIME NOT NULL, -- Início da hora
+    positivos INT NOT NULL DEFAULT 0,
+    negativos INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (tipo_objeto_avaliado, objeto_avaliado_id, periodo),
+    INDEX idx_voto_hora_periodo (tipo_objeto_avaliado, periodo)
+);
+
+CREATE TABLE voto_dia (
+    tipo_objeto_avaliado TINYINT UNSIGNED NOT NULL,
+    objeto_avaliado_id INT NOT NULL,
+    periodo DATETIME NOT NULL, -- Início do dia
+    positivos INT NOT NULL DEFAULT 0,
+    negativos INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (tipo_objeto_avaliado, objeto_avaliado_id, periodo),
+    INDEX idx_voto_dia_periodo (tipo_objeto_avaliado, periodo)
+);
+
+-- Usado pela reconstrução, que lê a tabela voto um dia por vez
+ALTER TABLE voto ADD INDEX idx_voto_data (data_voto);
+
+-- Preenche as séries com o histórico existente. Em tabelas muito grandes, prefira
+-- TendenciaDAO.reconstruir, que faz um commit por dia.
+INSERT INTO voto_hora (tipo_objeto_avaliado, objeto_avaliado_id, periodo, positivos, negativos)
+SELECT tipo_objeto_avaliado, objeto_avaliado_id, DATE_FORMAT(data_voto, '%Y-%m-%d %H:00:00') AS inicio,
+       SUM(tipo = 'POSITIVO'), SUM(tipo = 'NEGATIVO')
+FROM voto
+GROUP BY tipo_objeto_avaliado, objeto_avaliado_id, inicio;
+
+INSERT INTO voto_dia (tipo_objeto_avaliado, objeto_avaliado_id, periodo, positivos, negativos)
+SELECT tipo_objeto_avaliado, objeto_avaliado_id, DATE(data_voto) AS inicio,
+       SUM(tipo = 'POSITIVO'), SUM(tipo = 'NEGATIVO')
+FROM voto
+GROUP BY tipo_objeto_avaliado, objeto_avaliado_id, inicio;
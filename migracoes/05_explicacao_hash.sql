@@ -0,0 +1,49 @@
+-- Hash da definição normalizada das explicações, com chave única por gíria
+-- Substitui a busca de duplicadas por "definicao = ?" (TEXT, sem índice) por um upsert indexado.
+-- A expressão do hash é a mesma de ExplicacaoDAO.SQL_HASH_DEFINICAO.
+-- Explicações repetidas existentes são removidas antes (fica a mais antiga de cada gíria e
+-- definição), junto com seus votos, desfazendo o efeito desses votos na reputação dos autores.
+
+USE sistema_girias;
+
+ALTER TABLE explicacao ADD COLUMN definicao_hash BINARY(32) NULL AFTER definicao;
+
+UPDATE explicacao
+SET definicao_hash = UNHEX(SHA2(LOWER(TRIM(REGEXP_REPLACE(definicao, '[[:space:]]+', ' '))), 256));
+
+CREATE TEMPORARY TABLE explicacao_duplicada AS
+SELECT e.id, e.usuario_propositor_id
+FROM explicacao e
+JOIN (SELECT giria_associada_id, definicao_hash, MIN(id) AS manter
+      FROM explicacao
+      GROUP BY giria_associada_id, definicao_hash
+      HAVING COUNT(*) > 1) d
+  ON d.giria_associada_id = e.giria_associada_id
+ AND d.definicao_hash = e.definicao_hash
+ AND e.id <> d.manter;
+
+-- Reputação dos autores: cada voto recebido pela explicação removida tinha somado +1 ou -1
+UPDATE usuario u
+JOIN (SELECT d.usuario_propositor_id AS usuario_id, SUM(IF(v.tipo = 'POSITIVO', 1, -1)) AS efeito
+      FROM explicacao_duplicada d
+      JOIN voto v ON v.objeto_avaliado_id = d.id AND v.tipo_objeto_avaliado = 2
+      GROUP BY d.usuario_propositor_id) x ON x.usuario_id = u.id
+SET u.reputacao = u.reputacao - x.efeito;
+
+DELETE v FROM voto v
+JOIN explicacao_duplicada d ON v.objeto_avaliado_id = d.id AND v.tipo_objeto_avaliado = 2;
+
+DELETE s FROM voto_hora s
+JOIN explicacao_duplicada d ON s.objeto_avaliado_id = d.id AND s.tipo_objeto_avaliado = 2;
+
+DELETE s FROM voto_dia s
+JOIN explicacao_duplicada d ON s.objeto_avaliado_id = d.id AND s.tipo_objeto_avaliado = 2;
+
+DELETE e FROM explicacao e
+JOIN explicacao_duplicada d ON e.id = d.id;
+
+DROP TEMPORARY TABLE explicacao_duplicada;
+
+ALTER TABLE explicacao
+    MODIFY definicao_hash BINARY(32) NOT NULL,
+    ADD UNIQUE KEY uk_explicacao_definicao (giria_associada_id, definicao_hash);
@@ -0,0 +1,17 @@
+-- Melhor explicação de cada gíria: a aprovada de maior pontuação (no empate, a de menor id)
+-- Mantida pelos DAOs a cada voto, aprovação, alteração e exclusão de explicação;
+-- GiriaDAO.recalcularMelhoresExplicacoes recalcula a partir da tabela explicacao.
+-- Sem chave estrangeira: com giria -> explicacao e explicacao -> giria (ON DELETE CASCADE),
+-- excluir uma gíria voltaria à própria gíria pelo SET NULL e o MySQL recusaria a exclusão.
+
+USE sistema_girias;
+
+ALTER TABLE giria
+    ADD COLUMN melhor_explicacao_id INT NULL AFTER pontuacao,
+    ADD INDEX idx_giria_melhor_explicacao (melhor_explicacao_id);
+
+UPDATE giria g
+SET g.melhor_explicacao_id = (SELECT e.id FROM explicacao e
+                              WHERE e.giria_associada_id = g.id AND e.aprovada = true
+                              ORDER BY e.pontuacao DESC, e.id
+                              LIMIT 1);